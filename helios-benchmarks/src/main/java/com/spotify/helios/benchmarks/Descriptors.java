@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import com.spotify.helios.common.descriptors.AgentInfo;
+import com.spotify.helios.common.descriptors.Deployment;
+import com.spotify.helios.common.descriptors.DeploymentGroup;
+import com.spotify.helios.common.descriptors.DeploymentGroupStatus;
+import com.spotify.helios.common.descriptors.DockerVersion;
+import com.spotify.helios.common.descriptors.Goal;
+import com.spotify.helios.common.descriptors.HealthCheck;
+import com.spotify.helios.common.descriptors.HostInfo;
+import com.spotify.helios.common.descriptors.HostSelector;
+import com.spotify.helios.common.descriptors.HostStatus;
+import com.spotify.helios.common.descriptors.Job;
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.descriptors.PortMapping;
+import com.spotify.helios.common.descriptors.Resources;
+import com.spotify.helios.common.descriptors.RolloutOptions;
+import com.spotify.helios.common.descriptors.RolloutTask;
+import com.spotify.helios.common.descriptors.ServiceEndpoint;
+import com.spotify.helios.common.descriptors.ServicePorts;
+import com.spotify.helios.common.descriptors.TaskStatus;
+import com.spotify.helios.common.descriptors.TimeToRunning;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.spotify.helios.common.descriptors.TaskStatus.State.RUNNING;
+
+/**
+ * Descriptors of realistic sizes for the benchmarks, modelled on what production agents and
+ * masters store in ZooKeeper and serve over HTTP.
+ */
+final class Descriptors {
+
+  private Descriptors() {
+  }
+
+  /**
+   * @return A job with the environment, ports, registrations, volumes and health check of a
+   *         typical production service.
+   */
+  static Job job(final String name, final String version) {
+    final Map<String, String> env = Maps.newHashMap();
+    for (int i = 0; i < 20; i++) {
+      env.put("ENVIRONMENT_VARIABLE_" + i, "some-reasonably-long-value-for-variable-" + i);
+    }
+
+    final Map<String, PortMapping> ports = Maps.newHashMap();
+    final Map<ServiceEndpoint, ServicePorts> registration = Maps.newHashMap();
+    for (final String port : ImmutableList.of("http", "http-admin", "hermes", "jmx", "debug")) {
+      ports.put(port, PortMapping.of(8080 + ports.size()));
+      registration.put(ServiceEndpoint.of(name + "-" + port, ServiceEndpoint.HTTP),
+                       ServicePorts.of(port));
+    }
+
+    return Job.newBuilder()
+        .setName(name)
+        .setVersion(version)
+        .setImage("registry.example.com:80/team/" + name + ":" + version)
+        .setCommand(ImmutableList.of("/usr/bin/java", "-Xmx2g", "-jar", "/srv/" + name + ".jar",
+                                     "server", "/etc/" + name + "/config.yaml"))
+        .setEnv(env)
+        .setResources(new Resources(2L << 30, 4L << 30, 1024L, "0-3"))
+        .setPorts(ports)
+        .setRegistration(registration)
+        .setRegistrationDomain("services.example.com")
+        .setGracePeriod(30)
+        .setVolumes(ImmutableMap.of("/var/log/" + name, "/logs",
+                                    "/etc/" + name + ":ro", "/etc/" + name))
+        .setHealthCheck(HealthCheck.newHttpHealthCheck()
+                            .setPort("http-admin")
+                            .setPath("/healthcheck")
+                            .build())
+        .setCreatingUser("benchmark")
+        .build();
+  }
+
+  static TaskStatus taskStatus(final Job job) {
+    final Map<String, PortMapping> ports = Maps.newHashMap();
+    int external = 20000;
+    for (final Map.Entry<String, PortMapping> entry : job.getPorts().entrySet()) {
+      ports.put(entry.getKey(), entry.getValue().withExternalPort(external++));
+    }
+    return TaskStatus.newBuilder()
+        .setJob(job)
+        .setGoal(Goal.START)
+        .setState(RUNNING)
+        .setContainerId("9a5ea55bd1e3e4ab8e8a4ea1cfef8c7bd7b9b2dbd1f2b9f59e3a4cd8bd8a0a1f")
+        .setPorts(ports)
+        .setEnv(job.getEnv())
+        .setTimeToRunning(new TimeToRunning(12000L, 300L, 800L, 4000L, 17100L))
+        .build();
+  }
+
+  /**
+   * @param jobs The number of jobs deployed to the host.
+   * @return The status of a host running the given number of jobs.
+   */
+  static HostStatus hostStatus(final int jobs) {
+    final Map<JobId, Deployment> deployments = Maps.newHashMap();
+    final Map<JobId, TaskStatus> statuses = Maps.newHashMap();
+    for (int i = 0; i < jobs; i++) {
+      final Job job = job("service-" + i, "1.0." + i);
+      deployments.put(job.getId(), Deployment.of(job.getId(), Goal.START, "benchmark"));
+      statuses.put(job.getId(), taskStatus(job));
+    }
+
+    final Map<String, String> environment = Maps.newHashMap();
+    for (int i = 0; i < 10; i++) {
+      environment.put("SITE_" + i, "value-" + i);
+    }
+
+    return HostStatus.newBuilder()
+        .setStatus(HostStatus.Status.UP)
+        .setJobs(deployments)
+        .setStatuses(statuses)
+        .setHostInfo(hostInfo("agent-1.example.com"))
+        .setAgentInfo(agentInfo("agent-1.example.com"))
+        .setEnvironment(environment)
+        .setLabels(ImmutableMap.of("pool", "general", "site", "lon", "role", "service"))
+        .build();
+  }
+
+  static HostInfo hostInfo(final String hostname) {
+    return HostInfo.newBuilder()
+        .setHostname(hostname)
+        .setUname("Linux " + hostname + " 3.13.0-43-generic x86_64")
+        .setArchitecture("amd64")
+        .setOsName("Linux")
+        .setOsVersion("3.13.0-43-generic")
+        .setCpus(32)
+        .setLoadAvg(3.4)
+        .setMemoryTotalBytes(128L << 30)
+        .setMemoryFreeBytes(64L << 30)
+        .setSwapTotalBytes(0)
+        .setSwapFreeBytes(0)
+        .setDockerVersion(DockerVersion.builder()
+                              .apiVersion("1.18")
+                              .arch("amd64")
+                              .gitCommit("4749651")
+                              .goVersion("go1.4.2")
+                              .kernelVersion("3.13.0-43-generic")
+                              .os("linux")
+                              .version("1.6.0")
+                              .build())
+        .setDockerHost("unix:///var/run/docker.sock")
+        .build();
+  }
+
+  static AgentInfo agentInfo(final String name) {
+    return AgentInfo.newBuilder()
+        .setName(name)
+        .setVmName("Java HotSpot(TM) 64-Bit Server VM")
+        .setVmVendor("Oracle Corporation")
+        .setVmVersion("24.80-b11")
+        .setSpecName("Java Virtual Machine Specification")
+        .setSpecVendor("Oracle Corporation")
+        .setSpecVersion("1.7")
+        .setInputArguments(ImmutableList.of("-Xmx512m", "-XX:+UseG1GC"))
+        .setUptime(3600000)
+        .setStartTime(1430000000000L)
+        .setVersion("0.8.0")
+        .build();
+  }
+
+  /**
+   * @param hosts The number of hosts in the deployment group.
+   * @return The status of a deployment group rolling out to the given number of hosts.
+   */
+  static DeploymentGroupStatus deploymentGroupStatus(final int hosts) {
+    final Job job = job("service", "2.0.0");
+    final DeploymentGroup deploymentGroup = DeploymentGroup.newBuilder()
+        .setName("service-production")
+        .setJob(job.getId())
+        .setHostSelectors(ImmutableList.of(HostSelector.parse("pool=general"),
+                                           HostSelector.parse("role=service")))
+        .setRolloutOptions(RolloutOptions.newBuilder()
+                               .setTimeout(RolloutOptions.DEFAULT_TIMEOUT)
+                               .setParallelism(RolloutOptions.DEFAULT_PARALLELISM)
+                               .build())
+        .build();
+
+    final List<RolloutTask> tasks = Lists.newArrayList();
+    for (int i = 0; i < hosts; i++) {
+      final String host = "agent-" + i + ".example.com";
+      tasks.add(RolloutTask.of(RolloutTask.Action.UNDEPLOY_OLD_JOBS, host));
+      tasks.add(RolloutTask.of(RolloutTask.Action.DEPLOY_NEW_JOB, host));
+      tasks.add(RolloutTask.of(RolloutTask.Action.AWAIT_RUNNING, host));
+    }
+
+    return DeploymentGroupStatus.newBuilder()
+        .setDeploymentGroup(deploymentGroup)
+        .setState(DeploymentGroupStatus.State.ROLLING_OUT)
+        .setRolloutTasks(tasks)
+        .setTaskIndex(tasks.size() / 2)
+        .setSuccessfulIterations(3)
+        .setVersion(7)
+        .build();
+  }
+}
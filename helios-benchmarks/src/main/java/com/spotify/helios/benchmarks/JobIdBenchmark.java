@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.benchmarks;
+
+import com.spotify.helios.common.Json;
+import com.spotify.helios.common.descriptors.Job;
+import com.spotify.helios.common.descriptors.JobId;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Job id parsing, done for every job id in a REST path or ZooKeeper node name, and job hashing,
+ * done every time a job is built.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class JobIdBenchmark {
+
+  private Job job;
+  private Job.Builder builder;
+  private String jobId;
+  private String shortJobId;
+
+  @Setup
+  public void setUp() {
+    job = Descriptors.job("service", "1.0.0");
+    builder = job.toBuilder();
+    jobId = job.getId().toString();
+    shortJobId = job.getId().toShortString();
+  }
+
+  @Benchmark
+  public JobId parseJobId() throws Exception {
+    return JobId.parse(jobId);
+  }
+
+  @Benchmark
+  public JobId parseShortJobId() throws Exception {
+    return JobId.parse(shortJobId);
+  }
+
+  @Benchmark
+  public JobId fromString() {
+    return JobId.fromString(jobId);
+  }
+
+  @Benchmark
+  public byte[] sha1digest() throws Exception {
+    return Json.sha1digest(job);
+  }
+
+  /**
+   * Computes the job hash from the normalized job configuration and derives the job id.
+   */
+  @Benchmark
+  public Job buildJob() {
+    return builder.build();
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.benchmarks;
+
+import com.spotify.helios.common.Json;
+import com.spotify.helios.common.descriptors.Job;
+import com.spotify.helios.common.descriptors.TaskStatus;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization and deserialization of the job and task status descriptors, as done for every
+ * ZooKeeper write and read of a job or task and for every REST request or response carrying one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class JobJsonBenchmark {
+
+  private Job job;
+  private byte[] jobBytes;
+  private TaskStatus taskStatus;
+  private byte[] taskStatusBytes;
+
+  @Setup
+  public void setUp() throws Exception {
+    job = Descriptors.job("service", "1.0.0");
+    jobBytes = Json.asBytes(job);
+    taskStatus = Descriptors.taskStatus(job);
+    taskStatusBytes = Json.asBytes(taskStatus);
+  }
+
+  @Benchmark
+  public byte[] serializeJob() throws Exception {
+    return Json.asBytes(job);
+  }
+
+  @Benchmark
+  public Job deserializeJob() throws Exception {
+    return Json.read(jobBytes, Job.class);
+  }
+
+  @Benchmark
+  public byte[] serializeTaskStatus() throws Exception {
+    return Json.asBytes(taskStatus);
+  }
+
+  @Benchmark
+  public TaskStatus deserializeTaskStatus() throws Exception {
+    return Json.read(taskStatusBytes, TaskStatus.class);
+  }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+import com.spotify.helios.TemporaryPorts;
+import com.spotify.helios.ZooKeeperTestingServerManager;
+import com.spotify.helios.client.HeliosClient;
+import com.spotify.helios.common.Json;
+import com.spotify.helios.common.descriptors.Deployment;
+import com.spotify.helios.common.descriptors.HostStatus;
+import com.spotify.helios.common.descriptors.Job;
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.descriptors.JobStatus;
+import com.spotify.helios.common.protocol.JobDeployResponse;
+import com.spotify.helios.common.protocol.JobUndeployResponse;
+import com.spotify.helios.master.MasterMain;
+import com.spotify.helios.master.ZooKeeperMasterModel;
+import com.spotify.helios.servicescommon.coordination.DefaultZooKeeperClient;
+import com.spotify.helios.servicescommon.coordination.Paths;
+import com.spotify.helios.servicescommon.coordination.ZooKeeperClientProvider;
+import com.spotify.helios.servicescommon.coordination.ZooKeeperModelReporter;
+import com.spotify.logging.LoggingConfigurator;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.curator.framework.CuratorFramework;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.spotify.helios.common.descriptors.Goal.START;
+import static com.spotify.logging.LoggingConfigurator.Level.WARN;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Latency and throughput of the master HTTP API, as seen by concurrent {@link HeliosClient}s,
+ * against a cluster of the given size. The master runs in-process on top of a ZooKeeper server
+ * seeded with hosts, jobs and deployments, so that the cost of {@link ZooKeeperMasterModel} is
+ * what is measured. Run with {@code -t} to change the number of concurrent clients.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Threads(8)
+@Fork(1)
+public class MasterApiBenchmark {
+
+  /**
+   * The number of hosts registered with the master.
+   */
+  @Param({"100", "1000"})
+  public int hosts;
+
+  /**
+   * The number of jobs created in the master.
+   */
+  @Param({"50"})
+  public int jobs;
+
+  /**
+   * The number of deployments, spread evenly across hosts and jobs. At most hosts * jobs.
+   */
+  @Param({"1000"})
+  public int deployments;
+
+  /**
+   * Whether the master is given a state directory, so that it periodically persists snapshots
+   * of the cluster state. Off by default, as snapshots are not part of any API call.
+   */
+  @Param({"false"})
+  public boolean snapshots;
+
+  private final AtomicInteger clients = new AtomicInteger();
+
+  private ZooKeeperTestingServerManager zk;
+  private MasterMain master;
+  private Path stateDirectory;
+  private String endpoint;
+  private List<String> hostNames;
+  private List<JobId> jobIds;
+  private ZooKeeperMasterModel model;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    checkArgument(deployments <= hosts * jobs, "at most hosts * jobs deployments are possible");
+    LoggingConfigurator.configureDefaults("helios-benchmarks", WARN);
+
+    zk = new ZooKeeperTestingServerManager();
+    zk.awaitUp(30, SECONDS);
+    final CuratorFramework curator = zk.curator();
+    for (final String path : ImmutableList.of(Paths.configHosts(), Paths.configJobs(),
+                                              Paths.configJobRefs(), Paths.statusHosts(),
+                                              Paths.statusMasters(), Paths.historyJobs())) {
+      curator.newNamespaceAwareEnsurePath(path).ensure(curator.getZookeeperClient());
+    }
+    model = new ZooKeeperMasterModel(
+        new ZooKeeperClientProvider(new DefaultZooKeeperClient(curator),
+                                    ZooKeeperModelReporter.noop()), "benchmark");
+    seed(curator);
+
+    final TemporaryPorts ports = TemporaryPorts.create();
+    endpoint = "http://127.0.0.1:" + ports.localPort("http");
+    final List<String> args = Lists.newArrayList(
+        "--no-log-setup",
+        "--no-metrics",
+        "--name", "benchmark-master",
+        "--domain", "",
+        "--zk", zk.connectString(),
+        "--http", endpoint,
+        "--admin", String.valueOf(ports.localPort("admin")));
+    if (snapshots) {
+      stateDirectory = Files.createTempDirectory("helios-master-benchmark");
+      args.add("--state-dir");
+      args.add(stateDirectory.toString());
+    }
+    master = new MasterMain(args.toArray(new String[args.size()]));
+    master.startAsync().awaitRunning();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    if (master != null) {
+      master.stopAsync().awaitTerminated();
+    }
+    if (zk != null) {
+      zk.close();
+    }
+    if (stateDirectory != null) {
+      FileUtils.deleteQuietly(stateDirectory.toFile());
+    }
+  }
+
+  /**
+   * Writes what agents and users would have written: registered hosts that are up and report
+   * their host info, agent info and labels, jobs, and deployments with running task statuses.
+   */
+  private void seed(final CuratorFramework curator) throws Exception {
+    hostNames = Lists.newArrayList();
+    for (int i = 0; i < hosts; i++) {
+      final String host = "agent-" + i + ".example.com";
+      hostNames.add(host);
+      model.registerHost(host, "id-" + i);
+      create(curator, Paths.statusHostUp(host), new byte[0]);
+      create(curator, Paths.statusHostInfo(host), Json.asBytes(Descriptors.hostInfo(host)));
+      create(curator, Paths.statusHostAgentInfo(host),
+             Json.asBytes(Descriptors.agentInfo(host)));
+      create(curator, Paths.statusHostLabels(host), Json.asBytes(
+          ImmutableMap.of("pool", "pool-" + i % 3, "site", "site-" + i % 2, "role", "service")));
+    }
+
+    final List<Job> jobList = Lists.newArrayList();
+    jobIds = Lists.newArrayList();
+    for (int i = 0; i < jobs; i++) {
+      final Job job = Descriptors.job("service-" + i, "1.0." + i);
+      model.addJob(job);
+      jobList.add(job);
+      jobIds.add(job.getId());
+    }
+
+    for (int i = 0; i < deployments; i++) {
+      final String host = hostNames.get(i % hosts);
+      final Job job = jobList.get((i / hosts) % jobs);
+      model.deployJob(host, Deployment.of(job.getId(), START, "benchmark"));
+      create(curator, Paths.statusHostJob(host, job.getId()),
+             Descriptors.taskStatus(job).toJsonBytes());
+    }
+  }
+
+  private static void create(final CuratorFramework curator, final String path,
+                             final byte[] data) throws Exception {
+    curator.create().creatingParentsIfNeeded().forPath(path, data);
+  }
+
+  /**
+   * A client per benchmark thread, as each {@link HeliosClient} only has a handful of threads. Each
+   * thread also deploys a job of its own, so that threads don't conflict with each other.
+   */
+  @State(Scope.Thread)
+  public static class Client {
+
+    MasterApiBenchmark cluster;
+    HeliosClient client;
+    JobId job;
+
+    @Setup(Level.Trial)
+    public void setUp(final MasterApiBenchmark cluster) throws Exception {
+      this.cluster = cluster;
+      client = HeliosClient.newBuilder()
+          .setUser("benchmark")
+          .setEndpoints(cluster.endpoint)
+          .build();
+      final Job job = Descriptors.job("benchmark-" + cluster.clients.incrementAndGet(), "1.0.0");
+      cluster.model.addJob(job);
+      this.job = job.getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      client.close();
+    }
+  }
+
+  /**
+   * A random host that the thread's job is undeployed from after each benchmark invocation.
+   */
+  @State(Scope.Thread)
+  public static class DeployTarget {
+
+    Client client;
+    String host;
+
+    @Setup(Level.Invocation)
+    public void setUp(final Client client) {
+      this.client = client;
+      host = client.cluster.randomHost();
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws Exception {
+      client.cluster.model.undeployJob(host, client.job);
+    }
+  }
+
+  /**
+   * A random host that the thread's job is deployed to before each benchmark invocation.
+   */
+  @State(Scope.Thread)
+  public static class UndeployTarget {
+
+    Client client;
+    String host;
+
+    @Setup(Level.Invocation)
+    public void setUp(final Client client) throws Exception {
+      this.client = client;
+      host = client.cluster.randomHost();
+      client.cluster.model.deployJob(host, Deployment.of(client.job, START, "benchmark"));
+    }
+  }
+
+  private String randomHost() {
+    return hostNames.get(ThreadLocalRandom.current().nextInt(hostNames.size()));
+  }
+
+  private JobId randomJob() {
+    return jobIds.get(ThreadLocalRandom.current().nextInt(jobIds.size()));
+  }
+
+  @Benchmark
+  public Map<JobId, Job> listJobs(final Client client) throws Exception {
+    return client.client.jobs().get();
+  }
+
+  @Benchmark
+  public Map<String, HostStatus> hostStatuses(final Client client) throws Exception {
+    return client.client.hostStatuses(hostNames).get();
+  }
+
+  @Benchmark
+  public JobStatus jobStatus(final Client client) throws Exception {
+    return client.client.jobStatus(randomJob()).get();
+  }
+
+  @Benchmark
+  public JobDeployResponse deploy(final DeployTarget target) throws Exception {
+    final Client client = target.client;
+    return client.client.deploy(Deployment.of(client.job, START), target.host).get();
+  }
+
+  @Benchmark
+  public JobUndeployResponse undeploy(final UndeployTarget target) throws Exception {
+    final Client client = target.client;
+    return client.client.undeploy(client.job, target.host).get();
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.benchmarks;
+
+import com.spotify.helios.common.Json;
+import com.spotify.helios.common.descriptors.DeploymentGroupStatus;
+import com.spotify.helios.common.descriptors.HostStatus;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization and deserialization of the host and deployment group statuses, which grow with the
+ * number of jobs on a host and the number of hosts in a deployment group respectively.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class StatusJsonBenchmark {
+
+  /**
+   * The number of jobs on the host and of hosts in the deployment group.
+   */
+  @Param({"10", "100"})
+  public int size;
+
+  private HostStatus hostStatus;
+  private byte[] hostStatusBytes;
+  private DeploymentGroupStatus deploymentGroupStatus;
+  private byte[] deploymentGroupStatusBytes;
+
+  @Setup
+  public void setUp() throws Exception {
+    hostStatus = Descriptors.hostStatus(size);
+    hostStatusBytes = Json.asBytes(hostStatus);
+    deploymentGroupStatus = Descriptors.deploymentGroupStatus(size);
+    deploymentGroupStatusBytes = Json.asBytes(deploymentGroupStatus);
+  }
+
+  @Benchmark
+  public byte[] serializeHostStatus() throws Exception {
+    return Json.asBytes(hostStatus);
+  }
+
+  @Benchmark
+  public HostStatus deserializeHostStatus() throws Exception {
+    return Json.read(hostStatusBytes, HostStatus.class);
+  }
+
+  @Benchmark
+  public byte[] serializeDeploymentGroupStatus() throws Exception {
+    return Json.asBytes(deploymentGroupStatus);
+  }
+
+  @Benchmark
+  public DeploymentGroupStatus deserializeDeploymentGroupStatus() throws Exception {
+    return Json.read(deploymentGroupStatusBytes, DeploymentGroupStatus.class);
+  }
+}
@@ -0,0 +1,530 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.benchmarks.rollout;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+
+import com.spotify.helios.ZooKeeperTestingServerManager;
+import com.spotify.helios.common.Json;
+import com.spotify.helios.common.descriptors.Deployment;
+import com.spotify.helios.common.descriptors.DeploymentGroup;
+import com.spotify.helios.common.descriptors.DeploymentGroupStatus;
+import com.spotify.helios.common.descriptors.HostSelector;
+import com.spotify.helios.common.descriptors.Job;
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.descriptors.RolloutOptions;
+import com.spotify.helios.common.descriptors.RolloutTask;
+import com.spotify.helios.common.descriptors.TaskStatus;
+import com.spotify.helios.master.MasterLeaderElection;
+import com.spotify.helios.master.ZooKeeperMasterModel;
+import com.spotify.helios.rollingupdate.RollingUpdateService;
+import com.spotify.helios.servicescommon.coordination.DefaultZooKeeperClient;
+import com.spotify.helios.servicescommon.coordination.Paths;
+import com.spotify.helios.servicescommon.coordination.ZooKeeperClient;
+import com.spotify.helios.servicescommon.coordination.ZooKeeperClientProvider;
+import com.spotify.helios.servicescommon.coordination.ZooKeeperModelReporter;
+import com.spotify.helios.servicescommon.statistics.NoopMasterMetrics;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.zookeeper.KeeperException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.spotify.helios.common.descriptors.DeploymentGroupStatus.State.DONE;
+import static com.spotify.helios.common.descriptors.DeploymentGroupStatus.State.FAILED;
+import static com.spotify.helios.common.descriptors.DeploymentGroupStatus.State.ROLLING_OUT;
+import static com.spotify.helios.common.descriptors.Goal.START;
+import static com.spotify.helios.common.descriptors.TaskStatus.State.PULLING_IMAGE;
+import static com.spotify.helios.common.descriptors.TaskStatus.State.RUNNING;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Simulates a rolling update of a deployment group, to see how long it takes and how much
+ * ZooKeeper traffic it causes for a given fleet size and {@link RolloutOptions}.
+ *
+ * <p>The real {@link RollingUpdateService}, rollout planner and {@link ZooKeeperMasterModel} run
+ * against an in-process ZooKeeper server, but time is simulated: every tick advances a
+ * {@link FakeClock} by the rolling update interval and runs each reactor once. Simulated hosts
+ * write task statuses for jobs deployed to them, and report them as RUNNING after a randomly
+ * sampled delay, so results are repeatable for a given seed.
+ */
+public class RolloutSimulator {
+
+  /**
+   * How often {@link RollingUpdateService} runs its reactors.
+   */
+  private static final long TICK_MILLIS = SECONDS.toMillis(1);
+
+  private static final String MASTER = "simulator";
+  private static final String GROUP = "simulated-group";
+  private static final Map<String, String> LABELS = ImmutableMap.of("role", "simulated");
+  private static final Job OLD_JOB = job("1");
+  private static final Job NEW_JOB = job("2");
+
+  private final int hosts;
+  private final RolloutOptions rolloutOptions;
+  private final long minStartMillis;
+  private final long meanStartMillis;
+  private final double stuckProbability;
+  private final long seed;
+  private final long maxTicks;
+  private final int hostUpdateTicks;
+
+  private RolloutSimulator(final Builder builder) {
+    this.hosts = builder.hosts;
+    this.rolloutOptions = RolloutOptions.newBuilder()
+        .setParallelism(builder.parallelism)
+        .setTimeout(builder.timeoutSeconds)
+        .build();
+    this.minStartMillis = builder.minStartMillis;
+    this.meanStartMillis = builder.meanStartMillis;
+    this.stuckProbability = builder.stuckProbability;
+    this.seed = builder.seed;
+    this.maxTicks = builder.maxTicks;
+    this.hostUpdateTicks = builder.hostUpdateTicks;
+    checkArgument(hostUpdateTicks > 0, "hostUpdateTicks must be positive");
+    checkArgument(hosts > 0, "hosts must be positive");
+    checkArgument(builder.parallelism > 0, "parallelism must be positive");
+    checkArgument(meanStartMillis >= minStartMillis, "meanStartMillis is less than minStartMillis");
+  }
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  /**
+   * Runs the simulation against a new ZooKeeper server.
+   *
+   * @return How the rollout went.
+   * @throws Exception If the simulation could not be set up.
+   */
+  public Result run() throws Exception {
+    final ZooKeeperTestingServerManager zk = new ZooKeeperTestingServerManager();
+    try {
+      zk.awaitUp(30, SECONDS);
+      return run(zk.curator());
+    } finally {
+      zk.curator().close();
+      zk.close();
+    }
+  }
+
+  private Result run(final CuratorFramework curator) throws Exception {
+    final ZooKeeperClient client = new DefaultZooKeeperClient(curator);
+    for (final String path : ImmutableList.of(Paths.configHosts(), Paths.configJobs(),
+                                              Paths.configJobRefs(), Paths.configJobExpirations(),
+                                              Paths.statusHosts(), Paths.statusMasters(),
+                                              Paths.historyJobs(), Paths.configDeploymentGroups(),
+                                              Paths.statusDeploymentGroups())) {
+      client.ensurePath(path);
+    }
+
+    // The setup and the simulated hosts use a model of their own, so that only the ZooKeeper
+    // calls made by the rolling update are counted
+    final FakeClock clock = new FakeClock(System.currentTimeMillis());
+    final ZooKeeperMasterModel setupModel = new ZooKeeperMasterModel(
+        new ZooKeeperClientProvider(client, ZooKeeperModelReporter.noop()), MASTER);
+    final SimulatedZooKeeperClient simulatedClient = SimulatedZooKeeperClient.create(client, clock);
+    final ZooKeeperMasterModel model = new ZooKeeperMasterModel(
+        new ZooKeeperClientProvider(simulatedClient.client(), ZooKeeperModelReporter.noop()),
+        MASTER, new NoopMasterMetrics(), clock);
+
+    final DeploymentGroup group = setUpFleet(client, setupModel);
+
+    final MasterLeaderElection leaderElection =
+        new MasterLeaderElection(curator, MASTER, new NoopMasterMetrics());
+    leaderElection.startAsync().awaitRunning();
+    final SimulatedReactorFactory reactors = new SimulatedReactorFactory(
+        ImmutableMap.of("hostUpdate", hostUpdateTicks));
+    final RollingUpdateService rollingUpdateService =
+        new RollingUpdateService(model, leaderElection, reactors);
+    try {
+      for (int i = 0; !leaderElection.hasLeadership(); i++) {
+        checkArgument(i < 300, "not elected leader");
+        MILLISECONDS.sleep(100);
+      }
+      rollingUpdateService.startAsync().awaitRunning();
+      setupModel.rollingUpdate(group, NEW_JOB.getId(), rolloutOptions);
+      return simulate(client, setupModel, simulatedClient, clock, reactors);
+    } finally {
+      rollingUpdateService.stopAsync().awaitTerminated();
+      leaderElection.stopAsync().awaitTerminated();
+    }
+  }
+
+  /**
+   * Registers the hosts and deploys the previous version of the job to all of them through the
+   * deployment group, as a previous rolling update would have.
+   *
+   * @return The deployment group.
+   */
+  private DeploymentGroup setUpFleet(final ZooKeeperClient client,
+                                     final ZooKeeperMasterModel model) throws Exception {
+    model.addJob(OLD_JOB);
+    model.addJob(NEW_JOB);
+
+    for (int i = 0; i < hosts; i++) {
+      final String host = "host-" + i;
+      model.registerHost(host, "id-" + i);
+      client.ensurePath(Paths.statusHostUp(host));
+      client.createAndSetData(Paths.statusHostLabels(host), Json.asBytes(LABELS));
+      model.deployJob(host, Deployment.of(OLD_JOB.getId(), START, MASTER, MASTER, GROUP));
+      client.createAndSetData(Paths.statusHostJob(host, OLD_JOB.getId()),
+                              taskStatus(OLD_JOB, RUNNING));
+    }
+
+    final DeploymentGroup group = DeploymentGroup.newBuilder()
+        .setName(GROUP)
+        .setHostSelectors(ImmutableList.of(HostSelector.parse("role=simulated")))
+        .build();
+    model.addDeploymentGroup(group);
+    return group;
+  }
+
+  private Result simulate(final ZooKeeperClient client, final ZooKeeperMasterModel model,
+                          final SimulatedZooKeeperClient simulatedClient, final FakeClock clock,
+                          final SimulatedReactorFactory reactors) throws Exception {
+    final Random random = new Random(seed);
+    final PriorityQueue<PendingStart> pending = new PriorityQueue<>();
+    final String statusPath = Paths.statusDeploymentGroup(GROUP);
+    final long started = System.nanoTime();
+
+    DeploymentGroupStatus status = model.getDeploymentGroupStatus(GROUP);
+    long ticks = 0;
+    long productiveTicks = 0;
+    while (ticks < maxTicks) {
+      clock.advance(TICK_MILLIS);
+      ticks++;
+      reactors.tick();
+      simulatedClient.observe(statusPath);
+
+      final DeploymentGroupStatus previous = status;
+      status = model.getDeploymentGroupStatus(GROUP);
+      if (status.getState() != previous.getState() ||
+          status.getTaskIndex() != previous.getTaskIndex()) {
+        productiveTicks++;
+      }
+
+      // Only the hosts that the tasks completed in this tick were for can have changed
+      if (previous.getState() == ROLLING_OUT) {
+        final List<RolloutTask> tasks = status.getRolloutTasks();
+        final int end = status.getState() == DONE ? tasks.size() : status.getTaskIndex();
+        final Set<String> changed = Sets.newLinkedHashSet();
+        for (int i = previous.getTaskIndex(); i < end; i++) {
+          changed.add(tasks.get(i).getTarget());
+        }
+        for (final String host : changed) {
+          updateHost(client, host, clock, random, pending);
+        }
+      }
+      while (!pending.isEmpty() && pending.peek().millis <= clock.millis()) {
+        final PendingStart start = pending.poll();
+        if (client.exists(Paths.statusHostJob(start.host, start.job.getId())) != null) {
+          client.setData(Paths.statusHostJob(start.host, start.job.getId()),
+                         taskStatus(start.job, RUNNING));
+        }
+      }
+
+      if (status.getState() == DONE || status.getState() == FAILED) {
+        break;
+      }
+    }
+
+    final Map<String, Long> calls = simulatedClient.getCalls();
+    return new Result(hosts, rolloutOptions, status, ticks, productiveTicks,
+                      simulatedClient.getTotalCalls(),
+                      calls.containsKey("transaction") ? calls.get("transaction") : 0,
+                      simulatedClient.getTransactionOperations(), calls,
+                      NANOSECONDS.toMillis(System.nanoTime() - started));
+  }
+
+  /**
+   * Does what an agent would: creates a task status for each job newly deployed to the host, which
+   * becomes RUNNING after a random delay, and removes the task status of undeployed jobs.
+   */
+  private void updateHost(final ZooKeeperClient client, final String host, final FakeClock clock,
+                          final Random random, final PriorityQueue<PendingStart> pending)
+      throws Exception {
+    final Set<String> deployed = Sets.newHashSet(client.getChildren(Paths.configHostJobs(host)));
+    final Set<String> reported = Sets.newHashSet(client.getChildren(Paths.statusHostJobs(host)));
+    for (final String jobId : Sets.difference(deployed, reported)) {
+      final Job job = Json.read(client.getData(Paths.configJob(JobId.fromString(jobId))),
+                                Job.class);
+      client.createAndSetData(Paths.statusHostJob(host, job.getId()),
+                              taskStatus(job, PULLING_IMAGE));
+      if (random.nextDouble() >= stuckProbability) {
+        final long delay = minStartMillis +
+                           (long) (-Math.log(1 - random.nextDouble()) *
+                                   (meanStartMillis - minStartMillis));
+        pending.add(new PendingStart(clock.millis() + delay, pending.size(), host, job));
+      }
+    }
+    for (final String jobId : Sets.difference(reported, deployed)) {
+      try {
+        client.delete(Paths.statusHostJob(host, JobId.fromString(jobId)));
+      } catch (KeeperException.NoNodeException ignored) {
+        // Already gone
+      }
+    }
+  }
+
+  private static Job job(final String version) {
+    return Job.newBuilder()
+        .setName("simulated")
+        .setVersion(version)
+        .setImage("simulated:" + version)
+        .build();
+  }
+
+  private static byte[] taskStatus(final Job job, final TaskStatus.State state) {
+    return TaskStatus.newBuilder()
+        .setJob(job)
+        .setGoal(START)
+        .setState(state)
+        .build()
+        .toJsonBytes();
+  }
+
+  private static class PendingStart implements Comparable<PendingStart> {
+
+    private final long millis;
+    private final long sequence;
+    private final String host;
+    private final Job job;
+
+    PendingStart(final long millis, final long sequence, final String host, final Job job) {
+      this.millis = millis;
+      this.sequence = sequence;
+      this.host = host;
+      this.job = job;
+    }
+
+    @Override
+    public int compareTo(final PendingStart other) {
+      final int byTime = Long.compare(millis, other.millis);
+      return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+    }
+  }
+
+  /**
+   * The outcome of a simulated rollout.
+   */
+  public static class Result {
+
+    private final int hosts;
+    private final RolloutOptions rolloutOptions;
+    private final DeploymentGroupStatus status;
+    private final long ticks;
+    private final long productiveTicks;
+    private final long zooKeeperCalls;
+    private final long zooKeeperTransactions;
+    private final long zooKeeperTransactionOperations;
+    private final Map<String, Long> zooKeeperCallsByMethod;
+    private final long wallMillis;
+
+    Result(final int hosts, final RolloutOptions rolloutOptions,
+           final DeploymentGroupStatus status, final long ticks, final long productiveTicks,
+           final long zooKeeperCalls, final long zooKeeperTransactions,
+           final long zooKeeperTransactionOperations,
+           final Map<String, Long> zooKeeperCallsByMethod, final long wallMillis) {
+      this.hosts = hosts;
+      this.rolloutOptions = rolloutOptions;
+      this.status = status;
+      this.ticks = ticks;
+      this.productiveTicks = productiveTicks;
+      this.zooKeeperCalls = zooKeeperCalls;
+      this.zooKeeperTransactions = zooKeeperTransactions;
+      this.zooKeeperTransactionOperations = zooKeeperTransactionOperations;
+      this.zooKeeperCallsByMethod = zooKeeperCallsByMethod;
+      this.wallMillis = wallMillis;
+    }
+
+    public int getHosts() {
+      return hosts;
+    }
+
+    public RolloutOptions getRolloutOptions() {
+      return rolloutOptions;
+    }
+
+    /**
+     * @return The state the rollout ended in. ROLLING_OUT if it did not finish in time.
+     */
+    public DeploymentGroupStatus.State getState() {
+      return status.getState();
+    }
+
+    public String getError() {
+      return status.getError();
+    }
+
+    /**
+     * @return The simulated time the rollout took.
+     */
+    public long getRolloutSeconds() {
+      return MILLISECONDS.toSeconds(ticks * TICK_MILLIS);
+    }
+
+    public long getTicks() {
+      return ticks;
+    }
+
+    /**
+     * @return The fraction of ticks in which the rollout moved on to another task or state,
+     *         rather than waiting for a host.
+     */
+    public double getTickUtilization() {
+      return ticks == 0 ? 0 : (double) productiveTicks / ticks;
+    }
+
+    public long getZooKeeperCalls() {
+      return zooKeeperCalls;
+    }
+
+    public long getZooKeeperTransactions() {
+      return zooKeeperTransactions;
+    }
+
+    public long getZooKeeperTransactionOperations() {
+      return zooKeeperTransactionOperations;
+    }
+
+    public Map<String, Long> getZooKeeperCallsByMethod() {
+      return zooKeeperCallsByMethod;
+    }
+
+    /**
+     * @return The real time the simulation took.
+     */
+    public long getWallMillis() {
+      return wallMillis;
+    }
+
+    @Override
+    public String toString() {
+      return Objects.toStringHelper(getClass())
+          .add("hosts", hosts)
+          .add("parallelism", rolloutOptions.getParallelism())
+          .add("timeout", rolloutOptions.getTimeout())
+          .add("state", getState())
+          .add("error", getError())
+          .add("rolloutSeconds", getRolloutSeconds())
+          .add("tickUtilization", getTickUtilization())
+          .add("zooKeeperCalls", zooKeeperCalls)
+          .add("zooKeeperTransactions", zooKeeperTransactions)
+          .add("zooKeeperTransactionOperations", zooKeeperTransactionOperations)
+          .add("wallMillis", wallMillis)
+          .toString();
+    }
+  }
+
+  public static class Builder {
+
+    private int hosts = 100;
+    private int parallelism = RolloutOptions.DEFAULT_PARALLELISM;
+    private long timeoutSeconds = RolloutOptions.DEFAULT_TIMEOUT;
+    private long minStartMillis = SECONDS.toMillis(5);
+    private long meanStartMillis = SECONDS.toMillis(15);
+    private double stuckProbability;
+    private long seed;
+    private long maxTicks = Long.MAX_VALUE;
+    private int hostUpdateTicks = 1;
+
+    public Builder setHosts(final int hosts) {
+      this.hosts = hosts;
+      return this;
+    }
+
+    public Builder setParallelism(final int parallelism) {
+      this.parallelism = parallelism;
+      return this;
+    }
+
+    public Builder setTimeoutSeconds(final long timeoutSeconds) {
+      this.timeoutSeconds = timeoutSeconds;
+      return this;
+    }
+
+    /**
+     * @param minStartMillis The least time a job takes to become RUNNING after being deployed.
+     */
+    public Builder setMinStartMillis(final long minStartMillis) {
+      this.minStartMillis = minStartMillis;
+      return this;
+    }
+
+    /**
+     * @param meanStartMillis The mean time a job takes to become RUNNING after being deployed.
+     *                        Start times are the minimum plus an exponentially distributed delay.
+     */
+    public Builder setMeanStartMillis(final long meanStartMillis) {
+      this.meanStartMillis = meanStartMillis;
+      return this;
+    }
+
+    /**
+     * @param stuckProbability The probability that a job never becomes RUNNING on a host.
+     */
+    public Builder setStuckProbability(final double stuckProbability) {
+      this.stuckProbability = stuckProbability;
+      return this;
+    }
+
+    public Builder setSeed(final long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    /**
+     * @param maxTicks The number of ticks after which to give up on the rollout.
+     */
+    public Builder setMaxTicks(final long maxTicks) {
+      this.maxTicks = maxTicks;
+      return this;
+    }
+
+    /**
+     * @param hostUpdateTicks How many ticks there are between updates of the deployment group's
+     *                        hosts. The master updates them every second, reading the status of
+     *                        every host, which dominates the ZooKeeper traffic and the time the
+     *                        simulation takes for large fleets.
+     */
+    public Builder setHostUpdateTicks(final int hostUpdateTicks) {
+      this.hostUpdateTicks = hostUpdateTicks;
+      return this;
+    }
+
+    public RolloutSimulator build() {
+      return new RolloutSimulator(this);
+    }
+  }
+}
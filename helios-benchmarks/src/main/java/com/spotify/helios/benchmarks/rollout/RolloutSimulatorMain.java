@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.benchmarks.rollout;
+
+import com.google.common.collect.ImmutableList;
+
+import com.spotify.helios.common.descriptors.RolloutOptions;
+import com.spotify.logging.LoggingConfigurator;
+
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.Argument;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.spotify.logging.LoggingConfigurator.Level.WARN;
+import static net.sourceforge.argparse4j.impl.Arguments.append;
+import static net.sourceforge.argparse4j.impl.Arguments.storeTrue;
+
+/**
+ * Runs a {@link RolloutSimulator} for each of a number of fleet sizes and prints how long the
+ * rollouts took and how much ZooKeeper traffic they caused.
+ */
+public class RolloutSimulatorMain {
+
+  private static final List<Integer> DEFAULT_HOSTS = ImmutableList.of(10, 100);
+
+  private static final String ROW = "%8s %8s %8s %-12s %10s %8s %12s %12s %10s%n";
+
+  private final Argument hostsArg;
+  private final Argument parallelismArg;
+  private final Argument timeoutArg;
+  private final Argument minStartMillisArg;
+  private final Argument meanStartMillisArg;
+  private final Argument stuckProbabilityArg;
+  private final Argument seedArg;
+  private final Argument maxTicksArg;
+  private final Argument hostUpdateTicksArg;
+  private final Argument verboseArg;
+
+  private final ArgumentParser parser;
+
+  private RolloutSimulatorMain() {
+    parser = ArgumentParsers.newArgumentParser("helios-rollout-simulator")
+        .defaultHelp(true)
+        .description("Simulates rolling updates of a deployment group in simulated time");
+
+    hostsArg = parser.addArgument("--hosts")
+        .type(Integer.class)
+        .action(append())
+        .help("Number of hosts in the deployment group. Can be given more than once. "
+              + "Defaults to " + DEFAULT_HOSTS + ".");
+
+    parallelismArg = parser.addArgument("--parallelism")
+        .type(Integer.class)
+        .setDefault(RolloutOptions.DEFAULT_PARALLELISM)
+        .help("Rollout parallelism.");
+
+    timeoutArg = parser.addArgument("--timeout")
+        .type(Long.class)
+        .setDefault(RolloutOptions.DEFAULT_TIMEOUT)
+        .help("Rollout timeout in seconds.");
+
+    minStartMillisArg = parser.addArgument("--min-start-millis")
+        .type(Long.class)
+        .setDefault(5000L)
+        .help("Least time a job takes to become RUNNING on a host.");
+
+    meanStartMillisArg = parser.addArgument("--mean-start-millis")
+        .type(Long.class)
+        .setDefault(15000L)
+        .help("Mean time a job takes to become RUNNING on a host.");
+
+    stuckProbabilityArg = parser.addArgument("--stuck-probability")
+        .type(Double.class)
+        .setDefault(0.0)
+        .help("Probability that a job never becomes RUNNING on a host.");
+
+    seedArg = parser.addArgument("--seed")
+        .type(Long.class)
+        .setDefault(0L)
+        .help("Random seed for job start times.");
+
+    maxTicksArg = parser.addArgument("--max-ticks")
+        .type(Long.class)
+        .setDefault(1000000L)
+        .help("Number of simulated seconds after which to give up on a rollout.");
+
+    hostUpdateTicksArg = parser.addArgument("--host-update-ticks")
+        .type(Integer.class)
+        .setDefault(1)
+        .help("Simulated seconds between updates of the deployment group's hosts. Raise this to "
+              + "simulate large fleets faster, at the cost of not counting all host reads.");
+
+    verboseArg = parser.addArgument("-v", "--verbose")
+        .action(storeTrue())
+        .help("Print ZooKeeper calls by method.");
+  }
+
+  public static void main(final String... args) throws Exception {
+    LoggingConfigurator.configureDefaults("helios-rollout-simulator", WARN);
+    new RolloutSimulatorMain().run(args);
+  }
+
+  private void run(final String... args) throws Exception {
+    final Namespace options;
+    try {
+      options = parser.parseArgs(args);
+    } catch (ArgumentParserException e) {
+      parser.handleError(e);
+      System.exit(2);
+      return;
+    }
+
+    final List<Integer> fleets = options.getList(hostsArg.getDest()) == null
+                                 ? DEFAULT_HOSTS : options.<Integer>getList(hostsArg.getDest());
+    System.out.printf(ROW, "hosts", "parallel", "timeout", "state", "rollout s", "util %",
+                      "zk calls", "zk calls/s", "wall ms");
+    for (final int hosts : fleets) {
+      final RolloutSimulator.Result result = RolloutSimulator.newBuilder()
+          .setHosts(hosts)
+          .setParallelism(options.getInt(parallelismArg.getDest()))
+          .setTimeoutSeconds(options.getLong(timeoutArg.getDest()))
+          .setMinStartMillis(options.getLong(minStartMillisArg.getDest()))
+          .setMeanStartMillis(options.getLong(meanStartMillisArg.getDest()))
+          .setStuckProbability(options.getDouble(stuckProbabilityArg.getDest()))
+          .setSeed(options.getLong(seedArg.getDest()))
+          .setMaxTicks(options.getLong(maxTicksArg.getDest()))
+          .setHostUpdateTicks(options.getInt(hostUpdateTicksArg.getDest()))
+          .build()
+          .run();
+
+      final long seconds = result.getRolloutSeconds();
+      System.out.printf(ROW, hosts, result.getRolloutOptions().getParallelism(),
+                        result.getRolloutOptions().getTimeout(), result.getState(), seconds,
+                        String.format("%.1f", 100 * result.getTickUtilization()),
+                        result.getZooKeeperCalls(),
+                        seconds == 0 ? "-" : result.getZooKeeperCalls() / seconds,
+                        result.getWallMillis());
+      if (result.getError() != null) {
+        System.out.println("  error: " + result.getError());
+      }
+      if (options.getBoolean(verboseArg.getDest())) {
+        System.out.printf("  %d transactions with %d operations%n",
+                          result.getZooKeeperTransactions(),
+                          result.getZooKeeperTransactionOperations());
+        for (final Map.Entry<String, Long> entry : result.getZooKeeperCallsByMethod().entrySet()) {
+          System.out.printf("  %-24s %d%n", entry.getKey(), entry.getValue());
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.benchmarks.rollout;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.AbstractIdleService;
+
+import com.spotify.helios.servicescommon.Reactor;
+import com.spotify.helios.servicescommon.ReactorFactory;
+import com.spotify.helios.servicescommon.statistics.ReactorMetricsRegistry;
+import com.spotify.helios.servicescommon.tracing.Tracer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static com.spotify.helios.servicescommon.Reactor.Callback;
+
+/**
+ * Creates reactors whose callbacks only run when {@link #tick()} is called, in the order the
+ * reactors were created, as if every reactor timed out at once.
+ */
+public class SimulatedReactorFactory extends ReactorFactory {
+
+  private final List<SimulatedReactor> reactors = Lists.newCopyOnWriteArrayList();
+  private final Map<String, Integer> ticksPerRun;
+
+  private long ticks;
+
+  public SimulatedReactorFactory() {
+    this(Collections.<String, Integer>emptyMap());
+  }
+
+  /**
+   * @param ticksPerRun How many ticks there are between runs of the named reactors. Reactors not
+   *                    in the map run on every tick.
+   */
+  public SimulatedReactorFactory(final Map<String, Integer> ticksPerRun) {
+    super(new ReactorMetricsRegistry(), new Tracer());
+    this.ticksPerRun = ImmutableMap.copyOf(ticksPerRun);
+  }
+
+  @Override
+  public Reactor create(final String name, final Callback callback, final long timeout) {
+    final Integer period = ticksPerRun.get(name);
+    final SimulatedReactor reactor = new SimulatedReactor(name, callback,
+                                                          period == null ? 1 : period);
+    reactors.add(reactor);
+    return reactor;
+  }
+
+  @Override
+  public Reactor create(final String name, final String metricsGroup, final Callback callback,
+                        final long timeout) {
+    return create(name, callback, timeout);
+  }
+
+  /**
+   * Runs the callback of every running reactor that is due.
+   */
+  public void tick() throws InterruptedException {
+    for (final SimulatedReactor reactor : reactors) {
+      if (reactor.isRunning() && ticks % reactor.ticksPerRun == 0) {
+        reactor.callback.run(true);
+      }
+    }
+    ticks++;
+  }
+
+  private static class SimulatedReactor extends AbstractIdleService implements Reactor {
+
+    private final String name;
+    private final Callback callback;
+    private final int ticksPerRun;
+
+    SimulatedReactor(final String name, final Callback callback, final int ticksPerRun) {
+      this.name = name;
+      this.callback = callback;
+      this.ticksPerRun = ticksPerRun;
+    }
+
+    @Override
+    public void signal() {
+    }
+
+    @Override
+    public Runnable signalRunnable() {
+      return new Runnable() {
+        @Override
+        public void run() {
+          signal();
+        }
+      };
+    }
+
+    @Override
+    protected void startUp() throws Exception {
+    }
+
+    @Override
+    protected void shutDown() throws Exception {
+    }
+
+    @Override
+    protected String serviceName() {
+      return "SimulatedReactor(" + name + ")";
+    }
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.benchmarks.rollout;
+
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Maps;
+
+import com.spotify.helios.servicescommon.coordination.Node;
+import com.spotify.helios.servicescommon.coordination.ZooKeeperClient;
+
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wraps a {@link ZooKeeperClient} to count the calls made through it, and to report node
+ * modification times in the time of a {@link FakeClock} rather than that of the ZooKeeper server.
+ *
+ * <p>A node's modification time is the fake time at which its current version was first seen,
+ * either when it was read through this client or passed to {@link #observe(String)}.
+ */
+public class SimulatedZooKeeperClient implements InvocationHandler {
+
+  private final ZooKeeperClient client;
+  private final FakeClock clock;
+
+  private final ConcurrentMap<String, AtomicLong> calls = Maps.newConcurrentMap();
+  private final AtomicLong transactionOperations = new AtomicLong();
+  private final ConcurrentMap<String, Modification> modifications = Maps.newConcurrentMap();
+
+  private SimulatedZooKeeperClient(final ZooKeeperClient client, final FakeClock clock) {
+    this.client = client;
+    this.clock = clock;
+  }
+
+  public static SimulatedZooKeeperClient create(final ZooKeeperClient client,
+                                                final FakeClock clock) {
+    return new SimulatedZooKeeperClient(client, clock);
+  }
+
+  /**
+   * @return A client whose calls are counted by this instance.
+   */
+  public ZooKeeperClient client() {
+    return (ZooKeeperClient) Proxy.newProxyInstance(
+        ZooKeeperClient.class.getClassLoader(),
+        new Class[]{ZooKeeperClient.class},
+        this);
+  }
+
+  /**
+   * Records the current fake time as the modification time of the node if it has changed since
+   * it was last seen, without counting a call.
+   */
+  public void observe(final String path) throws KeeperException {
+    final Stat stat = client.exists(path);
+    if (stat != null) {
+      fakeModificationTime(path, stat);
+    }
+  }
+
+  /**
+   * @return The number of calls made, by method name.
+   */
+  public Map<String, Long> getCalls() {
+    final ImmutableSortedMap.Builder<String, Long> builder = ImmutableSortedMap.naturalOrder();
+    for (final Map.Entry<String, AtomicLong> entry : calls.entrySet()) {
+      builder.put(entry.getKey(), entry.getValue().get());
+    }
+    return builder.build();
+  }
+
+  /**
+   * @return The total number of calls made.
+   */
+  public long getTotalCalls() {
+    long total = 0;
+    for (final AtomicLong count : calls.values()) {
+      total += count.get();
+    }
+    return total;
+  }
+
+  /**
+   * @return The number of operations in all transactions made.
+   */
+  public long getTransactionOperations() {
+    return transactionOperations.get();
+  }
+
+  @Override
+  public Object invoke(final Object proxy, final Method method, final Object[] args)
+      throws Throwable {
+    final String name = method.getName();
+    AtomicLong count = calls.get(name);
+    if (count == null) {
+      calls.putIfAbsent(name, new AtomicLong());
+      count = calls.get(name);
+    }
+    count.incrementAndGet();
+
+    if (name.equals("transaction")) {
+      final Object operations = args[0];
+      transactionOperations.addAndGet(operations instanceof Collection
+                                      ? ((Collection<?>) operations).size()
+                                      : ((Object[]) operations).length);
+    }
+
+    final Object result;
+    try {
+      result = method.invoke(client, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+
+    if (result instanceof Node) {
+      final Node node = (Node) result;
+      fakeModificationTime(node.getPath(), node.getStat());
+    } else if (result instanceof Stat) {
+      fakeModificationTime((String) args[0], (Stat) result);
+    }
+    return result;
+  }
+
+  private void fakeModificationTime(final String path, final Stat stat) {
+    final Modification seen = modifications.get(path);
+    if (seen != null && seen.version == stat.getVersion()) {
+      stat.setMtime(seen.millis);
+    } else {
+      modifications.put(path, new Modification(stat.getVersion(), clock.millis()));
+      stat.setMtime(clock.millis());
+    }
+  }
+
+  private static class Modification {
+
+    private final int version;
+    private final long millis;
+
+    Modification(final int version, final long millis) {
+      this.version = version;
+      this.millis = millis;
+    }
+  }
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.benchmarks.swarm;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.AbstractIdleService;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.codahale.metrics.MetricRegistry;
+import com.spotify.helios.servicescommon.coordination.CuratorClientFactoryImpl;
+import com.spotify.helios.servicescommon.coordination.DefaultZooKeeperClient;
+import com.spotify.helios.servicescommon.coordination.Paths;
+import com.spotify.helios.servicescommon.coordination.ZooKeeperClient;
+import com.spotify.helios.servicescommon.statistics.SupervisorMetrics;
+import com.spotify.helios.servicescommon.statistics.SupervisorMetricsImpl;
+import com.spotify.helios.servicescommon.statistics.ZooKeeperMetrics;
+import com.spotify.helios.servicescommon.statistics.ZooKeeperMetricsImpl;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Runs many {@link SimulatedAgent}s against a ZooKeeper cluster, so that a master can be measured
+ * against a realistic number of agents without needing as many machines.
+ *
+ * <p>Agents are named {@code <prefix><index>} and get one value of every label, picked round-robin
+ * by agent index. Several agents may share a ZooKeeper session to keep the number of client
+ * threads and connections down.
+ */
+public class AgentSwarm extends AbstractIdleService {
+
+  private static final Logger log = LoggerFactory.getLogger(AgentSwarm.class);
+
+  private static final String METRICS_GROUP = "helios";
+
+  private final String zooKeeperConnectString;
+  private final int agents;
+  private final String namePrefix;
+  private final int agentsPerSession;
+  private final int startParallelism;
+  private final Map<String, List<String>> labels;
+  private final long pullMillis;
+  private final long latencyMillis;
+  private final long meanLifetimeMillis;
+  private final Path stateDirectory;
+
+  private final MetricRegistry metricRegistry = new MetricRegistry();
+  private final SupervisorMetrics supervisorMetrics =
+      new SupervisorMetricsImpl(METRICS_GROUP, metricRegistry);
+  private final ZooKeeperMetrics zooKeeperMetrics =
+      new ZooKeeperMetricsImpl(METRICS_GROUP, metricRegistry);
+  private final List<CuratorFramework> curators = Lists.newArrayList();
+  private final List<SimulatedAgent> running = Lists.newArrayList();
+  private final List<FakeDockerClient> dockers = Lists.newArrayList();
+
+  private ScheduledExecutorService scheduler;
+
+  private AgentSwarm(final Builder builder) {
+    this.zooKeeperConnectString = checkNotNull(builder.zooKeeperConnectString,
+                                               "zooKeeperConnectString");
+    this.stateDirectory = checkNotNull(builder.stateDirectory, "stateDirectory");
+    this.agents = builder.agents;
+    this.namePrefix = builder.namePrefix;
+    this.agentsPerSession = builder.agentsPerSession;
+    this.startParallelism = builder.startParallelism;
+    this.labels = ImmutableMap.copyOf(builder.labels);
+    this.pullMillis = builder.pullMillis;
+    this.latencyMillis = builder.latencyMillis;
+    this.meanLifetimeMillis = builder.meanLifetimeMillis;
+    checkArgument(agents > 0, "agents must be positive");
+    checkArgument(agentsPerSession > 0, "agentsPerSession must be positive");
+    checkArgument(startParallelism > 0, "startParallelism must be positive");
+  }
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  /**
+   * @return The names of all agents in the swarm.
+   */
+  public List<String> getAgentNames() {
+    final ImmutableList.Builder<String> names = ImmutableList.builder();
+    for (int i = 0; i < agents; i++) {
+      names.add(agentName(i));
+    }
+    return names.build();
+  }
+
+  /**
+   * @return The metrics the agents in the swarm report to.
+   */
+  public MetricRegistry getMetricRegistry() {
+    return metricRegistry;
+  }
+
+  /**
+   * @return The supervisor metrics, including docker request rates and latency, of all agents.
+   */
+  public SupervisorMetrics getSupervisorMetrics() {
+    return supervisorMetrics;
+  }
+
+  /**
+   * @return The number of containers currently running in the swarm.
+   */
+  public int getRunningContainers() {
+    int count = 0;
+    synchronized (dockers) {
+      for (final FakeDockerClient docker : dockers) {
+        count += docker.runningContainers();
+      }
+    }
+    return count;
+  }
+
+  @Override
+  protected void startUp() throws Exception {
+    scheduler = Executors.newScheduledThreadPool(
+        2, new ThreadFactoryBuilder().setNameFormat("swarm-docker-%d").setDaemon(true).build());
+
+    // Create the paths the master would otherwise create, so the swarm can start before it
+    final ZooKeeperClient setupClient = newZooKeeperClient();
+    for (final String path : ImmutableList.of(Paths.configHosts(), Paths.configJobs(),
+                                              Paths.configJobRefs(),
+                                              Paths.configJobExpirations(), Paths.statusHosts(),
+                                              Paths.historyJobs(),
+                                              Paths.configDeploymentGroups(),
+                                              Paths.statusDeploymentGroups())) {
+      setupClient.ensurePath(path);
+    }
+
+    final List<Callable<SimulatedAgent>> starts = Lists.newArrayList();
+    ZooKeeperClient client = setupClient;
+    for (int i = 0; i < agents; i++) {
+      if (i > 0 && i % agentsPerSession == 0) {
+        client = newZooKeeperClient();
+      }
+      final String name = agentName(i);
+      final FakeDockerClient docker = new FakeDockerClient(scheduler, pullMillis, latencyMillis,
+                                                           meanLifetimeMillis);
+      final SimulatedAgent agent = new SimulatedAgent(
+          name, client, FakeDockerClient.create(docker), labels(i),
+          stateDirectory.resolve(name), supervisorMetrics, zooKeeperMetrics);
+      synchronized (dockers) {
+        dockers.add(docker);
+      }
+      starts.add(new Callable<SimulatedAgent>() {
+        @Override
+        public SimulatedAgent call() throws Exception {
+          agent.startAsync().awaitRunning();
+          synchronized (running) {
+            running.add(agent);
+            if (running.size() % 100 == 0) {
+              log.info("started {} of {} agents", running.size(), agents);
+            }
+          }
+          return agent;
+        }
+      });
+    }
+
+    final ListeningExecutorService executor = MoreExecutors.listeningDecorator(
+        Executors.newFixedThreadPool(startParallelism));
+    try {
+      final List<ListenableFuture<SimulatedAgent>> futures = Lists.newArrayList();
+      for (final Callable<SimulatedAgent> start : starts) {
+        futures.add(executor.submit(start));
+      }
+      Futures.allAsList(futures).get();
+    } finally {
+      executor.shutdown();
+    }
+    log.info("started {} agents using {} ZooKeeper sessions", agents, curators.size());
+  }
+
+  @Override
+  protected void shutDown() throws Exception {
+    final List<SimulatedAgent> agents;
+    synchronized (running) {
+      agents = ImmutableList.copyOf(running);
+      running.clear();
+    }
+    for (final SimulatedAgent agent : agents) {
+      agent.stopAsync();
+    }
+    for (final SimulatedAgent agent : agents) {
+      try {
+        agent.awaitTerminated();
+      } catch (IllegalStateException e) {
+        log.warn("{} failed", agent.getName(), e);
+      }
+    }
+    for (final CuratorFramework curator : curators) {
+      curator.close();
+    }
+    curators.clear();
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+    FileUtils.deleteQuietly(stateDirectory.toFile());
+  }
+
+  private String agentName(final int index) {
+    return namePrefix + index;
+  }
+
+  private Map<String, String> labels(final int index) {
+    final ImmutableMap.Builder<String, String> builder = ImmutableMap.builder();
+    for (final Map.Entry<String, List<String>> entry : labels.entrySet()) {
+      final List<String> values = entry.getValue();
+      builder.put(entry.getKey(), values.get(index % values.size()));
+    }
+    return builder.build();
+  }
+
+  private ZooKeeperClient newZooKeeperClient() {
+    final CuratorFramework curator = new CuratorClientFactoryImpl().newClient(
+        zooKeeperConnectString, 60000, 15000, new ExponentialBackoffRetry(1000, 3), null);
+    curators.add(curator);
+    // The swarm owns the curator, so it is started here rather than through the client
+    curator.start();
+    return new DefaultZooKeeperClient(curator);
+  }
+
+  public static class Builder {
+
+    private String zooKeeperConnectString;
+    private int agents = 100;
+    private String namePrefix = "swarm-agent-";
+    private int agentsPerSession = 1;
+    private int startParallelism = 16;
+    private Map<String, List<String>> labels = Collections.emptyMap();
+    private long pullMillis;
+    private long latencyMillis;
+    private long meanLifetimeMillis;
+    private Path stateDirectory;
+
+    public Builder setZooKeeperConnectString(final String zooKeeperConnectString) {
+      this.zooKeeperConnectString = zooKeeperConnectString;
+      return this;
+    }
+
+    public Builder setAgents(final int agents) {
+      this.agents = agents;
+      return this;
+    }
+
+    public Builder setNamePrefix(final String namePrefix) {
+      this.namePrefix = namePrefix;
+      return this;
+    }
+
+    public Builder setAgentsPerSession(final int agentsPerSession) {
+      this.agentsPerSession = agentsPerSession;
+      return this;
+    }
+
+    public Builder setStartParallelism(final int startParallelism) {
+      this.startParallelism = startParallelism;
+      return this;
+    }
+
+    public Builder setLabels(final Map<String, List<String>> labels) {
+      this.labels = labels;
+      return this;
+    }
+
+    public Builder setPullMillis(final long pullMillis) {
+      this.pullMillis = pullMillis;
+      return this;
+    }
+
+    public Builder setLatencyMillis(final long latencyMillis) {
+      this.latencyMillis = latencyMillis;
+      return this;
+    }
+
+    public Builder setMeanLifetimeMillis(final long meanLifetimeMillis) {
+      this.meanLifetimeMillis = meanLifetimeMillis;
+      return this;
+    }
+
+    public Builder setStateDirectory(final Path stateDirectory) {
+      this.stateDirectory = stateDirectory;
+      return this;
+    }
+
+    public AgentSwarm build() {
+      return new AgentSwarm(this);
+    }
+  }
+}
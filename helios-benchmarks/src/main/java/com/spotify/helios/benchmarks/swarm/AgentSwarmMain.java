@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.benchmarks.swarm;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+
+import com.spotify.helios.ZooKeeperTestingServerManager;
+import com.spotify.helios.common.descriptors.Deployment;
+import com.spotify.helios.common.descriptors.Goal;
+import com.spotify.helios.common.descriptors.Job;
+import com.spotify.helios.master.HostNotFoundException;
+import com.spotify.helios.master.ZooKeeperMasterModel;
+import com.spotify.helios.servicescommon.coordination.DefaultZooKeeperClient;
+import com.spotify.helios.servicescommon.coordination.ZooKeeperClient;
+import com.spotify.helios.servicescommon.coordination.ZooKeeperClientProvider;
+import com.spotify.helios.servicescommon.coordination.ZooKeeperModelReporter;
+import com.spotify.helios.servicescommon.statistics.SupervisorMetrics;
+import com.spotify.logging.LoggingConfigurator;
+
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.Argument;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static com.spotify.logging.LoggingConfigurator.Level.INFO;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static net.sourceforge.argparse4j.impl.Arguments.append;
+
+/**
+ * Runs an {@link AgentSwarm} until the process is killed, optionally deploying jobs to every agent
+ * so that there is task status and history churn. If no ZooKeeper cluster is given, an in-process
+ * ZooKeeper server is started and its address logged, so a master can be pointed at it.
+ */
+public class AgentSwarmMain {
+
+  private static final Logger log = LoggerFactory.getLogger(AgentSwarmMain.class);
+
+  private static final List<String> DEFAULT_LABELS =
+      ImmutableList.of("pool=pool-a,pool-b,pool-c", "site=site-1,site-2");
+
+  private final Argument zooKeeperArg;
+  private final Argument agentsArg;
+  private final Argument prefixArg;
+  private final Argument agentsPerSessionArg;
+  private final Argument startParallelismArg;
+  private final Argument labelsArg;
+  private final Argument pullMillisArg;
+  private final Argument latencyMillisArg;
+  private final Argument meanLifetimeArg;
+  private final Argument jobsArg;
+  private final Argument reportIntervalArg;
+
+  private final ArgumentParser parser;
+
+  private AgentSwarmMain() {
+    parser = ArgumentParsers.newArgumentParser("helios-agent-swarm")
+        .defaultHelp(true)
+        .description("Runs many simulated Helios agents in a single JVM");
+
+    zooKeeperArg = parser.addArgument("--zk")
+        .help("ZooKeeper connection string. An in-process server is started if not given.");
+
+    agentsArg = parser.addArgument("--agents")
+        .type(Integer.class)
+        .setDefault(100)
+        .help("Number of agents to run.");
+
+    prefixArg = parser.addArgument("--prefix")
+        .setDefault("swarm-agent-")
+        .help("Agent name prefix.");
+
+    agentsPerSessionArg = parser.addArgument("--agents-per-session")
+        .type(Integer.class)
+        .setDefault(1)
+        .help("Number of agents sharing each ZooKeeper session.");
+
+    startParallelismArg = parser.addArgument("--start-parallelism")
+        .type(Integer.class)
+        .setDefault(16)
+        .help("Number of agents started concurrently.");
+
+    labelsArg = parser.addArgument("--labels")
+        .action(append())
+        .help("Agent labels as key=value1,value2,... Agents get the values round-robin. "
+              + "Defaults to " + DEFAULT_LABELS + ".");
+
+    pullMillisArg = parser.addArgument("--pull-millis")
+        .type(Long.class)
+        .setDefault(2000L)
+        .help("How long pulling an image takes.");
+
+    latencyMillisArg = parser.addArgument("--latency-millis")
+        .type(Long.class)
+        .setDefault(10L)
+        .help("How long every other docker call takes.");
+
+    meanLifetimeArg = parser.addArgument("--mean-lifetime-millis")
+        .type(Long.class)
+        .setDefault(0L)
+        .help("Mean time before a container crashes, or 0 to never crash containers.");
+
+    jobsArg = parser.addArgument("--jobs")
+        .type(Integer.class)
+        .setDefault(0)
+        .help("Number of jobs to create and deploy to every agent.");
+
+    reportIntervalArg = parser.addArgument("--report-interval")
+        .type(Integer.class)
+        .setDefault(10)
+        .help("Seconds between progress reports.");
+  }
+
+  public static void main(final String... args) throws Exception {
+    LoggingConfigurator.configureDefaults("helios-agent-swarm", INFO);
+    new AgentSwarmMain().run(args);
+  }
+
+  private void run(final String... args) throws Exception {
+    final Namespace options;
+    try {
+      options = parser.parseArgs(args);
+    } catch (ArgumentParserException e) {
+      parser.handleError(e);
+      System.exit(2);
+      return;
+    }
+
+    String zooKeeperConnectString = options.getString(zooKeeperArg.getDest());
+    final ZooKeeperTestingServerManager zk;
+    if (zooKeeperConnectString == null) {
+      zk = new ZooKeeperTestingServerManager();
+      zk.awaitUp(30, SECONDS);
+      zooKeeperConnectString = zk.connectString();
+      log.info("started ZooKeeper at {}", zooKeeperConnectString);
+    } else {
+      zk = null;
+    }
+
+    final AgentSwarm swarm = AgentSwarm.newBuilder()
+        .setZooKeeperConnectString(zooKeeperConnectString)
+        .setAgents(options.getInt(agentsArg.getDest()))
+        .setNamePrefix(options.getString(prefixArg.getDest()))
+        .setAgentsPerSession(options.getInt(agentsPerSessionArg.getDest()))
+        .setStartParallelism(options.getInt(startParallelismArg.getDest()))
+        .setLabels(parseLabels(options.getList(labelsArg.getDest()) == null
+                               ? DEFAULT_LABELS : options.<String>getList(labelsArg.getDest())))
+        .setPullMillis(options.getLong(pullMillisArg.getDest()))
+        .setLatencyMillis(options.getLong(latencyMillisArg.getDest()))
+        .setMeanLifetimeMillis(options.getLong(meanLifetimeArg.getDest()))
+        .setStateDirectory(Files.createTempDirectory("helios-agent-swarm"))
+        .build();
+
+    final CountDownLatch done = new CountDownLatch(1);
+    Runtime.getRuntime().addShutdownHook(new Thread() {
+      @Override
+      public void run() {
+        log.info("stopping swarm");
+        swarm.stopAsync().awaitTerminated();
+        if (zk != null) {
+          try {
+            zk.close();
+          } catch (InterruptedException ignored) {
+            // We're exiting anyway
+          }
+        }
+        done.countDown();
+      }
+    });
+
+    final long started = System.nanoTime();
+    swarm.startAsync().awaitRunning();
+    log.info("swarm of {} agents started in {} seconds", swarm.getAgentNames().size(),
+             NANOSECONDS.toSeconds(System.nanoTime() - started));
+
+    final int jobs = options.getInt(jobsArg.getDest());
+    if (jobs > 0) {
+      deployJobs(zooKeeperConnectString, swarm.getAgentNames(), jobs);
+    }
+
+    final int interval = options.getInt(reportIntervalArg.getDest());
+    while (!done.await(interval, SECONDS)) {
+      final SupervisorMetrics metrics = swarm.getSupervisorMetrics();
+      log.info("{} containers running, {} docker requests/s, p99 docker latency {} ms",
+               swarm.getRunningContainers(),
+               String.format("%.1f", metrics.getDockerRequestRates().getOneMinuteRate()),
+               NANOSECONDS.toMillis((long) metrics.getDockerLatency().get99thPercentile()));
+    }
+  }
+
+  private static Map<String, List<String>> parseLabels(final List<String> specs) {
+    final Map<String, List<String>> labels = Maps.newLinkedHashMap();
+    for (final String spec : specs) {
+      final List<String> parts = Splitter.on('=').limit(2).splitToList(spec);
+      if (parts.size() != 2) {
+        throw new IllegalArgumentException("Bad label: " + spec);
+      }
+      labels.put(parts.get(0), Splitter.on(',').omitEmptyStrings().splitToList(parts.get(1)));
+    }
+    return labels;
+  }
+
+  private static void deployJobs(final String zooKeeperConnectString, final List<String> hosts,
+                                 final int jobs) throws Exception {
+    final CuratorFramework curator = CuratorFrameworkFactory.newClient(
+        zooKeeperConnectString, new ExponentialBackoffRetry(1000, 3));
+    curator.start();
+    try {
+      final ZooKeeperClient client = new DefaultZooKeeperClient(curator);
+      final ZooKeeperMasterModel model = new ZooKeeperMasterModel(
+          new ZooKeeperClientProvider(client, ZooKeeperModelReporter.noop()), "agent-swarm");
+      for (int i = 0; i < jobs; i++) {
+        final Job job = Job.newBuilder()
+            .setName("swarm-job-" + i)
+            .setVersion("1")
+            .setImage("swarm/job:" + i)
+            .build();
+        model.addJob(job);
+        for (final String host : hosts) {
+          deploy(model, host, Deployment.of(job.getId(), Goal.START));
+        }
+        log.info("deployed {} to {} agents", job.getId(), hosts.size());
+      }
+    } finally {
+      curator.close();
+    }
+  }
+
+  private static void deploy(final ZooKeeperMasterModel model, final String host,
+                             final Deployment deployment) throws Exception {
+    // Agents register asynchronously, so wait for each one to show up
+    int attempt = 0;
+    while (true) {
+      try {
+        model.deployJob(host, deployment);
+        return;
+      } catch (HostNotFoundException e) {
+        if (++attempt >= 30) {
+          throw e;
+        }
+        SECONDS.sleep(1);
+      }
+    }
+  }
+}
@@ -0,0 +1,409 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.benchmarks.swarm;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+
+import com.spotify.docker.client.ContainerNotFoundException;
+import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.DockerClient.ListContainersParam;
+import com.spotify.docker.client.DockerException;
+import com.spotify.docker.client.ImageNotFoundException;
+import com.spotify.docker.client.messages.Container;
+import com.spotify.docker.client.messages.ContainerConfig;
+import com.spotify.docker.client.messages.ContainerCreation;
+import com.spotify.docker.client.messages.ContainerExit;
+import com.spotify.docker.client.messages.ContainerInfo;
+import com.spotify.docker.client.messages.ContainerState;
+import com.spotify.docker.client.messages.HostConfig;
+import com.spotify.docker.client.messages.ImageInfo;
+import com.spotify.docker.client.messages.Info;
+import com.spotify.docker.client.messages.Version;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * An in-memory docker daemon for simulated agents. Images are "pulled" after a configurable delay,
+ * containers "run" until they are stopped or killed, or optionally crash after a random lifetime,
+ * and every other call takes a configurable amount of time.
+ *
+ * <p>Only the calls made by the agent are implemented. Use {@link #create} to get a
+ * {@link DockerClient} backed by an instance of this class.
+ */
+public class FakeDockerClient {
+
+  private static final Random RANDOM = new Random();
+
+  /**
+   * How long exited containers are kept around before they are removed.
+   */
+  private static final long EXITED_RETENTION_MILLIS = 60000;
+
+  private final ScheduledExecutorService scheduler;
+  private final long pullMillis;
+  private final long latencyMillis;
+  private final long meanLifetimeMillis;
+
+  private final Set<String> images = Sets.newConcurrentHashSet();
+  private final Map<String, FakeContainer> containers = Maps.newConcurrentMap();
+
+  /**
+   * @param scheduler          Used to crash containers at the end of their lifetime.
+   * @param pullMillis         How long pulling an image takes.
+   * @param latencyMillis      How long every other call takes.
+   * @param meanLifetimeMillis The mean lifetime of a container before it crashes, or 0 to never
+   *                           crash containers.
+   */
+  public FakeDockerClient(final ScheduledExecutorService scheduler, final long pullMillis,
+                          final long latencyMillis, final long meanLifetimeMillis) {
+    this.scheduler = scheduler;
+    this.pullMillis = pullMillis;
+    this.latencyMillis = latencyMillis;
+    this.meanLifetimeMillis = meanLifetimeMillis;
+  }
+
+  /**
+   * @return A {@link DockerClient} backed by the given fake.
+   */
+  public static DockerClient create(final FakeDockerClient fake) {
+    return (DockerClient) Proxy.newProxyInstance(
+        FakeDockerClient.class.getClassLoader(),
+        new Class[]{DockerClient.class},
+        new FakeInvocationHandler(fake));
+  }
+
+  public void pull(final String image) throws InterruptedException {
+    if (!images.contains(image)) {
+      MILLISECONDS.sleep(pullMillis);
+      images.add(image);
+    }
+  }
+
+  public ImageInfo inspectImage(final String image) throws DockerException, InterruptedException {
+    latency();
+    if (!images.contains(image)) {
+      throw new ImageNotFoundException(image);
+    }
+    return new ImageInfo() {
+      @Override
+      public String id() {
+        return Integer.toHexString(image.hashCode());
+      }
+    };
+  }
+
+  public ContainerCreation createContainer(final ContainerConfig config)
+      throws InterruptedException {
+    return createContainer(config, null);
+  }
+
+  public ContainerCreation createContainer(final ContainerConfig config, final String name)
+      throws InterruptedException {
+    latency();
+    final String id = UUID.randomUUID().toString().replace("-", "");
+    containers.put(id, new FakeContainer(id, name == null ? id : name, config.image()));
+    return new ContainerCreation(id);
+  }
+
+  public void startContainer(final String containerId)
+      throws DockerException, InterruptedException {
+    startContainer(containerId, null);
+  }
+
+  public void startContainer(final String containerId, final HostConfig hostConfig)
+      throws DockerException, InterruptedException {
+    latency();
+    final FakeContainer container = container(containerId);
+    container.start();
+    if (meanLifetimeMillis > 0) {
+      final long lifetime = (long) (-Math.log(1 - RANDOM.nextDouble()) * meanLifetimeMillis);
+      scheduler.schedule(new Runnable() {
+        @Override
+        public void run() {
+          exit(container, 1);
+        }
+      }, lifetime, MILLISECONDS);
+    }
+  }
+
+  public ContainerInfo inspectContainer(final String containerId)
+      throws DockerException, InterruptedException {
+    latency();
+    return container(containerId).info();
+  }
+
+  public ContainerExit waitContainer(final String containerId)
+      throws DockerException, InterruptedException {
+    final FakeContainer container = container(containerId);
+    try {
+      return new ContainerExit(container.exitCode.get());
+    } catch (ExecutionException e) {
+      throw new DockerException(e);
+    }
+  }
+
+  public void stopContainer(final String containerId, final int secondsToWaitBeforeKilling)
+      throws DockerException, InterruptedException {
+    latency();
+    exit(container(containerId), 143);
+  }
+
+  public void killContainer(final String containerId)
+      throws DockerException, InterruptedException {
+    latency();
+    exit(container(containerId), 137);
+  }
+
+  public void removeContainer(final String containerId)
+      throws DockerException, InterruptedException {
+    removeContainer(containerId, false);
+  }
+
+  public void removeContainer(final String containerId, final boolean removeVolumes)
+      throws DockerException, InterruptedException {
+    latency();
+    if (containers.remove(containerId) == null) {
+      throw new ContainerNotFoundException(containerId);
+    }
+  }
+
+  public List<Container> listContainers(final ListContainersParam... params)
+      throws InterruptedException {
+    latency();
+    final List<Container> list = Lists.newArrayList();
+    for (final FakeContainer container : containers.values()) {
+      if (container.running) {
+        list.add(container.listing());
+      }
+    }
+    return list;
+  }
+
+  public Info info() throws InterruptedException {
+    latency();
+    return new Info() {
+      @Override
+      public String executionDriver() {
+        return "native-0.2";
+      }
+    };
+  }
+
+  public Version version() throws InterruptedException {
+    latency();
+    return new Version() {
+      @Override
+      public String apiVersion() {
+        return "1.18";
+      }
+
+      @Override
+      public String version() {
+        return "1.6.0";
+      }
+    };
+  }
+
+  public String ping() throws InterruptedException {
+    latency();
+    return "OK";
+  }
+
+  public void close() {
+  }
+
+  /**
+   * @return The number of containers that are currently running.
+   */
+  public int runningContainers() {
+    int count = 0;
+    for (final FakeContainer container : containers.values()) {
+      if (container.running) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private void exit(final FakeContainer container, final int code) {
+    if (container.exit(code)) {
+      scheduler.schedule(new Runnable() {
+        @Override
+        public void run() {
+          containers.remove(container.id);
+        }
+      }, EXITED_RETENTION_MILLIS, MILLISECONDS);
+    }
+  }
+
+  private void latency() throws InterruptedException {
+    if (latencyMillis > 0) {
+      MILLISECONDS.sleep(latencyMillis);
+    }
+  }
+
+  private FakeContainer container(final String containerId) throws ContainerNotFoundException {
+    final FakeContainer container = containers.get(containerId);
+    if (container != null) {
+      return container;
+    }
+    // The agent refers to containers by name until it learns their id
+    for (final FakeContainer candidate : containers.values()) {
+      if (candidate.name.equals(containerId)) {
+        return candidate;
+      }
+    }
+    throw new ContainerNotFoundException(containerId);
+  }
+
+  private static class FakeContainer {
+
+    private final String id;
+    private final String name;
+    private final String image;
+    private final SettableFuture<Integer> exitCode = SettableFuture.create();
+
+    private volatile boolean running;
+    private volatile Date startedAt;
+
+    FakeContainer(final String id, final String name, final String image) {
+      this.id = id;
+      this.name = name;
+      this.image = image;
+    }
+
+    void start() {
+      startedAt = new Date();
+      running = true;
+    }
+
+    boolean exit(final int code) {
+      running = false;
+      return exitCode.set(code);
+    }
+
+    ContainerInfo info() {
+      final boolean running = this.running;
+      final Integer code = exitCode.isDone() ? Futures.getUnchecked(exitCode) : 0;
+      final ContainerState state = new ContainerState() {
+        @Override
+        public Boolean running() {
+          return running;
+        }
+
+        @Override
+        public Integer exitCode() {
+          return code;
+        }
+
+        @Override
+        public Date startedAt() {
+          return startedAt;
+        }
+      };
+      return new ContainerInfo() {
+        @Override
+        public String id() {
+          return id;
+        }
+
+        @Override
+        public String name() {
+          return "/" + name;
+        }
+
+        @Override
+        public String image() {
+          return image;
+        }
+
+        @Override
+        public ContainerState state() {
+          return state;
+        }
+      };
+    }
+
+    Container listing() {
+      return new Container() {
+        @Override
+        public String id() {
+          return id;
+        }
+
+        @Override
+        public List<String> names() {
+          return ImmutableList.of("/" + name);
+        }
+
+        @Override
+        public String image() {
+          return image;
+        }
+      };
+    }
+  }
+
+  private static class FakeInvocationHandler implements InvocationHandler {
+
+    private final FakeDockerClient fake;
+
+    FakeInvocationHandler(final FakeDockerClient fake) {
+      this.fake = fake;
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args)
+        throws Throwable {
+      final Method implementation;
+      try {
+        implementation = FakeDockerClient.class.getMethod(method.getName(),
+                                                          method.getParameterTypes());
+      } catch (NoSuchMethodException e) {
+        throw new UnsupportedOperationException(method.toString());
+      }
+      try {
+        return implementation.invoke(fake, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+}
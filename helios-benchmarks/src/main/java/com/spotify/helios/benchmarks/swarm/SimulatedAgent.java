@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.benchmarks.swarm;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.AbstractIdleService;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.spotify.docker.client.DockerClient;
+import com.spotify.helios.agent.Agent;
+import com.spotify.helios.agent.AgentInfoReporter;
+import com.spotify.helios.agent.AgentZooKeeperRegistrar;
+import com.spotify.helios.agent.ContainerDecorator;
+import com.spotify.helios.agent.EnvironmentVariableReporter;
+import com.spotify.helios.agent.Execution;
+import com.spotify.helios.agent.HostInfoReporter;
+import com.spotify.helios.agent.KafkaClientProvider;
+import com.spotify.helios.agent.LabelReporter;
+import com.spotify.helios.agent.MonitoredDockerClient;
+import com.spotify.helios.agent.PortAllocator;
+import com.spotify.helios.agent.Reaper;
+import com.spotify.helios.agent.SupervisorFactory;
+import com.spotify.helios.agent.ZooKeeperAgentModel;
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.serviceregistration.NopServiceRegistrar;
+import com.spotify.helios.servicescommon.DockerHost;
+import com.spotify.helios.servicescommon.NoOpRiemannClient;
+import com.spotify.helios.servicescommon.PersistentAtomicReference;
+import com.spotify.helios.servicescommon.ReactorFactory;
+import com.spotify.helios.servicescommon.RiemannFacade;
+import com.spotify.helios.servicescommon.ZooKeeperRegistrar;
+import com.spotify.helios.servicescommon.coordination.ZooKeeperClient;
+import com.spotify.helios.servicescommon.coordination.ZooKeeperClientProvider;
+import com.spotify.helios.servicescommon.coordination.ZooKeeperModelReporter;
+import com.spotify.helios.servicescommon.coordination.ZooKeeperNodeUpdaterFactory;
+import com.spotify.helios.servicescommon.statistics.ReactorMetricsRegistry;
+import com.spotify.helios.servicescommon.statistics.SupervisorMetrics;
+import com.spotify.helios.servicescommon.statistics.ZooKeeperMetrics;
+import com.spotify.helios.servicescommon.tracing.Tracer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+import static com.spotify.helios.agent.Agent.EMPTY_EXECUTIONS;
+import static java.lang.management.ManagementFactory.getOperatingSystemMXBean;
+import static java.lang.management.ManagementFactory.getRuntimeMXBean;
+
+/**
+ * An agent wired up like {@link com.spotify.helios.agent.AgentService}, with the real ZooKeeper
+ * model, registrar, reporters and supervisors, but without an HTTP server and with an in-memory
+ * docker daemon. Many of these can run in a single JVM.
+ *
+ * <p>The ZooKeeper client is owned by the caller and may be shared between simulated agents.
+ */
+public class SimulatedAgent extends AbstractIdleService {
+
+  private static final TypeReference<Map<JobId, Execution>> JOBID_EXECUTIONS_MAP =
+      new TypeReference<Map<JobId, Execution>>() {
+      };
+
+  private static final DockerHost DOCKER_HOST =
+      DockerHost.from("unix:///var/run/docker.sock", null);
+
+  private final String name;
+  private final ZooKeeperRegistrar zkRegistrar;
+  private final ZooKeeperAgentModel model;
+  private final Agent agent;
+  private final HostInfoReporter hostInfoReporter;
+  private final AgentInfoReporter agentInfoReporter;
+  private final EnvironmentVariableReporter environmentVariableReporter;
+  private final LabelReporter labelReporter;
+
+  /**
+   * @param name              The agent name.
+   * @param zooKeeperClient   A started ZooKeeper client.
+   * @param dockerClient      The docker daemon to run containers in.
+   * @param labels            The agent labels.
+   * @param stateDirectory    A directory only this agent uses.
+   * @param supervisorMetrics Where to report supervisor metrics.
+   * @param zooKeeperMetrics  Where to report ZooKeeper metrics.
+   * @throws Exception If the agent state cannot be set up.
+   */
+  public SimulatedAgent(final String name, final ZooKeeperClient zooKeeperClient,
+                        final DockerClient dockerClient, final Map<String, String> labels,
+                        final Path stateDirectory, final SupervisorMetrics supervisorMetrics,
+                        final ZooKeeperMetrics zooKeeperMetrics)
+      throws Exception {
+    this.name = name;
+    Files.createDirectories(stateDirectory);
+
+    final String id = name + "-id";
+    // Every agent has reactors and an (untraced) tracer of its own, as it would in its own JVM
+    final Tracer tracer = new Tracer();
+    final ReactorFactory reactorFactory = new ReactorFactory(new ReactorMetricsRegistry(), tracer);
+    this.zkRegistrar = new ZooKeeperRegistrar(zooKeeperClient,
+                                              new AgentZooKeeperRegistrar(this, name, id),
+                                              reactorFactory);
+
+    final RiemannFacade riemannFacade = new NoOpRiemannClient().facade();
+    final DockerClient docker = MonitoredDockerClient.wrap(riemannFacade, supervisorMetrics,
+                                                           dockerClient);
+    final ZooKeeperModelReporter modelReporter = new ZooKeeperModelReporter(
+        riemannFacade, zooKeeperMetrics, tracer);
+    final ZooKeeperClientProvider zkClientProvider = new ZooKeeperClientProvider(
+        zooKeeperClient, modelReporter);
+    this.model = new ZooKeeperAgentModel(zkClientProvider, new KafkaClientProvider(null), name,
+                                         stateDirectory, reactorFactory);
+
+    final ZooKeeperNodeUpdaterFactory nodeUpdaterFactory =
+        new ZooKeeperNodeUpdaterFactory(zooKeeperClient);
+    this.hostInfoReporter = HostInfoReporter.newBuilder()
+        .setNodeUpdaterFactory(nodeUpdaterFactory)
+        .setOperatingSystemMXBean(
+            (com.sun.management.OperatingSystemMXBean) getOperatingSystemMXBean())
+        .setHost(name)
+        .setDockerClient(docker)
+        .setDockerHost(DOCKER_HOST)
+        .build();
+    this.agentInfoReporter = AgentInfoReporter.newBuilder()
+        .setNodeUpdaterFactory(nodeUpdaterFactory)
+        .setRuntimeMXBean(getRuntimeMXBean())
+        .setHost(name)
+        .build();
+    this.environmentVariableReporter = new EnvironmentVariableReporter(
+        name, Collections.<String, String>emptyMap(), nodeUpdaterFactory);
+    this.labelReporter = new LabelReporter(name, labels, nodeUpdaterFactory);
+
+    final String namespace = "helios-" + id;
+    final SupervisorFactory supervisorFactory = new SupervisorFactory(
+        model, docker, Collections.<String, String>emptyMap(), new NopServiceRegistrar(),
+        Collections.<ContainerDecorator>emptyList(), DOCKER_HOST, name, supervisorMetrics,
+        namespace, "", ImmutableList.<String>of(), reactorFactory,
+        tracer);
+
+    final PersistentAtomicReference<Map<JobId, Execution>> executions =
+        PersistentAtomicReference.create(stateDirectory.resolve("executions.json"),
+                                         JOBID_EXECUTIONS_MAP,
+                                         Suppliers.ofInstance(EMPTY_EXECUTIONS));
+    this.agent = new Agent(model, supervisorFactory, reactorFactory, executions,
+                           new PortAllocator(20000, 32768), new Reaper(docker, namespace));
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  protected void startUp() throws Exception {
+    zkRegistrar.startAsync().awaitRunning();
+    model.startAsync().awaitRunning();
+    agent.startAsync().awaitRunning();
+    hostInfoReporter.startAsync();
+    agentInfoReporter.startAsync();
+    environmentVariableReporter.startAsync();
+    labelReporter.startAsync();
+  }
+
+  @Override
+  protected void shutDown() throws Exception {
+    hostInfoReporter.stopAsync().awaitTerminated();
+    agentInfoReporter.stopAsync().awaitTerminated();
+    environmentVariableReporter.stopAsync().awaitTerminated();
+    labelReporter.stopAsync().awaitTerminated();
+    agent.stopAsync().awaitTerminated();
+    zkRegistrar.stopAsync().awaitTerminated();
+    model.stopAsync().awaitTerminated();
+  }
+
+  @Override
+  protected String serviceName() {
+    return "SimulatedAgent(" + name + ")";
+  }
+}
@@ -41,20 +41,28 @@ import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.spotify.helios.common.HeliosException;
 import com.spotify.helios.common.Json;
+import com.spotify.helios.common.NormalizedStatuses;
 import com.spotify.helios.common.Resolver;
 import com.spotify.helios.common.Version;
 import com.spotify.helios.common.VersionCompatibility;
 import com.spotify.helios.common.VersionCompatibility.Status;
 import com.spotify.helios.common.descriptors.Deployment;
 import com.spotify.helios.common.descriptors.DeploymentGroup;
+import com.spotify.helios.common.descriptors.Goal;
 import com.spotify.helios.common.descriptors.HostStatus;
 import com.spotify.helios.common.descriptors.Job;
 import com.spotify.helios.common.descriptors.JobId;
 import com.spotify.helios.common.descriptors.JobStatus;
 import com.spotify.helios.common.descriptors.RolloutOptions;
+import com.spotify.helios.common.descriptors.TaskStatus;
+import com.spotify.helios.common.protocol.BulkDeployRequest;
+import com.spotify.helios.common.protocol.BulkDeployResponse;
+import com.spotify.helios.common.protocol.BulkUndeployRequest;
+import com.spotify.helios.common.protocol.BulkUndeployResponse;
 import com.spotify.helios.common.protocol.CreateDeploymentGroupResponse;
 import com.spotify.helios.common.protocol.CreateJobResponse;
 import com.spotify.helios.common.protocol.DeploymentGroupStatusResponse;
+import com.spotify.helios.common.protocol.FleetSummary;
 import com.spotify.helios.common.protocol.HostDeregisterResponse;
 import com.spotify.helios.common.protocol.JobDeleteResponse;
 import com.spotify.helios.common.protocol.JobDeployResponse;
@@ -63,6 +71,8 @@ import com.spotify.helios.common.protocol.RemoveDeploymentGroupResponse;
 import com.spotify.helios.common.protocol.RollingUpdateRequest;
 import com.spotify.helios.common.protocol.RollingUpdateResponse;
 import com.spotify.helios.common.protocol.SetGoalResponse;
+import com.spotify.helios.common.protocol.StatusWatchRequest;
+import com.spotify.helios.common.protocol.StatusWatchResponse;
 import com.spotify.helios.common.protocol.TaskStatusEvents;
 import com.spotify.helios.common.protocol.VersionResponse;
 
@@ -92,10 +102,12 @@ import java.util.zip.GZIPInputStream;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Strings.nullToEmpty;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static com.google.common.util.concurrent.Futures.transform;
 import static com.google.common.util.concurrent.Futures.withFallback;
 import static com.google.common.util.concurrent.MoreExecutors.getExitingExecutorService;
+import static com.spotify.helios.common.NormalizedStatuses.NORMALIZED_HEADER;
 import static com.spotify.helios.common.VersionCompatibility.HELIOS_SERVER_VERSION_HEADER;
 import static com.spotify.helios.common.VersionCompatibility.HELIOS_VERSION_STATUS_HEADER;
 import static java.lang.String.format;
@@ -104,7 +116,9 @@ import static java.net.HttpURLConnection.HTTP_BAD_METHOD;
 import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
 import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
 import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
 import static java.net.HttpURLConnection.HTTP_OK;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
 import static java.util.concurrent.Executors.newFixedThreadPool;
@@ -115,9 +129,13 @@ public class HeliosClient implements AutoCloseable {
   private static final Logger log = LoggerFactory.getLogger(HeliosClient.class);
   private static final long RETRY_TIMEOUT_MILLIS = SECONDS.toMillis(60);
   private static final long HTTP_TIMEOUT_MILLIS = SECONDS.toMillis(10);
+  private static final long DEFAULT_RETRY_AFTER_MILLIS = SECONDS.toMillis(1);
+  private static final int HTTP_TOO_MANY_REQUESTS = 429;
+  private static final int VALIDATOR_CACHE_SIZE = 16;
 
 
   private final AtomicBoolean versionWarningLogged = new AtomicBoolean();
+  private final ValidatorCache validatorCache = new ValidatorCache(VALIDATOR_CACHE_SIZE);
 
   private final String user;
   private final Supplier<List<URI>> endpointSupplier;
@@ -196,9 +214,32 @@ public class HeliosClient implements AutoCloseable {
 
   private ListenableFuture<Response> request(final URI uri, final String method,
                                              final Object entity) {
+    return request(uri, method, entity, HTTP_TIMEOUT_MILLIS);
+  }
+
+  private ListenableFuture<Response> request(final URI uri, final String method,
+                                             final Object entity, final long readTimeoutMillis) {
+    return request(uri, method, entity, readTimeoutMillis, false);
+  }
+
+  /**
+   * Requests a batch of statuses in the normalized representation, where each job definition
+   * is sent once instead of once per task status. See {@link NormalizedStatuses}.
+   */
+  private ListenableFuture<Response> normalizedRequest(final URI uri, final String method,
+                                                       final Object entity) {
+    return request(uri, method, entity, HTTP_TIMEOUT_MILLIS, true);
+  }
+
+  private ListenableFuture<Response> request(final URI uri, final String method,
+                                             final Object entity, final long readTimeoutMillis,
+                                             final boolean normalized) {
     final Map<String, List<String>> headers = Maps.newHashMap();
     final byte[] entityBytes;
     headers.put(VersionCompatibility.HELIOS_VERSION_HEADER, asList(Version.POM_VERSION));
+    if (normalized) {
+      headers.put(NORMALIZED_HEADER, asList("true"));
+    }
     if (entity != null) {
       headers.put("Content-Type", asList("application/json"));
       headers.put("Charset", asList("utf-8"));
@@ -206,11 +247,23 @@ public class HeliosClient implements AutoCloseable {
     } else {
       entityBytes = new byte[]{};
     }
+    // Revalidate cached responses rather than transferring them again if they're unchanged
+    final String cacheKey = ValidatorCache.key(method, uri, entityBytes);
+    final ValidatorCache.Entry cached = validatorCache.get(cacheKey);
+    if (cached != null) {
+      headers.put("If-None-Match", asList(cached.getEtag()));
+    }
     return executorService.submit(new Callable<Response>() {
       @Override
       public Response call() throws Exception {
-        final HttpURLConnection connection = connect(uri, method, entityBytes, headers);
+        final HttpURLConnection connection = connect(uri, method, entityBytes, headers,
+                                                     readTimeoutMillis);
         final int status = connection.getResponseCode();
+        if (status == HTTP_NOT_MODIFIED && cached != null) {
+          log.debug("rep: {} {} {} not modified", method, connection.getURL(), status);
+          checkprotocolVersionStatus(connection);
+          return new Response(method, uri, HTTP_OK, cached.getPayload(), cached.isNormalized());
+        }
         final InputStream rawStream;
         if (status / 100 != 2) {
           rawStream = connection.getErrorStream();
@@ -236,7 +289,16 @@ public class HeliosClient implements AutoCloseable {
                     method, realUri, status, payload.size(), gzip);
         }
         checkprotocolVersionStatus(connection);
-        return new Response(method, uri, status, payload.toByteArray());
+        // Masters that don't know the normalized representation ignore the request header
+        final boolean normalizedReply = normalized && status == HTTP_OK &&
+                                        "true".equals(connection.getHeaderField(NORMALIZED_HEADER));
+        final String etag = connection.getHeaderField("ETag");
+        if (status == HTTP_OK && etag != null) {
+          validatorCache.put(cacheKey, etag, payload.toByteArray(), normalizedReply);
+        } else if (cached != null) {
+          validatorCache.remove(cacheKey);
+        }
+        return new Response(method, uri, status, payload.toByteArray(), normalizedReply);
       }
 
       private boolean isGzipCompressed(final HttpURLConnection connection) {
@@ -292,7 +354,8 @@ public class HeliosClient implements AutoCloseable {
    * Sets up a connection, retrying on connect failure.
    */
   private HttpURLConnection connect(final URI uri, final String method, final byte[] entity,
-                                    final Map<String, List<String>> headers)
+                                    final Map<String, List<String>> headers,
+                                    final long readTimeoutMillis)
       throws URISyntaxException, IOException, TimeoutException, InterruptedException,
              HeliosException {
     final long deadline = currentTimeMillis() + RETRY_TIMEOUT_MILLIS;
@@ -303,6 +366,7 @@ public class HeliosClient implements AutoCloseable {
         throw new RuntimeException("failed to resolve master");
       }
       log.debug("endpoint uris are {}", endpoints);
+      boolean throttled = false;
       for (int i = 0; i < endpoints.size() && currentTimeMillis() < deadline; i++) {
         final URI endpoint = endpoints.get(positive(offset + i) % endpoints.size());
         final String fullpath = endpoint.getPath() + uri.getPath();
@@ -317,7 +381,18 @@ public class HeliosClient implements AutoCloseable {
         final URI realUri = new URI("http", host + ":" + port, fullpath, uri.getQuery(), null);
         try {
           log.debug("connecting to {}", realUri);
-          return connect0(realUri, method, entity, headers);
+          final HttpURLConnection connection = connect0(realUri, method, entity, headers,
+                                                        readTimeoutMillis);
+          final long retryAfterMillis = retryAfterMillis(connection);
+          if (retryAfterMillis < 0 || currentTimeMillis() + retryAfterMillis >= deadline) {
+            return connection;
+          }
+          // The master is shedding load or starting up, back off for as long as it asks and try
+          // the next one
+          log.debug("{} is unavailable, retrying in {} ms", realUri, retryAfterMillis);
+          connection.disconnect();
+          Thread.sleep(retryAfterMillis);
+          throttled = true;
         } catch (ConnectException | SocketTimeoutException | UnknownHostException e) {
           // UnknownHostException happens if we can't resolve hostname into IP address.
           // UnknownHostException's getMessage method returns just the hostname which is a useless
@@ -325,16 +400,38 @@ public class HeliosClient implements AutoCloseable {
           log.debug(e.getClass().getSimpleName() + " - " + e.getMessage());
           // Connecting failed, sleep a bit to avoid hammering and then try another endpoint
           Thread.sleep(200);
+          throttled = false;
         }
       }
-      log.warn("Failed to connect, retrying in 5 seconds.");
-      Thread.sleep(5000);
+      if (!throttled) {
+        log.warn("Failed to connect, retrying in 5 seconds.");
+        Thread.sleep(5000);
+      }
     }
     throw new TimeoutException("Timed out connecting to master");
   }
 
+  /**
+   * Returns how long a master that rejected a request with 429 Too Many Requests, or with 503
+   * Service Unavailable and a Retry-After header, asked us to wait before trying again, or -1 if
+   * the request wasn't rejected.
+   */
+  private long retryAfterMillis(final HttpURLConnection connection) throws IOException {
+    final int status = connection.getResponseCode();
+    final String retryAfter = connection.getHeaderField("Retry-After");
+    if (status != HTTP_TOO_MANY_REQUESTS && (status != HTTP_UNAVAILABLE || retryAfter == null)) {
+      return -1;
+    }
+    try {
+      return SECONDS.toMillis(Math.max(0, Long.parseLong(nullToEmpty(retryAfter).trim())));
+    } catch (NumberFormatException e) {
+      return DEFAULT_RETRY_AFTER_MILLIS;
+    }
+  }
+
   private HttpURLConnection connect0(final URI uri, final String method, final byte[] entity,
-                                     final Map<String, List<String>> headers)
+                                     final Map<String, List<String>> headers,
+                                     final long readTimeoutMillis)
       throws IOException {
     if (log.isTraceEnabled()) {
       log.trace("req: {} {} {} {} {} {}", method, uri,
@@ -349,7 +446,7 @@ public class HeliosClient implements AutoCloseable {
     connection.setRequestProperty("Accept-Encoding", "gzip");
     connection.setInstanceFollowRedirects(false);
     connection.setConnectTimeout((int) HTTP_TIMEOUT_MILLIS);
-    connection.setReadTimeout((int) HTTP_TIMEOUT_MILLIS);
+    connection.setReadTimeout((int) readTimeoutMillis);
     for (Map.Entry<String, List<String>> header : headers.entrySet()) {
       for (final String value : header.getValue()) {
         connection.addRequestProperty(header.getKey(), value);
@@ -412,6 +509,20 @@ public class HeliosClient implements AutoCloseable {
                      ConvertResponseToPojo.create(JobDeployResponse.class, deserializeReturnCodes));
   }
 
+  /**
+   * Deploys a job to many hosts in one request. Returns null if the master does not support
+   * bulk deploys.
+   */
+  public ListenableFuture<BulkDeployResponse> deploy(final JobId jobId, final List<String> hosts,
+                                                     final Goal goal, final String token) {
+    return transform(request(uri(path("/jobs/%s/deployments", jobId),
+                                 ImmutableMap.of("token", token)),
+                             "POST", new BulkDeployRequest(hosts, goal)),
+                     ConvertResponseToPojo.create(BulkDeployResponse.class,
+                                                  ImmutableSet.of(HTTP_OK, HTTP_BAD_REQUEST,
+                                                                  HTTP_FORBIDDEN)));
+  }
+
   public ListenableFuture<SetGoalResponse> setGoal(final Deployment job, final String host) {
     return setGoal(job, host, "");
   }
@@ -449,7 +560,27 @@ public class HeliosClient implements AutoCloseable {
         TypeFactory.defaultInstance().constructMapType(Map.class, String.class, HostStatus.class),
         ImmutableSet.of(HTTP_OK));
 
-    return transform(request(uri("/hosts/statuses"), "POST", hosts), converter);
+    return transform(normalizedRequest(uri("/hosts/statuses"), "POST", hosts), converter);
+  }
+
+  /**
+   * Returns the statuses of the hosts, with only the given fields filled in. Leaving out fields
+   * that are not needed saves the master from reading them.
+   */
+  public ListenableFuture<Map<String, HostStatus>> hostStatuses(
+      final List<String> hosts, final Set<HostStatus.Field> fields) {
+    final List<String> fieldNames = Lists.newArrayList();
+    for (final HostStatus.Field field : fields) {
+      fieldNames.add(field.getFieldName());
+    }
+    final ConvertResponseToPojo<Map<String, HostStatus>> converter = ConvertResponseToPojo.create(
+        TypeFactory.defaultInstance().constructMapType(Map.class, String.class, HostStatus.class),
+        ImmutableSet.of(HTTP_OK));
+
+    return transform(normalizedRequest(uri("/hosts/statuses",
+                                           ImmutableMap.of("fields",
+                                                           Joiner.on(',').join(fieldNames))),
+                                       "POST", hosts), converter);
   }
 
   public ListenableFuture<Integer> registerHost(final String host, final String id) {
@@ -485,6 +616,21 @@ public class HeliosClient implements AutoCloseable {
                                                                   HTTP_FORBIDDEN)));
   }
 
+  /**
+   * Undeploys a job from many hosts in one request. Returns null if the master does not support
+   * bulk undeploys.
+   */
+  public ListenableFuture<BulkUndeployResponse> undeploy(final JobId jobId,
+                                                         final List<String> hosts,
+                                                         final String token) {
+    return transform(request(uri(path("/jobs/%s/undeploy", jobId),
+                                 ImmutableMap.of("token", token)),
+                             "POST", new BulkUndeployRequest(hosts)),
+                     ConvertResponseToPojo.create(BulkUndeployResponse.class,
+                                                  ImmutableSet.of(HTTP_OK, HTTP_BAD_REQUEST,
+                                                                  HTTP_FORBIDDEN)));
+  }
+
   public ListenableFuture<HostDeregisterResponse> deregisterHost(final String host) {
     return transform(request(uri(path("/hosts/%s", host)), "DELETE"),
                      ConvertResponseToPojo.create(HostDeregisterResponse.class,
@@ -501,6 +647,18 @@ public class HeliosClient implements AutoCloseable {
     });
   }
 
+  /**
+   * Returns the name of the master that runs rolling updates and reaps expired jobs, or null if
+   * no master is currently elected.
+   */
+  public ListenableFuture<String> masterLeader() {
+    return get(uri("/masters/leader"), String.class);
+  }
+
+  public ListenableFuture<FleetSummary> fleetSummary() {
+    return get(uri("/stats"), FleetSummary.class);
+  }
+
   public ListenableFuture<VersionResponse> version() {
     // Create a fallback in case we fail to connect to the master. Return null if this happens.
     // The transform below will handle this and return an appropriate error message to the caller.
@@ -544,9 +702,92 @@ public class HeliosClient implements AutoCloseable {
     return get(uri("/jobs"), new TypeReference<Map<JobId, Job>>() {});
   }
 
+  /**
+   * Returns the jobs matching all of the given filters. Each of the filters is optional and may be
+   * null. Masters that predate the filters other than {@code query} ignore them.
+   *
+   * @param query   Only return jobs whose id contains this string.
+   * @param name    Only return jobs whose name starts with this string.
+   * @param version Only return jobs whose version starts with this string.
+   * @param image   Only return jobs with this image.
+   * @param creator Only return jobs created by this user.
+   * @param limit   Only return this many matching jobs, in job id order.
+   * @return The jobs.
+   */
+  public ListenableFuture<Map<JobId, Job>> jobs(final String query, final String name,
+                                                final String version, final String image,
+                                                final String creator, final Integer limit) {
+    final Map<String, String> params = Maps.newHashMap();
+    if (query != null) {
+      params.put("q", query);
+    }
+    if (name != null) {
+      params.put("name", name);
+    }
+    if (version != null) {
+      params.put("version", version);
+    }
+    if (image != null) {
+      params.put("image", image);
+    }
+    if (creator != null) {
+      params.put("creator", creator);
+    }
+    if (limit != null) {
+      params.put("limit", limit.toString());
+    }
+    return get(uri("/jobs", params), new TypeReference<Map<JobId, Job>>() {});
+  }
+
   public ListenableFuture<TaskStatusEvents> jobHistory(final JobId jobId) {
+    return jobHistory(jobId, null, null, null, null, null);
+  }
+
+  /**
+   * Returns the most recent events in the history of a job, oldest first.
+   *
+   * @param jobId The job.
+   * @param limit The maximum number of events to return.
+   * @return The events.
+   */
+  public ListenableFuture<TaskStatusEvents> jobHistory(final JobId jobId, final int limit) {
+    return jobHistory(jobId, null, null, null, null, limit);
+  }
+
+  /**
+   * Returns the events in the history of a job, oldest first. Each of the filters is optional and
+   * may be null.
+   *
+   * @param jobId The job.
+   * @param host  Only return events from this host.
+   * @param state Only return events where the task was in this state.
+   * @param since Only return events at or after this time, in milliseconds since epoch.
+   * @param until Only return events at or before this time, in milliseconds since epoch.
+   * @param limit Only return this many of the most recent matching events.
+   * @return The events.
+   */
+  public ListenableFuture<TaskStatusEvents> jobHistory(final JobId jobId, final String host,
+                                                       final TaskStatus.State state,
+                                                       final Long since, final Long until,
+                                                       final Integer limit) {
+    final Map<String, String> query = Maps.newHashMap();
+    if (host != null) {
+      query.put("host", host);
+    }
+    if (state != null) {
+      query.put("state", state.toString());
+    }
+    if (since != null) {
+      query.put("since", since.toString());
+    }
+    if (until != null) {
+      query.put("until", until.toString());
+    }
+    if (limit != null) {
+      query.put("limit", limit.toString());
+    }
     return transform(
-        request(uri(path("/history/jobs/%s", jobId.toString())), "GET"),
+        request(uri(path("/history/jobs/%s", jobId.toString()), query), "GET"),
         ConvertResponseToPojo.create(TaskStatusEvents.class,
                                      ImmutableSet.of(HTTP_OK, HTTP_NOT_FOUND)));
   }
@@ -560,7 +801,27 @@ public class HeliosClient implements AutoCloseable {
         TypeFactory.defaultInstance().constructMapType(Map.class, JobId.class, JobStatus.class),
         ImmutableSet.of(HTTP_OK));
     
-    return transform(request(uri("/jobs/statuses"), "POST", jobs), converter);
+    return transform(normalizedRequest(uri("/jobs/statuses"), "POST", jobs), converter);
+  }
+
+  /**
+   * Returns the statuses of the jobs, with only the given fields filled in. Leaving out fields
+   * that are not needed saves the master from reading them.
+   */
+  public ListenableFuture<Map<JobId, JobStatus>> jobStatuses(final Set<JobId> jobs,
+                                                             final Set<JobStatus.Field> fields) {
+    final List<String> fieldNames = Lists.newArrayList();
+    for (final JobStatus.Field field : fields) {
+      fieldNames.add(field.getFieldName());
+    }
+    final ConvertResponseToPojo<Map<JobId, JobStatus>> converter = ConvertResponseToPojo.create(
+        TypeFactory.defaultInstance().constructMapType(Map.class, JobId.class, JobStatus.class),
+        ImmutableSet.of(HTTP_OK));
+
+    return transform(normalizedRequest(uri("/jobs/statuses",
+                                           ImmutableMap.of("fields",
+                                                           Joiner.on(',').join(fieldNames))),
+                                       "POST", jobs), converter);
   }
 
   public ListenableFuture<DeploymentGroup> deploymentGroup(final String name) {
@@ -605,6 +866,22 @@ public class HeliosClient implements AutoCloseable {
         uri(path("/deployment-group/%s/rolling-update/abort", deploymentGroupName)), "POST"));
   }
 
+  /**
+   * Waits for status changes matching the request. The master holds the request open until
+   * there is at least one matching change or the timeout expires, whichever comes first.
+   *
+   * @param request The jobs, hosts or deployment group to watch and the last seen sequence.
+   * @param timeoutMillis How long the master should wait for changes.
+   * @return The changes, or null if the master does not support watching.
+   */
+  public ListenableFuture<StatusWatchResponse> watchStatuses(final StatusWatchRequest request,
+                                                             final long timeoutMillis) {
+    return transform(
+        request(uri("/watch/statuses", ImmutableMap.of("timeout", String.valueOf(timeoutMillis))),
+                "POST", request, timeoutMillis + HTTP_TIMEOUT_MILLIS),
+        ConvertResponseToPojo.create(StatusWatchResponse.class, ImmutableSet.of(HTTP_OK)));
+  }
+
   private static final class ConvertResponseToPojo<T> implements AsyncFunction<Response, T> {
 
     private final JavaType javaType;
@@ -646,7 +923,8 @@ public class HeliosClient implements AutoCloseable {
 
       final T result;
       try {
-        result = Json.read(reply.payload, javaType);
+        result = reply.normalized ? NormalizedStatuses.<T>read(reply.payload, javaType)
+                                  : Json.<T>read(reply.payload, javaType);
       } catch (IOException e) {
         throw new HeliosException("bad reply: " + reply, e);
       }
@@ -724,12 +1002,15 @@ public class HeliosClient implements AutoCloseable {
     private final URI uri;
     private final int status;
     private final byte[] payload;
+    private final boolean normalized;
 
-    public Response(final String method, final URI uri, final int status, final byte[] payload) {
+    public Response(final String method, final URI uri, final int status, final byte[] payload,
+                    final boolean normalized) {
       this.method = method;
       this.uri = uri;
       this.status = status;
       this.payload = payload;
+      this.normalized = normalized;
     }
 
     @Override
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.client;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.descriptors.TaskStatus;
+import com.spotify.helios.common.protocol.StatusChange;
+import com.spotify.helios.common.protocol.StatusWatchRequest;
+import com.spotify.helios.common.protocol.StatusWatchResponse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.Futures.transform;
+
+/**
+ * Keeps a local view of task statuses up to date using the master's status watch endpoint,
+ * so callers only transfer what has changed instead of repeatedly fetching full job statuses.
+ *
+ * <p>Only one call to {@link #next(long, TimeUnit)} should be outstanding at a time.
+ */
+public class StatusWatch {
+
+  private final HeliosClient client;
+  private final Map<JobId, Map<String, TaskStatus>> taskStatuses = Maps.newHashMap();
+
+  private volatile StatusWatchRequest request;
+
+  public StatusWatch(final HeliosClient client, final StatusWatchRequest request) {
+    this.client = checkNotNull(client, "client");
+    this.request = checkNotNull(request, "request");
+  }
+
+  /**
+   * Waits for the next batch of changes and applies them to the local view once they arrive.
+   *
+   * @return The changes, which is empty if the timeout expired without any changes, or null if
+   *         the master does not support watching.
+   */
+  public ListenableFuture<List<StatusChange>> next(final long timeout, final TimeUnit unit) {
+    return transform(client.watchStatuses(request, unit.toMillis(timeout)),
+                     new Function<StatusWatchResponse, List<StatusChange>>() {
+                       @Override
+                       public List<StatusChange> apply(final StatusWatchResponse response) {
+                         return response == null ? null : update(response);
+                       }
+                     });
+  }
+
+  private synchronized List<StatusChange> update(final StatusWatchResponse response) {
+    if (response.isReset()) {
+      taskStatuses.clear();
+    }
+    for (final StatusChange change : response.getChanges()) {
+      if (change.getType() != StatusChange.Type.TASK_STATUS) {
+        continue;
+      }
+      Map<String, TaskStatus> hosts = taskStatuses.get(change.getJob());
+      if (hosts == null) {
+        hosts = Maps.newHashMap();
+        taskStatuses.put(change.getJob(), hosts);
+      }
+      if (change.getTaskStatus() == null) {
+        hosts.remove(change.getHost());
+      } else {
+        hosts.put(change.getHost(), change.getTaskStatus());
+      }
+    }
+    request = request.resumeFrom(response);
+    return response.getChanges();
+  }
+
+  /**
+   * Returns the current task statuses of a job keyed by host.
+   */
+  public synchronized Map<String, TaskStatus> getTaskStatuses(final JobId jobId) {
+    final Map<String, TaskStatus> hosts = taskStatuses.get(jobId);
+    return hosts == null ? ImmutableMap.<String, TaskStatus>of() : ImmutableMap.copyOf(hosts);
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.client;
+
+import com.google.common.hash.Hashing;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A small LRU cache of the entity tags returned by the master and the payloads they belong to.
+ * Lets the client send If-None-Match on repeated reads and reuse the cached payload when the
+ * master answers 304 Not Modified.
+ */
+class ValidatorCache {
+
+  static class Entry {
+
+    private final String etag;
+    private final byte[] payload;
+    private final boolean normalized;
+
+    Entry(final String etag, final byte[] payload, final boolean normalized) {
+      this.etag = etag;
+      this.payload = payload;
+      this.normalized = normalized;
+    }
+
+    String getEtag() {
+      return etag;
+    }
+
+    byte[] getPayload() {
+      return payload;
+    }
+
+    /**
+     * @return Whether the payload is in the normalized representation of a batch of statuses.
+     */
+    boolean isNormalized() {
+      return normalized;
+    }
+  }
+
+  private final Map<String, Entry> entries;
+
+  ValidatorCache(final int maxEntries) {
+    this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  /**
+   * Returns the cache key of a request. The entity is part of the key as batch reads like
+   * host statuses are POSTs with the hosts in the body.
+   */
+  static String key(final String method, final URI uri, final byte[] entity) {
+    final StringBuilder key = new StringBuilder(method).append(' ').append(uri);
+    if (entity.length > 0) {
+      key.append(' ').append(Hashing.murmur3_128().hashBytes(entity));
+    }
+    return key.toString();
+  }
+
+  synchronized Entry get(final String key) {
+    return entries.get(key);
+  }
+
+  synchronized void put(final String key, final String etag, final byte[] payload,
+                        final boolean normalized) {
+    entries.put(key, new Entry(etag, payload, normalized));
+  }
+
+  synchronized void remove(final String key) {
+    entries.remove(key);
+  }
+}
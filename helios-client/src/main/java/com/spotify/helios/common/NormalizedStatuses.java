@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.common;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.Maps;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.spotify.helios.common.descriptors.HostStatus;
+import com.spotify.helios.common.descriptors.Job;
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.descriptors.JobStatus;
+import com.spotify.helios.common.descriptors.TaskStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
+import static com.fasterxml.jackson.databind.MapperFeature.SORT_PROPERTIES_ALPHABETICALLY;
+import static com.fasterxml.jackson.databind.SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS;
+import static com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS;
+
+/**
+ * The normalized representation of batches of host and job statuses. Every task status embeds
+ * the definition of its job, so a batch with the statuses of many hosts running the same jobs
+ * repeats the same job definitions over and over. The normalized representation lists each job
+ * once, in a dictionary keyed by job id, and the statuses refer to their jobs by id.
+ *
+ * A typical JSON representation might be:
+ * <pre>
+ * {
+ *   "jobs" : {
+ *     "foo:1:4f3ab7..." : { #... see the definition of Job }
+ *   },
+ *   "statuses" : {
+ *     "host-1" : {
+ *       "statuses" : {
+ *         "foo:1:4f3ab7..." : {
+ *           "job" : "foo:1:4f3ab7...",
+ *           #... the rest of the task status
+ *         }
+ *       },
+ *       #... the rest of the host status
+ *     }
+ *   }
+ * }
+ * </pre>
+ *
+ * Clients ask for it by setting the {@link #NORMALIZED_HEADER} header on the request, and
+ * masters that support it set the same header on the response. The statuses read back share
+ * a single {@link Job} instance per job.
+ */
+public class NormalizedStatuses {
+
+  public static final String NORMALIZED_HEADER = "Helios-Normalized";
+
+  private static final String JOBS_FIELD = "jobs";
+  private static final String STATUSES_FIELD = "statuses";
+  private static final String JOBS_ATTRIBUTE = NormalizedStatuses.class.getName() + ".jobs";
+
+  private static final JavaType JOBS_TYPE = TypeFactory.defaultInstance()
+      .constructMapType(Map.class, JobId.class, Job.class);
+
+  private static final ObjectMapper OBJECT_MAPPER = objectMapper();
+
+  private static final ObjectMapper REFERENCE_MAPPER = objectMapper()
+      .registerModule(new SimpleModule("JobReferences")
+                          .addSerializer(Job.class, new JobReferenceSerializer())
+                          .addDeserializer(Job.class, new JobReferenceDeserializer()));
+
+  private static ObjectMapper objectMapper() {
+    return new ObjectMapper()
+        .configure(SORT_PROPERTIES_ALPHABETICALLY, true)
+        .configure(ORDER_MAP_ENTRIES_BY_KEYS, true)
+        .configure(WRITE_DATES_AS_TIMESTAMPS, false)
+        .configure(FAIL_ON_UNKNOWN_PROPERTIES, false);
+  }
+
+  /**
+   * Serializes a batch of host statuses to the normalized representation.
+   */
+  public static byte[] writeHostStatuses(final Map<String, HostStatus> statuses) {
+    final Map<JobId, Job> jobs = Maps.newTreeMap();
+    for (final HostStatus status : statuses.values()) {
+      addJobs(jobs, status.getStatuses().values());
+    }
+    return write(jobs, statuses);
+  }
+
+  /**
+   * Serializes a batch of job statuses to the normalized representation.
+   */
+  public static byte[] writeJobStatuses(final Map<JobId, JobStatus> statuses) {
+    final Map<JobId, Job> jobs = Maps.newTreeMap();
+    for (final JobStatus status : statuses.values()) {
+      if (status.getJob() != null) {
+        jobs.put(status.getJob().getId(), status.getJob());
+      }
+      if (status.getTaskStatuses() != null) {
+        addJobs(jobs, status.getTaskStatuses().values());
+      }
+    }
+    return write(jobs, statuses);
+  }
+
+  /**
+   * Deserializes a batch of statuses from the normalized representation.
+   *
+   * @param payload The normalized representation.
+   * @param statusesType The type of the batch, e.g. a map of host name to {@link HostStatus}.
+   * @return The statuses, with the jobs looked up in the job dictionary.
+   * @throws IOException If the payload is not a valid normalized representation.
+   */
+  public static <T> T read(final byte[] payload, final JavaType statusesType) throws IOException {
+    final JsonNode tree = OBJECT_MAPPER.readTree(payload);
+    if (tree == null || !tree.has(JOBS_FIELD) || !tree.has(STATUSES_FIELD)) {
+      throw new IOException("Not a normalized representation");
+    }
+    final Map<JobId, Job> jobs = OBJECT_MAPPER.readValue(tree.get(JOBS_FIELD).traverse(),
+                                                         JOBS_TYPE);
+    return REFERENCE_MAPPER.reader(statusesType)
+        .withAttribute(JOBS_ATTRIBUTE, jobs)
+        .readValue(tree.get(STATUSES_FIELD));
+  }
+
+  private static void addJobs(final Map<JobId, Job> jobs,
+                              final Iterable<TaskStatus> taskStatuses) {
+    for (final TaskStatus taskStatus : taskStatuses) {
+      jobs.put(taskStatus.getJob().getId(), taskStatus.getJob());
+    }
+  }
+
+  private static byte[] write(final Map<JobId, Job> jobs, final Object statuses) {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (final JsonGenerator generator = OBJECT_MAPPER.getFactory().createGenerator(out)) {
+      generator.writeStartObject();
+      generator.writeFieldName(JOBS_FIELD);
+      OBJECT_MAPPER.writeValue(generator, jobs);
+      generator.writeFieldName(STATUSES_FIELD);
+      REFERENCE_MAPPER.writeValue(generator, statuses);
+      generator.writeEndObject();
+    } catch (IOException e) {
+      throw Throwables.propagate(e);
+    }
+    return out.toByteArray();
+  }
+
+  private static class JobReferenceSerializer extends JsonSerializer<Job> {
+
+    @Override
+    public void serialize(final Job job, final JsonGenerator generator,
+                          final SerializerProvider provider) throws IOException {
+      generator.writeString(job.getId().toString());
+    }
+  }
+
+  private static class JobReferenceDeserializer extends JsonDeserializer<Job> {
+
+    @Override
+    public Job deserialize(final JsonParser parser, final DeserializationContext context)
+        throws IOException {
+      @SuppressWarnings("unchecked")
+      final Map<JobId, Job> jobs = (Map<JobId, Job>) context.getAttribute(JOBS_ATTRIBUTE);
+      final String id = parser.getValueAsString();
+      final Job job;
+      try {
+        job = (jobs == null || id == null) ? null : jobs.get(JobId.fromString(id));
+      } catch (IllegalArgumentException e) {
+        throw context.mappingException("Invalid job reference " + id);
+      }
+      if (job == null) {
+        throw context.mappingException("Unknown job reference " + id);
+      }
+      return job;
+    }
+  }
+}
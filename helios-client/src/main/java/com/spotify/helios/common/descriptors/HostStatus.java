@@ -76,6 +76,38 @@ public class HostStatus extends Descriptor {
     DOWN
   }
 
+  /**
+   * The parts of a host status that can be requested separately, named by their JSON properties.
+   * The up/down status is always included.
+   */
+  public static enum Field {
+    JOBS("jobs"),
+    STATUSES("statuses"),
+    HOST_INFO("hostInfo"),
+    AGENT_INFO("agentInfo"),
+    ENVIRONMENT("environment"),
+    LABELS("labels");
+
+    private final String fieldName;
+
+    Field(final String fieldName) {
+      this.fieldName = fieldName;
+    }
+
+    public String getFieldName() {
+      return fieldName;
+    }
+
+    public static Field fromFieldName(final String fieldName) {
+      for (final Field field : values()) {
+        if (field.fieldName.equals(fieldName)) {
+          return field;
+        }
+      }
+      throw new IllegalArgumentException("Unknown host status field: " + fieldName);
+    }
+  }
+
   private final Status status;
   private final HostInfo hostInfo;
   private final AgentInfo agentInfo;
@@ -60,6 +60,34 @@ import static com.google.common.collect.ImmutableMap.copyOf;
  */
 public class JobStatus {
 
+  /**
+   * The parts of a job status that can be requested separately, named by their JSON properties.
+   */
+  public static enum Field {
+    JOB("job"),
+    TASK_STATUSES("taskStatuses"),
+    DEPLOYMENTS("deployments");
+
+    private final String fieldName;
+
+    Field(final String fieldName) {
+      this.fieldName = fieldName;
+    }
+
+    public String getFieldName() {
+      return fieldName;
+    }
+
+    public static Field fromFieldName(final String fieldName) {
+      for (final Field field : values()) {
+        if (field.fieldName.equals(fieldName)) {
+          return field;
+        }
+      }
+      throw new IllegalArgumentException("Unknown job status field: " + fieldName);
+    }
+  }
+
   private final Job job;
   private final Map<String, TaskStatus> taskStatuses;
   private final Map<String, Deployment> deployments;
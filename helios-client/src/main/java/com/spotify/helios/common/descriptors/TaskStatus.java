@@ -25,6 +25,7 @@ import com.google.common.base.Objects;
 import com.google.common.base.Optional;
 import com.google.common.collect.Maps;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import org.jetbrains.annotations.Nullable;
@@ -59,7 +60,8 @@ import static java.util.Collections.emptyMap;
  *     }
  *   },
  *   "state" : "RUNNING",
- *   "throttled" : "NO"
+ *   "throttled" : "NO",
+ *   "timeToRunning" : { #... see the definition of TimeToRunning }
  * },
  * </pre>
  */
@@ -87,6 +89,7 @@ public class TaskStatus extends Descriptor {
   private final ThrottleState throttled;
   private final Map<String, PortMapping> ports;
   private final Map<String, String> env;
+  private final TimeToRunning timeToRunning;
 
   /**
    * @param job The job the task is running.
@@ -96,6 +99,7 @@ public class TaskStatus extends Descriptor {
    * @param throttled The throttle state of the task.
    * @param ports The ports actually assigned to the task.
    * @param env The environment passed to the container.
+   * @param timeToRunning How long the latest start of the task took, if it has been running.
    */
   public TaskStatus(@JsonProperty("job") final Job job,
                     @Nullable @JsonProperty("goal") final Goal goal,
@@ -103,7 +107,8 @@ public class TaskStatus extends Descriptor {
                     @Nullable @JsonProperty("containerId") final String containerId,
                     @JsonProperty("throttled") final ThrottleState throttled,
                     @JsonProperty("ports") final Map<String, PortMapping> ports,
-                    @Nullable @JsonProperty("env") final Map<String, String> env) {
+                    @Nullable @JsonProperty("env") final Map<String, String> env,
+                    @Nullable @JsonProperty("timeToRunning") final TimeToRunning timeToRunning) {
     this.job = checkNotNull(job, "job");
     this.goal = goal; // TODO (dano): add null check when all masters are upgraded
     this.state = checkNotNull(state, "state");
@@ -113,6 +118,7 @@ public class TaskStatus extends Descriptor {
     this.throttled = Optional.fromNullable(throttled).or(ThrottleState.NO);
     this.ports = Optional.fromNullable(ports).or(EMPTY_PORTS);
     this.env = Optional.fromNullable(env).or(Maps.<String, String>newHashMap());
+    this.timeToRunning = timeToRunning;
   }
 
   public Builder asBuilder() {
@@ -123,7 +129,8 @@ public class TaskStatus extends Descriptor {
         .setContainerId(containerId)
         .setThrottled(throttled)
         .setPorts(ports)
-        .setEnv(env);
+        .setEnv(env)
+        .setTimeToRunning(timeToRunning);
   }
 
   private TaskStatus(final Builder builder) {
@@ -136,6 +143,7 @@ public class TaskStatus extends Descriptor {
     this.throttled = Optional.fromNullable(builder.throttled).or(ThrottleState.NO);
     this.ports = Optional.fromNullable(builder.ports).or(EMPTY_PORTS);
     this.env = Optional.fromNullable(builder.env).or(Maps.<String, String>newHashMap());
+    this.timeToRunning = builder.timeToRunning;
   }
 
   public ThrottleState getThrottled() {
@@ -167,6 +175,12 @@ public class TaskStatus extends Descriptor {
     return env;
   }
 
+  @Nullable
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public TimeToRunning getTimeToRunning() {
+    return timeToRunning;
+  }
+
   @Override
   public String toString() {
     return Objects.toStringHelper(this)
@@ -177,6 +191,7 @@ public class TaskStatus extends Descriptor {
         .add("throttled", throttled)
         .add("ports", ports)
         .add("env", env)
+        .add("timeToRunning", timeToRunning)
         .toString();
   }
 
@@ -212,6 +227,10 @@ public class TaskStatus extends Descriptor {
     if (throttled != that.throttled) {
       return false;
     }
+    if (timeToRunning != null ? !timeToRunning.equals(that.timeToRunning)
+                              : that.timeToRunning != null) {
+      return false;
+    }
 
     return true;
   }
@@ -225,6 +244,7 @@ public class TaskStatus extends Descriptor {
     result = 31 * result + (throttled != null ? throttled.hashCode() : 0);
     result = 31 * result + (ports != null ? ports.hashCode() : 0);
     result = 31 * result + (env != null ? env.hashCode() : 0);
+    result = 31 * result + (timeToRunning != null ? timeToRunning.hashCode() : 0);
     return result;
   }
 
@@ -242,6 +262,7 @@ public class TaskStatus extends Descriptor {
     private Map<String, PortMapping> ports;
     private ThrottleState throttled;
     private Map<String, String> env;
+    private TimeToRunning timeToRunning;
 
     public Builder setJob(final Job job) {
       this.job = job;
@@ -278,6 +299,11 @@ public class TaskStatus extends Descriptor {
       return this;
     }
 
+    public Builder setTimeToRunning(final TimeToRunning timeToRunning) {
+      this.timeToRunning = timeToRunning;
+      return this;
+    }
+
     public TaskStatus build() {
       return new TaskStatus(this);
     }
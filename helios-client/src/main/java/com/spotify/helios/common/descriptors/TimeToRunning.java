@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.common.descriptors;
+
+import com.google.common.base.Objects;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * How long a task spent in each phase of its latest start, from pulling the image until it was
+ * running. All times are in milliseconds. Phases that were skipped, e.g. health checking for a
+ * job without a health check, are absent.
+ *
+ * A typical JSON representation might be:
+ * <pre>
+ * {
+ *   "createMillis" : 120,
+ *   "healthCheckMillis" : 4012,
+ *   "pullMillis" : 2310,
+ *   "startMillis" : 340,
+ *   "totalMillis" : 6790
+ * }
+ * </pre>
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TimeToRunning extends Descriptor {
+
+  private final Long pullMillis;
+  private final Long createMillis;
+  private final Long startMillis;
+  private final Long healthCheckMillis;
+  private final long totalMillis;
+
+  /**
+   * @param pullMillis Time spent pulling the image.
+   * @param createMillis Time spent creating the container.
+   * @param startMillis Time spent starting the container.
+   * @param healthCheckMillis Time spent waiting for the health check to pass.
+   * @param totalMillis Time from the start of the first phase until the task was running.
+   */
+  public TimeToRunning(@Nullable @JsonProperty("pullMillis") final Long pullMillis,
+                       @Nullable @JsonProperty("createMillis") final Long createMillis,
+                       @Nullable @JsonProperty("startMillis") final Long startMillis,
+                       @Nullable @JsonProperty("healthCheckMillis") final Long healthCheckMillis,
+                       @JsonProperty("totalMillis") final long totalMillis) {
+    this.pullMillis = pullMillis;
+    this.createMillis = createMillis;
+    this.startMillis = startMillis;
+    this.healthCheckMillis = healthCheckMillis;
+    this.totalMillis = totalMillis;
+  }
+
+  @Nullable
+  public Long getPullMillis() {
+    return pullMillis;
+  }
+
+  @Nullable
+  public Long getCreateMillis() {
+    return createMillis;
+  }
+
+  @Nullable
+  public Long getStartMillis() {
+    return startMillis;
+  }
+
+  @Nullable
+  public Long getHealthCheckMillis() {
+    return healthCheckMillis;
+  }
+
+  public long getTotalMillis() {
+    return totalMillis;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    final TimeToRunning that = (TimeToRunning) o;
+
+    return totalMillis == that.totalMillis
+           && Objects.equal(pullMillis, that.pullMillis)
+           && Objects.equal(createMillis, that.createMillis)
+           && Objects.equal(startMillis, that.startMillis)
+           && Objects.equal(healthCheckMillis, that.healthCheckMillis);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(pullMillis, createMillis, startMillis, healthCheckMillis, totalMillis);
+  }
+
+  @Override
+  public String toString() {
+    return Objects.toStringHelper(this)
+        .add("pullMillis", pullMillis)
+        .add("createMillis", createMillis)
+        .add("startMillis", startMillis)
+        .add("healthCheckMillis", healthCheckMillis)
+        .add("totalMillis", totalMillis)
+        .toString();
+  }
+}
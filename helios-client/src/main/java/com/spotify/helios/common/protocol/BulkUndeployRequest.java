@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.common.protocol;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.spotify.helios.common.Json;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Undeploys a job from a list of hosts.
+ */
+public class BulkUndeployRequest {
+
+  private final List<String> hosts;
+
+  public BulkUndeployRequest(@JsonProperty("hosts") final List<String> hosts) {
+    this.hosts = ImmutableList.copyOf(checkNotNull(hosts));
+  }
+
+  public List<String> getHosts() {
+    return hosts;
+  }
+
+  @Override
+  public String toString() {
+    return Objects.toStringHelper(getClass())
+        .add("hosts", hosts)
+        .toString();
+  }
+
+  public String toJsonString() {
+    return Json.asStringUnchecked(this);
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.common.protocol;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableMap;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.spotify.helios.common.Json;
+import com.spotify.helios.common.descriptors.HostStatus;
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.descriptors.TaskStatus;
+import com.spotify.helios.common.descriptors.ThrottleState;
+
+import java.util.Map;
+
+/**
+ * Aggregate counts over the whole fleet of hosts, tasks and deployment groups. The summary has an
+ * entry per deployment group and per distinct label and state, so it is not constant in size:
+ * it grows with the number of groups, and with the fleet if hosts carry labels of their own.
+ */
+public class FleetSummary {
+
+  private final int hosts;
+  private final Map<HostStatus.Status, Integer> hostsByStatus;
+  private final Map<String, Integer> hostsByLabel;
+  private final int deployments;
+  private final Map<TaskStatus.State, Integer> tasksByState;
+  private final Map<ThrottleState, Integer> tasksByThrottle;
+  private final Map<String, JobId> deploymentGroupJobs;
+  private final Map<String, Integer> deploymentGroupHosts;
+
+  public FleetSummary(
+      @JsonProperty("hosts") final int hosts,
+      @JsonProperty("hostsByStatus") final Map<HostStatus.Status, Integer> hostsByStatus,
+      @JsonProperty("hostsByLabel") final Map<String, Integer> hostsByLabel,
+      @JsonProperty("deployments") final int deployments,
+      @JsonProperty("tasksByState") final Map<TaskStatus.State, Integer> tasksByState,
+      @JsonProperty("tasksByThrottle") final Map<ThrottleState, Integer> tasksByThrottle,
+      @JsonProperty("deploymentGroupJobs") final Map<String, JobId> deploymentGroupJobs,
+      @JsonProperty("deploymentGroupHosts") final Map<String, Integer> deploymentGroupHosts) {
+    this.hosts = hosts;
+    this.hostsByStatus = copy(hostsByStatus);
+    this.hostsByLabel = copy(hostsByLabel);
+    this.deployments = deployments;
+    this.tasksByState = copy(tasksByState);
+    this.tasksByThrottle = copy(tasksByThrottle);
+    this.deploymentGroupJobs = copy(deploymentGroupJobs);
+    this.deploymentGroupHosts = copy(deploymentGroupHosts);
+  }
+
+  private static <K, V> Map<K, V> copy(final Map<K, V> map) {
+    return map == null ? ImmutableMap.<K, V>of() : ImmutableMap.copyOf(map);
+  }
+
+  /**
+   * @return The number of registered hosts.
+   */
+  public int getHosts() {
+    return hosts;
+  }
+
+  /**
+   * @return The number of registered hosts that are up and down.
+   */
+  public Map<HostStatus.Status, Integer> getHostsByStatus() {
+    return hostsByStatus;
+  }
+
+  /**
+   * @return The number of hosts with each label, keyed by {@code key=value}.
+   */
+  public Map<String, Integer> getHostsByLabel() {
+    return hostsByLabel;
+  }
+
+  /**
+   * @return The number of jobs deployed to hosts, counting every host a job is deployed to.
+   */
+  public int getDeployments() {
+    return deployments;
+  }
+
+  /**
+   * @return The number of tasks reported by agents in each state.
+   */
+  public Map<TaskStatus.State, Integer> getTasksByState() {
+    return tasksByState;
+  }
+
+  /**
+   * @return The number of tasks reported by agents in each throttle state.
+   */
+  public Map<ThrottleState, Integer> getTasksByThrottle() {
+    return tasksByThrottle;
+  }
+
+  /**
+   * @return The job of each deployment group that has one.
+   */
+  public Map<String, JobId> getDeploymentGroupJobs() {
+    return deploymentGroupJobs;
+  }
+
+  /**
+   * @return The number of hosts in each deployment group.
+   */
+  public Map<String, Integer> getDeploymentGroupHosts() {
+    return deploymentGroupHosts;
+  }
+
+  @Override
+  public String toString() {
+    return Objects.toStringHelper(getClass())
+        .add("hosts", hosts)
+        .add("hostsByStatus", hostsByStatus)
+        .add("hostsByLabel", hostsByLabel)
+        .add("deployments", deployments)
+        .add("tasksByState", tasksByState)
+        .add("tasksByThrottle", tasksByThrottle)
+        .add("deploymentGroupJobs", deploymentGroupJobs)
+        .add("deploymentGroupHosts", deploymentGroupHosts)
+        .toString();
+  }
+
+  public String toJsonString() {
+    return Json.asStringUnchecked(this);
+  }
+}
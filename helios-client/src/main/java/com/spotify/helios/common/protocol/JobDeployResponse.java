@@ -38,7 +38,8 @@ public class JobDeployResponse {
     ID_MISMATCH,
     INVALID_ID,
     AMBIGUOUS_JOB_REFERENCE,
-    FORBIDDEN
+    FORBIDDEN,
+    FAILED
   }
 
   private final Status status;
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.common.protocol;
+
+import com.google.common.base.Objects;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.spotify.helios.common.Json;
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.descriptors.TaskStatus;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A single change observed by the master, as returned by the status watch endpoint.
+ *
+ * <p>Each change carries the master-assigned sequence number it was recorded under. Task status
+ * changes carry the new {@link TaskStatus}, or no status if the task was removed from the host.
+ * Deployment group changes only carry the group name; clients are expected to fetch the
+ * deployment group status when they see one.
+ */
+public class StatusChange {
+
+  public enum Type {
+    TASK_STATUS,
+    HOST_UP,
+    HOST_DOWN,
+    DEPLOYMENT_GROUP,
+  }
+
+  private final long sequence;
+  private final Type type;
+  private final String host;
+  private final JobId job;
+  private final TaskStatus taskStatus;
+  private final String deploymentGroup;
+
+  public StatusChange(@JsonProperty("sequence") final long sequence,
+                      @JsonProperty("type") final Type type,
+                      @JsonProperty("host") final String host,
+                      @JsonProperty("job") final JobId job,
+                      @JsonProperty("taskStatus") final TaskStatus taskStatus,
+                      @JsonProperty("deploymentGroup") final String deploymentGroup) {
+    this.sequence = sequence;
+    this.type = checkNotNull(type, "type");
+    this.host = host;
+    this.job = job;
+    this.taskStatus = taskStatus;
+    this.deploymentGroup = deploymentGroup;
+  }
+
+  public static StatusChange taskStatus(final long sequence, final String host, final JobId job,
+                                        final TaskStatus taskStatus) {
+    return new StatusChange(sequence, Type.TASK_STATUS, host, job, taskStatus, null);
+  }
+
+  public static StatusChange hostUp(final long sequence, final String host, final boolean up) {
+    return new StatusChange(sequence, up ? Type.HOST_UP : Type.HOST_DOWN, host, null, null, null);
+  }
+
+  public static StatusChange deploymentGroup(final long sequence, final String name) {
+    return new StatusChange(sequence, Type.DEPLOYMENT_GROUP, null, null, null, name);
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  public JobId getJob() {
+    return job;
+  }
+
+  public TaskStatus getTaskStatus() {
+    return taskStatus;
+  }
+
+  public String getDeploymentGroup() {
+    return deploymentGroup;
+  }
+
+  /**
+   * Returns a copy of this change recorded under another sequence number.
+   */
+  public StatusChange withSequence(final long sequence) {
+    return new StatusChange(sequence, type, host, job, taskStatus, deploymentGroup);
+  }
+
+  @Override
+  public String toString() {
+    return Objects.toStringHelper(getClass())
+        .add("sequence", sequence)
+        .add("type", type)
+        .add("host", host)
+        .add("job", job)
+        .add("taskStatus", taskStatus)
+        .add("deploymentGroup", deploymentGroup)
+        .toString();
+  }
+
+  public String toJsonString() {
+    return Json.asStringUnchecked(this);
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.common.protocol;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableSet;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.spotify.helios.common.Json;
+import com.spotify.helios.common.descriptors.JobId;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Asks the master for status changes newer than a previously seen sequence number.
+ *
+ * <p>An empty set of jobs or hosts matches any job or host. If a deployment group is given, its
+ * hosts are added to the set of hosts and changes to the group's status are included. A request
+ * without an epoch, or with an epoch or sequence number the master no longer knows about, is
+ * answered with a full snapshot of the current state (see {@link StatusWatchResponse#isReset()}).
+ */
+public class StatusWatchRequest {
+
+  private final Set<JobId> jobs;
+  private final Set<String> hosts;
+  private final String deploymentGroup;
+  private final String epoch;
+  private final long sequence;
+
+  public StatusWatchRequest(@JsonProperty("jobs") final Set<JobId> jobs,
+                            @JsonProperty("hosts") final Set<String> hosts,
+                            @JsonProperty("deploymentGroup") final String deploymentGroup,
+                            @JsonProperty("epoch") final String epoch,
+                            @JsonProperty("sequence") final long sequence) {
+    this.jobs = jobs == null ? Collections.<JobId>emptySet() : ImmutableSet.copyOf(jobs);
+    this.hosts = hosts == null ? Collections.<String>emptySet() : ImmutableSet.copyOf(hosts);
+    this.deploymentGroup = deploymentGroup;
+    this.epoch = epoch;
+    this.sequence = sequence;
+  }
+
+  public StatusWatchRequest(final Set<JobId> jobs, final Set<String> hosts) {
+    this(jobs, hosts, null, null, 0);
+  }
+
+  public static StatusWatchRequest forDeploymentGroup(final String name) {
+    return new StatusWatchRequest(null, null, name, null, 0);
+  }
+
+  public Set<JobId> getJobs() {
+    return jobs;
+  }
+
+  public Set<String> getHosts() {
+    return hosts;
+  }
+
+  public String getDeploymentGroup() {
+    return deploymentGroup;
+  }
+
+  public String getEpoch() {
+    return epoch;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  /**
+   * Returns a request for the same jobs and hosts that continues after the given response.
+   */
+  public StatusWatchRequest resumeFrom(final StatusWatchResponse response) {
+    return new StatusWatchRequest(jobs, hosts, deploymentGroup, response.getEpoch(),
+                                  response.getSequence());
+  }
+
+  @Override
+  public String toString() {
+    return Objects.toStringHelper(getClass())
+        .add("jobs", jobs)
+        .add("hosts", hosts)
+        .add("deploymentGroup", deploymentGroup)
+        .add("epoch", epoch)
+        .add("sequence", sequence)
+        .toString();
+  }
+
+  public String toJsonString() {
+    return Json.asStringUnchecked(this);
+  }
+}
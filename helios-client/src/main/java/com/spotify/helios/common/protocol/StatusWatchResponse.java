@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.common.protocol;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.spotify.helios.common.Json;
+
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The changes matching a {@link StatusWatchRequest}.
+ *
+ * <p>If {@link #isReset()} is true the changes are a full snapshot of the current state and
+ * any state the client has accumulated from earlier responses should be discarded first.
+ * An empty list of changes means the watch timed out without anything happening.
+ */
+public class StatusWatchResponse {
+
+  private final String epoch;
+  private final long sequence;
+  private final boolean reset;
+  private final List<StatusChange> changes;
+
+  public StatusWatchResponse(@JsonProperty("epoch") final String epoch,
+                             @JsonProperty("sequence") final long sequence,
+                             @JsonProperty("reset") final boolean reset,
+                             @JsonProperty("changes") final List<StatusChange> changes) {
+    this.epoch = checkNotNull(epoch, "epoch");
+    this.sequence = sequence;
+    this.reset = reset;
+    this.changes = changes == null ? Collections.<StatusChange>emptyList()
+                                   : ImmutableList.copyOf(changes);
+  }
+
+  public String getEpoch() {
+    return epoch;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public boolean isReset() {
+    return reset;
+  }
+
+  public List<StatusChange> getChanges() {
+    return changes;
+  }
+
+  @Override
+  public String toString() {
+    return Objects.toStringHelper(getClass())
+        .add("epoch", epoch)
+        .add("sequence", sequence)
+        .add("reset", reset)
+        .add("changes", changes)
+        .toString();
+  }
+
+  public String toJsonString() {
+    return Json.asStringUnchecked(this);
+  }
+}
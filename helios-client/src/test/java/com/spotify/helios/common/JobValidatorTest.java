@@ -312,4 +312,11 @@ public class JobValidatorTest {
         .setExpires(d).build();
     assertEquals(newHashSet("Job expires in the past"), validator.validate(j));
   }
+
+  @Test
+  public void testExpiryBeforeEpoch() {
+    final Job j = Job.newBuilder().setName("foo").setVersion("1").setImage("foobar")
+        .setExpires(new java.util.Date(-1)).build();
+    assertEquals(newHashSet("Job expires in the past"), validator.validate(j));
+  }
 }
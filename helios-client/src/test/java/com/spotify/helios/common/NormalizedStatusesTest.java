@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.common;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.spotify.helios.common.descriptors.Deployment;
+import com.spotify.helios.common.descriptors.Goal;
+import com.spotify.helios.common.descriptors.HostStatus;
+import com.spotify.helios.common.descriptors.Job;
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.descriptors.JobStatus;
+import com.spotify.helios.common.descriptors.TaskStatus;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static com.spotify.helios.common.descriptors.HostStatus.Status.UP;
+import static com.spotify.helios.common.descriptors.TaskStatus.State.RUNNING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class NormalizedStatusesTest {
+
+  private static final Job JOB = Job.newBuilder()
+      .setName("foo")
+      .setVersion("1")
+      .setImage("foo-image")
+      .setCommand(ImmutableList.of("foo"))
+      .build();
+  private static final JobId JOB_ID = JOB.getId();
+
+  private static final TaskStatus TASK_STATUS = TaskStatus.newBuilder()
+      .setJob(JOB)
+      .setGoal(Goal.START)
+      .setState(RUNNING)
+      .setContainerId("container")
+      .build();
+
+  private static final Deployment DEPLOYMENT = Deployment.newBuilder()
+      .setJobId(JOB_ID)
+      .setGoal(Goal.START)
+      .build();
+
+  private static final JavaType HOST_STATUSES_TYPE = TypeFactory.defaultInstance()
+      .constructMapType(Map.class, String.class, HostStatus.class);
+
+  private static final JavaType JOB_STATUSES_TYPE = TypeFactory.defaultInstance()
+      .constructMapType(Map.class, JobId.class, JobStatus.class);
+
+  private static HostStatus hostStatus() {
+    return HostStatus.newBuilder()
+        .setStatus(UP)
+        .setJobs(ImmutableMap.of(JOB_ID, DEPLOYMENT))
+        .setStatuses(ImmutableMap.of(JOB_ID, TASK_STATUS))
+        .build();
+  }
+
+  @Test
+  public void testHostStatuses() throws Exception {
+    final Map<String, HostStatus> statuses = ImmutableMap.of("host-1", hostStatus(),
+                                                             "host-2", hostStatus());
+    final byte[] payload = NormalizedStatuses.writeHostStatuses(statuses);
+
+    // Each job is sent once, and the task statuses refer to it
+    final JsonNode tree = Json.readTree(payload);
+    assertEquals(1, tree.get("jobs").size());
+    assertEquals(JOB_ID.toString(),
+                 tree.path("statuses").path("host-1").path("statuses").path(JOB_ID.toString())
+                     .path("job").asText());
+
+    final Map<String, HostStatus> read = NormalizedStatuses.read(payload, HOST_STATUSES_TYPE);
+    assertEquals(statuses, read);
+    assertSame(read.get("host-1").getStatuses().get(JOB_ID).getJob(),
+               read.get("host-2").getStatuses().get(JOB_ID).getJob());
+  }
+
+  @Test
+  public void testJobStatuses() throws Exception {
+    final JobStatus status = JobStatus.newBuilder()
+        .setJob(JOB)
+        .setTaskStatuses(ImmutableMap.of("host-1", TASK_STATUS, "host-2", TASK_STATUS))
+        .setDeployments(ImmutableMap.of("host-1", DEPLOYMENT, "host-2", DEPLOYMENT))
+        .build();
+    final Map<JobId, JobStatus> statuses = ImmutableMap.of(JOB_ID, status);
+
+    final Map<JobId, JobStatus> read = NormalizedStatuses.read(
+        NormalizedStatuses.writeJobStatuses(statuses), JOB_STATUSES_TYPE);
+    assertEquals(statuses, read);
+    assertSame(read.get(JOB_ID).getJob(),
+               read.get(JOB_ID).getTaskStatuses().get("host-1").getJob());
+  }
+
+  @Test(expected = IOException.class)
+  public void testUnknownJobReference() throws Exception {
+    final String payload = "{\"jobs\":{},\"statuses\":{\"" + JOB_ID + "\":{\"job\":\"" +
+                           JOB_ID + "\"}}}";
+    NormalizedStatuses.read(payload.getBytes(), JOB_STATUSES_TYPE);
+  }
+}
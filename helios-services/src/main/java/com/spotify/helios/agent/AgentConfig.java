@@ -46,6 +46,7 @@ public class AgentConfig extends Configuration {
   private Map<String, String> envVars;
   private String redirectToSyslog;
   private boolean inhibitMetrics;
+  private int traceBufferSize;
   private Path stateDirectory;
   private String statsdHostPort;
   private String riemannHostPort;
@@ -72,6 +73,19 @@ public class AgentConfig extends Configuration {
     return this;
   }
 
+  /**
+   * @return The number of timing spans to keep for dumping from the admin port, or 0 if tracing
+   *         is disabled.
+   */
+  public int getTraceBufferSize() {
+    return traceBufferSize;
+  }
+
+  public AgentConfig setTraceBufferSize(final int traceBufferSize) {
+    this.traceBufferSize = traceBufferSize;
+    return this;
+  }
+
   public String getName() {
     return name;
   }
@@ -116,6 +116,7 @@ public class AgentParser extends ServiceParser {
         .setEnvVars(envVars)
         .setDockerHost(dockerHost)
         .setInhibitMetrics(getInhibitMetrics())
+        .setTraceBufferSize(getTraceBufferSize())
         .setRedirectToSyslog(options.getString(syslogRedirectToArg.getDest()))
         .setStateDirectory(Paths.get(options.getString(stateDirArg.getDest())))
         .setStatsdHostPort(getStatsdHostPort())
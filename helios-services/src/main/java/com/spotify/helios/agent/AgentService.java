@@ -37,10 +37,12 @@ import com.spotify.helios.serviceregistration.ServiceRegistrar;
 import com.spotify.helios.servicescommon.ManagedStatsdReporter;
 import com.spotify.helios.servicescommon.PersistentAtomicReference;
 import com.spotify.helios.servicescommon.ReactorFactory;
+import com.spotify.helios.servicescommon.ReactorsServlet;
 import com.spotify.helios.servicescommon.RiemannFacade;
 import com.spotify.helios.servicescommon.RiemannHeartBeat;
 import com.spotify.helios.servicescommon.RiemannSupport;
 import com.spotify.helios.servicescommon.ServiceUtil;
+import com.spotify.helios.servicescommon.TracesServlet;
 import com.spotify.helios.servicescommon.ZooKeeperRegistrar;
 import com.spotify.helios.servicescommon.coordination.CuratorClientFactoryImpl;
 import com.spotify.helios.servicescommon.coordination.DefaultZooKeeperClient;
@@ -53,6 +55,8 @@ import com.spotify.helios.servicescommon.coordination.ZooKeeperNodeUpdaterFactor
 import com.spotify.helios.servicescommon.statistics.Metrics;
 import com.spotify.helios.servicescommon.statistics.MetricsImpl;
 import com.spotify.helios.servicescommon.statistics.NoopMetrics;
+import com.spotify.helios.servicescommon.statistics.ReactorMetricsRegistry;
+import com.spotify.helios.servicescommon.tracing.Tracer;
 import com.sun.management.OperatingSystemMXBean;
 
 import org.apache.curator.RetryPolicy;
@@ -164,6 +168,11 @@ public class AgentService extends AbstractIdleService implements Managed {
 
     // Configure metrics
     final MetricRegistry metricsRegistry = new MetricRegistry();
+    // Reactors publish their metrics here, and are listed on the admin port
+    final ReactorMetricsRegistry reactorMetricsRegistry = new ReactorMetricsRegistry();
+    // Spans are only recorded once tracing is enabled below, and are listed on the admin port
+    final Tracer tracer = new Tracer();
+    final ReactorFactory reactorFactory = new ReactorFactory(reactorMetricsRegistry, tracer);
     RiemannSupport riemannSupport = new RiemannSupport(metricsRegistry, config.getRiemannHostPort(),
                                                        config.getName(), "helios-agent");
     final RiemannFacade riemannFacade = riemannSupport.getFacade();
@@ -172,13 +181,18 @@ public class AgentService extends AbstractIdleService implements Managed {
       metrics = new NoopMetrics();
     } else {
       log.info("Starting metrics");
-      metrics = new MetricsImpl(metricsRegistry);
+      metrics = new MetricsImpl(metricsRegistry, reactorMetricsRegistry);
       environment.lifecycle().manage(new ManagedStatsdReporter(config.getStatsdHostPort(),
           "helios-agent", metricsRegistry));
       environment.lifecycle().manage(riemannSupport);
     }
 
-    this.zooKeeperClient = setupZookeeperClient(config, id);
+    if (config.getTraceBufferSize() > 0) {
+      log.info("Tracing the last {} spans", config.getTraceBufferSize());
+      tracer.enable(config.getTraceBufferSize());
+    }
+
+    this.zooKeeperClient = setupZookeeperClient(config, id, reactorFactory);
     final DockerHealthChecker dockerHealthChecker = new DockerHealthChecker(
         metrics.getSupervisorMetrics(), TimeUnit.SECONDS, 30, riemannFacade);
     environment.lifecycle().manage(dockerHealthChecker);
@@ -186,14 +200,14 @@ public class AgentService extends AbstractIdleService implements Managed {
 
     // Set up model
     final ZooKeeperModelReporter modelReporter =
-        new ZooKeeperModelReporter(riemannFacade, metrics.getZooKeeperMetrics());
+        new ZooKeeperModelReporter(riemannFacade, metrics.getZooKeeperMetrics(), tracer);
     final ZooKeeperClientProvider zkClientProvider = new ZooKeeperClientProvider(
         zooKeeperClient, modelReporter);
     final KafkaClientProvider kafkaClientProvider = new KafkaClientProvider(
         config.getKafkaBrokers());
     try {
       this.model = new ZooKeeperAgentModel(zkClientProvider, kafkaClientProvider,
-        config.getName(), stateDirectory);
+        config.getName(), stateDirectory, reactorFactory);
     } catch (IOException e) {
       throw Throwables.propagate(e);
     }
@@ -221,8 +235,8 @@ public class AgentService extends AbstractIdleService implements Managed {
       dockerClient = new PollingDockerClient(config.getDockerHost().uri(), dockerCertificates);
     }
 
-    final DockerClient monitoredDockerClient = MonitoredDockerClient.wrap(riemannFacade,
-                                                                          dockerClient);
+    final DockerClient monitoredDockerClient = MonitoredDockerClient.wrap(
+        riemannFacade, metrics.getSupervisorMetrics(), dockerClient);
 
     this.hostInfoReporter = HostInfoReporter.newBuilder()
         .setNodeUpdaterFactory(nodeUpdaterFactory)
@@ -266,9 +280,9 @@ public class AgentService extends AbstractIdleService implements Managed {
         metrics.getSupervisorMetrics(),
         namespace,
         config.getDomain(),
-        config.getDns());
-
-    final ReactorFactory reactorFactory = new ReactorFactory();
+        config.getDns(),
+        reactorFactory,
+        tracer);
 
     final PortAllocator portAllocator = new PortAllocator(config.getPortRangeStart(),
                                                           config.getPortRangeEnd());
@@ -277,7 +291,8 @@ public class AgentService extends AbstractIdleService implements Managed {
     try {
       executions = PersistentAtomicReference.create(stateDirectory.resolve("executions.json"),
                                                     JOBID_EXECUTIONS_MAP,
-                                                    Suppliers.ofInstance(EMPTY_EXECUTIONS));
+                                                    Suppliers.ofInstance(EMPTY_EXECUTIONS),
+                                                    tracer);
     } catch (IOException e) {
       throw Throwables.propagate(e);
     }
@@ -298,6 +313,12 @@ public class AgentService extends AbstractIdleService implements Managed {
       environment.jersey().register(new AgentModelTaskResource(model));
       environment.jersey().register(new AgentModelTaskStatusResource(model));
       environment.healthChecks().register("zookeeper", zkHealthChecker);
+      environment.admin()
+          .addServlet("reactors", new ReactorsServlet(reactorMetricsRegistry))
+          .addMapping("/reactors");
+      environment.admin()
+          .addServlet("traces", new TracesServlet(tracer, "helios-agent"))
+          .addMapping("/traces");
       environment.lifecycle().manage(this);
 
       this.server = ServiceUtil.createServerFactory(config.getHttpEndpoint(), config.getAdminPort(),
@@ -313,9 +334,11 @@ public class AgentService extends AbstractIdleService implements Managed {
    * Create a Zookeeper client and create the control and state nodes if needed.
    *
    * @param config The service configuration.
+   * @param reactorFactory The factory for the reactor registering the service.
    * @return A zookeeper client.
    */
-  private ZooKeeperClient setupZookeeperClient(final AgentConfig config, final String id) {
+  private ZooKeeperClient setupZookeeperClient(final AgentConfig config, final String id,
+                                               final ReactorFactory reactorFactory) {
     final RetryPolicy zooKeeperRetryPolicy = new ExponentialBackoffRetry(1000, 3);
     final CuratorFramework curator = new CuratorClientFactoryImpl().newClient(
         config.getZooKeeperConnectionString(),
@@ -330,7 +353,8 @@ public class AgentService extends AbstractIdleService implements Managed {
 
     // Register the agent
     zkRegistrar =
-        new ZooKeeperRegistrar(client, new AgentZooKeeperRegistrar(this, config.getName(), id));
+        new ZooKeeperRegistrar(client, new AgentZooKeeperRegistrar(this, config.getName(), id),
+                               reactorFactory);
 
     return client;
   }
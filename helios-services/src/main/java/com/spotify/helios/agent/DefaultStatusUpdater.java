@@ -24,6 +24,7 @@ package com.spotify.helios.agent;
 import com.spotify.helios.common.descriptors.Goal;
 import com.spotify.helios.common.descriptors.TaskStatus;
 import com.spotify.helios.common.descriptors.ThrottleState;
+import com.spotify.helios.common.descriptors.TimeToRunning;
 
 /**
  * Plain boring status updater for tasks to report their status to the {@link AgentModel}.
@@ -37,6 +38,7 @@ public class DefaultStatusUpdater implements StatusUpdater {
   private ThrottleState throttleState = ThrottleState.NO;
   private AgentModel model;
   private TaskStatus.State state;
+  private TimeToRunning timeToRunning;
 
   public DefaultStatusUpdater(final AgentModel model,
                               final TaskStatus.Builder builder) {
@@ -59,6 +61,11 @@ public class DefaultStatusUpdater implements StatusUpdater {
     this.goal = goal;
   }
 
+  @Override
+  public void setTimeToRunning(final TimeToRunning timeToRunning) {
+    this.timeToRunning = timeToRunning;
+  }
+
   @Override
   public void update() throws InterruptedException {
     final TaskStatus status = builder
@@ -66,6 +73,7 @@ public class DefaultStatusUpdater implements StatusUpdater {
         .setState(state)
         .setContainerId(containerId)
         .setThrottled(throttleState)
+        .setTimeToRunning(timeToRunning)
         .build();
     model.setTaskStatus(status.getJob().getId(), status);
   }
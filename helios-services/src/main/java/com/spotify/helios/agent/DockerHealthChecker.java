@@ -23,6 +23,7 @@ package com.spotify.helios.agent;
 
 import com.google.common.annotations.VisibleForTesting;
 
+import com.codahale.metrics.Snapshot;
 import com.spotify.helios.servicescommon.RiemannFacade;
 import com.spotify.helios.servicescommon.statistics.MeterRates;
 import com.spotify.helios.servicescommon.statistics.SupervisorMetrics;
@@ -49,6 +50,10 @@ public class DockerHealthChecker extends HealthCheck implements Managed {
   static final double FAILURE_LOW_WATERMARK = 0.4;
   @VisibleForTesting
   static final double FAILURE_HIGH_WATERMARK = 0.8;
+  @VisibleForTesting
+  static final long LATENCY_LOW_WATERMARK_MILLIS = 5000;
+  @VisibleForTesting
+  static final long LATENCY_HIGH_WATERMARK_MILLIS = 10000;
 
   private final SupervisorMetrics metrics;
   private final ScheduledExecutorService scheduler;
@@ -79,9 +84,14 @@ public class DockerHealthChecker extends HealthCheck implements Managed {
           metrics.getDockerTimeoutRates(), metrics.getSupervisorRunRates());
       final double exceptionRatio = fiveMinuteRatio(
           metrics.getContainersThrewExceptionRates(), metrics.getSupervisorRunRates());
+      final double latencyMillis = p99LatencyMillis(
+          metrics.getDockerLatency(), metrics.getDockerRequestRates());
       if (timeoutRatio > 0 || exceptionRatio > 0) {
         log.info("timeout ratio is {}, exception ratio is {}", timeoutRatio, exceptionRatio);
       }
+      if (latencyMillis > LATENCY_LOW_WATERMARK_MILLIS) {
+        log.info("docker p99 latency is {} ms", latencyMillis);
+      }
 
       final String origReason = reason;
 
@@ -92,8 +102,12 @@ public class DockerHealthChecker extends HealthCheck implements Managed {
       if (exceptionRatio > FAILURE_HIGH_WATERMARK) {
         reason = "supervisor run exception frequency is too high";
       }
+      if (latencyMillis > LATENCY_HIGH_WATERMARK_MILLIS) {
+        reason = "docker latency is too high for too long";
+      }
 
-      if (timeoutRatio < FAILURE_LOW_WATERMARK && exceptionRatio < FAILURE_LOW_WATERMARK) {
+      if (timeoutRatio < FAILURE_LOW_WATERMARK && exceptionRatio < FAILURE_LOW_WATERMARK &&
+          latencyMillis < LATENCY_LOW_WATERMARK_MILLIS) {
         reason = null;
       }
 
@@ -121,6 +135,13 @@ public class DockerHealthChecker extends HealthCheck implements Managed {
     return (numerator.getFiveMinuteRate() * 1.0) / denominator.getFiveMinuteRate();
   }
 
+  private double p99LatencyMillis(Snapshot latency, MeterRates requests) {
+    if (requests.getFiveMinuteRate() < .1) {
+      return 0.0;
+    }
+    return latency.get99thPercentile() / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
   @Override
   public void stop() {
     scheduler.shutdownNow();
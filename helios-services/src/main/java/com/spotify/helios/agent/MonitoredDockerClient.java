@@ -25,6 +25,7 @@ import com.spotify.docker.client.DockerClient;
 import com.spotify.docker.client.DockerException;
 import com.spotify.docker.client.DockerTimeoutException;
 import com.spotify.helios.servicescommon.RiemannFacade;
+import com.spotify.helios.servicescommon.statistics.SupervisorMetrics;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
@@ -34,51 +35,76 @@ import java.lang.reflect.Proxy;
 /**
  * A docker client proxy used to monitor docker operations.  It's abstract and doesn't implement
  * {@link DockerClient}, but don't let it fool you.  You call {@link #wrap} with the
- * {@link RiemannFacade} and the real {@link DockerClient} and you then use that.
+ * {@link RiemannFacade}, the {@link SupervisorMetrics} and the real {@link DockerClient} and you
+ * then use that.
+ *
+ * <p>Every call is timed and counted as in flight while it runs. Timeouts and errors are also
+ * sent to Riemann. Methods declared by {@link Object}, like {@code toString}, go straight to the
+ * real client, as they are not docker operations.
  */
 public abstract class MonitoredDockerClient {
 
   private MonitoredDockerClient() {
   }
 
-  public static DockerClient wrap(RiemannFacade riemann, final DockerClient client) {
+  public static DockerClient wrap(final RiemannFacade riemann, final SupervisorMetrics metrics,
+                                  final DockerClient client) {
     return (DockerClient) Proxy.newProxyInstance(
         MonitoredDockerClient.class.getClassLoader(),
         new Class[]{DockerClient.class},
-        new MonitoringInvocationHandler(riemann, client));
+        new MonitoringInvocationHandler(riemann, metrics, client));
   }
 
   private static class MonitoringInvocationHandler implements InvocationHandler {
 
     private final RiemannFacade riemann;
+    private final SupervisorMetrics metrics;
     private final DockerClient client;
 
-    public MonitoringInvocationHandler(final RiemannFacade riemann, final DockerClient client) {
+    public MonitoringInvocationHandler(final RiemannFacade riemann,
+                                       final SupervisorMetrics metrics,
+                                       final DockerClient client) {
       this.riemann = riemann;
-
+      this.metrics = metrics;
       this.client = client;
     }
 
     @Override
     public Object invoke(final Object proxy, final Method method, final Object[] args)
         throws Throwable {
+      if (method.getDeclaringClass() == Object.class) {
+        try {
+          return method.invoke(client, args);
+        } catch (InvocationTargetException e) {
+          throw e.getCause();
+        }
+      }
+      final String name = method.getName();
+      String outcome = "success";
+      metrics.dockerRequestStarted(name);
+      final long start = System.nanoTime();
       try {
         return method.invoke(client, args);
       } catch (InvocationTargetException e) {
         if (e.getCause() instanceof DockerException) {
-          final String tag;
           if (e.getCause() instanceof DockerTimeoutException) {
-            tag = "timeout";
+            outcome = "timeout";
           } else {
-            tag = "error";
+            outcome = "error";
           }
           riemann.event()
               .service("helios-agent/docker")
-              .tags("docker", tag, method.getName())
+              .tags("docker", outcome, name)
               .send();
+        } else if (e.getCause() instanceof InterruptedException) {
+          outcome = "interrupted";
+        } else {
+          outcome = "error";
         }
         throw e.getCause();
+      } finally {
+        metrics.dockerRequestFinished(name, outcome, System.nanoTime() - start);
       }
     }
-}
+  }
 }
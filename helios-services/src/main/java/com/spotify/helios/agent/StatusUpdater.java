@@ -24,6 +24,7 @@ package com.spotify.helios.agent;
 import com.spotify.helios.common.descriptors.Goal;
 import com.spotify.helios.common.descriptors.TaskStatus;
 import com.spotify.helios.common.descriptors.ThrottleState;
+import com.spotify.helios.common.descriptors.TimeToRunning;
 
 /**
  * An interface used to abstract how task statuses are reported.
@@ -38,5 +39,7 @@ public interface StatusUpdater {
 
   void setGoal(Goal goal);
 
+  void setTimeToRunning(TimeToRunning timeToRunning);
+
   void update() throws InterruptedException;
 }
@@ -29,10 +29,12 @@ import com.spotify.docker.client.DockerException;
 import com.spotify.docker.client.messages.ContainerInfo;
 import com.spotify.helios.common.descriptors.Goal;
 import com.spotify.helios.common.descriptors.Job;
-import com.spotify.helios.servicescommon.DefaultReactor;
 import com.spotify.helios.servicescommon.Reactor;
+import com.spotify.helios.servicescommon.ReactorFactory;
 import com.spotify.helios.servicescommon.statistics.MetricsContext;
 import com.spotify.helios.servicescommon.statistics.SupervisorMetrics;
+import com.spotify.helios.servicescommon.tracing.Span;
+import com.spotify.helios.servicescommon.tracing.Tracer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -68,6 +70,7 @@ public class Supervisor {
   private final StatusUpdater statusUpdater;
   private final TaskMonitor monitor;
   private final Sleeper sleeper;
+  private final Tracer tracer;
 
   private volatile Goal goal;
   private volatile String containerId;
@@ -86,11 +89,13 @@ public class Supervisor {
     this.runnerFactory = checkNotNull(builder.runnerFactory, "runnerFactory");
     this.statusUpdater = checkNotNull(builder.statusUpdater, "statusUpdater");
     this.monitor = checkNotNull(builder.monitor, "monitor");
-    this.reactor = new DefaultReactor("supervisor-" + job.getId(), new Update(),
-                                      SECONDS.toMillis(30));
+    final ReactorFactory reactorFactory = checkNotNull(builder.reactorFactory, "reactorFactory");
+    this.reactor = reactorFactory.create("supervisor-" + job.getId(), "supervisor", new Update(),
+                                         SECONDS.toMillis(30));
     this.reactor.startAsync();
     statusUpdater.setContainerId(containerId);
     this.sleeper = builder.sleeper;
+    this.tracer = checkNotNull(builder.tracer, "tracer");
   }
 
   public void setGoal(final Goal goal) {
@@ -179,7 +184,12 @@ public class Supervisor {
       final boolean done = performedCommand == command;
       log.debug("Supervisor {}: update: performedCommand={}, command={}, done={}",
                 job.getId(), performedCommand, command, done);
-      command.perform(done);
+      final Span span = tracer.start("supervisor", command.name()).job(job.getId());
+      try {
+        command.perform(done);
+      } finally {
+        span.finish();
+      }
       if (!done) {
         performedCommand = command;
         fireStateChanged();
@@ -217,6 +227,8 @@ public class Supervisor {
     private StatusUpdater statusUpdater;
     private TaskMonitor monitor;
     private Sleeper sleeper = new ThreadSleeper();
+    private ReactorFactory reactorFactory;
+    private Tracer tracer = new Tracer();
 
 
     public Builder setJob(final Job job) {
@@ -269,6 +281,16 @@ public class Supervisor {
       return this;
     }
 
+    public Builder setReactorFactory(final ReactorFactory reactorFactory) {
+      this.reactorFactory = reactorFactory;
+      return this;
+    }
+
+    public Builder setTracer(final Tracer tracer) {
+      this.tracer = tracer;
+      return this;
+    }
+
     public Supervisor build() {
       return new Supervisor(this);
     }
@@ -292,6 +314,11 @@ public class Supervisor {
      * @throws InterruptedException If thread is interrupted.
      */
     void perform(final boolean done) throws InterruptedException;
+
+    /**
+     * @return The name of the command, used for tracing.
+     */
+    String name();
   }
 
   /**
@@ -299,6 +326,11 @@ public class Supervisor {
    */
   private class Start implements Command {
 
+    @Override
+    public String name() {
+      return "start";
+    }
+
     @Override
     public void perform(final boolean done) throws InterruptedException {
       if (runner == null) {
@@ -348,6 +380,11 @@ public class Supervisor {
    */
   private class Stop implements Command {
 
+    @Override
+    public String name() {
+      return "stop";
+    }
+
     @Override
     public void perform(final boolean done) throws InterruptedException {
       if (done) {
@@ -421,6 +458,11 @@ public class Supervisor {
 
   private static class Nop implements Command {
 
+    @Override
+    public String name() {
+      return "nop";
+    }
+
     @Override
     public void perform(final boolean done) {
     }
@@ -26,7 +26,9 @@ import com.spotify.helios.common.descriptors.Job;
 import com.spotify.helios.common.descriptors.TaskStatus;
 import com.spotify.helios.serviceregistration.ServiceRegistrar;
 import com.spotify.helios.servicescommon.DockerHost;
+import com.spotify.helios.servicescommon.ReactorFactory;
 import com.spotify.helios.servicescommon.statistics.SupervisorMetrics;
+import com.spotify.helios.servicescommon.tracing.Tracer;
 
 import java.util.List;
 import java.util.Map;
@@ -51,6 +53,8 @@ public class SupervisorFactory {
   private final SupervisorMetrics metrics;
   private final String defaultRegistrationDomain;
   private final List<String> dns;
+  private final ReactorFactory reactorFactory;
+  private final Tracer tracer;
 
   public SupervisorFactory(final AgentModel model, final DockerClient dockerClient,
                            final Map<String, String> envVars,
@@ -61,7 +65,9 @@ public class SupervisorFactory {
                            final SupervisorMetrics supervisorMetrics,
                            final String namespace,
                            final String defaultRegistrationDomain,
-                           final List<String> dns) {
+                           final List<String> dns,
+                           final ReactorFactory reactorFactory,
+                           final Tracer tracer) {
     this.dockerClient = dockerClient;
     this.namespace = namespace;
     this.model = checkNotNull(model, "model");
@@ -74,6 +80,8 @@ public class SupervisorFactory {
     this.defaultRegistrationDomain = checkNotNull(defaultRegistrationDomain,
                                                   "defaultRegistrationDomain");
     this.dns = checkNotNull(dns, "dns");
+    this.reactorFactory = checkNotNull(reactorFactory, "reactorFactory");
+    this.tracer = checkNotNull(tracer, "tracer");
   }
 
   /**
@@ -105,7 +113,8 @@ public class SupervisorFactory {
         .setPorts(taskConfig.ports());
     final StatusUpdater statusUpdater = new DefaultStatusUpdater(model, taskStatus);
     final FlapController flapController = FlapController.create();
-    final TaskMonitor taskMonitor = new TaskMonitor(job.getId(), flapController, statusUpdater);
+    final TaskMonitor taskMonitor = new TaskMonitor(job.getId(), flapController, statusUpdater,
+                                                    metrics, new SystemClock());
 
     final HealthChecker healthChecker = HealthCheckerFactory.create(
         taskConfig, dockerClient, dockerHost);
@@ -115,6 +124,7 @@ public class SupervisorFactory {
         .dockerClient(dockerClient)
         .healthChecker(healthChecker)
         .listener(taskMonitor)
+        .tracer(tracer)
         .build();
 
     return Supervisor.newBuilder()
@@ -127,6 +137,8 @@ public class SupervisorFactory {
         .setRunnerFactory(runnerFactory)
         .setStatusUpdater(statusUpdater)
         .setMonitor(taskMonitor)
+        .setReactorFactory(reactorFactory)
+        .setTracer(tracer)
         .build();
   }
 }
@@ -36,6 +36,7 @@ import com.spotify.docker.client.messages.PortBinding;
 import com.spotify.helios.common.descriptors.HealthCheck;
 import com.spotify.helios.common.descriptors.HttpHealthCheck;
 import com.spotify.helios.common.descriptors.Job;
+import com.spotify.helios.common.descriptors.JobId;
 import com.spotify.helios.common.descriptors.PortMapping;
 import com.spotify.helios.common.descriptors.Resources;
 import com.spotify.helios.common.descriptors.ServiceEndpoint;
@@ -360,6 +361,14 @@ public class TaskConfig {
     return job.getId().toShortString();
   }
 
+  public JobId jobId() {
+    return job.getId();
+  }
+
+  public String host() {
+    return host;
+  }
+
   public static class Builder {
 
     private Builder() {
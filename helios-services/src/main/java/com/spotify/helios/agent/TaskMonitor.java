@@ -28,6 +28,9 @@ import com.spotify.docker.client.ImagePullFailedException;
 import com.spotify.helios.common.descriptors.JobId;
 import com.spotify.helios.common.descriptors.TaskStatus;
 import com.spotify.helios.common.descriptors.ThrottleState;
+import com.spotify.helios.common.descriptors.TimeToRunning;
+import com.spotify.helios.servicescommon.statistics.NoopSupervisorMetrics;
+import com.spotify.helios.servicescommon.statistics.SupervisorMetrics;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,7 +58,8 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 /**
  * A monitor for {@link TaskRunner}, processing events into observations about the health of a task,
  * e.g. whether it's flapping etc. This information is published using the {@link StatusUpdater} and
- * a {@link ThrottleState} is made available for supervisors to act on.
+ * a {@link ThrottleState} is made available for supervisors to act on. It also times the phases
+ * of starting the task, and publishes them as a {@link TimeToRunning} once the task is running.
  */
 public class TaskMonitor implements TaskRunner.Listener, Closeable {
 
@@ -65,17 +69,39 @@ public class TaskMonitor implements TaskRunner.Listener, Closeable {
   private final ScheduledExecutorService scheduler;
   private final FlapController flapController;
   private final StatusUpdater statusUpdater;
+  private final SupervisorMetrics metrics;
+  private final Clock clock;
 
   private volatile ScheduledFuture<?> flapTimeout;
 
   private ThrottleState imageFailure;
   private ThrottleState throttle = NO;
 
+  // When the current attempt to start the task and its phases began, in epoch millis
+  private Long attemptStarted;
+  private Long pullStarted;
+  private Long createStarted;
+  private Long startStarted;
+  private Long healthCheckStarted;
+
+  // How long the finished phases of the current attempt took
+  private Long pullMillis;
+  private Long createMillis;
+  private Long startMillis;
+
   public TaskMonitor(final JobId jobId, final FlapController flapController,
                      final StatusUpdater statusUpdater) {
+    this(jobId, flapController, statusUpdater, new NoopSupervisorMetrics(), new SystemClock());
+  }
+
+  public TaskMonitor(final JobId jobId, final FlapController flapController,
+                     final StatusUpdater statusUpdater, final SupervisorMetrics metrics,
+                     final Clock clock) {
     this.jobId = jobId;
     this.flapController = flapController;
     this.statusUpdater = statusUpdater;
+    this.metrics = metrics;
+    this.clock = clock;
 
     final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
     // Let core threads time out to avoid unnecessarily keeping a flapping state check thread alive
@@ -123,24 +149,34 @@ public class TaskMonitor implements TaskRunner.Listener, Closeable {
 
   @Override
   public void pulling() {
+    startAttempt();
+    pullStarted = now();
     updateState(PULLING_IMAGE);
   }
 
   @Override
   public void pulled() {
+    pullMillis = millisSince(pullStarted);
   }
 
   @Override
   public void pullFailed() {
+    // The image may still be available locally, so the attempt goes on
+    pullMillis = millisSince(pullStarted);
   }
 
   @Override
   public void creating() {
+    if (attemptStarted == null) {
+      startAttempt();
+    }
+    createStarted = now();
     updateState(CREATING);
   }
 
   @Override
   public void created(final String containerId) {
+    createMillis = millisSince(createStarted);
     // If we managed to create a container, any previous image failure has been resolved
     resetImageFailure();
     statusUpdater.setContainerId(containerId);
@@ -148,6 +184,7 @@ public class TaskMonitor implements TaskRunner.Listener, Closeable {
 
   @Override
   public void starting() {
+    startStarted = now();
     // If we managed to create a container, any previous image failure has been resolved
     resetImageFailure();
     updateState(STARTING);
@@ -155,12 +192,14 @@ public class TaskMonitor implements TaskRunner.Listener, Closeable {
 
   @Override
   public void started() {
+    startMillis = millisSince(startStarted);
     // If we managed to start a container, any previous image failure has been resolved
     resetImageFailure();
   }
 
   @Override
   public void healthChecking() {
+    healthCheckStarted = now();
     // If the container is running a health check, any previous image failure has been resolved
     resetImageFailure();
     updateState(HEALTHCHECKING);
@@ -168,6 +207,16 @@ public class TaskMonitor implements TaskRunner.Listener, Closeable {
 
   @Override
   public void running() {
+    // Containers that were already running when the agent started have no phases to report
+    if (attemptStarted != null) {
+      final TimeToRunning timeToRunning = new TimeToRunning(
+          pullMillis, createMillis, startMillis, millisSince(healthCheckStarted),
+          millisSince(attemptStarted));
+      attemptStarted = null;
+      log.info("time to running: {}: {}", jobId, timeToRunning);
+      statusUpdater.setTimeToRunning(timeToRunning);
+      metrics.containerTimeToRunning(timeToRunning);
+    }
     flapController.started();
     // If the container is running, any previous image failure has been resolved
     resetImageFailure();
@@ -181,6 +230,20 @@ public class TaskMonitor implements TaskRunner.Listener, Closeable {
     updateState(EXITED);
   }
 
+  private void startAttempt() {
+    attemptStarted = now();
+    pullStarted = createStarted = startStarted = healthCheckStarted = null;
+    pullMillis = createMillis = startMillis = null;
+  }
+
+  private long now() {
+    return clock.now().getMillis();
+  }
+
+  private Long millisSince(final Long started) {
+    return started == null ? null : now() - started;
+  }
+
   private void imageFailure(final ThrottleState imageFailure) {
     this.imageFailure = imageFailure;
     updateThrottle();
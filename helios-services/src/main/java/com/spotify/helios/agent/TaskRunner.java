@@ -44,6 +44,8 @@ import com.spotify.helios.serviceregistration.NopServiceRegistrar;
 import com.spotify.helios.serviceregistration.ServiceRegistrar;
 import com.spotify.helios.serviceregistration.ServiceRegistrationHandle;
 import com.spotify.helios.servicescommon.InterruptingExecutionThreadService;
+import com.spotify.helios.servicescommon.tracing.Span;
+import com.spotify.helios.servicescommon.tracing.Tracer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,7 +54,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
- * A runner service that starts a container once.
+ * A runner service that starts a container once. The phases of starting it are traced as spans.
  */
 class TaskRunner extends InterruptingExecutionThreadService {
 
@@ -67,6 +69,7 @@ class TaskRunner extends InterruptingExecutionThreadService {
   private final Listener listener;
   private final ServiceRegistrar registrar;
   private final Optional<HealthChecker> healthChecker;
+  private final Tracer tracer;
   private Optional<ServiceRegistrationHandle> serviceRegistrationHandle;
   private Optional<String> containerId;
   private final String containerName;
@@ -81,6 +84,7 @@ class TaskRunner extends InterruptingExecutionThreadService {
     this.existingContainerId = builder.existingContainerId;
     this.registrar = checkNotNull(builder.registrar, "registrar");
     this.healthChecker = Optional.fromNullable(builder.healthChecker);
+    this.tracer = checkNotNull(builder.tracer, "tracer");
     this.serviceRegistrationHandle = Optional.absent();
     this.containerId = Optional.absent();
   }
@@ -145,7 +149,13 @@ class TaskRunner extends InterruptingExecutionThreadService {
     Thread.sleep(delayMillis);
 
     // Check if the container is already running
-    final ContainerInfo info = getContainerInfo(existingContainerId);
+    final ContainerInfo info;
+    final Span inspectSpan = span("inspect");
+    try {
+      info = getContainerInfo(existingContainerId);
+    } finally {
+      inspectSpan.finish();
+    }
     final String containerId;
 
     if (info != null && info.state().running()) {
@@ -164,18 +174,23 @@ class TaskRunner extends InterruptingExecutionThreadService {
             .setMaxIntervalMillis(SECONDS.toMillis(30))
             .build().newScheduler();
 
-        while (!healthChecker.get().check(containerId)) {
-          final ContainerState state = docker.inspectContainer(containerId).state();
-          if (!state.running()) {
-            log.warn("container exited during health checking: {}: {}: {}",
-                     config, containerId, state.exitCode());
-            throw new RuntimeException("container exited during health checking");
+        final Span healthCheckSpan = span("health_check");
+        try {
+          while (!healthChecker.get().check(containerId)) {
+            final ContainerState state = docker.inspectContainer(containerId).state();
+            if (!state.running()) {
+              log.warn("container exited during health checking: {}: {}: {}",
+                       config, containerId, state.exitCode());
+              throw new RuntimeException("container exited during health checking");
+            }
+
+            final long retryMillis = retryScheduler.nextMillis();
+            log.warn("container failed healthcheck, will retry in {}ms: {}: {}",
+                     retryMillis, config, containerId);
+            Thread.sleep(retryMillis);
           }
-
-          final long retryMillis = retryScheduler.nextMillis();
-          log.warn("container failed healthcheck, will retry in {}ms: {}: {}",
-                   retryMillis, config, containerId);
-          Thread.sleep(retryMillis);
+        } finally {
+          healthCheckSpan.finish();
         }
       }
     }
@@ -203,7 +218,12 @@ class TaskRunner extends InterruptingExecutionThreadService {
 
     // Ensure we have the image
     final String image = config.containerImage();
-    pullImage(image);
+    final Span pullSpan = span("pull");
+    try {
+      pullImage(image);
+    } finally {
+      pullSpan.finish();
+    }
 
     return startContainer(image);
   }
@@ -220,7 +240,13 @@ class TaskRunner extends InterruptingExecutionThreadService {
     // Create container
     final ContainerConfig containerConfig = config.containerConfig(imageInfo);
     listener.creating();
-    final ContainerCreation container = docker.createContainer(containerConfig, containerName);
+    final ContainerCreation container;
+    final Span createSpan = span("create");
+    try {
+      container = docker.createContainer(containerConfig, containerName);
+    } finally {
+      createSpan.finish();
+    }
     log.info("created container: {}: {}, {}", config, container, containerConfig);
     listener.created(container.id());
 
@@ -228,7 +254,12 @@ class TaskRunner extends InterruptingExecutionThreadService {
     final HostConfig hostConfig = config.hostConfig();
     log.info("starting container: {}: {} {}", config, container.id(), hostConfig);
     listener.starting();
-    docker.startContainer(container.id(), hostConfig);
+    final Span startSpan = span("start");
+    try {
+      docker.startContainer(container.id(), hostConfig);
+    } finally {
+      startSpan.finish();
+    }
     log.info("started container: {}: {}", config, container.id());
     listener.started();
 
@@ -282,6 +313,10 @@ class TaskRunner extends InterruptingExecutionThreadService {
     }
   }
 
+  private Span span(final String phase) {
+    return tracer.start("task", phase).job(config.jobId()).host(config.host());
+  }
+
   public static interface Listener {
 
     void failed(Throwable t);
@@ -323,6 +358,7 @@ class TaskRunner extends InterruptingExecutionThreadService {
     private Listener listener;
     private HealthChecker healthChecker;
     public ServiceRegistrar registrar = new NopServiceRegistrar();
+    private Tracer tracer = new Tracer();
 
     public Builder delayMillis(final long delayMillis) {
       this.delayMillis = delayMillis;
@@ -359,6 +395,11 @@ class TaskRunner extends InterruptingExecutionThreadService {
       return this;
     }
 
+    public Builder tracer(final Tracer tracer) {
+      this.tracer = tracer;
+      return this;
+    }
+
     public TaskRunner build() {
       return new TaskRunner(this);
     }
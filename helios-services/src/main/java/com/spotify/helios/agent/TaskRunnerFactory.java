@@ -26,6 +26,7 @@ import com.google.common.collect.Lists;
 
 import com.spotify.docker.client.DockerClient;
 import com.spotify.helios.serviceregistration.ServiceRegistrar;
+import com.spotify.helios.servicescommon.tracing.Tracer;
 
 import java.util.List;
 
@@ -43,6 +44,7 @@ public class TaskRunnerFactory {
   private final Optional<HealthChecker> healthChecker;
   private final ServiceRegistrar registrar;
   private final List<TaskRunner.Listener> listeners;
+  private final Tracer tracer;
 
   public TaskRunnerFactory(final Builder builder) {
     this.taskConfig = checkNotNull(builder.config, "config");
@@ -50,6 +52,7 @@ public class TaskRunnerFactory {
     this.docker = checkNotNull(builder.docker, "docker");
     this.listeners = checkNotNull(builder.listeners, "listeners");
     this.healthChecker = Optional.fromNullable(builder.healthChecker);
+    this.tracer = checkNotNull(builder.tracer, "tracer");
   }
 
   public TaskRunner create(final long delay,
@@ -63,6 +66,7 @@ public class TaskRunnerFactory {
         .existingContainerId(containerId)
         .listener(new BroadcastingListener(concat(this.listeners, asList(listener))))
         .registrar(registrar)
+        .tracer(tracer)
         .build();
   }
 
@@ -80,6 +84,7 @@ public class TaskRunnerFactory {
     private HealthChecker healthChecker;
     private ServiceRegistrar registrar;
     private List<TaskRunner.Listener> listeners = Lists.newArrayList();
+    private Tracer tracer = new Tracer();
 
     public Builder config(final TaskConfig config) {
       this.config = config;
@@ -106,6 +111,11 @@ public class TaskRunnerFactory {
       return this;
     }
 
+    public Builder tracer(final Tracer tracer) {
+      this.tracer = tracer;
+      return this;
+    }
+
     public TaskRunnerFactory build() {
       return new TaskRunnerFactory(this);
     }
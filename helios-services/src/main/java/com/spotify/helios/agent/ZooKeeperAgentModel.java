@@ -29,6 +29,7 @@ import com.spotify.helios.common.Json;
 import com.spotify.helios.common.descriptors.JobId;
 import com.spotify.helios.common.descriptors.Task;
 import com.spotify.helios.common.descriptors.TaskStatus;
+import com.spotify.helios.servicescommon.ReactorFactory;
 import com.spotify.helios.servicescommon.coordination.Paths;
 import com.spotify.helios.servicescommon.coordination.PersistentPathChildrenCache;
 import com.spotify.helios.servicescommon.coordination.ZooKeeperClient;
@@ -70,7 +71,8 @@ public class ZooKeeperAgentModel extends AbstractIdleService implements AgentMod
 
   public ZooKeeperAgentModel(final ZooKeeperClientProvider provider,
                              final KafkaClientProvider kafkaProvider, final String host,
-                             final Path stateDirectory) throws IOException, InterruptedException {
+                             final Path stateDirectory, final ReactorFactory reactorFactory)
+      throws IOException, InterruptedException {
     // TODO(drewc): we're constructing too many heavyweight things in the ctor, these kinds of
     // things should be passed in/provider'd/etc.
     final ZooKeeperClient client = provider.get("ZooKeeperAgentModel_ctor");
@@ -78,14 +80,15 @@ public class ZooKeeperAgentModel extends AbstractIdleService implements AgentMod
     final Path taskConfigFile = stateDirectory.resolve(TASK_CONFIG_FILENAME);
 
     this.tasks = client.pathChildrenCache(Paths.configHostJobs(host), taskConfigFile,
-                                          Json.type(Task.class));
+                                          Json.type(Task.class), reactorFactory);
     tasks.addListener(new JobsListener());
     final Path taskStatusFile = stateDirectory.resolve(TASK_STATUS_FILENAME);
 
     this.taskStatuses = ZooKeeperUpdatingPersistentDirectory.create("agent-model-task-statuses",
                                                                     provider,
                                                                     taskStatusFile,
-                                                                    Paths.statusHostJobs(host));
+                                                                    Paths.statusHostJobs(host),
+                                                                    reactorFactory);
     this.historyWriter = new QueueingHistoryWriter(host, client, kafkaProvider,
         stateDirectory.resolve(TASK_HISTORY_FILENAME));
   }
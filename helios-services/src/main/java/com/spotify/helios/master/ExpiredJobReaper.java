@@ -21,31 +21,35 @@
 
 package com.spotify.helios.master;
 
-import com.google.common.collect.ImmutableList;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
 
 import com.spotify.helios.agent.InterruptingScheduledService;
 import com.spotify.helios.agent.Clock;
 import com.spotify.helios.agent.SystemClock;
 import com.spotify.helios.common.descriptors.Job;
 import com.spotify.helios.common.descriptors.JobId;
-import com.spotify.helios.common.descriptors.JobStatus;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
+import java.util.Date;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
- * The ExpiredJobReaper periodically checks if any jobs in the cluster have expired.
- * For any job that is at or past its expiration date, it undeploys the job from
- * any deployed hosts, and then removes the job entirely from the cluster.
+ * The ExpiredJobReaper removes jobs from the cluster when they expire, undeploying them from any
+ * hosts they are deployed on. It reads expiry times from the expiry index, and sleeps until the
+ * next job expires, or for at most the configured interval so that it notices jobs that are
+ * added in the meantime. If it is given a leader election, it only reaps jobs while this master
+ * is the leader.
  */
 public class ExpiredJobReaper extends InterruptingScheduledService {
 
@@ -58,9 +62,17 @@ public class ExpiredJobReaper extends InterruptingScheduledService {
   private final int interval;
   private final TimeUnit timeUnit;
   private final Clock clock;
+  private final MasterLeaderElection leaderElection;
+
+  // Expiry times of jobs created before the expiry index existed, found by scanning all jobs once
+  private Map<JobId, Date> unindexedExpirations;
+
+  private volatile Runnable runnable;
+  private volatile ScheduledExecutorService executorService;
 
   private ExpiredJobReaper(final Builder builder) {
     this.masterModel = builder.masterModel;
+    this.leaderElection = builder.leaderElection;
     this.interval = builder.interval;
     this.timeUnit = checkNotNull(builder.timeUnit);
     this.clock = checkNotNull(builder.clock);
@@ -68,46 +80,89 @@ public class ExpiredJobReaper extends InterruptingScheduledService {
 
   @Override
   protected void runOneIteration() {
-    for (Entry<JobId, Job> entry : masterModel.getJobs().entrySet()) {
-      final JobId jobId = entry.getKey();
-      final Job job = entry.getValue();
+    long delayMillis = timeUnit.toMillis(interval);
+    try {
+      final Long nextExpiry = reapExpiredJobs();
+      if (nextExpiry != null) {
+        delayMillis = Math.min(delayMillis, Math.max(0, nextExpiry - clock.now().getMillis()));
+      }
+    } finally {
+      scheduleNext(delayMillis);
+    }
+  }
 
-      if (job.getExpires() == null) {
+  /**
+   * Reaps jobs that have expired.
+   *
+   * @return The expiry time of the next job to expire, or null if no job expires.
+   */
+  @VisibleForTesting
+  Long reapExpiredJobs() {
+    if (leaderElection != null && !leaderElection.hasLeadership()) {
+      return null;
+    }
+
+    if (unindexedExpirations == null) {
+      unindexedExpirations = findUnindexedExpirations();
+    }
+
+    final Map<JobId, Date> expirations = Maps.newHashMap(unindexedExpirations);
+    expirations.putAll(masterModel.getJobExpirations());
+
+    final long now = clock.now().getMillis();
+    Long nextExpiry = null;
+    for (final Entry<JobId, Date> entry : expirations.entrySet()) {
+      final JobId jobId = entry.getKey();
+      final long expires = entry.getValue().getTime();
+      if (expires > now) {
+        nextExpiry = nextExpiry == null ? expires : Math.min(nextExpiry, expires);
         continue;
-      } else if (job.getExpires().getTime() <= clock.now().getMillis()) {
-        final JobStatus status = masterModel.getJobStatus(jobId);
-        final List<String> hosts = ImmutableList.copyOf(status.getDeployments().keySet());
-
-        for (String host : hosts) {
-          try {
-            masterModel.undeployJob(host, jobId, job.getToken());
-          } catch (HostNotFoundException e) {
-            log.error("couldn't undeploy job {} from host {} when it hit deadline", jobId, host, e);
-          } catch (JobNotDeployedException e) {
-            log.debug("job {} was already undeployed when it hit deadline", jobId, e);
-          } catch (TokenVerificationException e) {
-            log.error("couldn't undeploy job {} from host {} because token verification failed",
-                      jobId, host, e);
-          }
-        }
+      }
 
+      final Job job = masterModel.getJob(jobId);
+      if (job == null) {
+        log.debug("job {} was already removed when it hit deadline", jobId);
+      } else {
         try {
-          masterModel.removeJob(jobId, job.getToken());
+          masterModel.undeployAndRemoveJob(jobId, job.getToken());
         } catch (JobDoesNotExistException e) {
           log.debug("job {} was already removed when it hit deadline", jobId, e);
         } catch (JobStillDeployedException e) {
-          log.debug("job {} still deployed on some host(s) after expiry reap", jobId, e);
+          log.debug("job {} was deployed to some host(s) during expiry reap", jobId, e);
+          continue;
         } catch (TokenVerificationException e) {
           log.error("couldn't remove job {} because token verification failed", jobId, e);
         }
       }
+      unindexedExpirations.remove(jobId);
+    }
+    return nextExpiry;
+  }
+
+  private Map<JobId, Date> findUnindexedExpirations() {
+    final Map<JobId, Date> indexed = masterModel.getJobExpirations();
+    final Map<JobId, Date> unindexed = Maps.newHashMap();
+    for (final Entry<JobId, Job> entry : masterModel.getJobs().entrySet()) {
+      final Date expires = entry.getValue().getExpires();
+      if (expires != null && !indexed.containsKey(entry.getKey())) {
+        unindexed.put(entry.getKey(), expires);
+      }
+    }
+    return unindexed;
+  }
+
+  private void scheduleNext(final long delayMillis) {
+    if (executorService != null && !executorService.isShutdown()) {
+      executorService.schedule(runnable, delayMillis, MILLISECONDS);
     }
   }
 
   @Override
   protected ScheduledFuture<?> schedule(final Runnable runnable,
                                         final ScheduledExecutorService executorService) {
-    return executorService.scheduleWithFixedDelay(runnable, 0, interval, timeUnit);
+    this.runnable = runnable;
+    this.executorService = executorService;
+    return executorService.schedule(runnable, 0, timeUnit);
   }
 
   public static Builder newBuilder() {
@@ -123,6 +178,7 @@ public class ExpiredJobReaper extends InterruptingScheduledService {
     private int interval = DEFAULT_INTERVAL;
     private TimeUnit timeUnit = DEFAUL_TIMEUNIT;
     private Clock clock = new SystemClock();
+    private MasterLeaderElection leaderElection;
 
     public Builder setClock(final Clock clock) {
       this.clock = clock;
@@ -134,6 +190,11 @@ public class ExpiredJobReaper extends InterruptingScheduledService {
       return this;
     }
 
+    public Builder setLeaderElection(final MasterLeaderElection leaderElection) {
+      this.leaderElection = leaderElection;
+      return this;
+    }
+
     public Builder setInterval(final int interval) {
       this.interval = interval;
       return this;
@@ -0,0 +1,392 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.EnumMultiset;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.AbstractIdleService;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.spotify.helios.common.Json;
+import com.spotify.helios.common.descriptors.DeploymentGroup;
+import com.spotify.helios.common.descriptors.HostStatus;
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.descriptors.TaskStatus;
+import com.spotify.helios.common.descriptors.ThrottleState;
+import com.spotify.helios.common.protocol.FleetSummary;
+import com.spotify.helios.servicescommon.coordination.Paths;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.TreeCache;
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
+import org.apache.curator.framework.recipes.cache.TreeCacheListener;
+import org.apache.curator.utils.ZKPaths;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Maintains a {@link FleetSummary} from ZooKeeper watch events. Every event adjusts the counts by
+ * the difference between the old and the new state of the node, so producing a summary does not
+ * touch every host and task. The summary still grows with the number of deployment groups and of
+ * distinct labels and states.
+ *
+ * <p>The host and deployment group status trees are read through the caches of the
+ * {@link StatusWatchService}, which must be running before this service is started.
+ */
+public class FleetSummaryService extends AbstractIdleService {
+
+  private static final Logger log = LoggerFactory.getLogger(FleetSummaryService.class);
+
+  private static final Splitter PATH_SPLITTER = Splitter.on('/').omitEmptyStrings();
+  private static final TypeReference<List<String>> STRING_LIST_TYPE =
+      new TypeReference<List<String>>() {};
+  private static final TypeReference<Map<String, String>> STRING_MAP_TYPE =
+      new TypeReference<Map<String, String>>() {};
+  private static final TypeReference<TaskStatus> TASK_STATUS_TYPE =
+      new TypeReference<TaskStatus>() {};
+  private static final TypeReference<DeploymentGroup> DEPLOYMENT_GROUP_TYPE =
+      new TypeReference<DeploymentGroup>() {};
+
+  private final TreeCache configHostsCache;
+  private final TreeCache configDeploymentGroupsCache;
+  private final TreeCache statusHostsCache;
+  private final TreeCache statusDeploymentGroupsCache;
+  private volatile boolean configHostsInitialized;
+  private volatile boolean configDeploymentGroupsInitialized;
+  private final TreeCacheListener statusHostsListener = new TreeCacheListener() {
+    @Override
+    public void childEvent(final CuratorFramework client, final TreeCacheEvent event) {
+      if (isNodeEvent(event)) {
+        statusHostsNode(event.getData(), event.getType() == TreeCacheEvent.Type.NODE_REMOVED);
+      }
+    }
+  };
+  private final TreeCacheListener statusDeploymentGroupsListener = new TreeCacheListener() {
+    @Override
+    public void childEvent(final CuratorFramework client, final TreeCacheEvent event) {
+      if (isNodeEvent(event)) {
+        statusDeploymentGroupsNode(event.getData(),
+                                   event.getType() == TreeCacheEvent.Type.NODE_REMOVED);
+      }
+    }
+  };
+
+  private final Object lock = new Object();
+  private final Set<String> hosts = Sets.newHashSet();
+  private final Set<String> upHosts = Sets.newHashSet();
+  private int up;
+  private final Map<String, Map<String, String>> labels = Maps.newHashMap();
+  private final Multiset<String> labelCounts = HashMultiset.create();
+  private int deployments;
+  private final Map<String, TaskStatus.State> taskStates = Maps.newHashMap();
+  private final Map<String, ThrottleState> taskThrottles = Maps.newHashMap();
+  private final Multiset<TaskStatus.State> stateCounts = EnumMultiset.create(
+      TaskStatus.State.class);
+  private final Multiset<ThrottleState> throttleCounts = EnumMultiset.create(ThrottleState.class);
+  private final Map<String, JobId> deploymentGroupJobs = Maps.newHashMap();
+  private final Map<String, Integer> deploymentGroupHosts = Maps.newHashMap();
+
+  public FleetSummaryService(final CuratorFramework curator,
+                             final StatusWatchService statusWatchService) {
+    checkNotNull(curator, "curator");
+    checkNotNull(statusWatchService, "statusWatchService");
+    // /config/hosts/<host>/jobs/<job>
+    this.configHostsCache = cache(curator, Paths.configHosts(), 3);
+    // /config/deployment-groups/<name>
+    this.configDeploymentGroupsCache = cache(curator, Paths.configDeploymentGroups(), 1);
+    this.statusHostsCache = statusWatchService.hostsCache();
+    this.statusDeploymentGroupsCache = statusWatchService.deploymentGroupsCache();
+  }
+
+  private static TreeCache cache(final CuratorFramework curator, final String path,
+                                 final int maxDepth) {
+    // Node data is kept for the master snapshot, which is built from these caches
+    return TreeCache.newBuilder(curator, path)
+        .setMaxDepth(maxDepth)
+        .build();
+  }
+
+  /**
+   * @return true once both config caches hold every node that existed when they were started.
+   */
+  boolean isInitialized() {
+    return configHostsInitialized && configDeploymentGroupsInitialized;
+  }
+
+  /**
+   * @return The cache of {@code /config/hosts}, down to the deployments of each host.
+   */
+  TreeCache configHostsCache() {
+    return configHostsCache;
+  }
+
+  /**
+   * @return The cache of {@code /config/deployment-groups}.
+   */
+  TreeCache configDeploymentGroupsCache() {
+    return configDeploymentGroupsCache;
+  }
+
+  @Override
+  protected void startUp() throws Exception {
+    configHostsCache.getListenable().addListener(new TreeCacheListener() {
+      @Override
+      public void childEvent(final CuratorFramework client, final TreeCacheEvent event) {
+        if (event.getType() == TreeCacheEvent.Type.INITIALIZED) {
+          configHostsInitialized = true;
+        }
+        configHostsEvent(event);
+      }
+    });
+    configDeploymentGroupsCache.getListenable().addListener(new TreeCacheListener() {
+      @Override
+      public void childEvent(final CuratorFramework client, final TreeCacheEvent event) {
+        if (event.getType() == TreeCacheEvent.Type.INITIALIZED) {
+          configDeploymentGroupsInitialized = true;
+        }
+        configDeploymentGroupsEvent(event);
+      }
+    });
+    // The shared caches are already running. Listen first and then count what they already hold,
+    // while holding the lock so that no event is applied before the older state it replaces.
+    synchronized (lock) {
+      statusHostsCache.getListenable().addListener(statusHostsListener);
+      statusDeploymentGroupsCache.getListenable().addListener(statusDeploymentGroupsListener);
+      for (final ChildData data : currentNodes(statusHostsCache, Paths.statusHosts())) {
+        statusHostsNode(data, false);
+      }
+      for (final ChildData data : currentNodes(statusDeploymentGroupsCache,
+                                               Paths.statusDeploymentGroups())) {
+        statusDeploymentGroupsNode(data, false);
+      }
+    }
+    configHostsCache.start();
+    configDeploymentGroupsCache.start();
+  }
+
+  @Override
+  protected void shutDown() throws Exception {
+    statusHostsCache.getListenable().removeListener(statusHostsListener);
+    statusDeploymentGroupsCache.getListenable().removeListener(statusDeploymentGroupsListener);
+    configHostsCache.close();
+    configDeploymentGroupsCache.close();
+  }
+
+  /**
+   * @return The nodes below the given path that are currently in the cache, parents first.
+   */
+  private static List<ChildData> currentNodes(final TreeCache cache, final String path) {
+    final List<ChildData> nodes = Lists.newArrayList();
+    final Map<String, ChildData> children = cache.getCurrentChildren(path);
+    if (children != null) {
+      for (final Map.Entry<String, ChildData> child : children.entrySet()) {
+        final ChildData data = child.getValue();
+        if (data != null) {
+          nodes.add(data);
+          nodes.addAll(currentNodes(cache, ZKPaths.makePath(path, child.getKey())));
+        }
+      }
+    }
+    return nodes;
+  }
+
+  /**
+   * @return The current summary.
+   */
+  public FleetSummary summary() {
+    synchronized (lock) {
+      final Map<HostStatus.Status, Integer> hostsByStatus = ImmutableMap.of(
+          HostStatus.Status.UP, up,
+          HostStatus.Status.DOWN, hosts.size() - up);
+      return new FleetSummary(hosts.size(), hostsByStatus, counts(labelCounts), deployments,
+                              counts(stateCounts), counts(throttleCounts), deploymentGroupJobs,
+                              deploymentGroupHosts);
+    }
+  }
+
+  private static <T> Map<T, Integer> counts(final Multiset<T> multiset) {
+    final ImmutableMap.Builder<T, Integer> counts = ImmutableMap.builder();
+    for (final Multiset.Entry<T> entry : multiset.entrySet()) {
+      counts.put(entry.getElement(), entry.getCount());
+    }
+    return counts.build();
+  }
+
+  private static boolean isNodeEvent(final TreeCacheEvent event) {
+    switch (event.getType()) {
+      case NODE_ADDED:
+      case NODE_UPDATED:
+      case NODE_REMOVED:
+        return event.getData() != null;
+      default:
+        return false;
+    }
+  }
+
+  private void configHostsEvent(final TreeCacheEvent event) {
+    if (!isNodeEvent(event)) {
+      return;
+    }
+    final List<String> parts = PATH_SPLITTER.splitToList(event.getData().getPath());
+    final boolean removed = event.getType() == TreeCacheEvent.Type.NODE_REMOVED;
+    synchronized (lock) {
+      // config, hosts, <host>
+      if (parts.size() == 3 && event.getType() != TreeCacheEvent.Type.NODE_UPDATED) {
+        hostRegistered(parts.get(2), !removed);
+      }
+      // config, hosts, <host>, jobs, <job>
+      if (parts.size() == 5 && parts.get(3).equals("jobs") &&
+          event.getType() != TreeCacheEvent.Type.NODE_UPDATED) {
+        deployments += removed ? -1 : 1;
+      }
+    }
+  }
+
+  private void statusHostsNode(final ChildData data, final boolean removed) {
+    final List<String> parts = PATH_SPLITTER.splitToList(data.getPath());
+    synchronized (lock) {
+      // status, hosts, <host>, up
+      if (parts.size() == 4 && parts.get(3).equals("up")) {
+        hostUp(parts.get(2), !removed);
+      }
+      // status, hosts, <host>, labels
+      if (parts.size() == 4 && parts.get(3).equals("labels")) {
+        hostLabels(parts.get(2), removed ? null : read(data, STRING_MAP_TYPE));
+      }
+      // status, hosts, <host>, jobs, <job>
+      if (parts.size() == 5 && parts.get(3).equals("jobs")) {
+        taskStatus(data.getPath(), removed ? null : read(data, TASK_STATUS_TYPE));
+      }
+    }
+  }
+
+  private void configDeploymentGroupsEvent(final TreeCacheEvent event) {
+    if (!isNodeEvent(event)) {
+      return;
+    }
+    final ChildData data = event.getData();
+    final List<String> parts = PATH_SPLITTER.splitToList(data.getPath());
+    final boolean removed = event.getType() == TreeCacheEvent.Type.NODE_REMOVED;
+    // config, deployment-groups, <name>
+    if (parts.size() != 3) {
+      return;
+    }
+    final DeploymentGroup group = removed ? null : read(data, DEPLOYMENT_GROUP_TYPE);
+    synchronized (lock) {
+      if (group == null || group.getJob() == null) {
+        deploymentGroupJobs.remove(parts.get(2));
+      } else {
+        deploymentGroupJobs.put(parts.get(2), group.getJob());
+      }
+    }
+  }
+
+  private void statusDeploymentGroupsNode(final ChildData data, final boolean removed) {
+    final List<String> parts = PATH_SPLITTER.splitToList(data.getPath());
+    // status, deployment-groups, <name>, hosts
+    if (parts.size() != 4 || !parts.get(3).equals("hosts")) {
+      return;
+    }
+    final List<String> hosts = removed ? null : read(data, STRING_LIST_TYPE);
+    synchronized (lock) {
+      if (hosts == null) {
+        deploymentGroupHosts.remove(parts.get(2));
+      } else {
+        deploymentGroupHosts.put(parts.get(2), hosts.size());
+      }
+    }
+  }
+
+  private void hostRegistered(final String host, final boolean registered) {
+    final boolean changed = registered ? hosts.add(host) : hosts.remove(host);
+    if (changed && upHosts.contains(host)) {
+      up += registered ? 1 : -1;
+    }
+  }
+
+  private void hostUp(final String host, final boolean isUp) {
+    final boolean changed = isUp ? upHosts.add(host) : upHosts.remove(host);
+    if (changed && hosts.contains(host)) {
+      up += isUp ? 1 : -1;
+    }
+  }
+
+  private void hostLabels(final String host, final Map<String, String> hostLabels) {
+    final Map<String, String> previous = hostLabels == null || hostLabels.isEmpty()
+                                         ? labels.remove(host)
+                                         : labels.put(host, hostLabels);
+    if (previous != null) {
+      for (final Map.Entry<String, String> label : previous.entrySet()) {
+        labelCounts.remove(label.getKey() + "=" + label.getValue());
+      }
+    }
+    if (hostLabels != null) {
+      for (final Map.Entry<String, String> label : hostLabels.entrySet()) {
+        labelCounts.add(label.getKey() + "=" + label.getValue());
+      }
+    }
+  }
+
+  private void taskStatus(final String path, final TaskStatus status) {
+    final TaskStatus.State previousState = status == null ? taskStates.remove(path)
+                                                          : taskStates.put(path, status.getState());
+    final ThrottleState previousThrottle = status == null
+                                           ? taskThrottles.remove(path)
+                                           : taskThrottles.put(path, status.getThrottled());
+    if (previousState != null) {
+      stateCounts.remove(previousState);
+    }
+    if (previousThrottle != null) {
+      throttleCounts.remove(previousThrottle);
+    }
+    if (status != null) {
+      stateCounts.add(status.getState());
+      throttleCounts.add(status.getThrottled());
+    }
+  }
+
+  private static <T> T read(final ChildData data, final TypeReference<T> type) {
+    if (data.getData() == null || data.getData().length == 0) {
+      return null;
+    }
+    try {
+      return Json.read(data.getData(), type);
+    } catch (IOException e) {
+      log.warn("failed to parse {}", data.getPath(), e);
+      return null;
+    }
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.spotify.helios.master;
+
+import com.google.common.base.Objects;
+
+import com.spotify.helios.common.descriptors.TaskStatus;
+
+import org.jetbrains.annotations.Nullable;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Restricts which events {@link MasterModel#getJobHistory} returns. Fields that are not set do
+ * not filter anything.
+ */
+public class JobHistoryQuery {
+
+  private static final JobHistoryQuery ALL = newBuilder().build();
+
+  private final String host;
+  private final TaskStatus.State state;
+  private final Long since;
+  private final Long until;
+  private final Integer limit;
+
+  private JobHistoryQuery(final Builder builder) {
+    this.host = builder.host;
+    this.state = builder.state;
+    this.since = builder.since;
+    this.until = builder.until;
+    this.limit = builder.limit;
+  }
+
+  /**
+   * @return A query matching every event of a job.
+   */
+  public static JobHistoryQuery all() {
+    return ALL;
+  }
+
+  /**
+   * @return Only return events from this host.
+   */
+  @Nullable
+  public String getHost() {
+    return host;
+  }
+
+  /**
+   * @return Only return events where the task was in this state.
+   */
+  @Nullable
+  public TaskStatus.State getState() {
+    return state;
+  }
+
+  /**
+   * @return Only return events with a timestamp at or after this time, in milliseconds.
+   */
+  @Nullable
+  public Long getSince() {
+    return since;
+  }
+
+  /**
+   * @return Only return events with a timestamp at or before this time, in milliseconds.
+   */
+  @Nullable
+  public Long getUntil() {
+    return until;
+  }
+
+  /**
+   * @return Only return this many of the newest matching events.
+   */
+  @Nullable
+  public Integer getLimit() {
+    return limit;
+  }
+
+  /**
+   * @param timestamp An event timestamp in milliseconds.
+   * @return true if the timestamp is within the since/until range of this query.
+   */
+  public boolean matchesTimestamp(final long timestamp) {
+    return (since == null || timestamp >= since) && (until == null || timestamp <= until);
+  }
+
+  /**
+   * @param status The status of an event.
+   * @return true if the status matches the state of this query.
+   */
+  public boolean matchesStatus(final TaskStatus status) {
+    return state == null || state == status.getState();
+  }
+
+  @Override
+  public String toString() {
+    return Objects.toStringHelper(this)
+        .add("host", host)
+        .add("state", state)
+        .add("since", since)
+        .add("until", until)
+        .add("limit", limit)
+        .toString();
+  }
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+
+    private String host;
+    private TaskStatus.State state;
+    private Long since;
+    private Long until;
+    private Integer limit;
+
+    private Builder() {
+    }
+
+    public Builder setHost(final String host) {
+      this.host = host;
+      return this;
+    }
+
+    public Builder setState(final TaskStatus.State state) {
+      this.state = state;
+      return this;
+    }
+
+    public Builder setSince(final Long since) {
+      this.since = since;
+      return this;
+    }
+
+    public Builder setUntil(final Long until) {
+      this.until = until;
+      return this;
+    }
+
+    public Builder setLimit(final Integer limit) {
+      checkArgument(limit == null || limit > 0, "limit must be positive");
+      this.limit = limit;
+      return this;
+    }
+
+    public JobHistoryQuery build() {
+      return new JobHistoryQuery(this);
+    }
+  }
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.TreeMultimap;
+import com.google.common.util.concurrent.AbstractIdleService;
+
+import com.spotify.helios.common.Json;
+import com.spotify.helios.common.descriptors.Job;
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.servicescommon.coordination.Paths;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.TreeCache;
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
+import org.apache.curator.framework.recipes.cache.TreeCacheListener;
+import org.apache.curator.utils.ZKPaths;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An in-memory index of all job definitions, kept up to date through ZooKeeper watches on the job
+ * configuration so that searching jobs does not have to read and parse every job.
+ *
+ * <p>Job names and versions are indexed both by prefix and by trigram, so that the substring
+ * searches on job ids done by {@code helios jobs <query>} only have to look at jobs that share
+ * the rarest trigram of the query. Images, creating users and expiry times are indexed exactly.
+ */
+public class JobIndex extends AbstractIdleService {
+
+  private static final Logger log = LoggerFactory.getLogger(JobIndex.class);
+
+  private static final int GRAM = 3;
+  private static final CharMatcher HEX = CharMatcher.anyOf("0123456789abcdef");
+
+  private final TreeCache cache;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<JobId, Job> jobs = Maps.newHashMap();
+  private final TreeMultimap<String, JobId> names = TreeMultimap.create();
+  private final TreeMultimap<String, JobId> versions = TreeMultimap.create();
+  private final SetMultimap<String, JobId> trigrams = HashMultimap.create();
+  private final SetMultimap<String, JobId> images = HashMultimap.create();
+  private final SetMultimap<String, JobId> users = HashMultimap.create();
+  private final TreeMultimap<Long, JobId> expirations = TreeMultimap.create();
+
+  private volatile boolean initialized;
+
+  public JobIndex(final CuratorFramework curator) {
+    checkNotNull(curator, "curator");
+    // /config/jobs/<job>
+    this.cache = TreeCache.newBuilder(curator, Paths.configJobs())
+        .setMaxDepth(1)
+        .setCacheData(false)
+        .build();
+  }
+
+  @Override
+  protected void startUp() throws Exception {
+    cache.getListenable().addListener(new TreeCacheListener() {
+      @Override
+      public void childEvent(final CuratorFramework client, final TreeCacheEvent event) {
+        switch (event.getType()) {
+          case NODE_ADDED:
+            added(event.getData());
+            break;
+          case NODE_REMOVED:
+            removed(event.getData());
+            break;
+          case INITIALIZED:
+            log.info("indexed {} jobs", size());
+            initialized = true;
+            break;
+          default:
+            // Jobs are immutable, so updates don't matter
+        }
+      }
+    });
+    cache.start();
+  }
+
+  @Override
+  protected void shutDown() throws Exception {
+    cache.close();
+  }
+
+  /**
+   * @return true once every existing job has been indexed. Until then, queries may miss jobs.
+   */
+  public boolean isInitialized() {
+    return initialized;
+  }
+
+  /**
+   * @return A copy of every job in the index, keyed by id.
+   */
+  public Map<JobId, Job> jobs() {
+    lock.readLock().lock();
+    try {
+      return ImmutableMap.copyOf(jobs);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return The number of jobs in the index.
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return jobs.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the jobs matching every filter of the query, in job id order. The most selective
+   * filter backed by an index determines which jobs are looked at, the rest are checked on
+   * those jobs only.
+   */
+  public SortedMap<JobId, Job> query(final JobQuery query) {
+    lock.readLock().lock();
+    try {
+      Collection<JobId> candidates = jobs.keySet();
+      if (query.getIdSubstring() != null) {
+        candidates = smallest(candidates, idCandidates(query.getIdSubstring()));
+      }
+      if (query.getNamePrefix() != null) {
+        candidates = smallest(candidates, withPrefix(names, query.getNamePrefix()));
+      }
+      if (query.getVersionPrefix() != null) {
+        candidates = smallest(candidates, withPrefix(versions, query.getVersionPrefix()));
+      }
+      if (query.getImage() != null) {
+        candidates = smallest(candidates, images.get(query.getImage()));
+      }
+      if (query.getCreatingUser() != null) {
+        candidates = smallest(candidates, users.get(query.getCreatingUser()));
+      }
+      if (query.getExpiresBefore() != null) {
+        candidates = smallest(candidates, ImmutableSet.copyOf(Iterables.concat(
+            expirations.asMap().headMap(query.getExpiresBefore()).values())));
+      }
+
+      final TreeMap<JobId, Job> matching = Maps.newTreeMap();
+      for (final JobId id : candidates) {
+        final Job job = jobs.get(id);
+        if (job != null && query.matches(job)) {
+          matching.put(id, job);
+          if (query.getLimit() != null && matching.size() > query.getLimit()) {
+            matching.pollLastEntry();
+          }
+        }
+      }
+      return matching;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private static Collection<JobId> smallest(final Collection<JobId> a,
+                                            final Collection<JobId> b) {
+    return b.size() < a.size() ? b : a;
+  }
+
+  /**
+   * Candidates for a substring search on job ids. Only names and versions are indexed, not
+   * hashes, so only the part of the query that has to fall within the name and version can be
+   * used to narrow the search.
+   */
+  private Collection<JobId> idCandidates(final String q) {
+    final int colon = q.lastIndexOf(':');
+    final String head = HEX.matchesAllOf(q.substring(colon + 1)) ? q.substring(0, colon + 1) : q;
+    if (head.length() < GRAM) {
+      return jobs.keySet();
+    }
+    Collection<JobId> rarest = null;
+    for (final String gram : trigrams(head)) {
+      final Set<JobId> ids = trigrams.get(gram);
+      if (rarest == null || ids.size() < rarest.size()) {
+        rarest = ids;
+      }
+    }
+    return rarest;
+  }
+
+  private static Collection<JobId> withPrefix(final TreeMultimap<String, JobId> index,
+                                              final String prefix) {
+    final SortedMap<String, Collection<JobId>> matching =
+        index.asMap().subMap(prefix, prefix + Character.MAX_VALUE);
+    return ImmutableSet.copyOf(Iterables.concat(matching.values()));
+  }
+
+  /**
+   * The trigrams of the part of a job id that is indexed, e.g. {@code foo:1:} for the job
+   * {@code foo:1:<hash>}. The trailing colon lets queries spanning into the hash be narrowed too.
+   */
+  private static Set<String> trigrams(final JobId id) {
+    return trigrams(id.getName() + ":" + id.getVersion() + ":");
+  }
+
+  private static Set<String> trigrams(final String s) {
+    final ImmutableSet.Builder<String> grams = ImmutableSet.builder();
+    for (int i = 0; i + GRAM <= s.length(); i++) {
+      grams.add(s.substring(i, i + GRAM));
+    }
+    return grams.build();
+  }
+
+  private void added(final ChildData data) {
+    final JobId id = jobId(data);
+    if (id == null || data.getData() == null) {
+      return;
+    }
+    final Job job;
+    try {
+      job = Json.read(data.getData(), Job.class);
+    } catch (IOException e) {
+      log.warn("failed to parse job {}", id, e);
+      return;
+    }
+    add(job);
+  }
+
+  private void removed(final ChildData data) {
+    final JobId id = jobId(data);
+    if (id != null) {
+      remove(id);
+    }
+  }
+
+  /**
+   * Indexes a job right away, without waiting for the watch on its node. Used by the master
+   * after creating a job so that its own reads see the job. Adding a job twice is a no-op.
+   */
+  public void add(final Job job) {
+    final JobId id = job.getId();
+    lock.writeLock().lock();
+    try {
+      if (jobs.put(id, job) != null) {
+        return;
+      }
+      names.put(id.getName(), id);
+      versions.put(id.getVersion(), id);
+      for (final String gram : trigrams(id)) {
+        trigrams.put(gram, id);
+      }
+      if (job.getImage() != null) {
+        images.put(job.getImage(), id);
+      }
+      if (job.getCreatingUser() != null) {
+        users.put(job.getCreatingUser(), id);
+      }
+      if (job.getExpires() != null) {
+        expirations.put(job.getExpires().getTime(), id);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes a job from the index right away, without waiting for the watch on its node. Removing
+   * a job that is not indexed is a no-op.
+   */
+  public void remove(final JobId id) {
+    lock.writeLock().lock();
+    try {
+      final Job job = jobs.remove(id);
+      if (job == null) {
+        return;
+      }
+      names.remove(id.getName(), id);
+      versions.remove(id.getVersion(), id);
+      for (final String gram : trigrams(id)) {
+        trigrams.remove(gram, id);
+      }
+      if (job.getImage() != null) {
+        images.remove(job.getImage(), id);
+      }
+      if (job.getCreatingUser() != null) {
+        users.remove(job.getCreatingUser(), id);
+      }
+      if (job.getExpires() != null) {
+        expirations.remove(job.getExpires().getTime(), id);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @return The id of the job stored at the node, or null if the node is not a job.
+   */
+  private static JobId jobId(final ChildData data) {
+    if (data == null || data.getPath().equals(Paths.configJobs())) {
+      return null;
+    }
+    try {
+      return JobId.fromString(ZKPaths.getNodeFromPath(data.getPath()));
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+}
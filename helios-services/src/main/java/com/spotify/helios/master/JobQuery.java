@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master;
+
+import com.google.common.base.Objects;
+
+import com.spotify.helios.common.descriptors.Job;
+import com.spotify.helios.common.descriptors.JobId;
+
+import org.jetbrains.annotations.Nullable;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Restricts which jobs {@link JobIndex#query} returns. Fields that are not set do not filter
+ * anything, and a job has to match every field that is set.
+ */
+public class JobQuery {
+
+  private final String idSubstring;
+  private final String namePrefix;
+  private final String versionPrefix;
+  private final String image;
+  private final String creatingUser;
+  private final Long expiresBefore;
+  private final JobId after;
+  private final Integer limit;
+
+  private JobQuery(final Builder builder) {
+    this.idSubstring = builder.idSubstring;
+    this.namePrefix = builder.namePrefix;
+    this.versionPrefix = builder.versionPrefix;
+    this.image = builder.image;
+    this.creatingUser = builder.creatingUser;
+    this.expiresBefore = builder.expiresBefore;
+    this.after = builder.after;
+    this.limit = builder.limit;
+  }
+
+  /**
+   * @return Only return jobs whose id contains this string.
+   */
+  @Nullable
+  public String getIdSubstring() {
+    return idSubstring;
+  }
+
+  /**
+   * @return Only return jobs whose name starts with this string.
+   */
+  @Nullable
+  public String getNamePrefix() {
+    return namePrefix;
+  }
+
+  /**
+   * @return Only return jobs whose version starts with this string.
+   */
+  @Nullable
+  public String getVersionPrefix() {
+    return versionPrefix;
+  }
+
+  /**
+   * @return Only return jobs with exactly this image.
+   */
+  @Nullable
+  public String getImage() {
+    return image;
+  }
+
+  /**
+   * @return Only return jobs created by this user.
+   */
+  @Nullable
+  public String getCreatingUser() {
+    return creatingUser;
+  }
+
+  /**
+   * @return Only return jobs that expire before this time, in milliseconds.
+   */
+  @Nullable
+  public Long getExpiresBefore() {
+    return expiresBefore;
+  }
+
+  /**
+   * @return Only return jobs whose id sorts after this one, i.e. the cursor of a paged search.
+   */
+  @Nullable
+  public JobId getAfter() {
+    return after;
+  }
+
+  /**
+   * @return Only return this many matching jobs, in job id order.
+   */
+  @Nullable
+  public Integer getLimit() {
+    return limit;
+  }
+
+  /**
+   * @return true if this query neither filters nor limits anything.
+   */
+  public boolean matchesAll() {
+    return idSubstring == null && namePrefix == null && versionPrefix == null && image == null &&
+           creatingUser == null && expiresBefore == null && after == null && limit == null;
+  }
+
+  /**
+   * @param job A job.
+   * @return true if the job matches every filter of this query.
+   */
+  public boolean matches(final Job job) {
+    return (idSubstring == null || job.getId().toString().contains(idSubstring)) &&
+           (namePrefix == null || job.getId().getName().startsWith(namePrefix)) &&
+           (versionPrefix == null || job.getId().getVersion().startsWith(versionPrefix)) &&
+           (image == null || image.equals(job.getImage())) &&
+           (creatingUser == null || creatingUser.equals(job.getCreatingUser())) &&
+           (expiresBefore == null ||
+            job.getExpires() != null && job.getExpires().getTime() < expiresBefore) &&
+           (after == null || job.getId().compareTo(after) > 0);
+  }
+
+  @Override
+  public String toString() {
+    return Objects.toStringHelper(this)
+        .add("idSubstring", idSubstring)
+        .add("namePrefix", namePrefix)
+        .add("versionPrefix", versionPrefix)
+        .add("image", image)
+        .add("creatingUser", creatingUser)
+        .add("expiresBefore", expiresBefore)
+        .add("after", after)
+        .add("limit", limit)
+        .toString();
+  }
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+
+    private String idSubstring;
+    private String namePrefix;
+    private String versionPrefix;
+    private String image;
+    private String creatingUser;
+    private Long expiresBefore;
+    private JobId after;
+    private Integer limit;
+
+    private Builder() {
+    }
+
+    public Builder setIdSubstring(final String idSubstring) {
+      this.idSubstring = idSubstring;
+      return this;
+    }
+
+    public Builder setNamePrefix(final String namePrefix) {
+      this.namePrefix = namePrefix;
+      return this;
+    }
+
+    public Builder setVersionPrefix(final String versionPrefix) {
+      this.versionPrefix = versionPrefix;
+      return this;
+    }
+
+    public Builder setImage(final String image) {
+      this.image = image;
+      return this;
+    }
+
+    public Builder setCreatingUser(final String creatingUser) {
+      this.creatingUser = creatingUser;
+      return this;
+    }
+
+    public Builder setExpiresBefore(final Long expiresBefore) {
+      this.expiresBefore = expiresBefore;
+      return this;
+    }
+
+    public Builder setAfter(final JobId after) {
+      this.after = after;
+      return this;
+    }
+
+    public Builder setLimit(final Integer limit) {
+      checkArgument(limit == null || limit > 0, "limit must be positive");
+      this.limit = limit;
+      return this;
+    }
+
+    public JobQuery build() {
+      return new JobQuery(this);
+    }
+  }
+}
@@ -37,6 +37,7 @@ public class MasterConfig extends Configuration {
   private String zooKeeperConnectString;
   private String name;
   private boolean inhibitMetrics;
+  private int traceBufferSize;
   private String statsdHostPort;
   private String riemannHostPort;
   private String serviceRegistryAddress;
@@ -49,6 +50,12 @@ public class MasterConfig extends Configuration {
   private boolean noZooKeeperMasterRegistration;
   private int adminPort;
   private InetSocketAddress httpEndpoint;
+  private int maxConcurrentReads;
+  private double userRequestsPerSecond;
+  private int userRequestBurst;
+  private Path stateDirectory;
+  private int snapshotIntervalSeconds;
+  private long slowRequestThresholdMillis;
 
   public String getDomain() {
     return domain;
@@ -131,6 +138,19 @@ public class MasterConfig extends Configuration {
     return inhibitMetrics;
   }
 
+  /**
+   * @return The number of timing spans to keep for dumping from the admin port, or 0 if tracing
+   *         is disabled.
+   */
+  public int getTraceBufferSize() {
+    return traceBufferSize;
+  }
+
+  public MasterConfig setTraceBufferSize(final int traceBufferSize) {
+    this.traceBufferSize = traceBufferSize;
+    return this;
+  }
+
   public MasterConfig setStatsdHostPort(String hostPort) {
     this.statsdHostPort = hostPort;
     return this;
@@ -193,4 +213,58 @@ public class MasterConfig extends Configuration {
   public InetSocketAddress getHttpEndpoint() {
     return httpEndpoint;
   }
+
+  public int getMaxConcurrentReads() {
+    return maxConcurrentReads;
+  }
+
+  public MasterConfig setMaxConcurrentReads(final int maxConcurrentReads) {
+    this.maxConcurrentReads = maxConcurrentReads;
+    return this;
+  }
+
+  public double getUserRequestsPerSecond() {
+    return userRequestsPerSecond;
+  }
+
+  public MasterConfig setUserRequestsPerSecond(final double userRequestsPerSecond) {
+    this.userRequestsPerSecond = userRequestsPerSecond;
+    return this;
+  }
+
+  public int getUserRequestBurst() {
+    return userRequestBurst;
+  }
+
+  public MasterConfig setUserRequestBurst(final int userRequestBurst) {
+    this.userRequestBurst = userRequestBurst;
+    return this;
+  }
+
+  public Path getStateDirectory() {
+    return stateDirectory;
+  }
+
+  public MasterConfig setStateDirectory(final Path stateDirectory) {
+    this.stateDirectory = stateDirectory;
+    return this;
+  }
+
+  public int getSnapshotIntervalSeconds() {
+    return snapshotIntervalSeconds;
+  }
+
+  public MasterConfig setSnapshotIntervalSeconds(final int snapshotIntervalSeconds) {
+    this.snapshotIntervalSeconds = snapshotIntervalSeconds;
+    return this;
+  }
+
+  public long getSlowRequestThresholdMillis() {
+    return slowRequestThresholdMillis;
+  }
+
+  public MasterConfig setSlowRequestThresholdMillis(final long slowRequestThresholdMillis) {
+    this.slowRequestThresholdMillis = slowRequestThresholdMillis;
+    return this;
+  }
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master;
+
+import com.google.common.base.Strings;
+import com.google.common.util.concurrent.AbstractIdleService;
+
+import com.spotify.helios.servicescommon.coordination.Paths;
+import com.spotify.helios.servicescommon.statistics.MasterMetrics;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.leader.LeaderLatch;
+import org.apache.curator.framework.recipes.leader.LeaderLatchListener;
+import org.apache.curator.framework.recipes.leader.Participant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Elects one of the running masters to do the background work that only has to be done once per
+ * cluster, i.e. rolling updates and reaping expired jobs.
+ *
+ * <p>A master that shuts down gives up leadership right away. A master that dies loses it when its
+ * ZooKeeper session expires, and a master that loses its connection stops acting as leader as
+ * soon as the connection is suspended.
+ */
+public class MasterLeaderElection extends AbstractIdleService {
+
+  private static final Logger log = LoggerFactory.getLogger(MasterLeaderElection.class);
+
+  private final LeaderLatch latch;
+  private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+  public MasterLeaderElection(final CuratorFramework curator, final String name,
+                              final MasterMetrics metrics) {
+    this.latch = new LeaderLatch(curator, Paths.statusLeader(), Strings.nullToEmpty(name));
+    this.latch.addListener(new LeaderLatchListener() {
+      @Override
+      public void isLeader() {
+        log.info("elected leader");
+        metrics.leadershipChanged(true);
+        for (final Runnable listener : listeners) {
+          listener.run();
+        }
+      }
+
+      @Override
+      public void notLeader() {
+        log.info("no longer leader");
+        metrics.leadershipChanged(false);
+      }
+    });
+  }
+
+  /**
+   * Adds a listener that is run whenever this master is elected, so that background work can
+   * start right away instead of on its next tick.
+   */
+  public void addLeadershipListener(final Runnable listener) {
+    listeners.add(listener);
+  }
+
+  public boolean hasLeadership() {
+    return latch.hasLeadership();
+  }
+
+  /**
+   * Returns the name of the current leader, or null if there is none.
+   */
+  public String getLeader() {
+    try {
+      final Participant leader = latch.getLeader();
+      return leader.isLeader() ? leader.getId() : null;
+    } catch (Exception e) {
+      log.warn("failed to get leader", e);
+      return null;
+    }
+  }
+
+  @Override
+  protected void startUp() throws Exception {
+    latch.start();
+  }
+
+  @Override
+  protected void shutDown() throws Exception {
+    latch.close();
+  }
+}
@@ -21,6 +21,7 @@
 
 package com.spotify.helios.master;
 
+import com.spotify.helios.common.HeliosException;
 import com.spotify.helios.common.descriptors.Deployment;
 import com.spotify.helios.common.descriptors.DeploymentGroup;
 import com.spotify.helios.common.descriptors.DeploymentGroupStatus;
@@ -32,8 +33,10 @@ import com.spotify.helios.common.descriptors.RolloutOptions;
 import com.spotify.helios.common.descriptors.TaskStatusEvent;
 import com.spotify.helios.rollingupdate.RolloutPlanner;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The interface that describes the kinds of information the Helios master needs from it's
@@ -49,6 +52,12 @@ public interface MasterModel {
 
   HostStatus getHostStatus(String host);
 
+  /**
+   * Like {@link #getHostStatus(String)}, but only reads the given parts of the status from
+   * ZooKeeper. The other parts are left empty.
+   */
+  HostStatus getHostStatus(String host, Set<HostStatus.Field> fields);
+
   void addJob(Job job) throws JobExistsException;
 
   Job getJob(JobId jobId);
@@ -57,6 +66,22 @@ public interface MasterModel {
 
   JobStatus getJobStatus(JobId jobId);
 
+  /**
+   * Like {@link #getJobStatus(JobId)}, but only reads the given parts of the status from
+   * ZooKeeper. The other parts are left null.
+   */
+  JobStatus getJobStatus(JobId jobId, Set<JobStatus.Field> fields);
+
+  Map<JobId, Date> getJobExpirations();
+
+  String getJobsVersion();
+
+  String getJobStatusVersion(JobId jobId);
+
+  String getHostStatusVersion(String host);
+
+  String getDeploymentGroupStatusVersion(String name);
+
   Job removeJob(JobId jobId)
       throws JobDoesNotExistException,
              JobStillDeployedException;
@@ -66,6 +91,11 @@ public interface MasterModel {
              JobStillDeployedException,
              TokenVerificationException;
 
+  Job undeployAndRemoveJob(JobId jobId, String token)
+      throws JobDoesNotExistException,
+             JobStillDeployedException,
+             TokenVerificationException;
+
   void deployJob(String host, Deployment job)
       throws HostNotFoundException,
              JobAlreadyDeployedException,
@@ -79,6 +109,11 @@ public interface MasterModel {
              JobPortAllocationConflictException,
              TokenVerificationException;
 
+  Map<String, HeliosException> deployJobToHosts(List<String> hosts, Deployment deployment,
+                                                String token)
+      throws JobDoesNotExistException,
+             TokenVerificationException;
+
   Deployment getDeployment(String host, JobId jobId);
 
   Deployment undeployJob(String host, JobId jobId)
@@ -90,6 +125,10 @@ public interface MasterModel {
              JobNotDeployedException,
              TokenVerificationException;
 
+  Map<String, HeliosException> undeployJobFromHosts(List<String> hosts, JobId jobId, String token)
+      throws JobDoesNotExistException,
+             TokenVerificationException;
+
   void updateDeployment(String host, Deployment deployment)
       throws HostNotFoundException,
              JobNotDeployedException;
@@ -103,6 +142,9 @@ public interface MasterModel {
 
   List<TaskStatusEvent> getJobHistory(JobId jobId) throws JobDoesNotExistException;
 
+  List<TaskStatusEvent> getJobHistory(JobId jobId, JobHistoryQuery query)
+      throws JobDoesNotExistException;
+
   void addDeploymentGroup(DeploymentGroup deploymentGroup) throws DeploymentGroupExistsException;
 
   DeploymentGroup getDeploymentGroup(String name) throws DeploymentGroupDoesNotExistException;
@@ -29,6 +29,7 @@ import net.sourceforge.argparse4j.inf.ArgumentParserException;
 import net.sourceforge.argparse4j.inf.Namespace;
 
 import java.net.InetSocketAddress;
+import java.nio.file.Paths;
 
 /**
  * Parses command-line arguments to produce the {@link MasterConfig}.
@@ -39,12 +40,19 @@ public class MasterParser extends ServiceParser {
 
   private Argument httpArg;
   private Argument adminArg;
+  private Argument maxConcurrentReadsArg;
+  private Argument userRequestsPerSecondArg;
+  private Argument userRequestBurstArg;
+  private Argument stateDirArg;
+  private Argument snapshotIntervalArg;
+  private Argument slowRequestThresholdArg;
 
   public MasterParser(final String... args) throws ArgumentParserException {
     super("helios-master", "Spotify Helios Master", args);
 
     final Namespace options = getNamespace();
     final InetSocketAddress httpAddress = parseSocketAddress(options.getString(httpArg.getDest()));
+    final String stateDirectory = options.getString(stateDirArg.getDest());
 
     final MasterConfig config = new MasterConfig()
         .setZooKeeperConnectString(getZooKeeperConnectString())
@@ -58,11 +66,18 @@ public class MasterParser extends ServiceParser {
         .setStatsdHostPort(getStatsdHostPort())
         .setRiemannHostPort(getRiemannHostPort())
         .setInhibitMetrics(getInhibitMetrics())
+        .setTraceBufferSize(getTraceBufferSize())
         .setSentryDsn(getSentryDsn())
         .setServiceRegistryAddress(getServiceRegistryAddress())
         .setServiceRegistrarPlugin(getServiceRegistrarPlugin())
         .setAdminPort(options.getInt(adminArg.getDest()))
-        .setHttpEndpoint(httpAddress);
+        .setHttpEndpoint(httpAddress)
+        .setMaxConcurrentReads(options.getInt(maxConcurrentReadsArg.getDest()))
+        .setUserRequestsPerSecond(options.getDouble(userRequestsPerSecondArg.getDest()))
+        .setUserRequestBurst(options.getInt(userRequestBurstArg.getDest()))
+        .setStateDirectory(stateDirectory == null ? null : Paths.get(stateDirectory))
+        .setSnapshotIntervalSeconds(options.getInt(snapshotIntervalArg.getDest()))
+        .setSlowRequestThresholdMillis(options.getLong(slowRequestThresholdArg.getDest()));
 
     this.masterConfig = config;
   }
@@ -77,6 +92,37 @@ public class MasterParser extends ServiceParser {
         .type(Integer.class)
         .setDefault(5802)
         .help("admin http port");
+
+    maxConcurrentReadsArg = parser.addArgument("--max-concurrent-reads")
+        .type(Integer.class)
+        .setDefault(100)
+        .help("Maximum number of concurrent requests per read endpoint, 0 for no limit. "
+              + "Writes are not limited.");
+
+    userRequestsPerSecondArg = parser.addArgument("--user-requests-per-second")
+        .type(Double.class)
+        .setDefault(0.0)
+        .help("Rate of requests allowed per user and client address, 0 for no limit.");
+
+    userRequestBurstArg = parser.addArgument("--user-request-burst")
+        .type(Integer.class)
+        .setDefault(100)
+        .help("Number of requests a user may make in a burst when rate limited.");
+
+    stateDirArg = parser.addArgument("--state-dir")
+        .help("Directory for persisting a snapshot of the cluster state locally. Reads are "
+              + "served from the snapshot while ZooKeeper is unavailable. Disabled if not set.");
+
+    snapshotIntervalArg = parser.addArgument("--snapshot-interval")
+        .type(Integer.class)
+        .setDefault(60)
+        .help("Seconds between snapshots of the cluster state.");
+
+    slowRequestThresholdArg = parser.addArgument("--slow-request-threshold")
+        .type(Long.class)
+        .setDefault(1000L)
+        .help("Requests taking longer than this many milliseconds are logged along with the "
+              + "ZooKeeper operations they made, 0 to not log them.");
   }
 
   public MasterConfig getMasterConfig() {
@@ -21,12 +21,18 @@
 
 package com.spotify.helios.master;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.io.Resources;
 import com.google.common.util.concurrent.AbstractIdleService;
 
 import com.codahale.metrics.MetricRegistry;
+import com.spotify.helios.agent.SystemClock;
+import com.spotify.helios.master.admission.AdmissionControl;
+import com.spotify.helios.master.admission.AdmissionControlDispatchAdapter;
+import com.spotify.helios.master.http.ResponseCache;
+import com.spotify.helios.master.http.SnapshotAgeFilter;
 import com.spotify.helios.master.http.VersionResponseFilter;
 import com.spotify.helios.master.metrics.ReportingResourceMethodDispatchAdapter;
 import com.spotify.helios.master.resources.DeploymentGroupResource;
@@ -34,16 +40,20 @@ import com.spotify.helios.master.resources.HistoryResource;
 import com.spotify.helios.master.resources.HostsResource;
 import com.spotify.helios.master.resources.JobsResource;
 import com.spotify.helios.master.resources.MastersResource;
+import com.spotify.helios.master.resources.StatsResource;
 import com.spotify.helios.master.resources.VersionResource;
+import com.spotify.helios.master.resources.WatchResource;
 import com.spotify.helios.rollingupdate.RollingUpdateService;
 import com.spotify.helios.serviceregistration.ServiceRegistrar;
 import com.spotify.helios.serviceregistration.ServiceRegistration;
 import com.spotify.helios.servicescommon.ManagedStatsdReporter;
 import com.spotify.helios.servicescommon.ReactorFactory;
+import com.spotify.helios.servicescommon.ReactorsServlet;
 import com.spotify.helios.servicescommon.RiemannFacade;
 import com.spotify.helios.servicescommon.RiemannHeartBeat;
 import com.spotify.helios.servicescommon.RiemannSupport;
 import com.spotify.helios.servicescommon.ServiceUtil;
+import com.spotify.helios.servicescommon.TracesServlet;
 import com.spotify.helios.servicescommon.ZooKeeperRegistrar;
 import com.spotify.helios.servicescommon.coordination.CuratorClientFactory;
 import com.spotify.helios.servicescommon.coordination.DefaultZooKeeperClient;
@@ -55,6 +65,8 @@ import com.spotify.helios.servicescommon.coordination.ZooKeeperModelReporter;
 import com.spotify.helios.servicescommon.statistics.Metrics;
 import com.spotify.helios.servicescommon.statistics.MetricsImpl;
 import com.spotify.helios.servicescommon.statistics.NoopMetrics;
+import com.spotify.helios.servicescommon.statistics.ReactorMetricsRegistry;
+import com.spotify.helios.servicescommon.tracing.Tracer;
 
 import org.apache.curator.RetryPolicy;
 import org.apache.curator.framework.CuratorFramework;
@@ -100,6 +112,12 @@ public class MasterService extends AbstractIdleService {
   private final ExpiredJobReaper expiredJobReaper;
   private final CuratorClientFactory curatorClientFactory;
   private final RollingUpdateService rollingUpdateService;
+  private final StatusWatchService statusWatchService;
+  private final JobIndex jobIndex;
+  private final FleetSummaryService fleetSummaryService;
+  private final MasterLeaderElection leaderElection;
+  private final MasterSnapshotService snapshotService;
+  private final Metrics metrics;
 
   private ZooKeeperRegistrar zkRegistrar;
 
@@ -120,28 +138,70 @@ public class MasterService extends AbstractIdleService {
     // Configure metrics
     // TODO (dano): do something with the riemann facade
     final MetricRegistry metricsRegistry = new MetricRegistry();
+    // Reactors publish their metrics here, and are listed on the admin port
+    final ReactorMetricsRegistry reactorMetricsRegistry = new ReactorMetricsRegistry();
+    // Spans are only recorded once tracing is enabled below, and are listed on the admin port
+    final Tracer tracer = new Tracer();
+    final ReactorFactory reactorFactory = new ReactorFactory(reactorMetricsRegistry, tracer);
     final RiemannSupport riemannSupport = new RiemannSupport(metricsRegistry,
         config.getRiemannHostPort(), config.getName(), "helios-master");
     riemannFacade = riemannSupport.getFacade();
     log.info("Starting metrics");
-    final Metrics metrics;
     if (config.isInhibitMetrics()) {
       metrics = new NoopMetrics();
     } else {
-      metrics = new MetricsImpl(metricsRegistry);
+      metrics = new MetricsImpl(metricsRegistry, reactorMetricsRegistry);
       metrics.start();
       environment.lifecycle().manage(riemannSupport);
       environment.lifecycle().manage(new ManagedStatsdReporter(config.getStatsdHostPort(),
           "helios-master", metricsRegistry));
     }
 
+    if (config.getTraceBufferSize() > 0) {
+      log.info("Tracing the last {} spans", config.getTraceBufferSize());
+      tracer.enable(config.getTraceBufferSize());
+    }
+
     // Set up the master model
-    this.zooKeeperClient = setupZookeeperClient(config);
+    this.zooKeeperClient = setupZookeeperClient(config, reactorFactory);
     final ZooKeeperModelReporter modelReporter = new ZooKeeperModelReporter(
-        riemannFacade, metrics.getZooKeeperMetrics());
+        riemannFacade, metrics.getZooKeeperMetrics(), tracer);
     final ZooKeeperClientProvider zkClientProvider = new ZooKeeperClientProvider(
         zooKeeperClient, modelReporter);
-    final MasterModel model = new ZooKeeperMasterModel(zkClientProvider, config.getName());
+    final MasterModel model = new ZooKeeperMasterModel(zkClientProvider, config.getName(),
+                                                         metrics.getMasterMetrics());
+
+    // Set up status change tracking for watching clients
+    this.statusWatchService = new StatusWatchService(zooKeeperClient.getCuratorFramework());
+
+    // Set up the fleet wide counts served from /stats
+    this.fleetSummaryService = new FleetSummaryService(zooKeeperClient.getCuratorFramework(),
+                                                       statusWatchService);
+
+    // Set up the index used to search jobs
+    this.jobIndex = new JobIndex(zooKeeperClient.getCuratorFramework());
+
+    // Set up the snapshot reads are served from while ZooKeeper is unavailable
+    final MasterModel resourceModel;
+    if (config.getStateDirectory() != null) {
+      try {
+        this.snapshotService = new MasterSnapshotService(
+            jobIndex, fleetSummaryService, statusWatchService,
+            zooKeeperClient.getCuratorFramework(), config.getStateDirectory(),
+            config.getSnapshotIntervalSeconds(), TimeUnit.SECONDS, new SystemClock());
+      } catch (IOException | InterruptedException e) {
+        throw Throwables.propagate(e);
+      }
+      final SnapshotMasterModel snapshotModel = new SnapshotMasterModel(
+          model, zooKeeperClient.getCuratorFramework(), snapshotService, new SystemClock());
+      environment.servlets()
+          .addFilter("SnapshotAgeFilter", new SnapshotAgeFilter(snapshotModel))
+          .addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), true, "/*");
+      resourceModel = snapshotModel;
+    } else {
+      this.snapshotService = null;
+      resourceModel = model;
+    }
 
     final ZooKeeperHealthChecker zooKeeperHealthChecker = new ZooKeeperHealthChecker(
         zooKeeperClient, Paths.statusMasters(), riemannFacade, TimeUnit.MINUTES, 2);
@@ -155,28 +215,49 @@ public class MasterService extends AbstractIdleService {
                                             config.getServiceRegistryAddress(),
                                             config.getDomain());
 
+    // Set up election of the master that runs the background services below
+    this.leaderElection = new MasterLeaderElection(
+        zooKeeperClient.getCuratorFramework(), config.getName(), metrics.getMasterMetrics());
+
     // Set up reaping of expired jobs
     this.expiredJobReaper = ExpiredJobReaper.newBuilder()
         .setMasterModel(model)
+        .setLeaderElection(leaderElection)
         .build();
 
     // Set up rolling update service
-    final ReactorFactory reactorFactory = new ReactorFactory();
-    this.rollingUpdateService = new RollingUpdateService(model, reactorFactory);
+    this.rollingUpdateService = new RollingUpdateService(model, leaderElection, reactorFactory);
 
     // Set up http server
     environment.servlets()
         .addFilter("VersionResponseFilter", VersionResponseFilter.class)
         .addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), true, "/*");
     environment.jersey().register(
-        new ReportingResourceMethodDispatchAdapter(metrics.getMasterMetrics()));
-    environment.jersey().register(new JobsResource(model, metrics.getMasterMetrics()));
-    environment.jersey().register(new HistoryResource(model, metrics.getMasterMetrics()));
-    environment.jersey().register(new HostsResource(model));
-    environment.jersey().register(new MastersResource(model));
+        new ReportingResourceMethodDispatchAdapter(metrics.getMasterMetrics(),
+                                                   config.getSlowRequestThresholdMillis(),
+                                                   tracer));
+    environment.jersey().register(new AdmissionControlDispatchAdapter(
+        new AdmissionControl(config.getMaxConcurrentReads(), config.getUserRequestsPerSecond(),
+                             config.getUserRequestBurst(), metrics.getMasterMetrics())));
+    final ResponseCache responseCache = new ResponseCache(
+        zooKeeperClient.getCuratorFramework(), metrics.getMasterMetrics());
+    environment.jersey().register(
+        new JobsResource(resourceModel, metrics.getMasterMetrics(), responseCache, jobIndex));
+    environment.jersey().register(
+        new HistoryResource(resourceModel, metrics.getMasterMetrics()));
+    environment.jersey().register(new HostsResource(resourceModel));
+    environment.jersey().register(new MastersResource(resourceModel, leaderElection));
     environment.jersey().register(new VersionResource());
     environment.jersey().register(new UserProvider());
-    environment.jersey().register(new DeploymentGroupResource(model));
+    environment.jersey().register(new DeploymentGroupResource(resourceModel, responseCache));
+    environment.jersey().register(new WatchResource(statusWatchService));
+    environment.jersey().register(new StatsResource(fleetSummaryService));
+    environment.admin()
+        .addServlet("reactors", new ReactorsServlet(reactorMetricsRegistry))
+        .addMapping("/reactors");
+    environment.admin()
+        .addServlet("traces", new TracesServlet(tracer, "helios-master"))
+        .addMapping("/traces");
 
     final DefaultServerFactory serverFactory = ServiceUtil.createServerFactory(
         config.getHttpEndpoint(), config.getAdminPort(), false);
@@ -235,6 +316,13 @@ public class MasterService extends AbstractIdleService {
     }
     expiredJobReaper.startAsync().awaitRunning();
     rollingUpdateService.startAsync().awaitRunning();
+    leaderElection.startAsync().awaitRunning();
+    statusWatchService.startAsync().awaitRunning();
+    jobIndex.startAsync().awaitRunning();
+    fleetSummaryService.startAsync().awaitRunning();
+    if (snapshotService != null) {
+      snapshotService.startAsync().awaitRunning();
+    }
     try {
       server.start();
     } catch (Exception e) {
@@ -254,10 +342,18 @@ public class MasterService extends AbstractIdleService {
     server.stop();
     server.join();
     registrar.close();
+    if (snapshotService != null) {
+      snapshotService.stopAsync().awaitTerminated();
+    }
+    fleetSummaryService.stopAsync().awaitTerminated();
+    jobIndex.stopAsync().awaitTerminated();
+    statusWatchService.stopAsync().awaitTerminated();
+    leaderElection.stopAsync().awaitTerminated();
     rollingUpdateService.stopAsync().awaitTerminated();
     expiredJobReaper.stopAsync().awaitTerminated();
     zkRegistrar.stopAsync().awaitTerminated();
     zooKeeperClient.close();
+    metrics.stop();
   }
 
   private void logBanner() {
@@ -272,9 +368,11 @@ public class MasterService extends AbstractIdleService {
    * Create a Zookeeper client and create the control and state nodes if needed.
    *
    * @param config The service configuration.
+   * @param reactorFactory The factory for the reactor registering the service.
    * @return A zookeeper client.
    */
-  private ZooKeeperClient setupZookeeperClient(final MasterConfig config) {
+  private ZooKeeperClient setupZookeeperClient(final MasterConfig config,
+                                               final ReactorFactory reactorFactory) {
     final RetryPolicy zooKeeperRetryPolicy = new ExponentialBackoffRetry(1000, 3);
     final CuratorFramework curator = curatorClientFactory.newClient(
         config.getZooKeeperConnectionString(),
@@ -285,7 +383,8 @@ public class MasterService extends AbstractIdleService {
     final ZooKeeperClient client = new DefaultZooKeeperClient(curator,
                                                               config.getZooKeeperClusterId());
     client.start();
-    zkRegistrar = new ZooKeeperRegistrar(client, new MasterZooKeeperRegistrar(config.getName()));
+    zkRegistrar = new ZooKeeperRegistrar(client, new MasterZooKeeperRegistrar(config.getName()),
+                                         reactorFactory);
 
     return client;
   }
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.spotify.helios.common.Json;
+import com.spotify.helios.common.NormalizedStatuses;
+import com.spotify.helios.common.descriptors.Deployment;
+import com.spotify.helios.common.descriptors.DeploymentGroup;
+import com.spotify.helios.common.descriptors.HostStatus;
+import com.spotify.helios.common.descriptors.Job;
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.descriptors.JobStatus;
+import com.spotify.helios.common.descriptors.TaskStatus;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.base.Objects.toStringHelper;
+
+/**
+ * A point in time copy of the cluster state a master needs to answer reads: the jobs, the
+ * deployment groups and the status of every host. It is persisted locally by
+ * {@link MasterSnapshotService} and served by {@link SnapshotMasterModel} while ZooKeeper is
+ * unavailable.
+ *
+ * The host statuses are stored in the normalized representation of
+ * {@link NormalizedStatuses}, so each job definition is written once instead of once per task.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class MasterSnapshot {
+
+  private static final JavaType HOST_STATUSES_TYPE = Json.type(
+      new TypeReference<Map<String, HostStatus>>() {});
+
+  private final long timestamp;
+  private final Map<JobId, Job> jobs;
+  private final Map<String, DeploymentGroup> deploymentGroups;
+  private final Map<String, HostStatus> hostStatuses;
+
+  /**
+   * @param timestamp When the snapshot was taken, in milliseconds since the epoch.
+   * @param jobs The jobs, keyed by id.
+   * @param deploymentGroups The deployment groups, keyed by name.
+   * @param hostStatuses The status of each registered host, keyed by host name.
+   */
+  public MasterSnapshot(
+      @JsonProperty("timestamp") final long timestamp,
+      @JsonProperty("jobs") final Map<JobId, Job> jobs,
+      @JsonProperty("deploymentGroups") final Map<String, DeploymentGroup> deploymentGroups,
+      @JsonProperty("hostStatuses") @JsonDeserialize(using = HostStatusesDeserializer.class)
+      final Map<String, HostStatus> hostStatuses) {
+    this.timestamp = timestamp;
+    this.jobs = ImmutableMap.copyOf(jobs);
+    this.deploymentGroups = ImmutableMap.copyOf(deploymentGroups);
+    this.hostStatuses = ImmutableMap.copyOf(hostStatuses);
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public Map<JobId, Job> getJobs() {
+    return jobs;
+  }
+
+  public Map<String, DeploymentGroup> getDeploymentGroups() {
+    return deploymentGroups;
+  }
+
+  @JsonSerialize(using = HostStatusesSerializer.class)
+  public Map<String, HostStatus> getHostStatuses() {
+    return hostStatuses;
+  }
+
+  /**
+   * Returns the status of a job, assembled from the host statuses in the snapshot, or null if
+   * the job is not in the snapshot.
+   */
+  @JsonIgnore
+  public JobStatus getJobStatus(final JobId jobId) {
+    final Job job = jobs.get(jobId);
+    if (job == null) {
+      return null;
+    }
+    final Map<String, TaskStatus> taskStatuses = Maps.newHashMap();
+    final Map<String, Deployment> deployments = Maps.newHashMap();
+    for (final Map.Entry<String, HostStatus> entry : hostStatuses.entrySet()) {
+      final HostStatus hostStatus = entry.getValue();
+      final Deployment deployment = hostStatus.getJobs().get(jobId);
+      if (deployment == null) {
+        continue;
+      }
+      deployments.put(entry.getKey(), deployment);
+      final TaskStatus taskStatus = hostStatus.getStatuses().get(jobId);
+      if (taskStatus != null) {
+        taskStatuses.put(entry.getKey(), taskStatus);
+      }
+    }
+    return JobStatus.newBuilder()
+        .setJob(job)
+        .setTaskStatuses(taskStatuses)
+        .setDeployments(deployments)
+        .build();
+  }
+
+  @Override
+  public String toString() {
+    return toStringHelper(this)
+        .add("timestamp", timestamp)
+        .add("jobs", jobs.size())
+        .add("deploymentGroups", deploymentGroups.size())
+        .add("hostStatuses", hostStatuses.size())
+        .toString();
+  }
+
+  static class HostStatusesSerializer extends JsonSerializer<Map<String, HostStatus>> {
+
+    @Override
+    public void serialize(final Map<String, HostStatus> value, final JsonGenerator generator,
+                          final SerializerProvider provider) throws IOException {
+      generator.writeRawValue(new String(NormalizedStatuses.writeHostStatuses(value), UTF_8));
+    }
+  }
+
+  static class HostStatusesDeserializer extends JsonDeserializer<Map<String, HostStatus>> {
+
+    @Override
+    public Map<String, HostStatus> deserialize(final JsonParser parser,
+                                               final DeserializationContext context)
+        throws IOException {
+      final JsonNode node = parser.readValueAsTree();
+      return NormalizedStatuses.read(Json.asBytes(node), HOST_STATUSES_TYPE);
+    }
+  }
+}
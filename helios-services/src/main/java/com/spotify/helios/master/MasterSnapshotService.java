@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.Maps;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.spotify.helios.agent.Clock;
+import com.spotify.helios.agent.InterruptingScheduledService;
+import com.spotify.helios.common.Json;
+import com.spotify.helios.common.descriptors.AgentInfo;
+import com.spotify.helios.common.descriptors.Deployment;
+import com.spotify.helios.common.descriptors.DeploymentGroup;
+import com.spotify.helios.common.descriptors.HostInfo;
+import com.spotify.helios.common.descriptors.HostStatus;
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.descriptors.Task;
+import com.spotify.helios.common.descriptors.TaskStatus;
+import com.spotify.helios.servicescommon.PersistentAtomicReference;
+import com.spotify.helios.servicescommon.coordination.Paths;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.TreeCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.spotify.helios.common.descriptors.HostStatus.Status.DOWN;
+import static com.spotify.helios.common.descriptors.HostStatus.Status.UP;
+
+/**
+ * Periodically takes a {@link MasterSnapshot} of the cluster state while connected to
+ * ZooKeeper and persists it to the state directory. The last persisted snapshot is loaded when
+ * the service is created, so a restarted master can serve reads from it before it has connected
+ * to ZooKeeper.
+ *
+ * <p>Snapshots are built from the caches the master already keeps of the jobs
+ * ({@link JobIndex}), the host and deployment group config ({@link FleetSummaryService}) and the
+ * host status ({@link StatusWatchService}), so taking one does not read from ZooKeeper. No
+ * snapshot is taken until those caches are initialized.
+ */
+public class MasterSnapshotService extends InterruptingScheduledService
+    implements Supplier<MasterSnapshot> {
+
+  private static final Logger log = LoggerFactory.getLogger(MasterSnapshotService.class);
+
+  private static final String SNAPSHOT_FILENAME = "master-snapshot.json";
+  private static final JavaType SNAPSHOT_TYPE = Json.type(MasterSnapshot.class);
+  private static final TypeReference<Map<String, String>> STRING_MAP_TYPE =
+      new TypeReference<Map<String, String>>() {};
+
+  private final JobIndex jobIndex;
+  private final FleetSummaryService fleetSummaryService;
+  private final StatusWatchService statusWatchService;
+  private final CuratorFramework curator;
+  private final PersistentAtomicReference<MasterSnapshot> snapshot;
+  private final long interval;
+  private final TimeUnit timeUnit;
+  private final Clock clock;
+
+  public MasterSnapshotService(final JobIndex jobIndex,
+                               final FleetSummaryService fleetSummaryService,
+                               final StatusWatchService statusWatchService,
+                               final CuratorFramework curator, final Path stateDirectory,
+                               final long interval, final TimeUnit timeUnit, final Clock clock)
+      throws IOException, InterruptedException {
+    this.jobIndex = jobIndex;
+    this.fleetSummaryService = fleetSummaryService;
+    this.statusWatchService = statusWatchService;
+    this.curator = curator;
+    this.interval = interval;
+    this.timeUnit = timeUnit;
+    this.clock = clock;
+    this.snapshot = load(stateDirectory.resolve(SNAPSHOT_FILENAME));
+  }
+
+  private static PersistentAtomicReference<MasterSnapshot> load(final Path path)
+      throws IOException, InterruptedException {
+    final Supplier<MasterSnapshot> empty = Suppliers.ofInstance(null);
+    try {
+      return PersistentAtomicReference.create(path, SNAPSHOT_TYPE, empty);
+    } catch (IOException e) {
+      // A snapshot that cannot be read is no better than none at all, so start over.
+      log.warn("discarding unreadable snapshot {}", path, e);
+      Files.deleteIfExists(path);
+      return PersistentAtomicReference.create(path, SNAPSHOT_TYPE, empty);
+    }
+  }
+
+  /**
+   * Returns the latest snapshot, or null if none has been taken yet.
+   */
+  @Override
+  public MasterSnapshot get() {
+    return snapshot.get();
+  }
+
+  @Override
+  protected void runOneIteration() throws InterruptedException {
+    if (!curator.getZookeeperClient().isConnected()) {
+      log.debug("not connected to zookeeper, keeping snapshot from {}", get());
+      return;
+    }
+    if (!jobIndex.isInitialized() || !fleetSummaryService.isInitialized() ||
+        !statusWatchService.isInitialized()) {
+      log.debug("caches are not initialized yet, keeping snapshot from {}", get());
+      return;
+    }
+    final MasterSnapshot taken = takeSnapshot();
+    try {
+      snapshot.set(taken);
+      log.debug("persisted {}", taken);
+    } catch (IOException e) {
+      log.warn("persisting snapshot failed", e);
+    }
+  }
+
+  @VisibleForTesting
+  MasterSnapshot takeSnapshot() {
+    final long timestamp = clock.now().getMillis();
+    final TreeCache configHosts = fleetSummaryService.configHostsCache();
+    final TreeCache statusHosts = statusWatchService.hostsCache();
+    final Map<String, HostStatus> hostStatuses = Maps.newHashMap();
+    for (final String host : children(configHosts, Paths.configHosts()).keySet()) {
+      // Like the model, leave out hosts that have not completed registration
+      if (configHosts.getCurrentData(Paths.configHostId(host)) != null) {
+        hostStatuses.put(host, hostStatus(host, configHosts, statusHosts));
+      }
+    }
+    final Map<String, DeploymentGroup> deploymentGroups = Maps.newHashMap();
+    for (final ChildData data : children(fleetSummaryService.configDeploymentGroupsCache(),
+                                         Paths.configDeploymentGroups()).values()) {
+      final DeploymentGroup group = read(data, new TypeReference<DeploymentGroup>() {});
+      if (group != null) {
+        deploymentGroups.put(group.getName(), group);
+      }
+    }
+    return new MasterSnapshot(timestamp, jobIndex.jobs(), deploymentGroups, hostStatuses);
+  }
+
+  private static HostStatus hostStatus(final String host, final TreeCache configHosts,
+                                       final TreeCache statusHosts) {
+    final Map<JobId, Deployment> deployments = Maps.newHashMap();
+    for (final Map.Entry<String, ChildData> entry :
+        children(configHosts, Paths.configHostJobs(host)).entrySet()) {
+      final JobId jobId = jobId(entry.getKey());
+      final Task task = read(entry.getValue(), new TypeReference<Task>() {});
+      if (jobId != null && task != null) {
+        deployments.put(jobId, Deployment.of(jobId, task.getGoal(), task.getDeployerUser(),
+                                             task.getDeployerMaster(),
+                                             task.getDeploymentGroupName()));
+      }
+    }
+    final Map<JobId, TaskStatus> statuses = Maps.newHashMap();
+    for (final Map.Entry<String, ChildData> entry :
+        children(statusHosts, Paths.statusHostJobs(host)).entrySet()) {
+      final JobId jobId = jobId(entry.getKey());
+      final TaskStatus status = read(entry.getValue(), new TypeReference<TaskStatus>() {});
+      if (jobId != null && status != null) {
+        statuses.put(jobId, status);
+      }
+    }
+    return HostStatus.newBuilder()
+        .setJobs(deployments)
+        .setStatuses(statuses)
+        .setHostInfo(read(statusHosts.getCurrentData(Paths.statusHostInfo(host)),
+                          new TypeReference<HostInfo>() {}))
+        .setAgentInfo(read(statusHosts.getCurrentData(Paths.statusHostAgentInfo(host)),
+                           new TypeReference<AgentInfo>() {}))
+        .setStatus(statusHosts.getCurrentData(Paths.statusHostUp(host)) != null ? UP : DOWN)
+        .setEnvironment(read(statusHosts.getCurrentData(Paths.statusHostEnvVars(host)),
+                             STRING_MAP_TYPE))
+        .setLabels(read(statusHosts.getCurrentData(Paths.statusHostLabels(host)),
+                        STRING_MAP_TYPE))
+        .build();
+  }
+
+  private static Map<String, ChildData> children(final TreeCache cache, final String path) {
+    final Map<String, ChildData> children = cache.getCurrentChildren(path);
+    return children == null ? Collections.<String, ChildData>emptyMap() : children;
+  }
+
+  private static JobId jobId(final String id) {
+    try {
+      return JobId.fromString(id);
+    } catch (IllegalArgumentException e) {
+      log.warn("ignoring invalid job id {}", id);
+      return null;
+    }
+  }
+
+  private static <T> T read(final ChildData data, final TypeReference<T> type) {
+    if (data == null || data.getData() == null || data.getData().length == 0) {
+      return null;
+    }
+    try {
+      return Json.read(data.getData(), type);
+    } catch (IOException e) {
+      log.warn("ignoring unparseable {}", data.getPath(), e);
+      return null;
+    }
+  }
+
+  @Override
+  protected ScheduledFuture<?> schedule(final Runnable runnable,
+                                        final ScheduledExecutorService executorService) {
+    return executorService.scheduleWithFixedDelay(runnable, 0, interval, timeUnit);
+  }
+}
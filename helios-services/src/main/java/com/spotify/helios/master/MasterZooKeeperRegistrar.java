@@ -73,6 +73,7 @@ public class MasterZooKeeperRegistrar implements ZooKeeperRegistrarEventListener
     client.ensurePath(Paths.configHosts());
     client.ensurePath(Paths.configJobs());
     client.ensurePath(Paths.configJobRefs());
+    client.ensurePath(Paths.configJobExpirations());
     client.ensurePath(Paths.statusHosts());
     client.ensurePath(Paths.statusMasters());
     client.ensurePath(Paths.historyJobs());
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import com.spotify.helios.servicescommon.statistics.MasterMetrics;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Lets concurrent identical reads share a single fetch. The first caller for a key runs the
+ * fetch, and callers arriving while it is in flight wait for it and get its result, or its
+ * exception. A fetch is forgotten as soon as it completes, so a result is never staler than the
+ * duration of the fetch that produced it.
+ */
+public class ReadCoalescer<K, V> {
+
+  private final ConcurrentMap<K, SettableFuture<V>> inFlight = Maps.newConcurrentMap();
+
+  private final String name;
+  private final MasterMetrics metrics;
+
+  public ReadCoalescer(final String name, final MasterMetrics metrics) {
+    this.name = name;
+    this.metrics = metrics;
+  }
+
+  public V get(final K key, final Supplier<V> fetch) {
+    final SettableFuture<V> future = SettableFuture.create();
+    final SettableFuture<V> existing = inFlight.putIfAbsent(key, future);
+    if (existing != null) {
+      metrics.coalescedRead(name);
+      try {
+        return Uninterruptibles.getUninterruptibly(existing);
+      } catch (ExecutionException e) {
+        throw Throwables.propagate(e.getCause());
+      }
+    }
+
+    final V value;
+    try {
+      value = fetch.get();
+    } catch (Throwable t) {
+      inFlight.remove(key, future);
+      future.setException(t);
+      throw Throwables.propagate(t);
+    }
+    // Stop handing out this fetch before completing it, so that later callers start a new one
+    inFlight.remove(key, future);
+    future.set(value);
+    return value;
+  }
+}
@@ -0,0 +1,411 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Ordering;
+
+import com.spotify.helios.agent.Clock;
+import com.spotify.helios.common.HeliosException;
+import com.spotify.helios.common.HeliosRuntimeException;
+import com.spotify.helios.common.descriptors.Deployment;
+import com.spotify.helios.common.descriptors.DeploymentGroup;
+import com.spotify.helios.common.descriptors.DeploymentGroupStatus;
+import com.spotify.helios.common.descriptors.HostStatus;
+import com.spotify.helios.common.descriptors.Job;
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.descriptors.JobStatus;
+import com.spotify.helios.common.descriptors.RolloutOptions;
+import com.spotify.helios.common.descriptors.TaskStatusEvent;
+import com.spotify.helios.rollingupdate.RolloutPlanner;
+
+import org.apache.curator.framework.CuratorFramework;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link MasterModel} that answers reads from the latest {@link MasterSnapshot} while the
+ * ZooKeeper connection is down, e.g. because the ensemble lost quorum or because the master was
+ * just started and has not connected yet. Writes fail fast while disconnected instead of
+ * retrying against an unavailable ensemble. Everything else is passed on to the wrapped model.
+ *
+ * Reads that are not covered by the snapshot, e.g. job history, fail like they otherwise would.
+ * Status reads return every part of the status, whichever parts were asked for.
+ */
+public class SnapshotMasterModel implements MasterModel {
+
+  private final MasterModel delegate;
+  private final CuratorFramework curator;
+  private final Supplier<MasterSnapshot> snapshots;
+  private final Clock clock;
+
+  public SnapshotMasterModel(final MasterModel delegate, final CuratorFramework curator,
+                             final Supplier<MasterSnapshot> snapshots, final Clock clock) {
+    this.delegate = delegate;
+    this.curator = curator;
+    this.snapshots = snapshots;
+    this.clock = clock;
+  }
+
+  /**
+   * Returns how old the snapshot reads are currently served from is, in milliseconds, or null
+   * if reads are served from ZooKeeper.
+   */
+  public Long snapshotAgeMillis() {
+    final MasterSnapshot snapshot = degradedSnapshot();
+    if (snapshot == null) {
+      return null;
+    }
+    return Math.max(0, clock.now().getMillis() - snapshot.getTimestamp());
+  }
+
+  private MasterSnapshot degradedSnapshot() {
+    if (curator.getZookeeperClient().isConnected()) {
+      return null;
+    }
+    return snapshots.get();
+  }
+
+  private void checkWritable() {
+    if (!curator.getZookeeperClient().isConnected()) {
+      throw new HeliosRuntimeException(
+          "ZooKeeper is unavailable, the master only serves reads until it reconnects");
+    }
+  }
+
+  private static String version(final MasterSnapshot snapshot) {
+    return "snapshot-" + snapshot.getTimestamp();
+  }
+
+  @Override
+  public void registerHost(final String host, final String id) {
+    checkWritable();
+    delegate.registerHost(host, id);
+  }
+
+  @Override
+  public void deregisterHost(final String host)
+      throws HostNotFoundException, HostStillInUseException {
+    checkWritable();
+    delegate.deregisterHost(host);
+  }
+
+  @Override
+  public List<String> listHosts() {
+    final MasterSnapshot snapshot = degradedSnapshot();
+    if (snapshot == null) {
+      return delegate.listHosts();
+    }
+    return Ordering.natural().sortedCopy(snapshot.getHostStatuses().keySet());
+  }
+
+  @Override
+  public HostStatus getHostStatus(final String host) {
+    final MasterSnapshot snapshot = degradedSnapshot();
+    if (snapshot == null) {
+      return delegate.getHostStatus(host);
+    }
+    return snapshot.getHostStatuses().get(host);
+  }
+
+  @Override
+  public HostStatus getHostStatus(final String host, final Set<HostStatus.Field> fields) {
+    final MasterSnapshot snapshot = degradedSnapshot();
+    if (snapshot == null) {
+      return delegate.getHostStatus(host, fields);
+    }
+    return snapshot.getHostStatuses().get(host);
+  }
+
+  @Override
+  public void addJob(final Job job) throws JobExistsException {
+    checkWritable();
+    delegate.addJob(job);
+  }
+
+  @Override
+  public Job getJob(final JobId jobId) {
+    final MasterSnapshot snapshot = degradedSnapshot();
+    if (snapshot == null) {
+      return delegate.getJob(jobId);
+    }
+    return snapshot.getJobs().get(jobId);
+  }
+
+  @Override
+  public Map<JobId, Job> getJobs() {
+    final MasterSnapshot snapshot = degradedSnapshot();
+    if (snapshot == null) {
+      return delegate.getJobs();
+    }
+    return snapshot.getJobs();
+  }
+
+  @Override
+  public JobStatus getJobStatus(final JobId jobId) {
+    final MasterSnapshot snapshot = degradedSnapshot();
+    if (snapshot == null) {
+      return delegate.getJobStatus(jobId);
+    }
+    return snapshot.getJobStatus(jobId);
+  }
+
+  @Override
+  public JobStatus getJobStatus(final JobId jobId, final Set<JobStatus.Field> fields) {
+    final MasterSnapshot snapshot = degradedSnapshot();
+    if (snapshot == null) {
+      return delegate.getJobStatus(jobId, fields);
+    }
+    return snapshot.getJobStatus(jobId);
+  }
+
+  @Override
+  public Map<JobId, Date> getJobExpirations() {
+    final MasterSnapshot snapshot = degradedSnapshot();
+    if (snapshot == null) {
+      return delegate.getJobExpirations();
+    }
+    final Map<JobId, Date> expirations = Maps.newHashMap();
+    for (final Map.Entry<JobId, Job> entry : snapshot.getJobs().entrySet()) {
+      if (entry.getValue().getExpires() != null) {
+        expirations.put(entry.getKey(), entry.getValue().getExpires());
+      }
+    }
+    return expirations;
+  }
+
+  @Override
+  public String getJobsVersion() {
+    final MasterSnapshot snapshot = degradedSnapshot();
+    return snapshot == null ? delegate.getJobsVersion() : version(snapshot);
+  }
+
+  @Override
+  public String getJobStatusVersion(final JobId jobId) {
+    final MasterSnapshot snapshot = degradedSnapshot();
+    return snapshot == null ? delegate.getJobStatusVersion(jobId) : version(snapshot);
+  }
+
+  @Override
+  public String getHostStatusVersion(final String host) {
+    final MasterSnapshot snapshot = degradedSnapshot();
+    return snapshot == null ? delegate.getHostStatusVersion(host) : version(snapshot);
+  }
+
+  @Override
+  public String getDeploymentGroupStatusVersion(final String name) {
+    final MasterSnapshot snapshot = degradedSnapshot();
+    return snapshot == null ? delegate.getDeploymentGroupStatusVersion(name) : version(snapshot);
+  }
+
+  @Override
+  public Job removeJob(final JobId jobId)
+      throws JobDoesNotExistException, JobStillDeployedException {
+    checkWritable();
+    return delegate.removeJob(jobId);
+  }
+
+  @Override
+  public Job removeJob(final JobId jobId, final String token)
+      throws JobDoesNotExistException, JobStillDeployedException, TokenVerificationException {
+    checkWritable();
+    return delegate.removeJob(jobId, token);
+  }
+
+  @Override
+  public Job undeployAndRemoveJob(final JobId jobId, final String token)
+      throws JobDoesNotExistException, JobStillDeployedException, TokenVerificationException {
+    checkWritable();
+    return delegate.undeployAndRemoveJob(jobId, token);
+  }
+
+  @Override
+  public void deployJob(final String host, final Deployment job)
+      throws HostNotFoundException, JobAlreadyDeployedException, JobDoesNotExistException,
+             JobPortAllocationConflictException {
+    checkWritable();
+    delegate.deployJob(host, job);
+  }
+
+  @Override
+  public void deployJob(final String host, final Deployment job, final String token)
+      throws HostNotFoundException, JobAlreadyDeployedException, JobDoesNotExistException,
+             JobPortAllocationConflictException, TokenVerificationException {
+    checkWritable();
+    delegate.deployJob(host, job, token);
+  }
+
+  @Override
+  public Map<String, HeliosException> deployJobToHosts(final List<String> hosts,
+                                                       final Deployment deployment,
+                                                       final String token)
+      throws JobDoesNotExistException, TokenVerificationException {
+    checkWritable();
+    return delegate.deployJobToHosts(hosts, deployment, token);
+  }
+
+  @Override
+  public Deployment getDeployment(final String host, final JobId jobId) {
+    final MasterSnapshot snapshot = degradedSnapshot();
+    if (snapshot == null) {
+      return delegate.getDeployment(host, jobId);
+    }
+    final HostStatus hostStatus = snapshot.getHostStatuses().get(host);
+    return hostStatus == null ? null : hostStatus.getJobs().get(jobId);
+  }
+
+  @Override
+  public Deployment undeployJob(final String host, final JobId jobId)
+      throws HostNotFoundException, JobNotDeployedException {
+    checkWritable();
+    return delegate.undeployJob(host, jobId);
+  }
+
+  @Override
+  public Deployment undeployJob(final String host, final JobId jobId, final String token)
+      throws HostNotFoundException, JobNotDeployedException, TokenVerificationException {
+    checkWritable();
+    return delegate.undeployJob(host, jobId, token);
+  }
+
+  @Override
+  public Map<String, HeliosException> undeployJobFromHosts(final List<String> hosts,
+                                                           final JobId jobId, final String token)
+      throws JobDoesNotExistException, TokenVerificationException {
+    checkWritable();
+    return delegate.undeployJobFromHosts(hosts, jobId, token);
+  }
+
+  @Override
+  public void updateDeployment(final String host, final Deployment deployment)
+      throws HostNotFoundException, JobNotDeployedException {
+    checkWritable();
+    delegate.updateDeployment(host, deployment);
+  }
+
+  @Override
+  public void updateDeployment(final String host, final Deployment deployment,
+                               final String token)
+      throws HostNotFoundException, JobNotDeployedException, TokenVerificationException {
+    checkWritable();
+    delegate.updateDeployment(host, deployment, token);
+  }
+
+  @Override
+  public List<String> getRunningMasters() {
+    return delegate.getRunningMasters();
+  }
+
+  @Override
+  public List<TaskStatusEvent> getJobHistory(final JobId jobId) throws JobDoesNotExistException {
+    return delegate.getJobHistory(jobId);
+  }
+
+  @Override
+  public List<TaskStatusEvent> getJobHistory(final JobId jobId, final JobHistoryQuery query)
+      throws JobDoesNotExistException {
+    return delegate.getJobHistory(jobId, query);
+  }
+
+  @Override
+  public void addDeploymentGroup(final DeploymentGroup deploymentGroup)
+      throws DeploymentGroupExistsException {
+    checkWritable();
+    delegate.addDeploymentGroup(deploymentGroup);
+  }
+
+  @Override
+  public DeploymentGroup getDeploymentGroup(final String name)
+      throws DeploymentGroupDoesNotExistException {
+    final MasterSnapshot snapshot = degradedSnapshot();
+    if (snapshot == null) {
+      return delegate.getDeploymentGroup(name);
+    }
+    final DeploymentGroup deploymentGroup = snapshot.getDeploymentGroups().get(name);
+    if (deploymentGroup == null) {
+      throw new DeploymentGroupDoesNotExistException(name);
+    }
+    return deploymentGroup;
+  }
+
+  @Override
+  public Map<String, DeploymentGroup> getDeploymentGroups() {
+    final MasterSnapshot snapshot = degradedSnapshot();
+    if (snapshot == null) {
+      return delegate.getDeploymentGroups();
+    }
+    return snapshot.getDeploymentGroups();
+  }
+
+  @Override
+  public List<String> getDeploymentGroupHosts(final String name)
+      throws DeploymentGroupDoesNotExistException {
+    return delegate.getDeploymentGroupHosts(name);
+  }
+
+  @Override
+  public void updateDeploymentGroupHosts(final String name, final List<String> hosts)
+      throws DeploymentGroupDoesNotExistException {
+    checkWritable();
+    delegate.updateDeploymentGroupHosts(name, hosts);
+  }
+
+  @Override
+  public DeploymentGroupStatus getDeploymentGroupStatus(final String name)
+      throws DeploymentGroupDoesNotExistException {
+    return delegate.getDeploymentGroupStatus(name);
+  }
+
+  @Override
+  public void removeDeploymentGroup(final String name)
+      throws DeploymentGroupDoesNotExistException {
+    checkWritable();
+    delegate.removeDeploymentGroup(name);
+  }
+
+  @Override
+  public void rollingUpdate(final DeploymentGroup deploymentGroup, final JobId jobId,
+                            final RolloutOptions options)
+      throws DeploymentGroupDoesNotExistException, JobDoesNotExistException {
+    checkWritable();
+    delegate.rollingUpdate(deploymentGroup, jobId, options);
+  }
+
+  @Override
+  public void rollingUpdateStep(final DeploymentGroup deploymentGroup,
+                                final RolloutPlanner rolloutPlanner)
+      throws DeploymentGroupDoesNotExistException {
+    checkWritable();
+    delegate.rollingUpdateStep(deploymentGroup, rolloutPlanner);
+  }
+
+  @Override
+  public void abortRollingUpdate(final String deploymentGroupName)
+      throws DeploymentGroupDoesNotExistException {
+    checkWritable();
+    delegate.abortRollingUpdate(deploymentGroupName);
+  }
+}
@@ -0,0 +1,405 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.AbstractIdleService;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.spotify.helios.common.Json;
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.descriptors.TaskStatus;
+import com.spotify.helios.common.protocol.StatusChange;
+import com.spotify.helios.common.protocol.StatusWatchRequest;
+import com.spotify.helios.common.protocol.StatusWatchResponse;
+import com.spotify.helios.servicescommon.coordination.Paths;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.TreeCache;
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
+import org.apache.curator.framework.recipes.cache.TreeCacheListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Records task status, host up/down and deployment group status changes as they are observed
+ * through ZooKeeper watches and lets clients long-poll for the changes they are interested in.
+ *
+ * <p>Every recorded change is given a sequence number. Clients pass the last sequence number they
+ * have seen and get back only newer matching changes. Only a bounded number of changes are kept;
+ * clients that fall behind, or that talk to a master with another epoch (i.e. a different master
+ * or one that has restarted), get a full snapshot of the current state instead. Snapshots are
+ * only taken once the caches hold every node that existed when they were started, since a client
+ * would never hear of the hosts and tasks missing from an earlier one.
+ *
+ * <p>Waiting requests block a server thread, so the timeout should be kept reasonably short.
+ */
+public class StatusWatchService extends AbstractIdleService {
+
+  private static final Logger log = LoggerFactory.getLogger(StatusWatchService.class);
+
+  public static final int DEFAULT_MAX_CHANGES = 10000;
+
+  private static final Splitter PATH_SPLITTER = Splitter.on('/').omitEmptyStrings();
+  private static final TypeReference<List<String>> STRING_LIST_TYPE =
+      new TypeReference<List<String>>() {};
+
+  private final int maxChanges;
+  private final String epoch = UUID.randomUUID().toString();
+  private final TreeCache hostsCache;
+  private final TreeCache deploymentGroupsCache;
+
+  private final Object lock = new Object();
+  private final Deque<StatusChange> changes = new ArrayDeque<>();
+  private long sequence;
+
+  private volatile boolean hostsInitialized;
+  private volatile boolean deploymentGroupsInitialized;
+
+  public StatusWatchService(final CuratorFramework curator) {
+    this(curator, DEFAULT_MAX_CHANGES);
+  }
+
+  public StatusWatchService(final CuratorFramework curator, final int maxChanges) {
+    checkNotNull(curator, "curator");
+    checkArgument(maxChanges > 0, "maxChanges must be positive");
+    this.maxChanges = maxChanges;
+    // /status/hosts/<host>/jobs/<job>
+    this.hostsCache = TreeCache.newBuilder(curator, Paths.statusHosts())
+        .setMaxDepth(3)
+        .build();
+    // /status/deployment-groups/<name>/hosts
+    this.deploymentGroupsCache = TreeCache.newBuilder(curator, Paths.statusDeploymentGroups())
+        .setMaxDepth(2)
+        .build();
+  }
+
+  @Override
+  protected void startUp() throws Exception {
+    hostsCache.getListenable().addListener(new TreeCacheListener() {
+      @Override
+      public void childEvent(final CuratorFramework client, final TreeCacheEvent event) {
+        if (event.getType() == TreeCacheEvent.Type.INITIALIZED) {
+          hostsInitialized = true;
+          initialized();
+        } else if (hostsInitialized) {
+          hostsEvent(event);
+        }
+      }
+    });
+    deploymentGroupsCache.getListenable().addListener(new TreeCacheListener() {
+      @Override
+      public void childEvent(final CuratorFramework client, final TreeCacheEvent event) {
+        if (event.getType() == TreeCacheEvent.Type.INITIALIZED) {
+          deploymentGroupsInitialized = true;
+          initialized();
+        } else if (deploymentGroupsInitialized) {
+          deploymentGroupsEvent(event);
+        }
+      }
+    });
+    hostsCache.start();
+    deploymentGroupsCache.start();
+  }
+
+  @Override
+  protected void shutDown() throws Exception {
+    hostsCache.close();
+    deploymentGroupsCache.close();
+    synchronized (lock) {
+      lock.notifyAll();
+    }
+  }
+
+  private void initialized() {
+    synchronized (lock) {
+      lock.notifyAll();
+    }
+  }
+
+  /**
+   * @return true once both caches hold every node that existed when they were started.
+   */
+  boolean isInitialized() {
+    return hostsInitialized && deploymentGroupsInitialized;
+  }
+
+  /**
+   * @return The cache of {@code /status/hosts}, down to the task statuses of each host.
+   */
+  TreeCache hostsCache() {
+    return hostsCache;
+  }
+
+  /**
+   * @return The cache of {@code /status/deployment-groups}, down to the hosts of each group.
+   */
+  TreeCache deploymentGroupsCache() {
+    return deploymentGroupsCache;
+  }
+
+  /**
+   * Returns the changes matching the request that are newer than the request's sequence number,
+   * waiting up to the given timeout for one to happen.
+   *
+   * @return The changes, or null if the request needs a snapshot and the caches did not get
+   *         initialized within the timeout, in which case the client should retry.
+   */
+  public StatusWatchResponse watch(final StatusWatchRequest request, final long timeoutMillis)
+      throws InterruptedException {
+    final Filter filter = filter(request);
+    final long deadline = System.nanoTime() + MILLISECONDS.toNanos(timeoutMillis);
+
+    synchronized (lock) {
+      if (!epoch.equals(request.getEpoch()) ||
+          request.getSequence() > sequence ||
+          request.getSequence() < oldestSequence() - 1) {
+        while (!isInitialized()) {
+          final long remaining = deadline - System.nanoTime();
+          if (remaining <= 0 || !isRunning()) {
+            return null;
+          }
+          NANOSECONDS.timedWait(lock, remaining);
+        }
+        return new StatusWatchResponse(epoch, sequence, true, snapshot(filter, sequence));
+      }
+
+      long since = request.getSequence();
+      while (true) {
+        final List<StatusChange> matching = changesSince(since, filter);
+        since = sequence;
+        final long remaining = deadline - System.nanoTime();
+        if (!matching.isEmpty() || remaining <= 0 || !isRunning()) {
+          return new StatusWatchResponse(epoch, sequence, false, matching);
+        }
+        NANOSECONDS.timedWait(lock, remaining);
+      }
+    }
+  }
+
+  private long oldestSequence() {
+    final StatusChange oldest = changes.peekFirst();
+    return oldest == null ? sequence + 1 : oldest.getSequence();
+  }
+
+  private List<StatusChange> changesSince(final long since, final Filter filter) {
+    final List<StatusChange> matching = Lists.newArrayList();
+    final Iterator<StatusChange> it = changes.descendingIterator();
+    while (it.hasNext()) {
+      final StatusChange change = it.next();
+      if (change.getSequence() <= since) {
+        break;
+      }
+      if (filter.matches(change)) {
+        matching.add(change);
+      }
+    }
+    return Lists.reverse(matching);
+  }
+
+  private List<StatusChange> snapshot(final Filter filter, final long sequence) {
+    final List<StatusChange> snapshot = Lists.newArrayList();
+    final Iterable<String> hosts;
+    if (filter.hosts != null) {
+      hosts = filter.hosts;
+    } else {
+      hosts = children(hostsCache, Paths.statusHosts()).keySet();
+    }
+    for (final String host : hosts) {
+      final StatusChange up = StatusChange.hostUp(
+          sequence, host, hostsCache.getCurrentData(Paths.statusHostUp(host)) != null);
+      if (filter.matches(up)) {
+        snapshot.add(up);
+      }
+      for (final Map.Entry<String, ChildData> entry :
+          children(hostsCache, Paths.statusHostJobs(host)).entrySet()) {
+        final StatusChange change = taskStatusChange(sequence, host, entry.getKey(),
+                                                     entry.getValue());
+        if (change != null && filter.matches(change)) {
+          snapshot.add(change);
+        }
+      }
+    }
+    if (filter.deploymentGroup != null &&
+        deploymentGroupsCache.getCurrentData(
+            Paths.statusDeploymentGroup(filter.deploymentGroup)) != null) {
+      snapshot.add(StatusChange.deploymentGroup(sequence, filter.deploymentGroup));
+    }
+    return snapshot;
+  }
+
+  private static Map<String, ChildData> children(final TreeCache cache, final String path) {
+    final Map<String, ChildData> children = cache.getCurrentChildren(path);
+    return children == null ? Collections.<String, ChildData>emptyMap() : children;
+  }
+
+  private void hostsEvent(final TreeCacheEvent event) {
+    final ChildData data = event.getData();
+    if (data == null) {
+      return;
+    }
+    final List<String> parts = PATH_SPLITTER.splitToList(data.getPath());
+    final boolean removed = event.getType() == TreeCacheEvent.Type.NODE_REMOVED;
+    // status, hosts, <host>, up
+    if (parts.size() == 4 && parts.get(3).equals("up") &&
+        event.getType() != TreeCacheEvent.Type.NODE_UPDATED) {
+      record(StatusChange.hostUp(0, parts.get(2), !removed));
+    }
+    // status, hosts, <host>, jobs, <job>
+    if (parts.size() == 5 && parts.get(3).equals("jobs")) {
+      final StatusChange change = taskStatusChange(0, parts.get(2), parts.get(4),
+                                                   removed ? null : data);
+      if (change != null) {
+        record(change);
+      }
+    }
+  }
+
+  private void deploymentGroupsEvent(final TreeCacheEvent event) {
+    final ChildData data = event.getData();
+    if (data == null) {
+      return;
+    }
+    final List<String> parts = PATH_SPLITTER.splitToList(data.getPath());
+    // status, deployment-groups, <name>[, hosts]
+    if (parts.size() >= 3) {
+      record(StatusChange.deploymentGroup(0, parts.get(2)));
+    }
+  }
+
+  private StatusChange taskStatusChange(final long sequence, final String host,
+                                        final String job, final ChildData data) {
+    final JobId jobId;
+    try {
+      jobId = JobId.parse(job);
+    } catch (Exception e) {
+      log.warn("ignoring task status with invalid job id {} on {}", job, host);
+      return null;
+    }
+    if (data == null) {
+      return StatusChange.taskStatus(sequence, host, jobId, null);
+    }
+    if (data.getData() == null || data.getData().length == 0) {
+      return null;
+    }
+    try {
+      final TaskStatus status = Json.read(data.getData(), TaskStatus.class);
+      return StatusChange.taskStatus(sequence, host, jobId, status);
+    } catch (IOException e) {
+      log.warn("ignoring unparseable task status for {} on {}", jobId, host, e);
+      return null;
+    }
+  }
+
+  private void record(final StatusChange change) {
+    synchronized (lock) {
+      sequence++;
+      changes.addLast(change.withSequence(sequence));
+      while (changes.size() > maxChanges) {
+        changes.removeFirst();
+      }
+      lock.notifyAll();
+    }
+  }
+
+  private Filter filter(final StatusWatchRequest request) {
+    final String deploymentGroup = request.getDeploymentGroup();
+    final Set<String> hosts;
+    if (deploymentGroup == null && request.getHosts().isEmpty()) {
+      hosts = null;
+    } else {
+      hosts = Sets.newHashSet(request.getHosts());
+      if (deploymentGroup != null) {
+        hosts.addAll(deploymentGroupHosts(deploymentGroup));
+      }
+    }
+    return new Filter(request.getJobs(), hosts, deploymentGroup);
+  }
+
+  private List<String> deploymentGroupHosts(final String name) {
+    final ChildData data = deploymentGroupsCache.getCurrentData(
+        Paths.statusDeploymentGroupHosts(name));
+    if (data == null || data.getData() == null || data.getData().length == 0) {
+      return ImmutableList.of();
+    }
+    try {
+      return Json.read(data.getData(), STRING_LIST_TYPE);
+    } catch (IOException e) {
+      log.warn("ignoring unparseable hosts of deployment group {}", name, e);
+      return ImmutableList.of();
+    }
+  }
+
+  private static class Filter {
+
+    private final Set<JobId> jobs;
+    private final Set<String> hosts;
+    private final String deploymentGroup;
+
+    /**
+     * @param jobs The jobs to match, or empty to match all jobs.
+     * @param hosts The hosts to match, or null to match all hosts.
+     * @param deploymentGroup The deployment group to match, if any.
+     */
+    private Filter(final Set<JobId> jobs, final Set<String> hosts,
+                   final String deploymentGroup) {
+      this.jobs = jobs;
+      this.hosts = hosts;
+      this.deploymentGroup = deploymentGroup;
+    }
+
+    boolean matches(final StatusChange change) {
+      switch (change.getType()) {
+        case TASK_STATUS:
+          return (jobs.isEmpty() || jobs.contains(change.getJob())) &&
+                 (hosts == null || hosts.contains(change.getHost()));
+        case HOST_UP:
+        case HOST_DOWN:
+          // Host changes are only interesting to job watches if they name the hosts
+          return hosts == null ? jobs.isEmpty() : hosts.contains(change.getHost());
+        case DEPLOYMENT_GROUP:
+          return change.getDeploymentGroup().equals(deploymentGroup);
+        default:
+          return false;
+      }
+    }
+  }
+}
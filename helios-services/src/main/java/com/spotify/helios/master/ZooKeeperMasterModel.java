@@ -21,15 +21,24 @@
 
 package com.spotify.helios.master;
 
+import com.google.common.base.Supplier;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Ordering;
+import com.google.common.collect.Sets;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.spotify.helios.agent.Clock;
+import com.spotify.helios.agent.SystemClock;
+import com.spotify.helios.common.HeliosException;
 import com.spotify.helios.common.HeliosRuntimeException;
 import com.spotify.helios.common.Json;
 import com.spotify.helios.common.descriptors.AgentInfo;
@@ -54,7 +63,10 @@ import com.spotify.helios.servicescommon.coordination.Paths;
 import com.spotify.helios.servicescommon.coordination.ZooKeeperClient;
 import com.spotify.helios.servicescommon.coordination.ZooKeeperClientProvider;
 import com.spotify.helios.servicescommon.coordination.ZooKeeperOperation;
+import com.spotify.helios.servicescommon.statistics.MasterMetrics;
+import com.spotify.helios.servicescommon.statistics.NoopMasterMetrics;
 
+import org.apache.curator.utils.ZKPaths;
 import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.KeeperException.NoNodeException;
 import org.apache.zookeeper.KeeperException.NodeExistsException;
@@ -66,10 +78,12 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 import static com.google.common.base.Charsets.UTF_8;
@@ -97,23 +111,14 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
  * The Helios Master's view into ZooKeeper.
  */
 public class ZooKeeperMasterModel implements MasterModel {
-  private static final Comparator<TaskStatusEvent> EVENT_COMPARATOR =
-      new Comparator<TaskStatusEvent>() {
-        @Override
-        public int compare(TaskStatusEvent arg0, TaskStatusEvent arg1) {
-          if (arg1.getTimestamp() > arg0.getTimestamp()) {
-            return -1;
-          } else if (arg1.getTimestamp() == arg0.getTimestamp()) {
-            return 0;
-          } else {
-            return 1;
-          }
-        }
-      };
-
   private static final Logger log = LoggerFactory.getLogger(ZooKeeperMasterModel.class);
 
   public static final Map<JobId, TaskStatus> EMPTY_STATUSES = emptyMap();
+  private static final Map<JobId, Deployment> EMPTY_DEPLOYMENTS = emptyMap();
+  private static final Set<HostStatus.Field> ALL_HOST_STATUS_FIELDS =
+      Sets.immutableEnumSet(EnumSet.allOf(HostStatus.Field.class));
+  private static final Set<JobStatus.Field> ALL_JOB_STATUS_FIELDS =
+      Sets.immutableEnumSet(EnumSet.allOf(JobStatus.Field.class));
   public static final TypeReference<HostInfo>
       HOST_INFO_TYPE =
       new TypeReference<HostInfo>() {};
@@ -127,16 +132,43 @@ public class ZooKeeperMasterModel implements MasterModel {
       STRING_LIST_TYPE =
       new TypeReference<List<String>>() {};
 
+  private static final HashFunction VERSION_HASH = Hashing.murmur3_128();
+
+  // The number of hosts whose deployments are created or removed in a single transaction
+  private static final int BULK_CHUNK_SIZE = 100;
+
+  // The maximum number of operations in a single transaction when removing large subtrees
+  private static final int MAX_TRANSACTION_OPS = 1000;
+
   private final ZooKeeperClientProvider provider;
   private final String name;
+  private final ReadCoalescer<JobId, JobStatus> jobStatusReads;
+  private final ReadCoalescer<String, HostStatus> hostStatusReads;
+  private final Clock clock;
 
   public  ZooKeeperMasterModel(final ZooKeeperClientProvider provider) {
     this(provider, null);
   }
 
   public ZooKeeperMasterModel(final ZooKeeperClientProvider provider, @Nullable final String name) {
+    this(provider, name, new NoopMasterMetrics());
+  }
+
+  public ZooKeeperMasterModel(final ZooKeeperClientProvider provider, @Nullable final String name,
+                              final MasterMetrics metrics) {
+    this(provider, name, metrics, new SystemClock());
+  }
+
+  /**
+   * @param clock The clock that rolling update timeouts are measured with.
+   */
+  public ZooKeeperMasterModel(final ZooKeeperClientProvider provider, @Nullable final String name,
+                              final MasterMetrics metrics, final Clock clock) {
     this.provider = provider;
     this.name = name;
+    this.jobStatusReads = new ReadCoalescer<>("getJobStatus", metrics);
+    this.hostStatusReads = new ReadCoalescer<>("getHostStatus", metrics);
+    this.clock = checkNotNull(clock, "clock");
   }
 
   /**
@@ -211,10 +243,7 @@ public class ZooKeeperMasterModel implements MasterModel {
       throws HostNotFoundException, HostStillInUseException {
     log.info("deregistering host: {}", host);
     final ZooKeeperClient client = provider.get("deregisterHost");
-    // TODO (dano): handle retry failures
     try {
-      final List<ZooKeeperOperation> operations = Lists.newArrayList();
-
       // Remove all jobs deployed to this host
       final List<JobId> jobs = listHostJobs(client, host);
 
@@ -224,49 +253,56 @@ public class ZooKeeperMasterModel implements MasterModel {
         }
       }
 
+      // Jobs that are deployed but that the agent has not reported on yet are removed as well
+      final Set<JobId> hostJobs = Sets.newLinkedHashSet();
       if (jobs != null) {
-        for (final JobId job : jobs) {
-          final String hostJobPath = Paths.configHostJob(host, job);
-
-          final List<String> nodes = safeListRecursive(client, hostJobPath);
-          for (final String node : reverse(nodes)) {
-            operations.add(delete(node));
-          }
-          if (client.exists(Paths.configJobHost(job, host)) != null) {
-            operations.add(delete(Paths.configJobHost(job, host)));
-          }
-          // Clean out the history for each job
-          final List<String> history = safeListRecursive(client, Paths.historyJobHost(job, host));
-          for (final String s : reverse(history)) {
-            operations.add(delete(s));
-          }
-        }
+        hostJobs.addAll(jobs);
       }
-      operations.add(delete(Paths.configHostJobs(host)));
-
-      // Remove the host status
-      final List<String> nodes = safeListRecursive(client, Paths.statusHost(host));
-      for (final String node : reverse(nodes)) {
-        operations.add(delete(node));
+      for (final String job : safeGetChildren(client, Paths.configHostJobs(host))) {
+        hostJobs.add(JobId.fromString(job));
       }
 
-      // Remove port allocations
-      final List<String> ports = safeGetChildren(client, Paths.configHostPorts(host));
-      for (final String port : ports) {
-        operations.add(delete(Paths.configHostPort(host, Integer.valueOf(port))));
+      // Enumerate every subtree we are about to remove in one concurrent sweep
+      final List<String> roots = Lists.newArrayList();
+      for (final JobId job : hostJobs) {
+        roots.add(Paths.configHostJob(host, job));
+        roots.add(Paths.configJobHost(job, host));
+        roots.add(Paths.historyJobHost(job, host));
       }
-      operations.add(delete(Paths.configHostPorts(host)));
-
-      // Remove host id
-      final String idPath = Paths.configHostId(host);
-      if (client.exists(idPath) != null) {
-        operations.add(delete(idPath));
+      roots.add(Paths.statusHost(host));
+      roots.add(Paths.configHostPorts(host));
+      roots.add(Paths.configHostId(host));
+      final Map<String, List<String>> subtrees = groupByRoot(roots, client.listRecursive(roots));
+
+      // The deployment on the host and the host entry on the job are removed together so a job
+      // never lists a host that has no deployment of it. History and status can go in any order.
+      final List<List<ZooKeeperOperation>> groups = Lists.newArrayList();
+      for (final JobId job : hostJobs) {
+        final List<ZooKeeperOperation> deployment = Lists.newArrayList();
+        deployment.addAll(deleteAll(subtrees.get(Paths.configHostJob(host, job))));
+        deployment.addAll(deleteAll(subtrees.get(Paths.configJobHost(job, host))));
+        groups.add(deployment);
+      }
+      for (final JobId job : hostJobs) {
+        for (final ZooKeeperOperation operation :
+            deleteAll(subtrees.get(Paths.historyJobHost(job, host)))) {
+          groups.add(ImmutableList.of(operation));
+        }
+      }
+      for (final ZooKeeperOperation operation : deleteAll(subtrees.get(Paths.statusHost(host)))) {
+        groups.add(ImmutableList.of(operation));
       }
 
-      // Remove host config root
-      operations.add(delete(Paths.configHost(host)));
+      // The host config root goes last, in a single transaction, so that a deregistration that
+      // fails half way leaves the host registered and can simply be retried.
+      final List<ZooKeeperOperation> hostConfig = Lists.newArrayList();
+      hostConfig.add(delete(Paths.configHostJobs(host)));
+      hostConfig.addAll(deleteAll(subtrees.get(Paths.configHostPorts(host))));
+      hostConfig.addAll(deleteAll(subtrees.get(Paths.configHostId(host))));
+      hostConfig.add(delete(Paths.configHost(host)));
+      groups.add(hostConfig);
 
-      client.transaction(operations);
+      transactInBatches(client, groups);
     } catch (NotEmptyException e) {
       final HostStatus hostStatus = getHostStatus(host);
       final List<JobId> jobs = hostStatus != null
@@ -280,19 +316,63 @@ public class ZooKeeperMasterModel implements MasterModel {
     }
   }
 
-  private List<String> safeGetChildren(final ZooKeeperClient client, final String path) {
-    try {
-      return client.getChildren(path);
-    } catch (KeeperException ignore) {
-      return ImmutableList.of();
+  /**
+   * Split the output of {@link ZooKeeperClient#listRecursive(java.util.Collection)} back into
+   * the subtrees of the given roots. Roots that did not exist map to an empty list.
+   */
+  private static Map<String, List<String>> groupByRoot(final List<String> roots,
+                                                       final List<String> nodes) {
+    final Map<String, List<String>> subtrees = Maps.newHashMap();
+    for (final String root : roots) {
+      subtrees.put(root, Lists.<String>newArrayList());
+    }
+    for (final String node : nodes) {
+      String parent = node;
+      while (!subtrees.containsKey(parent)) {
+        parent = ZKPaths.getPathAndNode(parent).getPath();
+      }
+      subtrees.get(parent).add(node);
+    }
+    return subtrees;
+  }
+
+  /**
+   * Delete operations for a subtree as listed by {@link ZooKeeperClient#listRecursive}, children
+   * before their parents.
+   */
+  private static List<ZooKeeperOperation> deleteAll(final List<String> nodes) {
+    final List<ZooKeeperOperation> operations = Lists.newArrayList();
+    for (final String node : reverse(nodes)) {
+      operations.add(delete(node));
     }
+    return operations;
   }
 
-  private List<String> safeListRecursive(final ZooKeeperClient client, final String path)
+  /**
+   * Commit groups of operations in order, packing as many whole groups into each transaction as
+   * fit within {@link #MAX_TRANSACTION_OPS}. A group is never split across transactions, unless
+   * it is larger than the limit on its own.
+   */
+  private static void transactInBatches(final ZooKeeperClient client,
+                                        final List<List<ZooKeeperOperation>> groups)
       throws KeeperException {
+    final List<ZooKeeperOperation> batch = Lists.newArrayList();
+    for (final List<ZooKeeperOperation> group : groups) {
+      if (!batch.isEmpty() && batch.size() + group.size() > MAX_TRANSACTION_OPS) {
+        client.transaction(batch);
+        batch.clear();
+      }
+      batch.addAll(group);
+    }
+    if (!batch.isEmpty()) {
+      client.transaction(batch);
+    }
+  }
+
+  private List<String> safeGetChildren(final ZooKeeperClient client, final String path) {
     try {
-      return client.listRecursive(path);
-    } catch (NoNodeException e) {
+      return client.getChildren(path);
+    } catch (KeeperException ignore) {
       return ImmutableList.of();
     }
   }
@@ -310,13 +390,19 @@ public class ZooKeeperMasterModel implements MasterModel {
     try {
       try {
         client.ensurePath(Paths.historyJob(id));
-        client.transaction(create(Paths.configJob(id), job),
-                           create(Paths.configJobRefShort(id), id),
-                           create(Paths.configJobHosts(id)),
-                           create(creationPath),
-                           // Touch the jobs root node so that its version is bumped on every job
-                           // change down the tree. Effectively, make it that version == cVersion.
-                           set(Paths.configJobs(), UUID.randomUUID().toString().getBytes()));
+        final List<ZooKeeperOperation> operations = Lists.newArrayList(
+            create(Paths.configJob(id), job),
+            create(Paths.configJobRefShort(id), id),
+            create(Paths.configJobHosts(id)),
+            create(creationPath),
+            // Touch the jobs root node so that its version is bumped on every job
+            // change down the tree. Effectively, make it that version == cVersion.
+            set(Paths.configJobs(), UUID.randomUUID().toString().getBytes()));
+        if (job.getExpires() != null) {
+          client.ensurePath(Paths.configJobExpirations());
+          operations.add(create(Paths.configJobExpiration(id, job.getExpires())));
+        }
+        client.transaction(operations);
       } catch (final NodeExistsException e) {
         if (client.exists(creationPath) != null) {
           // The job was created, we're done here
@@ -333,48 +419,87 @@ public class ZooKeeperMasterModel implements MasterModel {
   }
 
   /**
-   * Given a jobId, returns the N most recent events in it's history in the cluster.
+   * Given a jobId, returns all the events in it's history in the cluster.
    */
   @Override
   public List<TaskStatusEvent> getJobHistory(final JobId jobId) throws JobDoesNotExistException {
-    final Job descriptor = getJob(jobId);
-    if (descriptor == null) {
-      throw new JobDoesNotExistException(jobId);
-    }
+    return getJobHistory(jobId, JobHistoryQuery.all());
+  }
+
+  /**
+   * Given a jobId, returns the most recent events in it's history in the cluster that match the
+   * query, oldest first. Event nodes are named by their timestamps, so the time range and the
+   * ordering are resolved from the node names alone and only the nodes that can end up in the
+   * result are read.
+   */
+  @Override
+  public List<TaskStatusEvent> getJobHistory(final JobId jobId, final JobHistoryQuery query)
+      throws JobDoesNotExistException {
     final ZooKeeperClient client = provider.get("getJobHistory");
+    assertJobExists(client, jobId);
+
     final List<String> hosts;
-    try {
-      hosts = client.getChildren(Paths.historyJobHosts(jobId));
-    } catch (NoNodeException e) {
-      return emptyList();
-    } catch (KeeperException e) {
-      throw Throwables.propagate(e);
+    if (query.getHost() != null) {
+      hosts = ImmutableList.of(query.getHost());
+    } else {
+      try {
+        hosts = client.getChildren(Paths.historyJobHosts(jobId));
+      } catch (NoNodeException e) {
+        return emptyList();
+      } catch (KeeperException e) {
+        throw new HeliosRuntimeException("listing history hosts for job " + jobId + " failed", e);
+      }
     }
 
-    final List<TaskStatusEvent> jsEvents = Lists.newArrayList();
-
-    for (String host : hosts) {
+    final List<HistoryEventRef> refs = Lists.newArrayList();
+    for (final String host : hosts) {
       final List<String> events;
       try {
         events = client.getChildren(Paths.historyJobHostEvents(jobId, host));
+      } catch (NoNodeException e) {
+        continue;
       } catch (KeeperException e) {
-        throw Throwables.propagate(e);
+        throw new HeliosRuntimeException("listing history events for job " + jobId +
+                                         " on host " + host + " failed", e);
       }
-
-      for (String event : events) {
+      for (final String event : events) {
+        final long timestamp;
         try {
-          byte[] data = client.getData(Paths.historyJobHostEventsTimestamp(
-              jobId, host, Long.valueOf(event)));
-          final TaskStatus status = Json.read(data, TaskStatus.class);
-          jsEvents.add(new TaskStatusEvent(status, Long.valueOf(event), host));
-        } catch (NoNodeException e) { // ignore, it went away before we read it
-        } catch (KeeperException | IOException e) {
-          throw Throwables.propagate(e);
+          timestamp = Long.valueOf(event);
+        } catch (NumberFormatException e) {
+          log.debug("Ignoring malformed history event node {} for job {} on host {}",
+                    event, jobId, host);
+          continue;
+        }
+        if (query.matchesTimestamp(timestamp)) {
+          refs.add(new HistoryEventRef(host, timestamp));
+        }
+      }
+    }
+
+    Collections.sort(refs, Collections.reverseOrder());
+
+    final int limit = fromNullable(query.getLimit()).or(Integer.MAX_VALUE);
+    final List<TaskStatusEvent> events = Lists.newArrayList();
+    for (final HistoryEventRef ref : refs) {
+      if (events.size() >= limit) {
+        break;
+      }
+      try {
+        final byte[] data = client.getData(
+            Paths.historyJobHostEventsTimestamp(jobId, ref.host, ref.timestamp));
+        final TaskStatus status = Json.read(data, TaskStatus.class);
+        if (query.matchesStatus(status)) {
+          events.add(new TaskStatusEvent(status, ref.timestamp, ref.host));
         }
+      } catch (NoNodeException e) { // ignore, it went away before we read it
+      } catch (KeeperException | IOException e) {
+        throw new HeliosRuntimeException("reading history event for job " + jobId +
+                                         " on host " + ref.host + " failed", e);
       }
     }
 
-    return Ordering.from(EVENT_COMPARATOR).sortedCopy(jsEvents);
+    return reverse(events);
   }
 
   @Override
@@ -630,7 +755,7 @@ public class ZooKeeperMasterModel implements MasterModel {
       try {
         final String statusPath = Paths.statusDeploymentGroup(deploymentGroup.getName());
         final long secondsSinceDeploy = MILLISECONDS.toSeconds(
-            System.currentTimeMillis() - client.getNode(statusPath).getStat().getMtime());
+            clock.now().getMillis() - client.getNode(statusPath).getStat().getMtime());
         if (secondsSinceDeploy > deploymentGroup.getRolloutOptions().getTimeout()) {
           // time exceeding the configured deploy timeout has passed, and this job is still not
           // running
@@ -882,15 +1007,69 @@ public class ZooKeeperMasterModel implements MasterModel {
   }
 
   /**
-   * Returns the current job status as a {@link JobStatus} object.
+   * Returns the expiry times of all jobs that expire, read from the expiry index rather than from
+   * the jobs themselves.
+   */
+  @Override
+  public Map<JobId, Date> getJobExpirations() {
+    final ZooKeeperClient client = provider.get("getJobExpirations");
+    final List<String> children;
+    try {
+      children = client.getChildren(Paths.configJobExpirations());
+    } catch (NoNodeException e) {
+      return emptyMap();
+    } catch (KeeperException e) {
+      throw new HeliosRuntimeException("getting job expirations failed", e);
+    }
+    final Map<JobId, Date> expirations = Maps.newHashMap();
+    for (final String child : children) {
+      expirations.put(Paths.configJobExpirationId(child),
+                      new Date(Paths.configJobExpirationTime(child)));
+    }
+    return expirations;
+  }
+
+  /**
+   * Returns the current job status as a {@link JobStatus} object. Concurrent calls for the same
+   * job share a single read.
    */
   @Override
   public JobStatus getJobStatus(final JobId jobId) {
+    return jobStatusReads.get(jobId, new Supplier<JobStatus>() {
+      @Override
+      public JobStatus get() {
+        return readJobStatus(jobId);
+      }
+    });
+  }
+
+  /**
+   * Returns the given parts of the current job status. Unlike {@link #getJobStatus(JobId)},
+   * concurrent calls are not coalesced unless every part is requested.
+   */
+  @Override
+  public JobStatus getJobStatus(final JobId jobId, final Set<JobStatus.Field> fields) {
+    if (fields.containsAll(ALL_JOB_STATUS_FIELDS)) {
+      return getJobStatus(jobId);
+    }
+    return readJobStatus(jobId, fields);
+  }
+
+  private JobStatus readJobStatus(final JobId jobId) {
+    return readJobStatus(jobId, ALL_JOB_STATUS_FIELDS);
+  }
+
+  private JobStatus readJobStatus(final JobId jobId, final Set<JobStatus.Field> fields) {
     final ZooKeeperClient client = provider.get("getJobStatus");
 
-    final Job job = getJob(client, jobId);
-    if (job == null) {
-      return null;
+    final Job job;
+    if (fields.contains(JobStatus.Field.JOB)) {
+      job = getJob(client, jobId);
+      if (job == null) {
+        return null;
+      }
+    } else {
+      job = null;
     }
 
     final List<String> hosts;
@@ -900,25 +1079,28 @@ public class ZooKeeperMasterModel implements MasterModel {
       return null;
     }
 
-    final ImmutableMap.Builder<String, Deployment> deployments = ImmutableMap.builder();
-    final ImmutableMap.Builder<String, TaskStatus> taskStatuses = ImmutableMap.builder();
-    for (final String host : hosts) {
-      final TaskStatus taskStatus = getTaskStatus(client, host, jobId);
-      if (taskStatus != null) {
-        taskStatuses.put(host, taskStatus);
+    final JobStatus.Builder builder = JobStatus.newBuilder().setJob(job);
+    if (fields.contains(JobStatus.Field.TASK_STATUSES)) {
+      final ImmutableMap.Builder<String, TaskStatus> taskStatuses = ImmutableMap.builder();
+      for (final String host : hosts) {
+        final TaskStatus taskStatus = getTaskStatus(client, host, jobId);
+        if (taskStatus != null) {
+          taskStatuses.put(host, taskStatus);
+        }
       }
-      final Deployment deployment = getDeployment(host, jobId);
-      if (deployment != null) {
-        deployments.put(host, deployment);
+      builder.setTaskStatuses(taskStatuses.build());
+    }
+    if (fields.contains(JobStatus.Field.DEPLOYMENTS)) {
+      final ImmutableMap.Builder<String, Deployment> deployments = ImmutableMap.builder();
+      for (final String host : hosts) {
+        final Deployment deployment = getDeployment(host, jobId);
+        if (deployment != null) {
+          deployments.put(host, deployment);
+        }
       }
+      builder.setDeployments(deployments.build());
     }
-
-    final Map<String, Deployment> deploymentsMap = deployments.build();
-    return JobStatus.newBuilder()
-        .setJob(job)
-        .setDeployments(deploymentsMap)
-        .setTaskStatuses(taskStatuses.build())
-        .build();
+    return builder.build();
   }
 
   private List<String> listJobHosts(final ZooKeeperClient client, final JobId jobId)
@@ -959,18 +1141,7 @@ public class ZooKeeperMasterModel implements MasterModel {
 
     // TODO (dano): handle retry failures
     try {
-      final ImmutableList.Builder<ZooKeeperOperation> operations = ImmutableList.builder();
-      final UUID jobCreationOperationId = getJobCreation(client, id);
-      if (jobCreationOperationId != null) {
-        operations.add(delete(Paths.configJobCreation(id, jobCreationOperationId)));
-      }
-      operations.add(delete(Paths.configJobHosts(id)),
-                     delete(Paths.configJobRefShort(id)),
-                     delete(Paths.configJob(id)),
-                     // Touch the jobs root node so that its version is bumped on every job
-                     // change down the tree. Effectively, make it that version == cVersion.
-                     set(Paths.configJobs(), UUID.randomUUID().toString().getBytes()));
-      client.transaction(operations.build());
+      client.transaction(getRemoveJobOperations(client, job));
     } catch (final NoNodeException e) {
       throw new JobDoesNotExistException(id);
     } catch (final NotEmptyException e) {
@@ -982,6 +1153,79 @@ public class ZooKeeperMasterModel implements MasterModel {
     return job;
   }
 
+  /**
+   * Undeploys a job from all hosts it is deployed on and deletes it, in a single transaction.
+   */
+  @Override
+  public Job undeployAndRemoveJob(final JobId id, final String token)
+      throws JobDoesNotExistException, JobStillDeployedException, TokenVerificationException {
+    log.info("undeploying and removing job: id={}", id);
+    final ZooKeeperClient client = provider.get("undeployAndRemoveJob");
+    final Job job = getJob(client, id);
+    if (job == null) {
+      throw new JobDoesNotExistException(id);
+    }
+    verifyToken(token, job);
+
+    final List<String> hosts = listJobHosts(client, id);
+    final List<Integer> staticPorts = staticPorts(job);
+    try {
+      final List<String> roots = Lists.newArrayList();
+      for (final String host : hosts) {
+        roots.add(Paths.configHostJob(host, id));
+      }
+      final Map<String, List<String>> subtrees = groupByRoot(roots, client.listRecursive(roots));
+
+      final List<ZooKeeperOperation> operations = Lists.newArrayList();
+      for (final String host : hosts) {
+        final List<String> nodes = subtrees.get(Paths.configHostJob(host, id));
+        if (nodes.isEmpty()) {
+          log.debug("job {} was already undeployed from host {}", id, host);
+          continue;
+        }
+        operations.addAll(deleteAll(nodes));
+        operations.add(delete(Paths.configJobHost(id, host)));
+        for (final int port : staticPorts) {
+          operations.add(delete(Paths.configHostPort(host, port)));
+        }
+      }
+      operations.addAll(getRemoveJobOperations(client, job));
+      client.transaction(operations);
+    } catch (final NoNodeException e) {
+      throw new JobDoesNotExistException(id);
+    } catch (final NotEmptyException e) {
+      // The job was deployed somewhere after we listed its hosts
+      throw new JobStillDeployedException(id, listJobHosts(client, id));
+    } catch (final KeeperException e) {
+      throw new HeliosRuntimeException("undeploying and removing job " + id + " failed", e);
+    }
+
+    return job;
+  }
+
+  private List<ZooKeeperOperation> getRemoveJobOperations(final ZooKeeperClient client,
+                                                          final Job job)
+      throws KeeperException {
+    final JobId id = job.getId();
+    final ImmutableList.Builder<ZooKeeperOperation> operations = ImmutableList.builder();
+    final UUID jobCreationOperationId = getJobCreation(client, id);
+    if (jobCreationOperationId != null) {
+      operations.add(delete(Paths.configJobCreation(id, jobCreationOperationId)));
+    }
+    // Jobs created before the expiry index existed have no entry in it
+    if (job.getExpires() != null &&
+        client.exists(Paths.configJobExpiration(id, job.getExpires())) != null) {
+      operations.add(delete(Paths.configJobExpiration(id, job.getExpires())));
+    }
+    operations.add(delete(Paths.configJobHosts(id)),
+                   delete(Paths.configJobRefShort(id)),
+                   delete(Paths.configJob(id)),
+                   // Touch the jobs root node so that its version is bumped on every job
+                   // change down the tree. Effectively, make it that version == cVersion.
+                   set(Paths.configJobs(), UUID.randomUUID().toString().getBytes()));
+    return operations.build();
+  }
+
   private UUID getJobCreation(final ZooKeeperClient client, final JobId id)
       throws KeeperException {
     final String parent = Paths.configHostJobCreationParent(id);
@@ -1126,6 +1370,92 @@ public class ZooKeeperMasterModel implements MasterModel {
     }
   }
 
+  /**
+   * Deploys a job to many hosts. The job and token are only checked once, and the deployments
+   * are created in transactions of up to {@link #BULK_CHUNK_SIZE} hosts. If a transaction fails,
+   * its hosts are deployed to one at a time to find out which of them failed and why.
+   *
+   * <p>Earlier transactions stay committed when a later one fails, so errors talking to ZooKeeper
+   * are reported per host like any other failure, as a plain {@link HeliosException}.
+   *
+   * @return The hosts that the job could not be deployed to, and why.
+   */
+  @Override
+  public Map<String, HeliosException> deployJobToHosts(final List<String> hosts,
+                                                       final Deployment deployment,
+                                                       final String token)
+      throws JobDoesNotExistException, TokenVerificationException {
+    log.info("deploying {}: {} hosts", deployment, hosts.size());
+    final ZooKeeperClient client = provider.get("deployJobToHosts");
+    final JobId id = deployment.getJobId();
+    final Job job = getJob(client, id);
+    if (job == null) {
+      throw new JobDoesNotExistException(id);
+    }
+    verifyToken(token, job);
+
+    final Task task = new Task(job, deployment.getGoal(), deployment.getDeployerUser(),
+                               deployment.getDeployerMaster(), deployment.getDeploymentGroupName());
+    final List<Integer> staticPorts = staticPorts(job);
+    final byte[] idJson = id.toJsonBytes();
+    final Map<String, HeliosException> failures = Maps.newHashMap();
+
+    for (final List<String> chunk : Lists.partition(ImmutableSet.copyOf(hosts).asList(),
+                                                    BULK_CHUNK_SIZE)) {
+      final List<String> chunkHosts = Lists.newArrayList();
+      final List<ZooKeeperOperation> operations = Lists.newArrayList(check(Paths.configJob(id)));
+      for (final String host : chunk) {
+        if (!isValidHostName(host, id)) {
+          failures.put(host, new HostNotFoundException("Could not find Helios host '" + host +
+                                                       "'"));
+          continue;
+        }
+        final Map<String, byte[]> portNodes = Maps.newHashMap();
+        for (final int port : staticPorts) {
+          portNodes.put(Paths.configHostPort(host, port), idJson);
+        }
+        operations.add(create(portNodes));
+        operations.add(create(Paths.configJobHost(id, host)));
+        operations.add(create(Paths.configHostJob(host, id), task));
+        operations.add(create(Paths.configHostJobCreation(host, id, UUID.randomUUID())));
+        chunkHosts.add(host);
+      }
+      if (chunkHosts.isEmpty()) {
+        continue;
+      }
+
+      try {
+        client.transaction(operations);
+        log.info("deployed {}: {}", deployment, chunkHosts);
+      } catch (KeeperException e) {
+        log.info("deploying {} to {} hosts at once failed, deploying to one at a time: {}",
+                 deployment, chunkHosts.size(), e.toString());
+        for (final String host : chunkHosts) {
+          try {
+            deployJobRetry(client, host, deployment, 0, token);
+          } catch (JobAlreadyDeployedException | HostNotFoundException |
+              JobPortAllocationConflictException | JobDoesNotExistException |
+              TokenVerificationException ex) {
+            failures.put(host, ex);
+          } catch (HeliosRuntimeException ex) {
+            log.warn("deploying {} to {} failed", deployment, host, ex);
+            failures.put(host, new HeliosException(ex));
+          }
+        }
+      }
+    }
+    return failures;
+  }
+
+  private boolean isValidHostName(final String host, final JobId id) {
+    try {
+      Paths.configHostJob(host, id);
+      return true;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
   private void assertJobExists(final ZooKeeperClient client, final JobId id)
       throws JobDoesNotExistException {
     try {
@@ -1232,10 +1562,191 @@ public class ZooKeeperMasterModel implements MasterModel {
   }
 
   /**
-   * Returns the current status of the host named by {@code host}.
+   * Returns an opaque version of the job list that changes whenever a job is added or removed.
+   * Jobs are immutable, so the version of the jobs folder covers their contents as well.
+   */
+  @Override
+  public String getJobsVersion() {
+    final ZooKeeperClient client = provider.get("getJobsVersion");
+    final Hasher hasher = VERSION_HASH.newHasher();
+    try {
+      hashStat(hasher, client, Paths.configJobs());
+    } catch (KeeperException e) {
+      throw new HeliosRuntimeException("getting jobs version failed", e);
+    }
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Returns an opaque version of the status of a job, computed from the versions of the znodes
+   * that {@link #getJobStatus(JobId)} reads, or null if the job does not exist.
+   */
+  @Override
+  public String getJobStatusVersion(final JobId jobId) {
+    final ZooKeeperClient client = provider.get("getJobStatusVersion");
+    final Hasher hasher = VERSION_HASH.newHasher();
+    try {
+      if (!hashStat(hasher, client, Paths.configJob(jobId))) {
+        return null;
+      }
+      hashStat(hasher, client, Paths.configJobHosts(jobId));
+      final List<String> hosts;
+      try {
+        hosts = Ordering.natural().sortedCopy(client.getChildren(Paths.configJobHosts(jobId)));
+      } catch (NoNodeException e) {
+        return null;
+      }
+      for (final String host : hosts) {
+        hasher.putString(host, UTF_8);
+        hashStat(hasher, client, Paths.configHostJob(host, jobId));
+        hashStat(hasher, client, Paths.statusHostJob(host, jobId));
+      }
+    } catch (KeeperException e) {
+      throw new HeliosRuntimeException("getting job " + jobId + " status version failed", e);
+    }
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Returns an opaque version of the status of a host, computed from the versions of the znodes
+   * that {@link #getHostStatus(String)} reads, or null if the host does not exist.
+   */
+  @Override
+  public String getHostStatusVersion(final String host) {
+    final ZooKeeperClient client = provider.get("getHostStatusVersion");
+    final Hasher hasher = VERSION_HASH.newHasher();
+    try {
+      if (!hashHostStatus(hasher, client, host)) {
+        return null;
+      }
+    } catch (KeeperException e) {
+      throw new HeliosRuntimeException("getting host " + host + " status version failed", e);
+    }
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Returns an opaque version of the status of a deployment group including the statuses of its
+   * hosts, or null if the deployment group does not exist.
+   */
+  @Override
+  public String getDeploymentGroupStatusVersion(final String name) {
+    final ZooKeeperClient client = provider.get("getDeploymentGroupStatusVersion");
+    final Hasher hasher = VERSION_HASH.newHasher();
+    try {
+      if (!hashStat(hasher, client, Paths.configDeploymentGroup(name)) ||
+          !hashStat(hasher, client, Paths.statusDeploymentGroup(name))) {
+        return null;
+      }
+      final List<String> hosts;
+      try {
+        final Node node = client.getNode(Paths.statusDeploymentGroupHosts(name));
+        hashStat(hasher, node.getStat());
+        if (node.getBytes().length > 0) {
+          hosts = Json.read(node.getBytes(), STRING_LIST_TYPE);
+        } else {
+          hosts = emptyList();
+        }
+      } catch (NoNodeException e) {
+        return hasher.hash().toString();
+      }
+      for (final String host : hosts) {
+        hasher.putString(host, UTF_8);
+        hashHostStatus(hasher, client, host);
+      }
+    } catch (KeeperException | IOException e) {
+      throw new HeliosRuntimeException("getting deployment group " + name +
+                                       " status version failed", e);
+    }
+    return hasher.hash().toString();
+  }
+
+  private boolean hashHostStatus(final Hasher hasher, final ZooKeeperClient client,
+                                 final String host) throws KeeperException {
+    if (!hashStat(hasher, client, Paths.configHostId(host))) {
+      return false;
+    }
+    hashStat(hasher, client, Paths.statusHostUp(host));
+    hashStat(hasher, client, Paths.statusHostInfo(host));
+    hashStat(hasher, client, Paths.statusHostAgentInfo(host));
+    hashStat(hasher, client, Paths.statusHostEnvVars(host));
+    hashStat(hasher, client, Paths.statusHostLabels(host));
+    hashChildren(hasher, client, Paths.configHostJobs(host));
+    hashChildren(hasher, client, Paths.statusHostJobs(host));
+    return true;
+  }
+
+  private void hashChildren(final Hasher hasher, final ZooKeeperClient client,
+                            final String parent) throws KeeperException {
+    if (!hashStat(hasher, client, parent)) {
+      return;
+    }
+    final List<String> children;
+    try {
+      children = Ordering.natural().sortedCopy(client.getChildren(parent));
+    } catch (NoNodeException e) {
+      return;
+    }
+    for (final String child : children) {
+      hasher.putString(child, UTF_8);
+      hashStat(hasher, client, ZKPaths.makePath(parent, child));
+    }
+  }
+
+  /**
+   * Adds the creation, modification and child versions of a znode to the hasher.
+   *
+   * @return false if the znode does not exist.
+   */
+  private boolean hashStat(final Hasher hasher, final ZooKeeperClient client, final String path)
+      throws KeeperException {
+    final Stat stat = client.exists(path);
+    hashStat(hasher, stat);
+    return stat != null;
+  }
+
+  private void hashStat(final Hasher hasher, final Stat stat) {
+    if (stat == null) {
+      hasher.putLong(0);
+    } else {
+      hasher.putLong(stat.getCzxid())
+          .putLong(stat.getMzxid())
+          .putLong(stat.getPzxid())
+          .putInt(stat.getCversion());
+    }
+  }
+
+  /**
+   * Returns the current status of the host named by {@code host}. Concurrent calls for the same
+   * host share a single read.
    */
   @Override
   public HostStatus getHostStatus(final String host) {
+    return hostStatusReads.get(host, new Supplier<HostStatus>() {
+      @Override
+      public HostStatus get() {
+        return readHostStatus(host);
+      }
+    });
+  }
+
+  /**
+   * Returns the given parts of the current host status. Unlike {@link #getHostStatus(String)},
+   * concurrent calls are not coalesced unless every part is requested.
+   */
+  @Override
+  public HostStatus getHostStatus(final String host, final Set<HostStatus.Field> fields) {
+    if (fields.containsAll(ALL_HOST_STATUS_FIELDS)) {
+      return getHostStatus(host);
+    }
+    return readHostStatus(host, fields);
+  }
+
+  private HostStatus readHostStatus(final String host) {
+    return readHostStatus(host, ALL_HOST_STATUS_FIELDS);
+  }
+
+  private HostStatus readHostStatus(final String host, final Set<HostStatus.Field> fields) {
     final Stat stat;
     final ZooKeeperClient client = provider.get("getHostStatus");
 
@@ -1250,15 +1761,21 @@ public class ZooKeeperMasterModel implements MasterModel {
     }
 
     final boolean up = checkHostUp(client, host);
-    final HostInfo hostInfo = getHostInfo(client, host);
-    final AgentInfo agentInfo = getAgentInfo(client, host);
-    final Map<JobId, Deployment> tasks = getTasks(client, host);
-    final Map<JobId, TaskStatus> statuses = getTaskStatuses(client, host);
-    final Map<String, String> environment = getEnvironment(client, host);
-    final Map<String, String> labels = getLabels(client, host);
+    final HostInfo hostInfo = fields.contains(HostStatus.Field.HOST_INFO)
+                              ? getHostInfo(client, host) : null;
+    final AgentInfo agentInfo = fields.contains(HostStatus.Field.AGENT_INFO)
+                                ? getAgentInfo(client, host) : null;
+    final Map<JobId, Deployment> tasks = fields.contains(HostStatus.Field.JOBS)
+                                         ? getTasks(client, host) : null;
+    final Map<JobId, TaskStatus> statuses = fields.contains(HostStatus.Field.STATUSES)
+                                            ? getTaskStatuses(client, host) : null;
+    final Map<String, String> environment = fields.contains(HostStatus.Field.ENVIRONMENT)
+                                            ? getEnvironment(client, host) : null;
+    final Map<String, String> labels = fields.contains(HostStatus.Field.LABELS)
+                                       ? getLabels(client, host) : null;
 
     return HostStatus.newBuilder()
-        .setJobs(tasks)
+        .setJobs(fromNullable(tasks).or(EMPTY_DEPLOYMENTS))
         .setStatuses(fromNullable(statuses).or(EMPTY_STATUSES))
         .setHostInfo(hostInfo)
         .setAgentInfo(agentInfo)
@@ -1443,6 +1960,109 @@ public class ZooKeeperMasterModel implements MasterModel {
     return deployment;
   }
 
+  /**
+   * Undeploys a job from many hosts. The job and token are only checked once, and the
+   * deployments are removed in transactions of up to {@link #BULK_CHUNK_SIZE} hosts. If a
+   * transaction fails, its hosts are undeployed from one at a time to find out which of them
+   * failed and why.
+   *
+   * <p>Earlier transactions stay committed when a later one fails, so errors talking to ZooKeeper
+   * are reported per host like any other failure, as a plain {@link HeliosException}.
+   *
+   * @return The hosts that the job could not be undeployed from, and why.
+   */
+  @Override
+  public Map<String, HeliosException> undeployJobFromHosts(final List<String> hosts,
+                                                           final JobId jobId,
+                                                           final String token)
+      throws JobDoesNotExistException, TokenVerificationException {
+    log.info("undeploying {}: {} hosts", jobId, hosts.size());
+    final ZooKeeperClient client = provider.get("undeployJobFromHosts");
+    final Job job = getJob(client, jobId);
+    if (job == null) {
+      throw new JobDoesNotExistException(jobId);
+    }
+    verifyToken(token, job);
+
+    final List<Integer> staticPorts = staticPorts(job);
+    final Map<String, HeliosException> failures = Maps.newHashMap();
+
+    for (final List<String> chunk : Lists.partition(ImmutableSet.copyOf(hosts).asList(),
+                                                    BULK_CHUNK_SIZE)) {
+      final List<String> validHosts = Lists.newArrayList();
+      final List<String> roots = Lists.newArrayList();
+      for (final String host : chunk) {
+        if (!isValidHostName(host, jobId)) {
+          failures.put(host, new HostNotFoundException("Could not find Helios host '" + host +
+                                                       "'"));
+          continue;
+        }
+        validHosts.add(host);
+        roots.add(Paths.configHostJob(host, jobId));
+      }
+
+      // use listRecursive to remove both job nodes and their child creation nodes
+      final Map<String, List<String>> subtrees;
+      try {
+        subtrees = groupByRoot(roots, client.listRecursive(roots));
+      } catch (KeeperException | HeliosRuntimeException e) {
+        log.warn("calculating operations to undeploy {} from {} hosts failed",
+                 jobId, validHosts.size(), e);
+        for (final String host : validHosts) {
+          failures.put(host, new HeliosException("calculating undeploy operations failed", e));
+        }
+        continue;
+      }
+
+      final List<String> chunkHosts = Lists.newArrayList();
+      final List<ZooKeeperOperation> operations = Lists.newArrayList();
+      for (final String host : validHosts) {
+        final String hostJobPath = Paths.configHostJob(host, jobId);
+        final List<String> nodes = newArrayList(reverse(subtrees.get(hostJobPath)));
+        if (nodes.isEmpty()) {
+          try {
+            assertHostExists(client, host);
+            failures.put(host, new JobNotDeployedException(host, jobId));
+          } catch (HostNotFoundException ex) {
+            failures.put(host, ex);
+          } catch (HeliosRuntimeException ex) {
+            failures.put(host, new HeliosException(ex));
+          }
+          continue;
+        }
+        nodes.add(Paths.configJobHost(jobId, host));
+        for (final int port : staticPorts) {
+          nodes.add(Paths.configHostPort(host, port));
+        }
+        operations.add(delete(nodes));
+        chunkHosts.add(host);
+      }
+      if (chunkHosts.isEmpty()) {
+        continue;
+      }
+
+      try {
+        client.transaction(operations);
+        log.info("undeployed {}: {}", jobId, chunkHosts);
+      } catch (KeeperException e) {
+        log.info("undeploying {} from {} hosts at once failed, undeploying one at a time: {}",
+                 jobId, chunkHosts.size(), e.toString());
+        for (final String host : chunkHosts) {
+          try {
+            undeployJob(host, jobId, token);
+          } catch (HostNotFoundException | JobNotDeployedException |
+              TokenVerificationException ex) {
+            failures.put(host, ex);
+          } catch (HeliosRuntimeException ex) {
+            log.warn("undeploying {} from {} failed", jobId, host, ex);
+            failures.put(host, new HeliosException(ex));
+          }
+        }
+      }
+    }
+    return failures;
+  }
+
   private List<ZooKeeperOperation> getUndeployOperations(final ZooKeeperClient client,
                                                         final String host, final JobId jobId,
                                                         final String token)
@@ -1537,6 +2157,26 @@ public class ZooKeeperMasterModel implements MasterModel {
     }
   }
 
+  /**
+   * A history event node of a job, identified by its host and timestamp. Ordered by timestamp, and
+   * by host for events that happened at the same time.
+   */
+  private static class HistoryEventRef implements Comparable<HistoryEventRef> {
+    private final String host;
+    private final long timestamp;
+
+    private HistoryEventRef(final String host, final long timestamp) {
+      this.host = host;
+      this.timestamp = timestamp;
+    }
+
+    @Override
+    public int compareTo(final HistoryEventRef other) {
+      final int c = Long.compare(timestamp, other.timestamp);
+      return c != 0 ? c : host.compareTo(other.host);
+    }
+  }
+
   private static class RollingUpdateTaskResult {
     private final List<ZooKeeperOperation> operations;
     private final Exception error;
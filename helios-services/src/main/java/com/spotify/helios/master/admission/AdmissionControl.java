@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master.admission;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Maps;
+
+import com.spotify.helios.servicescommon.statistics.MasterMetrics;
+
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+
+import static com.google.common.base.Strings.nullToEmpty;
+import static com.spotify.helios.master.http.Responses.tooManyRequests;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Decides whether the master takes on a request. A single client hammering an expensive endpoint
+ * could otherwise use up the http thread pool and load the ZooKeeper ensemble enough to slow
+ * down deploys for everyone else.
+ *
+ * <ul>
+ * <li>Reads are limited to a number of concurrent requests per endpoint. Writes are not, so
+ * that deploys keep going while heavy reads are being shed.</li>
+ * <li>Every client gets a token bucket that is refilled at a fixed rate, and each request takes
+ * a token. Clients are identified by their address together with the user query parameter
+ * they send. The parameter is not authenticated, so the address is part of the key: that way
+ * a caller naming another user only spends tokens from a bucket of its own, and anonymous
+ * callers get a bucket per address instead of sharing one.</li>
+ * </ul>
+ *
+ * A rejected request gets a 429 Too Many Requests response, with a Retry-After header telling
+ * the client when to try again.
+ */
+public class AdmissionControl {
+
+  private static final Logger log = LoggerFactory.getLogger(AdmissionControl.class);
+
+  private static final long CONCURRENCY_RETRY_AFTER_SECONDS = 1;
+
+  /**
+   * A request that has been admitted. Must be released when the request is done.
+   */
+  public interface Permit {
+    void release();
+  }
+
+  private static final Permit NO_PERMIT = new Permit() {
+    @Override
+    public void release() {
+    }
+  };
+
+  private final int maxConcurrentReads;
+  private final MasterMetrics metrics;
+  private final ConcurrentMap<String, Semaphore> reads = Maps.newConcurrentMap();
+  private final LoadingCache<String, TokenBucket> buckets;
+
+  /**
+   * @param maxConcurrentReads The maximum number of concurrent reads per endpoint, or zero for
+   *                           no limit.
+   * @param userRequestsPerSecond The rate at which the token bucket of every user is refilled,
+   *                              or zero for no limit.
+   * @param userRequestBurst The size of the token bucket of every user.
+   * @param metrics The metrics to report rejected requests to.
+   */
+  public AdmissionControl(final int maxConcurrentReads, final double userRequestsPerSecond,
+                          final int userRequestBurst, final MasterMetrics metrics) {
+    this(maxConcurrentReads, userRequestsPerSecond, userRequestBurst, metrics,
+         Ticker.systemTicker());
+  }
+
+  AdmissionControl(final int maxConcurrentReads, final double userRequestsPerSecond,
+                   final int userRequestBurst, final MasterMetrics metrics,
+                   final Ticker ticker) {
+    this.maxConcurrentReads = maxConcurrentReads;
+    this.metrics = metrics;
+    if (userRequestsPerSecond > 0) {
+      final int capacity = Math.max(1, userRequestBurst);
+      this.buckets = CacheBuilder.newBuilder()
+          .expireAfterAccess(10, MINUTES)
+          .build(new CacheLoader<String, TokenBucket>() {
+            @Override
+            public TokenBucket load(final String user) {
+              return new TokenBucket(userRequestsPerSecond, capacity, ticker);
+            }
+          });
+    } else {
+      this.buckets = null;
+    }
+  }
+
+  /**
+   * Admits a request, or rejects it with a 429 Too Many Requests.
+   *
+   * @param endpoint The endpoint requested.
+   * @param read Whether the request only reads.
+   * @param user The user making the request, if known.
+   * @param address The address the request came from, if known.
+   * @return The permit of the request, to release when it is done.
+   * @throws javax.ws.rs.WebApplicationException If the request is rejected.
+   */
+  public Permit admit(final String endpoint, final boolean read, @Nullable final String user,
+                      @Nullable final String address) {
+    if (buckets != null) {
+      final String key = nullToEmpty(user) + "@" + nullToEmpty(address);
+      final long waitNanos = buckets.getUnchecked(key).tryAcquire();
+      if (waitNanos > 0) {
+        log.debug("rejecting request to {} by user {} from {}, rate limited",
+                  endpoint, user, address);
+        metrics.requestRejected(endpoint);
+        // Round up, as Retry-After is in whole seconds
+        throw tooManyRequests(SECONDS.convert(waitNanos + SECONDS.toNanos(1) - 1, NANOSECONDS));
+      }
+    }
+
+    if (!read || maxConcurrentReads <= 0) {
+      return NO_PERMIT;
+    }
+
+    final Semaphore semaphore = semaphore(endpoint);
+    if (!semaphore.tryAcquire()) {
+      log.debug("rejecting request to {} by user {}, too many concurrent reads", endpoint, user);
+      metrics.requestRejected(endpoint);
+      throw tooManyRequests(CONCURRENCY_RETRY_AFTER_SECONDS);
+    }
+    return new Permit() {
+      @Override
+      public void release() {
+        semaphore.release();
+      }
+    };
+  }
+
+  private Semaphore semaphore(final String endpoint) {
+    final Semaphore semaphore = reads.get(endpoint);
+    if (semaphore != null) {
+      return semaphore;
+    }
+    final Semaphore created = new Semaphore(maxConcurrentReads);
+    final Semaphore existing = reads.putIfAbsent(endpoint, created);
+    return existing == null ? created : existing;
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master.admission;
+
+import com.spotify.helios.master.http.ReadOnly;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.spi.container.ResourceMethodDispatchProvider;
+import com.sun.jersey.spi.dispatch.RequestDispatcher;
+
+import javax.ws.rs.HttpMethod;
+
+public class AdmissionControlDispatchProvider implements ResourceMethodDispatchProvider {
+
+  private final ResourceMethodDispatchProvider provider;
+  private final AdmissionControl admissionControl;
+
+  public AdmissionControlDispatchProvider(final ResourceMethodDispatchProvider provider,
+                                          final AdmissionControl admissionControl) {
+    this.provider = provider;
+    this.admissionControl = admissionControl;
+  }
+
+  @Override
+  public RequestDispatcher create(final AbstractResourceMethod abstractResourceMethod) {
+    final RequestDispatcher dispatcher = provider.create(abstractResourceMethod);
+    final String endpoint =
+        abstractResourceMethod.getMethod().getDeclaringClass().getSimpleName() + "#" +
+        abstractResourceMethod.getMethod().getName();
+    final String httpMethod = abstractResourceMethod.getHttpMethod();
+    final boolean read = HttpMethod.GET.equals(httpMethod) ||
+                         HttpMethod.HEAD.equals(httpMethod) ||
+                         abstractResourceMethod.getMethod().isAnnotationPresent(ReadOnly.class);
+    return new AdmissionControlDispatcher(dispatcher, admissionControl, endpoint, read);
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master.admission;
+
+import com.spotify.helios.master.admission.AdmissionControl.Permit;
+import com.sun.jersey.api.core.HttpContext;
+import com.sun.jersey.spi.dispatch.RequestDispatcher;
+
+import org.eclipse.jetty.server.HttpChannel;
+
+public class AdmissionControlDispatcher implements RequestDispatcher {
+
+  private final RequestDispatcher dispatcher;
+  private final AdmissionControl admissionControl;
+  private final String endpoint;
+  private final boolean read;
+
+  public AdmissionControlDispatcher(final RequestDispatcher dispatcher,
+                                    final AdmissionControl admissionControl,
+                                    final String endpoint, final boolean read) {
+    this.dispatcher = dispatcher;
+    this.admissionControl = admissionControl;
+    this.endpoint = endpoint;
+    this.read = read;
+  }
+
+  @Override
+  public void dispatch(final Object resource, final HttpContext context) {
+    final String user = context.getRequest().getQueryParameters().getFirst("user");
+    final Permit permit = admissionControl.admit(endpoint, read, user, remoteAddress());
+    try {
+      dispatcher.dispatch(resource, context);
+    } finally {
+      permit.release();
+    }
+  }
+
+  /**
+   * @return The address of the client making the request on this thread. Jersey doesn't inject
+   * the servlet request into dispatch adapters, so it is looked up from Jetty.
+   */
+  private static String remoteAddress() {
+    final HttpChannel<?> channel = HttpChannel.getCurrentHttpChannel();
+    return channel == null ? null : channel.getRequest().getRemoteAddr();
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master.admission;
+
+import com.google.common.base.Ticker;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * A token bucket that holds up to {@code capacity} tokens and is refilled at a fixed rate.
+ */
+class TokenBucket {
+
+  private final double tokensPerNano;
+  private final double capacity;
+  private final Ticker ticker;
+
+  private double tokens;
+  private long lastRefillNanos;
+
+  TokenBucket(final double tokensPerSecond, final int capacity, final Ticker ticker) {
+    this.tokensPerNano = tokensPerSecond / SECONDS.toNanos(1);
+    this.capacity = capacity;
+    this.ticker = ticker;
+    this.tokens = capacity;
+    this.lastRefillNanos = ticker.read();
+  }
+
+  /**
+   * Takes a token if there is one.
+   *
+   * @return Zero if a token was taken, otherwise how long until there is one, in nanoseconds.
+   */
+  synchronized long tryAcquire() {
+    final long now = ticker.read();
+    tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+    lastRefillNanos = now;
+    if (tokens >= 1) {
+      tokens -= 1;
+      return 0;
+    }
+    return (long) Math.ceil((1 - tokens) / tokensPerNano);
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master.http;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import com.spotify.helios.common.Json;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Map;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.Response;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+
+/**
+ * Utility code for conditional reads. Resources compute a version of what they are about to
+ * return from cheap ZooKeeper stat calls, and skip reading and serializing the entity if the
+ * client already has that version.
+ *
+ * <p>The stat calls are only worth making when the client sent If-None-Match. Otherwise the
+ * entity is tagged with a hash of its serialized form, which the client sends back on its next
+ * read. That doesn't match the version, so the next read is answered in full with the version
+ * as its tag, and the reads after it can be answered with 304 Not Modified.
+ */
+public class EntityTags {
+
+  private static final Splitter SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+
+  /**
+   * Returns a weak entity tag for a version, as the representation may be compressed in transit.
+   */
+  public static EntityTag tag(final String version) {
+    return new EntityTag(version, true);
+  }
+
+  /**
+   * Returns the entity tag of an entity that has no cheaper version, made from a hash of its
+   * serialized form.
+   */
+  public static EntityTag contentTag(final byte[] json) {
+    return tag(Hashing.murmur3_128().hashBytes(json).toString());
+  }
+
+  /**
+   * Returns an entity tag for a batch of versions, e.g. the statuses of several hosts. Keys
+   * whose version is null are left out, as they are left out of the response.
+   */
+  public static EntityTag tag(final Map<String, String> versions) {
+    final Hasher hasher = Hashing.murmur3_128().newHasher();
+    for (final Map.Entry<String, String> entry : versions.entrySet()) {
+      if (entry.getValue() != null) {
+        hasher.putString(entry.getKey(), UTF_8).putByte((byte) 0);
+        hasher.putString(entry.getValue(), UTF_8).putByte((byte) 0);
+      }
+    }
+    return tag(hasher.hash().toString());
+  }
+
+  /**
+   * Returns the entity tag of a projection of an entity, so that clients asking for different
+   * parts of the same version of an entity don't match each other's tags.
+   */
+  public static EntityTag project(final EntityTag tag, final Collection<?> fields) {
+    return tag(tag.getValue() + "+" + Joiner.on('+').join(fields));
+  }
+
+  /**
+   * Checks whether an If-None-Match header value matches a tag. Tags are compared weakly, which
+   * is what RFC 7232 prescribes for If-None-Match. The gzip filter appends the content encoding
+   * to the tags of compressed responses, so a suffix like "-gzip" is ignored as well.
+   */
+  public static boolean matches(final String ifNoneMatch, final EntityTag tag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (final String value : SPLITTER.split(ifNoneMatch)) {
+      if (value.equals("*")) {
+        return true;
+      }
+      final String quoted = value.startsWith("W/") ? value.substring(2) : value;
+      if (quoted.length() < 2 || !quoted.startsWith("\"") || !quoted.endsWith("\"")) {
+        continue;
+      }
+      final String opaque = quoted.substring(1, quoted.length() - 1);
+      if (opaque.equals(tag.getValue()) || opaque.startsWith(tag.getValue() + "-")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns a 200 OK response with an entity and its tag. Without a tag, the entity is serialized
+   * here and tagged with a hash of the result.
+   *
+   * @param entity The entity, which may already be serialized to JSON.
+   * @param tag The tag computed from the version of the entity, or null if no version was
+   *            computed.
+   */
+  public static Response.ResponseBuilder tagged(final Object entity,
+                                                @Nullable final EntityTag tag) {
+    if (tag != null) {
+      return Response.ok(entity, APPLICATION_JSON).tag(tag);
+    }
+    final byte[] json;
+    if (entity instanceof byte[]) {
+      json = (byte[]) entity;
+    } else if (entity instanceof GenericEntity) {
+      json = Json.asBytesUnchecked(((GenericEntity<?>) entity).getEntity());
+    } else {
+      json = Json.asBytesUnchecked(entity);
+    }
+    return Response.ok(json, APPLICATION_JSON).tag(contentTag(json));
+  }
+
+  public static Response notModified(final EntityTag tag) {
+    return Response.notModified(tag).build();
+  }
+}
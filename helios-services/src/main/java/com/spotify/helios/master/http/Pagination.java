@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master.http;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+
+import javax.ws.rs.core.Response;
+
+import static com.spotify.helios.master.http.Responses.badRequest;
+
+/**
+ * Utility code for cursor based pagination. Items are returned in their natural order. A page
+ * holds the items after the cursor and, as long as there are more items, the response carries
+ * the cursor for the next page in the {@link #NEXT_CURSOR_HEADER} header.
+ */
+public class Pagination {
+
+  public static final String NEXT_CURSOR_HEADER = "Helios-Next-Cursor";
+
+  /**
+   * Returns the page of items after the cursor.
+   *
+   * @param items The items, in any order.
+   * @param cursor The last item of the previous page, or null for the first page.
+   * @param limit The maximum number of items on a page, or null for no limit.
+   */
+  public static <T extends Comparable<? super T>> Page<T> page(final Collection<T> items,
+                                                               @Nullable final T cursor,
+                                                               @Nullable final Integer limit) {
+    checkLimit(limit);
+    final List<T> sorted = Ordering.natural().sortedCopy(items);
+    int from = 0;
+    if (cursor != null) {
+      while (from < sorted.size() && sorted.get(from).compareTo(cursor) <= 0) {
+        from++;
+      }
+    }
+    final int to = limit == null ? sorted.size() : Math.min(sorted.size(), from + limit);
+    final List<T> page = ImmutableList.copyOf(sorted.subList(from, to));
+    final T next = to < sorted.size() && !page.isEmpty() ? page.get(page.size() - 1) : null;
+    return new Page<>(page, next);
+  }
+
+  /**
+   * Rejects limits that are not positive with a 400 Bad Request.
+   */
+  public static void checkLimit(@Nullable final Integer limit) {
+    if (limit != null && limit <= 0) {
+      throw badRequest("Invalid limit");
+    }
+  }
+
+  /**
+   * Sets the next cursor header on a response if there is a next page.
+   */
+  public static Response.ResponseBuilder nextCursor(final Response.ResponseBuilder response,
+                                                    @Nullable final Object next) {
+    return next == null ? response : response.header(NEXT_CURSOR_HEADER, next.toString());
+  }
+
+  public static class Page<T> {
+
+    private final List<T> items;
+    private final T next;
+
+    private Page(final List<T> items, final T next) {
+      this.items = items;
+      this.next = next;
+    }
+
+    public List<T> getItems() {
+      return items;
+    }
+
+    /**
+     * @return The cursor for the next page, or null if this is the last page.
+     */
+    @Nullable
+    public T getNext() {
+      return next;
+    }
+  }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master.http;
+
+import com.google.common.base.Splitter;
+import com.google.common.base.Supplier;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
+
+import com.spotify.helios.common.HeliosRuntimeException;
+import com.spotify.helios.common.Json;
+import com.spotify.helios.servicescommon.statistics.MasterMetrics;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.zookeeper.KeeperException.NoNodeException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.data.Stat;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Response;
+
+import static com.spotify.helios.master.http.EntityTags.matches;
+import static com.spotify.helios.master.http.EntityTags.tag;
+import static javax.ws.rs.core.HttpHeaders.ACCEPT_ENCODING;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_ENCODING;
+import static javax.ws.rs.core.HttpHeaders.VARY;
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+
+/**
+ * Caches the serialized and gzipped responses of list endpoints whose contents only change when
+ * children are added to or removed from a znode, e.g. the job list under /config/jobs.
+ *
+ * <p>Entries are keyed by that znode and versioned by its stat. A children watch on the znode
+ * invalidates the entry, so a hit needs no ZooKeeper calls at all. The watch fires
+ * asynchronously, so resources also {@link #invalidate(String)} the entry themselves when they
+ * change the children, so that a client reading its own writes never gets the old response.
+ *
+ * <p>Compressed entries are sent with a Content-Encoding header, which makes the gzip filter
+ * pass them through untouched. As the filter doesn't see them, the responses carry their own
+ * Vary: Accept-Encoding header so that caches along the way don't serve a compressed response
+ * to a client that can't read it.
+ *
+ * <p>While disconnected from ZooKeeper, the last cached response is served as is.
+ */
+public class ResponseCache {
+
+  private static final Logger log = LoggerFactory.getLogger(ResponseCache.class);
+
+  private static final Splitter SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+
+  private final ConcurrentMap<String, Slot> slots = Maps.newConcurrentMap();
+
+  private final CuratorFramework curator;
+  private final MasterMetrics metrics;
+
+  /**
+   * Told the number of items in every list served with its entity, including the ones served
+   * from the cache, for list size metrics.
+   */
+  public interface SizeListener {
+    void served(int size);
+  }
+
+  public ResponseCache(final CuratorFramework curator, final MasterMetrics metrics) {
+    this.curator = curator;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Returns the response for a list endpoint, loading and serializing it only if the children
+   * of {@code path} have changed since it was last cached.
+   *
+   * @param path The znode whose children the response is made from.
+   * @param ifNoneMatch The If-None-Match header of the request, if any.
+   * @param acceptEncoding The Accept-Encoding header of the request, if any.
+   * @param loader Reads the entity from the model.
+   * @return The response.
+   */
+  public Response get(final String path, final String ifNoneMatch, final String acceptEncoding,
+                      final Supplier<?> loader) {
+    return get(path, ifNoneMatch, acceptEncoding, loader, null);
+  }
+
+  /**
+   * Returns the response for a list endpoint, like {@link #get(String, String, String,
+   * Supplier)}, and tells a listener the size of the list if the response has an entity.
+   *
+   * @param listener Told the number of items in the list if the entity is a map or collection.
+   */
+  public Response get(final String path, final String ifNoneMatch, final String acceptEncoding,
+                      final Supplier<?> loader, @Nullable final SizeListener listener) {
+    final Entry entry = entry(slot(path), loader);
+    final EntityTag tag = tag(entry.version);
+    if (matches(ifNoneMatch, tag)) {
+      return Response.notModified(tag).header(VARY, ACCEPT_ENCODING).build();
+    }
+    if (listener != null && entry.size >= 0) {
+      listener.served(entry.size);
+    }
+    final Response.ResponseBuilder builder = Response.ok()
+        .type(APPLICATION_JSON)
+        .tag(tag)
+        .header(VARY, ACCEPT_ENCODING);
+    if (acceptsGzip(acceptEncoding)) {
+      return builder.entity(entry.gzipped).header(CONTENT_ENCODING, "gzip").build();
+    }
+    return builder.entity(entry.json).build();
+  }
+
+  /**
+   * Invalidates the cached response for {@code path}, so that the next request reloads it. Call
+   * this after changing the children of the znode.
+   */
+  public void invalidate(final String path) {
+    final Slot slot = slots.get(path);
+    if (slot != null) {
+      slot.generation.incrementAndGet();
+    }
+  }
+
+  private Slot slot(final String path) {
+    final Slot slot = slots.get(path);
+    if (slot != null) {
+      return slot;
+    }
+    final Slot newSlot = new Slot(path);
+    final Slot existing = slots.putIfAbsent(path, newSlot);
+    return existing == null ? newSlot : existing;
+  }
+
+  private Entry entry(final Slot slot, final Supplier<?> loader) {
+    final long generation = slot.generation.get();
+    final Entry cached = slot.entry;
+    if (cached != null && cached.generation == generation && slot.armed.get()) {
+      metrics.responseCacheHit(cached.json.length);
+      return cached;
+    }
+
+    if (!curator.getZookeeperClient().isConnected()) {
+      // The children cannot be listed, so serve the last cached response. Without one, load the
+      // response from the model, which may serve it from a snapshot, and version it by content.
+      if (cached != null) {
+        metrics.responseCacheHit(cached.json.length);
+        return cached;
+      }
+      metrics.responseCacheMiss();
+      return load(-1, null, loader);
+    }
+
+    // Arm the watch before reading anything, so that a change racing with the read below bumps
+    // the generation and the entry is reloaded on the next request.
+    final Stat stat = new Stat();
+    final boolean armed = slot.armed.compareAndSet(false, true);
+    try {
+      curator.getChildren().storingStatIn(stat).usingWatcher(slot).forPath(slot.path);
+    } catch (NoNodeException e) {
+      slot.armed.set(false);
+      metrics.responseCacheMiss();
+      return load(-1, "0", loader);
+    } catch (Exception e) {
+      if (armed) {
+        slot.armed.set(false);
+      }
+      throw new HeliosRuntimeException("watching " + slot.path + " failed", e);
+    }
+
+    final String version = Hashing.murmur3_128().newHasher()
+        .putLong(stat.getCzxid())
+        .putLong(stat.getPzxid())
+        .putInt(stat.getCversion())
+        .hash().toString();
+    if (cached != null && cached.version.equals(version)) {
+      // Something else triggered the watch, e.g. a reconnect. The children are the same.
+      final Entry revalidated = new Entry(generation, version, cached.json, cached.gzipped,
+                                          cached.size);
+      slot.entry = revalidated;
+      metrics.responseCacheHit(cached.json.length);
+      return revalidated;
+    }
+
+    metrics.responseCacheMiss();
+    final Entry entry = load(generation, version, loader);
+    slot.entry = entry;
+    return entry;
+  }
+
+  private Entry load(final long generation, final String version, final Supplier<?> loader) {
+    try {
+      final Object entity = loader.get();
+      final byte[] json = Json.asBytes(entity);
+      final ByteArrayOutputStream gzipped = new ByteArrayOutputStream(json.length / 4);
+      try (final GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+        out.write(json);
+      }
+      final String entryVersion = version != null
+                                  ? version
+                                  : Hashing.murmur3_128().hashBytes(json).toString();
+      return new Entry(generation, entryVersion, json, gzipped.toByteArray(), size(entity));
+    } catch (IOException e) {
+      throw new HeliosRuntimeException("serializing response failed", e);
+    }
+  }
+
+  private static int size(final Object entity) {
+    if (entity instanceof Map) {
+      return ((Map<?, ?>) entity).size();
+    } else if (entity instanceof Collection) {
+      return ((Collection<?>) entity).size();
+    }
+    return -1;
+  }
+
+  private static boolean acceptsGzip(final String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (final String value : SPLITTER.split(acceptEncoding)) {
+      final int semicolon = value.indexOf(';');
+      final String coding = semicolon < 0 ? value : value.substring(0, semicolon).trim();
+      if (coding.equalsIgnoreCase("gzip")) {
+        return !value.replace(" ", "").endsWith(";q=0");
+      }
+    }
+    return false;
+  }
+
+  private static class Slot implements Watcher {
+
+    private final String path;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicBoolean armed = new AtomicBoolean();
+    private volatile Entry entry;
+
+    private Slot(final String path) {
+      this.path = path;
+    }
+
+    @Override
+    public void process(final WatchedEvent event) {
+      log.debug("invalidating cached response for {}: {}", path, event);
+      armed.set(false);
+      generation.incrementAndGet();
+    }
+  }
+
+  private static class Entry {
+
+    private final long generation;
+    private final String version;
+    private final byte[] json;
+    private final byte[] gzipped;
+    private final int size;
+
+    private Entry(final long generation, final String version, final byte[] json,
+                  final byte[] gzipped, final int size) {
+      this.generation = generation;
+      this.version = version;
+      this.json = json;
+      this.gzipped = gzipped;
+      this.size = size;
+    }
+  }
+}
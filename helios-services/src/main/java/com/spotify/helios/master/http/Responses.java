@@ -26,6 +26,7 @@ import javax.ws.rs.WebApplicationException;
 import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
 import static javax.ws.rs.core.Response.Status.FORBIDDEN;
+import static javax.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE;
 import static javax.ws.rs.core.Response.status;
 
 /**
@@ -33,6 +34,13 @@ import static javax.ws.rs.core.Response.status;
  */
 public class Responses {
 
+  /**
+   * 429 Too Many Requests from RFC 6585, which is too new for JAX-RS 1.1.
+   */
+  public static final int TOO_MANY_REQUESTS = 429;
+
+  public static final String RETRY_AFTER = "Retry-After";
+
   public static WebApplicationException badRequest(final Object entity) {
     return new WebApplicationException(status(BAD_REQUEST).entity(entity).build());
   }
@@ -56,4 +64,24 @@ public class Responses {
   public static WebApplicationException forbidden() {
     return new WebApplicationException(FORBIDDEN);
   }
+
+  /**
+   * Rejects a request that the master won't take on right now.
+   * @param retryAfterSeconds When the client may try again.
+   */
+  public static WebApplicationException tooManyRequests(final long retryAfterSeconds) {
+    return new WebApplicationException(status(TOO_MANY_REQUESTS)
+                                           .header(RETRY_AFTER, retryAfterSeconds)
+                                           .build());
+  }
+
+  /**
+   * Rejects a request that the master can't serve yet.
+   * @param retryAfterSeconds When the client may try again.
+   */
+  public static WebApplicationException serviceUnavailable(final long retryAfterSeconds) {
+    return new WebApplicationException(status(SERVICE_UNAVAILABLE)
+                                           .header(RETRY_AFTER, retryAfterSeconds)
+                                           .build());
+  }
 }
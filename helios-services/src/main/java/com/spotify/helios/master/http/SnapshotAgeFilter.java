@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master.http;
+
+import com.spotify.helios.master.SnapshotMasterModel;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Sets a Helios-Snapshot-Age: header with the age in seconds of the snapshot responses are
+ * served from while the master is disconnected from ZooKeeper. The header is absent when
+ * responses reflect the current state in ZooKeeper.
+ */
+public class SnapshotAgeFilter implements Filter {
+
+  public static final String SNAPSHOT_AGE_HEADER = "Helios-Snapshot-Age";
+
+  private final SnapshotMasterModel model;
+
+  public SnapshotAgeFilter(final SnapshotMasterModel model) {
+    this.model = model;
+  }
+
+  @Override
+  public void doFilter(final ServletRequest request, final ServletResponse response,
+                       final FilterChain chain) throws IOException, ServletException {
+    final Long ageMillis = model.snapshotAgeMillis();
+    if (ageMillis != null && response instanceof HttpServletResponse) {
+      ((HttpServletResponse) response).addHeader(
+          SNAPSHOT_AGE_HEADER, Long.toString(MILLISECONDS.toSeconds(ageMillis)));
+    }
+    chain.doFilter(request, response);
+  }
+
+  @Override
+  public void init(final FilterConfig filterConfig) throws ServletException {
+  }
+
+  @Override
+  public void destroy() {
+  }
+}
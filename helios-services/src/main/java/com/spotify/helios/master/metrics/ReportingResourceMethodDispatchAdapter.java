@@ -22,19 +22,27 @@
 package com.spotify.helios.master.metrics;
 
 import com.spotify.helios.servicescommon.statistics.MasterMetrics;
+import com.spotify.helios.servicescommon.tracing.Tracer;
 import com.sun.jersey.spi.container.ResourceMethodDispatchAdapter;
 import com.sun.jersey.spi.container.ResourceMethodDispatchProvider;
 
 public class ReportingResourceMethodDispatchAdapter implements ResourceMethodDispatchAdapter {
 
   private final MasterMetrics metrics;
+  private final long slowRequestThresholdMillis;
+  private final Tracer tracer;
 
-  public ReportingResourceMethodDispatchAdapter(final MasterMetrics metrics) {
+  public ReportingResourceMethodDispatchAdapter(final MasterMetrics metrics,
+                                                final long slowRequestThresholdMillis,
+                                                final Tracer tracer) {
     this.metrics = metrics;
+    this.slowRequestThresholdMillis = slowRequestThresholdMillis;
+    this.tracer = tracer;
   }
 
   @Override
   public ResourceMethodDispatchProvider adapt(final ResourceMethodDispatchProvider provider) {
-    return new ReportingResourceMethodDispatchProvider(provider, metrics);
+    return new ReportingResourceMethodDispatchProvider(provider, metrics,
+                                                       slowRequestThresholdMillis, tracer);
   }
 }
@@ -22,6 +22,7 @@
 package com.spotify.helios.master.metrics;
 
 import com.spotify.helios.servicescommon.statistics.MasterMetrics;
+import com.spotify.helios.servicescommon.tracing.Tracer;
 import com.sun.jersey.api.model.AbstractResourceMethod;
 import com.sun.jersey.spi.container.ResourceMethodDispatchProvider;
 import com.sun.jersey.spi.dispatch.RequestDispatcher;
@@ -30,16 +31,23 @@ public class ReportingResourceMethodDispatchProvider implements ResourceMethodDi
 
   private final ResourceMethodDispatchProvider provider;
   private final MasterMetrics metrics;
+  private final long slowRequestThresholdMillis;
+  private final Tracer tracer;
 
   public ReportingResourceMethodDispatchProvider(final ResourceMethodDispatchProvider provider,
-                                                 final MasterMetrics metrics) {
+                                                 final MasterMetrics metrics,
+                                                 final long slowRequestThresholdMillis,
+                                                 final Tracer tracer) {
     this.provider = provider;
     this.metrics = metrics;
+    this.slowRequestThresholdMillis = slowRequestThresholdMillis;
+    this.tracer = tracer;
   }
 
   @Override
   public RequestDispatcher create(final AbstractResourceMethod abstractResourceMethod) {
     final RequestDispatcher dispatcher = provider.create(abstractResourceMethod);
-    return new ReportingResourceMethodDispatcher(dispatcher, metrics);
+    return new ReportingResourceMethodDispatcher(dispatcher, metrics,
+                                                  slowRequestThresholdMillis, tracer);
   }
 }
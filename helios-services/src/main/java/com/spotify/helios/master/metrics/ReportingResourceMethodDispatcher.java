@@ -23,33 +23,80 @@ package com.spotify.helios.master.metrics;
 
 import com.google.common.collect.Maps;
 
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.descriptors.JobIdParseException;
+import com.spotify.helios.servicescommon.coordination.ZooKeeperRequestTrace;
 import com.spotify.helios.servicescommon.statistics.MasterMetrics;
+import com.spotify.helios.servicescommon.tracing.Span;
+import com.spotify.helios.servicescommon.tracing.Tracer;
 import com.sun.jersey.api.core.HttpContext;
 import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.api.model.Parameter;
 import com.sun.jersey.spi.dispatch.RequestDispatcher;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.concurrent.ConcurrentMap;
 
 import javax.ws.rs.WebApplicationException;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Reports the outcome of each resource method call, and traces the ZooKeeper operations made
+ * while serving it. The number of operations per endpoint feeds a histogram, requests slower
+ * than the threshold are logged along with their trace, and requests that set the
+ * Helios-Debug: header get the trace back in a Helios-ZooKeeper-Trace: header. Each call is also
+ * recorded as a span, carrying the job and host it was for.
+ */
 public class ReportingResourceMethodDispatcher implements RequestDispatcher {
 
+  private static final Logger log =
+      LoggerFactory.getLogger(ReportingResourceMethodDispatcher.class);
+
+  public static final String DEBUG_HEADER = "Helios-Debug";
+  public static final String TRACE_HEADER = "Helios-ZooKeeper-Trace";
+
   private final RequestDispatcher dispatcher;
   private final MasterMetrics metrics;
+  private final long slowRequestThresholdNanos;
+  private final Tracer tracer;
   private final ConcurrentMap<Object, String> keys = Maps.newConcurrentMap();
 
+  /**
+   * @param dispatcher The dispatcher to report on.
+   * @param metrics The metrics to report to.
+   * @param slowRequestThresholdMillis Requests taking longer than this are logged. Zero or less
+   *                                   disables logging.
+   * @param tracer The tracer to record calls in.
+   */
   public ReportingResourceMethodDispatcher(final RequestDispatcher dispatcher,
-                                           final MasterMetrics metrics) {
+                                           final MasterMetrics metrics,
+                                           final long slowRequestThresholdMillis,
+                                           final Tracer tracer) {
     this.dispatcher = dispatcher;
     this.metrics = metrics;
+    this.slowRequestThresholdNanos = MILLISECONDS.toNanos(slowRequestThresholdMillis);
+    this.tracer = tracer;
   }
 
   @Override
   public void dispatch(final Object resource, final HttpContext context) {
     final AbstractResourceMethod resourceMethod = context.getUriInfo().getMatchedMethod();
     final String key = getKey(resourceMethod);
+    final long start = System.nanoTime();
+    final Span span = tracer.start("master", key, start);
+    if (span.isRecording()) {
+      annotate(span, resourceMethod, context);
+    }
+    final ZooKeeperRequestTrace trace = ZooKeeperRequestTrace.start();
     try {
       dispatcher.dispatch(resource, context);
+      if (Boolean.parseBoolean(context.getRequest().getHeaderValue(DEBUG_HEADER))) {
+        context.getResponse().getHttpHeaders().putSingle(TRACE_HEADER, trace.summary());
+      }
       metrics.success(key);
     } catch (WebApplicationException e) {
       final int status = e.getResponse().getStatus();
@@ -64,6 +111,48 @@ public class ReportingResourceMethodDispatcher implements RequestDispatcher {
     } catch (Exception e) {
       metrics.failure(key);
       throw e;
+    } finally {
+      ZooKeeperRequestTrace.stop();
+      span.finish();
+      report(key, System.nanoTime() - start, trace);
+    }
+  }
+
+  /**
+   * Sets the job of the span from the path parameter that is a job ID, if any, its host from the
+   * host parameter and its tag to the request path.
+   */
+  private static void annotate(final Span span, final AbstractResourceMethod resourceMethod,
+                               final HttpContext context) {
+    span.tag(context.getRequest().getPath());
+    for (final Parameter parameter : resourceMethod.getParameters()) {
+      if (parameter.getSource() != Parameter.Source.PATH) {
+        continue;
+      }
+      final String value = context.getUriInfo().getPathParameters()
+          .getFirst(parameter.getSourceName());
+      if (value == null) {
+        continue;
+      }
+      if (parameter.getParameterClass() == JobId.class) {
+        try {
+          span.job(JobId.parse(value));
+        } catch (JobIdParseException ignored) {
+          // The resource responds to malformed job IDs
+        }
+      } else if (parameter.getSourceName().equals("host")) {
+        span.host(value);
+      }
+    }
+  }
+
+  private void report(final String key, final long nanos, final ZooKeeperRequestTrace trace) {
+    metrics.zooKeeperCalls(key, trace.getCalls(), trace.getNanos());
+    if (slowRequestThresholdNanos > 0 && nanos > slowRequestThresholdNanos) {
+      log.warn("slow request: endpoint={} time_ms={} zookeeper_calls={} zookeeper_time_ms={} "
+               + "zookeeper_operations={}",
+               key, NANOSECONDS.toMillis(nanos), trace.getCalls(),
+               NANOSECONDS.toMillis(trace.getNanos()), trace.getOperations());
     }
   }
 
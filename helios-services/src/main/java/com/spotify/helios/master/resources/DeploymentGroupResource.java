@@ -21,6 +21,7 @@
 
 package com.spotify.helios.master.resources;
 
+import com.google.common.base.Supplier;
 import com.google.common.collect.Lists;
 
 import com.codahale.metrics.annotation.ExceptionMetered;
@@ -40,6 +41,8 @@ import com.spotify.helios.master.DeploymentGroupDoesNotExistException;
 import com.spotify.helios.master.DeploymentGroupExistsException;
 import com.spotify.helios.master.JobDoesNotExistException;
 import com.spotify.helios.master.MasterModel;
+import com.spotify.helios.master.http.ResponseCache;
+import com.spotify.helios.servicescommon.coordination.Paths;
 
 import java.util.Collections;
 import java.util.List;
@@ -49,18 +52,27 @@ import java.util.Objects;
 import javax.validation.Valid;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.Response;
 
+import static com.spotify.helios.master.http.EntityTags.matches;
+import static com.spotify.helios.master.http.EntityTags.notModified;
+import static com.spotify.helios.master.http.EntityTags.tag;
+import static com.spotify.helios.master.http.EntityTags.tagged;
+import static javax.ws.rs.core.HttpHeaders.ACCEPT_ENCODING;
+import static javax.ws.rs.core.HttpHeaders.IF_NONE_MATCH;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 
 @Path("/deployment-group")
 public class DeploymentGroupResource {
 
   private final MasterModel model;
+  private final ResponseCache responseCache;
 
   private static final CreateDeploymentGroupResponse CREATED_RESPONSE =
       new CreateDeploymentGroupResponse(CreateDeploymentGroupResponse.Status.CREATED);
@@ -69,8 +81,9 @@ public class DeploymentGroupResource {
   private static final CreateDeploymentGroupResponse DEPLOYMENT_GROUP_ALREADY_EXISTS_RESPONSE =
       new CreateDeploymentGroupResponse(CreateDeploymentGroupResponse.Status.CONFLICT);
 
-  public DeploymentGroupResource(final MasterModel model) {
+  public DeploymentGroupResource(final MasterModel model, final ResponseCache responseCache) {
     this.model = model;
+    this.responseCache = responseCache;
   }
 
   @POST
@@ -80,6 +93,7 @@ public class DeploymentGroupResource {
   public Response createDeploymentGroup(@Valid final DeploymentGroup deploymentGroup) {
     try {
       model.addDeploymentGroup(deploymentGroup);
+      responseCache.invalidate(Paths.configDeploymentGroups());
       return Response.ok(CREATED_RESPONSE).build();
     } catch (DeploymentGroupExistsException ignored) {
       final DeploymentGroup existing;
@@ -121,6 +135,7 @@ public class DeploymentGroupResource {
   public Response removeDeploymentGroup(@PathParam("name") @Valid final String name) {
     try {
       model.removeDeploymentGroup(name);
+      responseCache.invalidate(Paths.configDeploymentGroups());
       return Response.ok(new RemoveDeploymentGroupResponse(
           RemoveDeploymentGroupResponse.Status.REMOVED)).build();
     } catch (final DeploymentGroupDoesNotExistException e) {
@@ -133,10 +148,18 @@ public class DeploymentGroupResource {
   @Produces(APPLICATION_JSON)
   @Timed
   @ExceptionMetered
-  public List<String> getDeploymentGroup() {
-    final List<String> deploymentGroups = Lists.newArrayList(model.getDeploymentGroups().keySet());
-    Collections.sort(deploymentGroups);
-    return deploymentGroups;
+  public Response getDeploymentGroup(@HeaderParam(IF_NONE_MATCH) final String ifNoneMatch,
+                                     @HeaderParam(ACCEPT_ENCODING) final String acceptEncoding) {
+    return responseCache.get(Paths.configDeploymentGroups(), ifNoneMatch, acceptEncoding,
+                             new Supplier<List<String>>() {
+      @Override
+      public List<String> get() {
+        final List<String> deploymentGroups =
+            Lists.newArrayList(model.getDeploymentGroups().keySet());
+        Collections.sort(deploymentGroups);
+        return deploymentGroups;
+      }
+    });
   }
 
   @POST
@@ -178,7 +201,20 @@ public class DeploymentGroupResource {
   @Produces(APPLICATION_JSON)
   @Timed
   @ExceptionMetered
-  public Response getDeploymentGroupStatus(@PathParam("name") @Valid final String name) {
+  public Response getDeploymentGroupStatus(@PathParam("name") @Valid final String name,
+                                           @HeaderParam(IF_NONE_MATCH) final String ifNoneMatch) {
+    EntityTag tag = null;
+    if (ifNoneMatch != null) {
+      final String version = model.getDeploymentGroupStatusVersion(name);
+      if (version == null) {
+        return Response.status(Response.Status.NOT_FOUND).build();
+      }
+      tag = tag(version);
+      if (matches(ifNoneMatch, tag)) {
+        return notModified(tag);
+      }
+    }
+
     try {
       final DeploymentGroup deploymentGroup = model.getDeploymentGroup(name);
       final DeploymentGroupStatus deploymentGroupStatus = model.getDeploymentGroupStatus(name);
@@ -221,9 +257,9 @@ public class DeploymentGroupResource {
         status = DeploymentGroupStatusResponse.Status.ROLLING_OUT;
       }
 
-      return Response.ok(new DeploymentGroupStatusResponse(
+      return tagged(new DeploymentGroupStatusResponse(
           name, status, deploymentGroup.getJob(), deploymentGroupStatus.getError(),
-          result, deploymentGroupStatus))
+          result, deploymentGroupStatus), tag)
           .build();
     } catch (final DeploymentGroupDoesNotExistException e) {
       return Response.status(Response.Status.NOT_FOUND).build();
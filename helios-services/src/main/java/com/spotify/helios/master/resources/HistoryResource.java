@@ -25,9 +25,11 @@ import com.google.common.collect.ImmutableList;
 
 import com.spotify.helios.common.HeliosException;
 import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.descriptors.TaskStatus;
 import com.spotify.helios.common.descriptors.TaskStatusEvent;
 import com.spotify.helios.common.protocol.TaskStatusEvents;
 import com.spotify.helios.master.JobDoesNotExistException;
+import com.spotify.helios.master.JobHistoryQuery;
 import com.spotify.helios.master.MasterModel;
 import com.spotify.helios.servicescommon.statistics.MasterMetrics;
 import com.codahale.metrics.annotation.ExceptionMetered;
@@ -40,7 +42,10 @@ import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 
+import static com.google.common.base.Strings.emptyToNull;
+import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.spotify.helios.common.protocol.TaskStatusEvents.Status.JOB_ID_NOT_FOUND;
 import static com.spotify.helios.common.protocol.TaskStatusEvents.Status.OK;
 import static com.spotify.helios.master.http.Responses.badRequest;
@@ -57,8 +62,13 @@ public class HistoryResource {
   }
 
   /**
-   * Returns the {@link TaskStatusEvents} for the specified job.
+   * Returns the {@link TaskStatusEvents} for the specified job, oldest first.
    * @param jobId The ID of the job.
+   * @param host If set, only return events from this host.
+   * @param state If set, only return events where the task was in this state.
+   * @param since If set, only return events at or after this time, in milliseconds since epoch.
+   * @param until If set, only return events at or before this time, in milliseconds since epoch.
+   * @param limit If set, only return this many of the most recent matching events.
    * @return The history of the jobs.
    * @throws HeliosException If an unexpected error occurs.
    */
@@ -67,13 +77,28 @@ public class HistoryResource {
   @Path("jobs/{id}")
   @Timed
   @ExceptionMetered
-  public TaskStatusEvents jobHistory(@PathParam("id") @Valid final JobId jobId)
+  public TaskStatusEvents jobHistory(@PathParam("id") @Valid final JobId jobId,
+                                     @QueryParam("host") final String host,
+                                     @QueryParam("state") final String state,
+                                     @QueryParam("since") final Long since,
+                                     @QueryParam("until") final Long until,
+                                     @QueryParam("limit") final Integer limit)
       throws HeliosException {
     if (!jobId.isFullyQualified()) {
       throw badRequest("Invalid id");
     }
+    if (limit != null && limit <= 0) {
+      throw badRequest("Invalid limit");
+    }
+    final JobHistoryQuery query = JobHistoryQuery.newBuilder()
+        .setHost(emptyToNull(host))
+        .setState(parseState(state))
+        .setSince(since)
+        .setUntil(until)
+        .setLimit(limit)
+        .build();
     try {
-      final List<TaskStatusEvent> events = model.getJobHistory(jobId);
+      final List<TaskStatusEvent> events = model.getJobHistory(jobId, query);
       metrics.jobsHistoryEventSize(events.size());
       final TaskStatusEvents result = new TaskStatusEvents(events, OK);
       return result;
@@ -81,4 +106,15 @@ public class HistoryResource {
       return new TaskStatusEvents(ImmutableList.<TaskStatusEvent>of(), JOB_ID_NOT_FOUND);
     }
   }
+
+  private static TaskStatus.State parseState(final String state) {
+    if (isNullOrEmpty(state)) {
+      return null;
+    }
+    try {
+      return TaskStatus.State.valueOf(state.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw badRequest("Invalid state");
+    }
+  }
 }
@@ -22,6 +22,8 @@
 package com.spotify.helios.master.resources;
 
 import com.google.common.base.Optional;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
 
 import com.codahale.metrics.annotation.ExceptionMetered;
@@ -42,39 +44,61 @@ import com.spotify.helios.master.JobPortAllocationConflictException;
 import com.spotify.helios.master.MasterModel;
 import com.spotify.helios.master.TokenVerificationException;
 import com.spotify.helios.master.http.PATCH;
+import com.spotify.helios.master.http.Pagination.Page;
+import com.spotify.helios.master.http.ReadOnly;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.validation.Valid;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
 
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static com.spotify.helios.common.NormalizedStatuses.NORMALIZED_HEADER;
+import static com.spotify.helios.common.NormalizedStatuses.writeHostStatuses;
 import static com.spotify.helios.common.protocol.JobUndeployResponse.Status.FORBIDDEN;
 import static com.spotify.helios.common.protocol.JobUndeployResponse.Status.HOST_NOT_FOUND;
 import static com.spotify.helios.common.protocol.JobUndeployResponse.Status.INVALID_ID;
 import static com.spotify.helios.common.protocol.JobUndeployResponse.Status.JOB_NOT_FOUND;
 import static com.spotify.helios.common.protocol.JobUndeployResponse.Status.OK;
+import static com.spotify.helios.master.http.EntityTags.matches;
+import static com.spotify.helios.master.http.EntityTags.notModified;
+import static com.spotify.helios.master.http.EntityTags.project;
+import static com.spotify.helios.master.http.EntityTags.tag;
+import static com.spotify.helios.master.http.EntityTags.tagged;
+import static com.spotify.helios.master.http.Pagination.nextCursor;
+import static com.spotify.helios.master.http.Pagination.page;
 import static com.spotify.helios.master.http.Responses.badRequest;
 import static com.spotify.helios.master.http.Responses.forbidden;
 import static com.spotify.helios.master.http.Responses.notFound;
+import static javax.ws.rs.core.HttpHeaders.IF_NONE_MATCH;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 
 @Path("/hosts")
 public class HostsResource {
   private static final Logger log = LoggerFactory.getLogger(HostsResource.class);
 
+  private static final Splitter FIELD_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+  private static final List<String> NORMALIZED = ImmutableList.of("normalized");
+
   private final MasterModel model;
 
   public HostsResource(final MasterModel model) {
@@ -82,15 +106,20 @@ public class HostsResource {
   }
 
   /**
-   * Returns the list of hostnames of known hosts/agents.
+   * Returns the list of hostnames of known hosts/agents, sorted by name.
+   * @param cursor Only return hosts after this one.
+   * @param limit Only return this many hosts.
    * @return The list of hostnames.
    */
   @GET
   @Produces(APPLICATION_JSON)
   @Timed
   @ExceptionMetered
-  public List<String> list() {
-    return model.listHosts();
+  public Response list(@QueryParam("cursor") final String cursor,
+                       @QueryParam("limit") final Integer limit) {
+    final Page<String> page = page(model.listHosts(), cursor, limit);
+    return nextCursor(Response.ok(new GenericEntity<List<String>>(page.getItems()) {}),
+                      page.getNext()).build();
   }
 
   /**
@@ -140,6 +169,8 @@ public class HostsResource {
   /**
    * Returns various status information about the host.
    * @param host The host id.
+   * @param fields The comma separated parts of the status to return, all of them if not set.
+   * @param ifNoneMatch The entity tag of the host status the client already has, if any.
    * @return The host status.
    */
   @GET
@@ -147,13 +178,37 @@ public class HostsResource {
   @Produces(APPLICATION_JSON)
   @Timed
   @ExceptionMetered
-  public Optional<HostStatus> hostStatus(@PathParam("id") final String host) {
-    return Optional.fromNullable(model.getHostStatus(host));
+  public Response hostStatus(@PathParam("id") final String host,
+                             @QueryParam("fields") final String fields,
+                             @HeaderParam(IF_NONE_MATCH) final String ifNoneMatch) {
+    final Set<HostStatus.Field> statusFields = parseFields(fields);
+    EntityTag tag = null;
+    if (ifNoneMatch != null) {
+      final String version = model.getHostStatusVersion(host);
+      if (version == null) {
+        throw notFound();
+      }
+      tag = projection(tag(version), fields, statusFields);
+      if (matches(ifNoneMatch, tag)) {
+        return notModified(tag);
+      }
+    }
+    final HostStatus status = model.getHostStatus(host, statusFields);
+    if (status == null) {
+      throw notFound();
+    }
+    return tagged(status, tag).build();
   }
 
   /**
    * Returns various status information about the hosts.
    * @param hosts The hosts.
+   * @param fields The comma separated parts of the statuses to return, all of them if not set.
+   * @param cursor Only return the statuses of the requested hosts after this one.
+   * @param limit Only return the statuses of this many of the requested hosts, sorted by name.
+   * @param normalized Whether to return the statuses in the normalized representation, which
+   *                   lists each job once instead of in every task status.
+   * @param ifNoneMatch The entity tag of the host statuses the client already has, if any.
    * @return The response.
    */
   @POST
@@ -161,15 +216,61 @@ public class HostsResource {
   @Produces(APPLICATION_JSON)
   @Timed
   @ExceptionMetered
-  public Map<String, HostStatus> hostStatuses(final List<String> hosts) {
+  @ReadOnly
+  public Response hostStatuses(final List<String> hosts,
+                               @QueryParam("fields") final String fields,
+                               @QueryParam("cursor") final String cursor,
+                               @QueryParam("limit") final Integer limit,
+                               @HeaderParam(NORMALIZED_HEADER) final boolean normalized,
+                               @HeaderParam(IF_NONE_MATCH) final String ifNoneMatch) {
+    final Set<HostStatus.Field> statusFields = parseFields(fields);
+    final Page<String> page = page(hosts, cursor, limit);
+    EntityTag tag = null;
+    if (ifNoneMatch != null) {
+      final Map<String, String> versions = Maps.newTreeMap();
+      for (final String current : page.getItems()) {
+        versions.put(current, model.getHostStatusVersion(current));
+      }
+      tag = normalization(projection(tag(versions), fields, statusFields), normalized);
+      if (matches(ifNoneMatch, tag)) {
+        return nextCursor(Response.notModified(tag), page.getNext()).build();
+      }
+    }
     final Map<String, HostStatus> statuses = Maps.newHashMap();
-    for (final String current : hosts) {
-      final HostStatus status = model.getHostStatus(current);
+    for (final String current : page.getItems()) {
+      final HostStatus status = model.getHostStatus(current, statusFields);
       if (status != null) {
         statuses.put(current, status);
       }
     }
-    return statuses;
+    final ResponseBuilder response = normalized
+        ? tagged(writeHostStatuses(statuses), tag).header(NORMALIZED_HEADER, true)
+        : tagged(new GenericEntity<Map<String, HostStatus>>(statuses) {}, tag);
+    return nextCursor(response, page.getNext()).build();
+  }
+
+  private static Set<HostStatus.Field> parseFields(final String fields) {
+    if (isNullOrEmpty(fields)) {
+      return EnumSet.allOf(HostStatus.Field.class);
+    }
+    final Set<HostStatus.Field> parsed = EnumSet.noneOf(HostStatus.Field.class);
+    for (final String field : FIELD_SPLITTER.split(fields)) {
+      try {
+        parsed.add(HostStatus.Field.fromFieldName(field));
+      } catch (IllegalArgumentException e) {
+        throw badRequest("Invalid field " + field);
+      }
+    }
+    return parsed;
+  }
+
+  private static EntityTag projection(final EntityTag tag, final String fields,
+                                      final Set<HostStatus.Field> statusFields) {
+    return isNullOrEmpty(fields) ? tag : project(tag, statusFields);
+  }
+
+  private static EntityTag normalization(final EntityTag tag, final boolean normalized) {
+    return normalized ? project(tag, NORMALIZED) : tag;
   }
 
   /**
@@ -22,22 +22,44 @@
 package com.spotify.helios.master.resources;
 
 import com.google.common.base.Optional;
+import com.google.common.base.Splitter;
+import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 import com.codahale.metrics.annotation.ExceptionMetered;
 import com.codahale.metrics.annotation.Timed;
+import com.spotify.helios.common.HeliosException;
 import com.spotify.helios.common.JobValidator;
+import com.spotify.helios.common.Json;
+import com.spotify.helios.common.descriptors.Deployment;
 import com.spotify.helios.common.descriptors.Job;
 import com.spotify.helios.common.descriptors.JobId;
 import com.spotify.helios.common.descriptors.JobStatus;
+import com.spotify.helios.common.protocol.BulkDeployRequest;
+import com.spotify.helios.common.protocol.BulkDeployResponse;
+import com.spotify.helios.common.protocol.BulkUndeployRequest;
+import com.spotify.helios.common.protocol.BulkUndeployResponse;
 import com.spotify.helios.common.protocol.CreateJobResponse;
 import com.spotify.helios.common.protocol.JobDeleteResponse;
+import com.spotify.helios.common.protocol.JobDeployResponse;
+import com.spotify.helios.common.protocol.JobUndeployResponse;
+import com.spotify.helios.master.HostNotFoundException;
+import com.spotify.helios.master.JobAlreadyDeployedException;
 import com.spotify.helios.master.JobDoesNotExistException;
 import com.spotify.helios.master.JobExistsException;
+import com.spotify.helios.master.JobIndex;
+import com.spotify.helios.master.JobNotDeployedException;
+import com.spotify.helios.master.JobPortAllocationConflictException;
+import com.spotify.helios.master.JobQuery;
 import com.spotify.helios.master.JobStillDeployedException;
 import com.spotify.helios.master.MasterModel;
 import com.spotify.helios.master.TokenVerificationException;
+import com.spotify.helios.master.http.Pagination.Page;
+import com.spotify.helios.master.http.ReadOnly;
+import com.spotify.helios.master.http.ResponseCache;
+import com.spotify.helios.servicescommon.coordination.Paths;
 import com.spotify.helios.servicescommon.statistics.MasterMetrics;
 import com.sun.jersey.api.core.InjectParam;
 
@@ -45,25 +67,49 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import javax.validation.Valid;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
 
+import static com.google.common.base.Strings.emptyToNull;
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static com.spotify.helios.common.NormalizedStatuses.NORMALIZED_HEADER;
+import static com.spotify.helios.common.NormalizedStatuses.writeJobStatuses;
 import static com.spotify.helios.common.protocol.CreateJobResponse.Status.INVALID_JOB_DEFINITION;
 import static com.spotify.helios.common.protocol.CreateJobResponse.Status.JOB_ALREADY_EXISTS;
+import static com.spotify.helios.master.http.EntityTags.contentTag;
+import static com.spotify.helios.master.http.EntityTags.matches;
+import static com.spotify.helios.master.http.EntityTags.notModified;
+import static com.spotify.helios.master.http.EntityTags.project;
+import static com.spotify.helios.master.http.EntityTags.tag;
+import static com.spotify.helios.master.http.EntityTags.tagged;
+import static com.spotify.helios.master.http.Pagination.checkLimit;
+import static com.spotify.helios.master.http.Pagination.nextCursor;
+import static com.spotify.helios.master.http.Pagination.page;
 import static com.spotify.helios.master.http.Responses.badRequest;
 import static com.spotify.helios.master.http.Responses.forbidden;
 import static com.spotify.helios.master.http.Responses.notFound;
+import static javax.ws.rs.core.HttpHeaders.ACCEPT_ENCODING;
+import static javax.ws.rs.core.HttpHeaders.IF_NONE_MATCH;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 
 @Path("/jobs")
@@ -73,44 +119,115 @@ public class JobsResource {
 
   private static final JobValidator JOB_VALIDATOR = new JobValidator();
 
+  private static final Splitter FIELD_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+  private static final List<String> NORMALIZED = ImmutableList.of("normalized");
+
   private final MasterModel model;
   private final MasterMetrics metrics;
+  private final ResponseCache responseCache;
+  private final JobIndex jobIndex;
 
-  public JobsResource(final MasterModel model, final MasterMetrics metrics) {
+  public JobsResource(final MasterModel model, final MasterMetrics metrics,
+                      final ResponseCache responseCache, final JobIndex jobIndex) {
     this.model = model;
     this.metrics = metrics;
+    this.responseCache = responseCache;
+    this.jobIndex = jobIndex;
   }
 
   /**
-   * Returns a {@link Map} of job id to job definition for all jobs known.  If the query
-   * parameter {@code q} is specified it will only return jobs whose job id contains the string.
+   * Returns a {@link Map} of job id to job definition for all jobs known.  If any of the query
+   * parameters are specified it will only return the jobs matching all of them.
    *
-   * @param q The query string.
+   * @param q Only return jobs whose job id contains this string.
+   * @param name Only return jobs whose name starts with this string.
+   * @param version Only return jobs whose version starts with this string.
+   * @param image Only return jobs with this image.
+   * @param creator Only return jobs created by this user. This isn't called user, as every
+   *                request carries the user making it in that parameter.
+   * @param expiresBefore Only return jobs expiring before this time, in milliseconds since epoch.
+   * @param limit Only return this many matching jobs, in job id order.
+   * @param cursor Only return jobs after this one, in job id order.
+   * @param ifNoneMatch The entity tag of the job list the client already has, if any.
+   * @param acceptEncoding The content encodings the client accepts.
    * @return A map of Job IDs to Jobs.
    */
   @GET
   @Produces(APPLICATION_JSON)
   @Timed
   @ExceptionMetered
-  public Map<JobId, Job> list(@QueryParam("q") @DefaultValue("") final String q) {
-    final Map<JobId, Job> allJobs = model.getJobs();
+  public Response list(@QueryParam("q") @DefaultValue("") final String q,
+                       @QueryParam("name") final String name,
+                       @QueryParam("version") final String version,
+                       @QueryParam("image") final String image,
+                       @QueryParam("creator") final String creator,
+                       @QueryParam("expiresBefore") final Long expiresBefore,
+                       @QueryParam("limit") final Integer limit,
+                       @QueryParam("cursor") final JobId cursor,
+                       @HeaderParam(IF_NONE_MATCH) final String ifNoneMatch,
+                       @HeaderParam(ACCEPT_ENCODING) final String acceptEncoding) {
+    checkLimit(limit);
+    final JobQuery query = JobQuery.newBuilder()
+        .setIdSubstring(emptyToNull(q))
+        .setNamePrefix(emptyToNull(name))
+        .setVersionPrefix(emptyToNull(version))
+        .setImage(emptyToNull(image))
+        .setCreatingUser(emptyToNull(creator))
+        .setExpiresBefore(expiresBefore)
+        .setAfter(cursor)
+        // Ask for one more job than the limit to find out whether there is a next page
+        .setLimit(limit == null ? null : limit + 1)
+        .build();
 
-    // Return all jobs if the query string is empty
-    if (q.isEmpty()) {
-      metrics.jobsInJobList(allJobs.size());
-      return allJobs;
+    // Return all jobs if there is no query. Jobs are immutable, so the serialized list only
+    // changes when a job is added or removed.
+    if (query.matchesAll()) {
+      return responseCache.get(Paths.configJobs(), ifNoneMatch, acceptEncoding,
+                               new Supplier<Map<JobId, Job>>() {
+        @Override
+        public Map<JobId, Job> get() {
+          return model.getJobs();
+        }
+      }, new ResponseCache.SizeListener() {
+        @Override
+        public void served(final int size) {
+          metrics.jobsInJobList(size);
+        }
+      });
     }
 
-    // Filter jobs
-    final Map<JobId, Job> filteredJobs = Maps.newHashMap();
-    for (Entry<JobId, Job> entry : allJobs.entrySet()) {
-      if (entry.getKey().toString().contains(q)) {
-        filteredJobs.put(entry.getKey(), entry.getValue());
+    final SortedMap<JobId, Job> filteredJobs;
+    if (jobIndex.isInitialized()) {
+      filteredJobs = Maps.newTreeMap(jobIndex.query(query));
+    } else {
+      // Fall back to filtering every job until the index has caught up
+      final TreeMap<JobId, Job> matching = Maps.newTreeMap();
+      for (final Entry<JobId, Job> entry : model.getJobs().entrySet()) {
+        if (query.matches(entry.getValue())) {
+          matching.put(entry.getKey(), entry.getValue());
+          if (query.getLimit() != null && matching.size() > query.getLimit()) {
+            matching.pollLastEntry();
+          }
+        }
       }
+      filteredJobs = matching;
     }
 
+    JobId next = null;
+    if (limit != null && filteredJobs.size() > limit) {
+      filteredJobs.remove(filteredJobs.lastKey());
+      next = filteredJobs.lastKey();
+    }
+
+    // The index may lag behind ZooKeeper, so tag the list with what was actually found rather
+    // than with the version of the job config in ZooKeeper
+    final byte[] json = Json.asBytesUnchecked(filteredJobs);
+    final EntityTag tag = contentTag(json);
+    if (matches(ifNoneMatch, tag)) {
+      return nextCursor(Response.notModified(tag), next).build();
+    }
     metrics.jobsInJobList(filteredJobs.size());
-    return filteredJobs;
+    return nextCursor(tagged(json, tag), next).build();
   }
 
 
@@ -162,6 +279,9 @@ public class JobsResource {
       throw badRequest(new CreateJobResponse(JOB_ALREADY_EXISTS, ImmutableList.<String>of(),
           jobIdString));
     }
+    // Make the job visible to the next read on this master without waiting for the watches on it
+    jobIndex.add(actualJob);
+    responseCache.invalidate(Paths.configJobs());
     log.info("created job: {}", actualJob);
     return new CreateJobResponse(CreateJobResponse.Status.OK, ImmutableList.<String>of(),
         jobIdString);
@@ -186,6 +306,8 @@ public class JobsResource {
     }
     try {
       model.removeJob(id, token);
+      jobIndex.remove(id);
+      responseCache.invalidate(Paths.configJobs());
       return new JobDeleteResponse(JobDeleteResponse.Status.OK);
     } catch (JobDoesNotExistException e) {
       throw notFound(new JobDeleteResponse(JobDeleteResponse.Status.JOB_NOT_FOUND));
@@ -196,11 +318,151 @@ public class JobsResource {
     }
   }
 
+  /**
+   * Deploys the job specified by the given id to a list of hosts. The job and token are only
+   * checked once, and the deployments are created in as few transactions as possible.
+   *
+   * @param id The id of the job to deploy.
+   * @param request The hosts to deploy to, and the goal of the deployments.
+   * @param username The user deploying.
+   * @param token The authorization token for the job.
+   * @return The result of the deployment on each host.
+   */
+  @Path("{id}/deployments")
+  @POST
+  @Produces(APPLICATION_JSON)
+  @Timed
+  @ExceptionMetered
+  public BulkDeployResponse deploy(@PathParam("id") @Valid final JobId id,
+                                   @Valid final BulkDeployRequest request,
+                                   @RequestUser final String username,
+                                   @QueryParam("token") @DefaultValue("") final String token) {
+    if (request == null) {
+      throw badRequest(new BulkDeployResponse(ImmutableList.<JobDeployResponse>of()));
+    }
+    final List<String> hosts = request.getHosts();
+    if (!id.isFullyQualified()) {
+      throw badRequest(deployResponse(hosts, id, JobDeployResponse.Status.INVALID_ID));
+    }
+    final Deployment deployment = Deployment.newBuilder()
+        .setJobId(id)
+        .setGoal(request.getGoal())
+        .setDeployerUser(username)
+        .build();
+    final Map<String, HeliosException> failures;
+    try {
+      failures = model.deployJobToHosts(hosts, deployment, token);
+    } catch (JobDoesNotExistException e) {
+      throw badRequest(deployResponse(hosts, id, JobDeployResponse.Status.JOB_NOT_FOUND));
+    } catch (TokenVerificationException e) {
+      throw forbidden(deployResponse(hosts, id, JobDeployResponse.Status.FORBIDDEN));
+    }
+
+    final List<JobDeployResponse> results = Lists.newArrayList();
+    for (final String host : hosts) {
+      results.add(new JobDeployResponse(deployStatus(failures.get(host)), host, id));
+    }
+    return new BulkDeployResponse(results);
+  }
+
+  private static BulkDeployResponse deployResponse(final List<String> hosts, final JobId id,
+                                                   final JobDeployResponse.Status status) {
+    final List<JobDeployResponse> results = Lists.newArrayList();
+    for (final String host : hosts) {
+      results.add(new JobDeployResponse(status, host, id));
+    }
+    return new BulkDeployResponse(results);
+  }
+
+  private static JobDeployResponse.Status deployStatus(final HeliosException failure) {
+    if (failure == null) {
+      return JobDeployResponse.Status.OK;
+    } else if (failure instanceof JobAlreadyDeployedException) {
+      return JobDeployResponse.Status.JOB_ALREADY_DEPLOYED;
+    } else if (failure instanceof HostNotFoundException) {
+      return JobDeployResponse.Status.HOST_NOT_FOUND;
+    } else if (failure instanceof JobPortAllocationConflictException) {
+      return JobDeployResponse.Status.PORT_CONFLICT;
+    } else if (failure instanceof TokenVerificationException) {
+      return JobDeployResponse.Status.FORBIDDEN;
+    } else if (failure instanceof JobDoesNotExistException) {
+      return JobDeployResponse.Status.JOB_NOT_FOUND;
+    } else {
+      return JobDeployResponse.Status.FAILED;
+    }
+  }
+
+  /**
+   * Undeploys the job specified by the given id from a list of hosts. The job and token are only
+   * checked once, and the deployments are removed in as few transactions as possible.
+   *
+   * @param id The id of the job to undeploy.
+   * @param request The hosts to undeploy from.
+   * @param token The authorization token for the job.
+   * @return The result of the undeployment on each host.
+   */
+  @Path("{id}/undeploy")
+  @POST
+  @Produces(APPLICATION_JSON)
+  @Timed
+  @ExceptionMetered
+  public BulkUndeployResponse undeploy(@PathParam("id") @Valid final JobId id,
+                                       @Valid final BulkUndeployRequest request,
+                                       @QueryParam("token") @DefaultValue("") final String token) {
+    if (request == null) {
+      throw badRequest(new BulkUndeployResponse(ImmutableList.<JobUndeployResponse>of()));
+    }
+    final List<String> hosts = request.getHosts();
+    if (!id.isFullyQualified()) {
+      throw badRequest(undeployResponse(hosts, id, JobUndeployResponse.Status.INVALID_ID));
+    }
+    final Map<String, HeliosException> failures;
+    try {
+      failures = model.undeployJobFromHosts(hosts, id, token);
+    } catch (JobDoesNotExistException e) {
+      throw badRequest(undeployResponse(hosts, id, JobUndeployResponse.Status.JOB_NOT_FOUND));
+    } catch (TokenVerificationException e) {
+      throw forbidden(undeployResponse(hosts, id, JobUndeployResponse.Status.FORBIDDEN));
+    }
+
+    final List<JobUndeployResponse> results = Lists.newArrayList();
+    for (final String host : hosts) {
+      results.add(new JobUndeployResponse(undeployStatus(failures.get(host)), host, id));
+    }
+    return new BulkUndeployResponse(results);
+  }
+
+  private static BulkUndeployResponse undeployResponse(final List<String> hosts, final JobId id,
+                                                       final JobUndeployResponse.Status status) {
+    final List<JobUndeployResponse> results = Lists.newArrayList();
+    for (final String host : hosts) {
+      results.add(new JobUndeployResponse(status, host, id));
+    }
+    return new BulkUndeployResponse(results);
+  }
+
+  private static JobUndeployResponse.Status undeployStatus(final HeliosException failure) {
+    if (failure == null) {
+      return JobUndeployResponse.Status.OK;
+    } else if (failure instanceof HostNotFoundException) {
+      return JobUndeployResponse.Status.HOST_NOT_FOUND;
+    } else if (failure instanceof TokenVerificationException) {
+      return JobUndeployResponse.Status.FORBIDDEN;
+    } else if (failure instanceof JobNotDeployedException ||
+               failure instanceof JobDoesNotExistException) {
+      return JobUndeployResponse.Status.JOB_NOT_FOUND;
+    } else {
+      return JobUndeployResponse.Status.FAILED;
+    }
+  }
+
   /**
    * Returns the job status for the given job id.  The job status includes things like where it's
    * deployed, and the status of the jobs where it's deployed, etc.
    *
    * @param id The job ID.
+   * @param fields The comma separated parts of the status to return, all of them if not set.
+   * @param ifNoneMatch The entity tag of the job status the client already has, if any.
    * @return The job status.
    */
   @Path("{id}/status")
@@ -208,31 +470,107 @@ public class JobsResource {
   @Produces(APPLICATION_JSON)
   @Timed
   @ExceptionMetered
-  public Optional<JobStatus> statusGet(@PathParam("id") @Valid final JobId id) {
+  public Response statusGet(@PathParam("id") @Valid final JobId id,
+                            @QueryParam("fields") final String fields,
+                            @HeaderParam(IF_NONE_MATCH) final String ifNoneMatch) {
     if (!id.isFullyQualified()) {
       throw badRequest("Invalid id");
     }
-    return Optional.fromNullable(model.getJobStatus(id));
+    final Set<JobStatus.Field> statusFields = parseFields(fields);
+    EntityTag tag = null;
+    if (ifNoneMatch != null) {
+      final String version = model.getJobStatusVersion(id);
+      if (version == null) {
+        throw notFound();
+      }
+      tag = projection(tag(version), fields, statusFields);
+      if (matches(ifNoneMatch, tag)) {
+        return notModified(tag);
+      }
+    }
+    final JobStatus status = model.getJobStatus(id, statusFields);
+    if (status == null) {
+      throw notFound();
+    }
+    return tagged(status, tag).build();
   }
-  
+
+  /**
+   * Returns the job statuses for the given job ids.
+   *
+   * @param ids The job IDs.
+   * @param fields The comma separated parts of the statuses to return, all of them if not set.
+   * @param cursor Only return the statuses of the requested jobs after this one.
+   * @param limit Only return the statuses of this many of the requested jobs, in job id order.
+   * @param normalized Whether to return the statuses in the normalized representation, which
+   *                   lists each job once instead of in every task status.
+   * @param ifNoneMatch The entity tag of the job statuses the client already has, if any.
+   * @return The job statuses.
+   */
   @Path("/statuses")
   @POST
   @Produces(APPLICATION_JSON)
   @Timed
   @ExceptionMetered
-  public Map<JobId, JobStatus> jobStatuses(@Valid final Set<JobId> ids) {
+  @ReadOnly
+  public Response jobStatuses(@Valid final Set<JobId> ids,
+                              @QueryParam("fields") final String fields,
+                              @QueryParam("cursor") final JobId cursor,
+                              @QueryParam("limit") final Integer limit,
+                              @HeaderParam(NORMALIZED_HEADER) final boolean normalized,
+                              @HeaderParam(IF_NONE_MATCH) final String ifNoneMatch) {
     for (final JobId id : ids) {
       if (!id.isFullyQualified()) {
         throw badRequest("Invalid id " + id);
       }
     }
+    final Set<JobStatus.Field> statusFields = parseFields(fields);
+    final Page<JobId> page = page(ids, cursor, limit);
+    EntityTag tag = null;
+    if (ifNoneMatch != null) {
+      final Map<String, String> versions = Maps.newTreeMap();
+      for (final JobId id : page.getItems()) {
+        versions.put(id.toString(), model.getJobStatusVersion(id));
+      }
+      tag = normalization(projection(tag(versions), fields, statusFields), normalized);
+      if (matches(ifNoneMatch, tag)) {
+        return nextCursor(Response.notModified(tag), page.getNext()).build();
+      }
+    }
     final Map<JobId, JobStatus> results = Maps.newHashMap();
-    for (final JobId id : ids) {
-      final JobStatus status = model.getJobStatus(id);
+    for (final JobId id : page.getItems()) {
+      final JobStatus status = model.getJobStatus(id, statusFields);
       if (status != null) {
         results.put(id, status);
       }
     }
-    return results;
+    final ResponseBuilder response = normalized
+        ? tagged(writeJobStatuses(results), tag).header(NORMALIZED_HEADER, true)
+        : tagged(new GenericEntity<Map<JobId, JobStatus>>(results) {}, tag);
+    return nextCursor(response, page.getNext()).build();
+  }
+
+  private static Set<JobStatus.Field> parseFields(final String fields) {
+    if (isNullOrEmpty(fields)) {
+      return EnumSet.allOf(JobStatus.Field.class);
+    }
+    final Set<JobStatus.Field> parsed = EnumSet.noneOf(JobStatus.Field.class);
+    for (final String field : FIELD_SPLITTER.split(fields)) {
+      try {
+        parsed.add(JobStatus.Field.fromFieldName(field));
+      } catch (IllegalArgumentException e) {
+        throw badRequest("Invalid field " + field);
+      }
+    }
+    return parsed;
+  }
+
+  private static EntityTag projection(final EntityTag tag, final String fields,
+                                      final Set<JobStatus.Field> statusFields) {
+    return isNullOrEmpty(fields) ? tag : project(tag, statusFields);
+  }
+
+  private static EntityTag normalization(final EntityTag tag, final boolean normalized) {
+    return normalized ? project(tag, NORMALIZED) : tag;
   }
 }
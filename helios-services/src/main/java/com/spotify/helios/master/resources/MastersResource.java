@@ -21,6 +21,8 @@
 
 package com.spotify.helios.master.resources;
 
+import com.spotify.helios.common.Json;
+import com.spotify.helios.master.MasterLeaderElection;
 import com.spotify.helios.master.MasterModel;
 import com.codahale.metrics.annotation.ExceptionMetered;
 import com.codahale.metrics.annotation.Timed;
@@ -31,15 +33,18 @@ import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 
+import static com.spotify.helios.master.http.Responses.notFound;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 
 @Path("/masters")
 public class MastersResource {
 
   private final MasterModel model;
+  private final MasterLeaderElection leaderElection;
 
-  public MastersResource(final MasterModel model) {
+  public MastersResource(final MasterModel model, final MasterLeaderElection leaderElection) {
     this.model = model;
+    this.leaderElection = leaderElection;
   }
 
   /**
@@ -53,4 +58,23 @@ public class MastersResource {
   public List<String> list() {
     return model.getRunningMasters();
   }
+
+  /**
+   * Returns the name of the master that is currently elected to run rolling updates and reap
+   * expired jobs.
+   * @return The name of the leader, as a JSON string.
+   */
+  @GET
+  @Path("/leader")
+  @Produces(APPLICATION_JSON)
+  @Timed
+  @ExceptionMetered
+  public String leader() {
+    final String leader = leaderElection.getLeader();
+    if (leader == null) {
+      throw notFound();
+    }
+    // Jersey writes strings as they are, so serialize it to make valid json
+    return Json.asStringUnchecked(leader);
+  }
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master.resources;
+
+import com.codahale.metrics.annotation.ExceptionMetered;
+import com.codahale.metrics.annotation.Timed;
+import com.spotify.helios.common.protocol.FleetSummary;
+import com.spotify.helios.master.FleetSummaryService;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+
+@Path("/stats")
+public class StatsResource {
+
+  private final FleetSummaryService fleetSummaryService;
+
+  public StatsResource(final FleetSummaryService fleetSummaryService) {
+    this.fleetSummaryService = fleetSummaryService;
+  }
+
+  /**
+   * Returns counts of hosts, deployments, tasks and deployment groups across the whole fleet.
+   *
+   * @return The fleet summary.
+   */
+  @GET
+  @Produces(APPLICATION_JSON)
+  @Timed
+  @ExceptionMetered
+  public FleetSummary summary() {
+    return fleetSummaryService.summary();
+  }
+}
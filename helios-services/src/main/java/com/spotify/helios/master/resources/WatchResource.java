@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master.resources;
+
+import com.spotify.helios.common.protocol.StatusWatchRequest;
+import com.spotify.helios.common.protocol.StatusWatchResponse;
+import com.spotify.helios.master.StatusWatchService;
+import com.spotify.helios.master.http.ReadOnly;
+import com.codahale.metrics.annotation.ExceptionMetered;
+import com.codahale.metrics.annotation.Timed;
+
+import javax.validation.Valid;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+
+import static com.spotify.helios.master.http.Responses.badRequest;
+import static com.spotify.helios.master.http.Responses.serviceUnavailable;
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+
+@Path("/watch")
+public class WatchResource {
+
+  public static final long DEFAULT_TIMEOUT_MILLIS = 1000;
+  public static final long MAX_TIMEOUT_MILLIS = 30000;
+
+  private static final long NOT_INITIALIZED_RETRY_AFTER_SECONDS = 1;
+
+  private final StatusWatchService watcher;
+
+  public WatchResource(final StatusWatchService watcher) {
+    this.watcher = watcher;
+  }
+
+  /**
+   * Long-polls for task status, host up/down and deployment group changes.
+   *
+   * <p>Every waiting watch holds on to a request thread, so watches count as reads for admission
+   * control, which limits how many can wait at the same time.
+   *
+   * @param request The jobs, hosts or deployment group to watch and the last seen sequence.
+   * @param timeout How long to wait for a matching change, in milliseconds. Defaults to
+   *                {@link #DEFAULT_TIMEOUT_MILLIS} and is capped at {@link #MAX_TIMEOUT_MILLIS}.
+   * @return The matching changes, which is empty if the timeout expired. If the master has just
+   *         started and can't take a snapshot yet, it responds with 503 Service Unavailable and
+   *         a Retry-After header instead.
+   */
+  @Path("/statuses")
+  @POST
+  @Produces(APPLICATION_JSON)
+  @Timed
+  @ExceptionMetered
+  @ReadOnly
+  public StatusWatchResponse statuses(@Valid final StatusWatchRequest request,
+                                      @QueryParam("timeout") @DefaultValue("1000")
+                                      final long timeout)
+      throws InterruptedException {
+    if (timeout < 0) {
+      throw badRequest("Invalid timeout");
+    }
+    final StatusWatchResponse response = watcher.watch(request,
+                                                       Math.min(timeout, MAX_TIMEOUT_MILLIS));
+    if (response == null) {
+      throw serviceUnavailable(NOT_INITIALIZED_RETRY_AFTER_SECONDS);
+    }
+    return response;
+  }
+}
@@ -28,6 +28,7 @@ import com.google.common.util.concurrent.AbstractIdleService;
 import com.spotify.helios.common.descriptors.DeploymentGroup;
 import com.spotify.helios.common.descriptors.HostSelector;
 import com.spotify.helios.common.descriptors.HostStatus;
+import com.spotify.helios.master.MasterLeaderElection;
 import com.spotify.helios.master.MasterModel;
 import com.spotify.helios.servicescommon.Reactor;
 import com.spotify.helios.servicescommon.ReactorFactory;
@@ -43,7 +44,8 @@ import static com.spotify.helios.servicescommon.Reactor.Callback;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
- * Deploys and undeploys jobs to implement the desired deployment group state.
+ * Deploys and undeploys jobs to implement the desired deployment group state. Only the elected
+ * leader among the masters does any work.
  */
 public class RollingUpdateService extends AbstractIdleService {
 
@@ -52,17 +54,21 @@ public class RollingUpdateService extends AbstractIdleService {
   private static final long UPDATE_INTERVAL = SECONDS.toMillis(1);
 
   private final MasterModel masterModel;
+  private final MasterLeaderElection leaderElection;
   private final Reactor hostUpdateReactor;
   private final Reactor rollingUpdateReactor;
 
   /**
    * Create a new RollingUpdateService.
    *
+   * @param leaderElection    The election that decides whether this master does the work.
    * @param reactorFactory    The factory to use for creating reactors.
    */
   public RollingUpdateService(final MasterModel masterModel,
+                              final MasterLeaderElection leaderElection,
                               final ReactorFactory reactorFactory) {
     this.masterModel = checkNotNull(masterModel, "masterModel");
+    this.leaderElection = checkNotNull(leaderElection, "leaderElection");
     checkNotNull(reactorFactory, "reactorFactory");
 
     this.hostUpdateReactor = reactorFactory.create("hostUpdate",
@@ -74,6 +80,14 @@ public class RollingUpdateService extends AbstractIdleService {
 
   @Override
   protected void startUp() throws Exception {
+    leaderElection.addLeadershipListener(new Runnable() {
+      @Override
+      public void run() {
+        hostUpdateReactor.signal();
+        rollingUpdateReactor.signal();
+      }
+    });
+
     hostUpdateReactor.startAsync().awaitRunning();
     hostUpdateReactor.signal();
 
@@ -94,6 +108,10 @@ public class RollingUpdateService extends AbstractIdleService {
 
     @Override
     public void run(final boolean timeout) throws InterruptedException {
+      if (!leaderElection.hasLeadership()) {
+        return;
+      }
+
       final List<String> allHosts = masterModel.listHosts();
       final Map<String, Map<String, String>> hostsToLabels = Maps.newHashMap();
 
@@ -146,6 +164,10 @@ public class RollingUpdateService extends AbstractIdleService {
 
     @Override
     public void run(final boolean timeout) throws InterruptedException {
+      if (!leaderElection.hasLeadership()) {
+        return;
+      }
+
       for (final DeploymentGroup dg : masterModel.getDeploymentGroups().values()) {
         try {
           masterModel.rollingUpdateStep(dg, DefaultRolloutPlanner.of(dg));
@@ -21,6 +21,11 @@
 
 package com.spotify.helios.servicescommon;
 
+import com.spotify.helios.servicescommon.statistics.ReactorMetrics;
+import com.spotify.helios.servicescommon.statistics.ReactorMetricsRegistry;
+import com.spotify.helios.servicescommon.tracing.Span;
+import com.spotify.helios.servicescommon.tracing.Tracer;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,7 +36,9 @@ import java.util.concurrent.Semaphore;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 /**
- * A reactor loop that collapses event updates and calls a provided callback.
+ * A reactor loop that collapses event updates and calls a provided callback. While running, the
+ * reactor publishes its {@link ReactorMetrics} in a {@link ReactorMetricsRegistry} under its
+ * metrics group, and every callback run is traced as a span.
  */
 public class DefaultReactor extends InterruptingExecutionThreadService implements Reactor {
 
@@ -40,36 +47,59 @@ public class DefaultReactor extends InterruptingExecutionThreadService implement
   private final Semaphore semaphore = new Semaphore(0);
 
   private final String name;
+  private final String metricsGroup;
   private final Callback callback;
   private final long timeoutMillis;
+  private final ReactorMetricsRegistry metricsRegistry;
+  private final Tracer tracer;
+  private final ReactorMetrics metrics = new ReactorMetrics();
+
+  private volatile String metricsName;
 
   /**
    * Create a reactor that calls the provided callback with the specified timeout interval.
    *
-   * @param name          The reactor name.
-   * @param callback      The callback to call.
-   * @param timeoutMillis The timeout in millis after which the callback should be called even if
-   *                      there has been no updates.
+   * @param name            The reactor name.
+   * @param callback        The callback to call.
+   * @param timeoutMillis   The timeout in millis after which the callback should be called even if
+   *                        there has been no updates.
+   * @param metricsRegistry The registry to publish the reactor metrics in while running.
+   * @param tracer          The tracer to record callback runs in.
    */
-  public DefaultReactor(final String name, final Callback callback, final long timeoutMillis) {
-    super("Reactor(" + name + ")");
-    this.name = name;
-    this.callback = callback;
-    this.timeoutMillis = timeoutMillis;
+  public DefaultReactor(final String name, final Callback callback, final long timeoutMillis,
+                        final ReactorMetricsRegistry metricsRegistry, final Tracer tracer) {
+    this(name, name, callback, timeoutMillis, metricsRegistry, tracer);
   }
 
   /**
-   * Create a reactor that calls the provided callback.
+   * Create a reactor that calls the provided callback with the specified timeout interval.
    *
-   * @param name          The reactor name.
-   * @param callback      The callback to call.
+   * @param name            The reactor name.
+   * @param metricsGroup    The name the metrics of this reactor are published under, together
+   *                        with those of the other reactors in the group. Names that are unique
+   *                        per job, path, etc. should not be used, to keep the number of metrics
+   *                        bounded.
+   * @param callback        The callback to call.
+   * @param timeoutMillis   The timeout in millis after which the callback should be called even if
+   *                        there has been no updates.
+   * @param metricsRegistry The registry to publish the reactor metrics in while running.
+   * @param tracer          The tracer to record callback runs in.
    */
-  public DefaultReactor(final String name, final Callback callback) {
-    this(name, callback, 0);
+  public DefaultReactor(final String name, final String metricsGroup, final Callback callback,
+                        final long timeoutMillis, final ReactorMetricsRegistry metricsRegistry,
+                        final Tracer tracer) {
+    super("Reactor(" + name + ")");
+    this.name = name;
+    this.metricsGroup = metricsGroup;
+    this.callback = callback;
+    this.timeoutMillis = timeoutMillis;
+    this.metricsRegistry = metricsRegistry;
+    this.tracer = tracer;
   }
 
   @Override
   public void signal() {
+    metrics.signal();
     semaphore.release();
   }
 
@@ -83,6 +113,20 @@ public class DefaultReactor extends InterruptingExecutionThreadService implement
     };
   }
 
+  public ReactorMetrics getMetrics() {
+    return metrics;
+  }
+
+  @Override
+  protected void startUp() throws Exception {
+    metricsName = metricsRegistry.register(name, metricsGroup, metrics);
+  }
+
+  @Override
+  protected void shutDown() throws Exception {
+    metricsRegistry.unregister(metricsName);
+  }
+
   @Override
   protected void run() throws Exception {
     while (isRunning()) {
@@ -98,10 +142,15 @@ public class DefaultReactor extends InterruptingExecutionThreadService implement
         continue;
       }
 
-      semaphore.drainPermits();
+      final int coalesced = semaphore.drainPermits();
 
+      final long start = System.nanoTime();
+      final Span span = tracer.start("reactor", name, start)
+          .tag(timeout ? "timeout" : "signal");
+      boolean success = false;
       try {
         callback.run(timeout);
+        success = true;
       } catch (InterruptedException e) {
         log.debug("reactor interrupted: {}", name);
       } catch (Exception e) {
@@ -112,6 +161,9 @@ public class DefaultReactor extends InterruptingExecutionThreadService implement
         } else {
           log.error("reactor runner threw exception: {}", name, e);
         }
+      } finally {
+        span.finish();
+        metrics.run(timeout, coalesced, System.nanoTime() - start, success);
       }
     }
   }
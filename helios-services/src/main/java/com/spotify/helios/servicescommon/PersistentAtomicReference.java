@@ -28,6 +28,8 @@ import com.google.common.base.Throwables;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JavaType;
 import com.spotify.helios.common.Json;
+import com.spotify.helios.servicescommon.tracing.Span;
+import com.spotify.helios.servicescommon.tracing.Tracer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,17 +58,22 @@ public class PersistentAtomicReference<T> {
 
   private final Path filename;
   private final Path tempfilename;
+  private final String name;
+  private final Tracer tracer;
   private final Object sync = new Object();
 
   private volatile T value;
 
   private PersistentAtomicReference(final Path filename,
                                     final JavaType javaType,
-                                    final Supplier<? extends T> initialValue)
+                                    final Supplier<? extends T> initialValue,
+                                    final Tracer tracer)
       throws IOException, InterruptedException {
+    this.tracer = tracer;
     try {
       this.filename = filename.toAbsolutePath();
       this.tempfilename = filename.getFileSystem().getPath(this.filename.toString() + ".tmp");
+      this.name = this.filename.getFileName().toString();
       if (Files.exists(filename)) {
         final byte[] bytes = Files.readAllBytes(filename);
         if (bytes.length > 0) {
@@ -99,13 +106,18 @@ public class PersistentAtomicReference<T> {
 
   private void set0(final T newValue) throws IOException {
     log.debug("set: ({}) {}", filename, newValue);
-    synchronized (sync) {
-      final String json = Json.asPrettyStringUnchecked(newValue);
-      log.debug("write: ({}) {}", tempfilename, json);
-      Files.write(tempfilename, json.getBytes(UTF_8));
-      log.debug("move: {} -> {}", tempfilename, filename);
-      Files.move(tempfilename, filename, ATOMIC_MOVE, REPLACE_EXISTING);
-      this.value = newValue;
+    final Span span = tracer.start("state", "write").tag(name);
+    try {
+      synchronized (sync) {
+        final String json = Json.asPrettyStringUnchecked(newValue);
+        log.debug("write: ({}) {}", tempfilename, json);
+        Files.write(tempfilename, json.getBytes(UTF_8));
+        log.debug("move: {} -> {}", tempfilename, filename);
+        Files.move(tempfilename, filename, ATOMIC_MOVE, REPLACE_EXISTING);
+        this.value = newValue;
+      }
+    } finally {
+      span.finish();
     }
   }
 
@@ -137,8 +149,19 @@ public class PersistentAtomicReference<T> {
                                                         final TypeReference<T> typeReference,
                                                         final Supplier<? extends T> initialValue)
       throws IOException, InterruptedException {
+    return create(filename, typeReference, initialValue, new Tracer());
+  }
 
-    return new PersistentAtomicReference<>(filename, Json.type(typeReference), initialValue);
+  /**
+   * Creates a reference that records its writes in {@code tracer}.
+   */
+  public static <T> PersistentAtomicReference<T> create(final Path filename,
+                                                        final TypeReference<T> typeReference,
+                                                        final Supplier<? extends T> initialValue,
+                                                        final Tracer tracer)
+      throws IOException, InterruptedException {
+    return new PersistentAtomicReference<>(filename, Json.type(typeReference), initialValue,
+                                           tracer);
   }
 
 
@@ -153,7 +176,7 @@ public class PersistentAtomicReference<T> {
                                                         final JavaType javaType,
                                                         final Supplier<? extends T> initialValue)
       throws IOException, InterruptedException {
-    return new PersistentAtomicReference<>(filename, javaType, initialValue);
+    return new PersistentAtomicReference<>(filename, javaType, initialValue, new Tracer());
   }
 
 
@@ -21,11 +21,36 @@
 
 package com.spotify.helios.servicescommon;
 
+import com.spotify.helios.servicescommon.statistics.ReactorMetricsRegistry;
+import com.spotify.helios.servicescommon.tracing.Tracer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
 import static com.spotify.helios.servicescommon.Reactor.Callback;
 
+/**
+ * Creates the reactors of a master or agent, which publish their metrics in the registry of that
+ * master or agent while running, and trace their runs with its tracer.
+ */
 public class ReactorFactory {
 
+  private final ReactorMetricsRegistry metricsRegistry;
+  private final Tracer tracer;
+
+  public ReactorFactory(final ReactorMetricsRegistry metricsRegistry, final Tracer tracer) {
+    this.metricsRegistry = checkNotNull(metricsRegistry, "metricsRegistry");
+    this.tracer = checkNotNull(tracer, "tracer");
+  }
+
   public Reactor create(final String name, final Callback callback, final long timeout) {
-    return new DefaultReactor(name, callback, timeout);
+    return new DefaultReactor(name, callback, timeout, metricsRegistry, tracer);
+  }
+
+  /**
+   * @see DefaultReactor#DefaultReactor(String, String, Callback, long, ReactorMetricsRegistry,
+   *      Tracer)
+   */
+  public Reactor create(final String name, final String metricsGroup, final Callback callback,
+                        final long timeout) {
+    return new DefaultReactor(name, metricsGroup, callback, timeout, metricsRegistry, tracer);
   }
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.servicescommon;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import com.spotify.helios.common.Json;
+import com.spotify.helios.servicescommon.statistics.ReactorMetrics;
+import com.spotify.helios.servicescommon.statistics.ReactorMetricsRegistry;
+
+import java.io.IOException;
+import java.util.Map;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Admin servlet that lists every running reactor in the process along with its run rate,
+ * callback durations, timeout ratio, coalesced signals and time since its last successful run.
+ */
+public class ReactorsServlet extends HttpServlet {
+
+  private final ReactorMetricsRegistry registry;
+
+  public ReactorsServlet(final ReactorMetricsRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  protected void doGet(final HttpServletRequest req, final HttpServletResponse resp)
+      throws IOException {
+    final Map<String, Object> reactors = Maps.newLinkedHashMap();
+    for (final Map.Entry<String, ReactorMetrics> entry : registry.getReactors().entrySet()) {
+      reactors.put(entry.getKey(), describe(entry.getValue()));
+    }
+    resp.setContentType("application/json");
+    resp.setHeader("Cache-Control", "must-revalidate,no-cache,no-store");
+    resp.getWriter().println(Json.asPrettyStringUnchecked(reactors));
+  }
+
+  private static Map<String, Object> describe(final ReactorMetrics metrics) {
+    final Timer runs = metrics.getRuns();
+    final Snapshot durations = runs.getSnapshot();
+    return ImmutableMap.<String, Object>builder()
+        .put("runs", runs.getCount())
+        .put("runsPerSecond", runs.getOneMinuteRate())
+        .put("timeouts", metrics.getTimeouts().getCount())
+        .put("timeoutRatio", metrics.getTimeoutRatio())
+        .put("failures", metrics.getFailures().getCount())
+        .put("signals", metrics.getSignals().getCount())
+        .put("signalsCoalesced", metrics.getSignalsCoalesced().getCount())
+        .put("durationMillis", ImmutableMap.of(
+            "mean", millis(durations.getMean()),
+            "p50", millis(durations.getMedian()),
+            "p99", millis(durations.get99thPercentile()),
+            "max", millis(durations.getMax())))
+        .put("timeSinceLastSuccessMillis", metrics.getTimeSinceLastSuccessMillis())
+        .build();
+  }
+
+  private static double millis(final double nanos) {
+    return nanos / MILLISECONDS.toNanos(1);
+  }
+}
@@ -67,6 +67,7 @@ public class ServiceParser {
   private final Argument zooKeeperClusterId;
   private final Argument noZooKeeperRegistrationArg;
   private final Argument noMetricsArg;
+  private final Argument traceBufferSizeArg;
   private final Argument statsdHostPortArg;
   private final Argument riemannHostPortArg;
   private final Argument verboseArg;
@@ -130,6 +131,12 @@ public class ServiceParser {
         .action(storeTrue())
         .help("Turn off all collection and reporting of metrics");
 
+    traceBufferSizeArg = parser.addArgument("--trace-buffer-size")
+        .type(Integer.class)
+        .setDefault(0)
+        .help("Number of timing spans to keep in memory, to be dumped from /traces on the admin "
+              + "port. 0 disables tracing.");
+
     statsdHostPortArg = parser.addArgument("--statsd-host-port")
         .setDefault((String) null)
         .help("host:port of where to send statsd metrics "
@@ -208,6 +215,10 @@ public class ServiceParser {
     return fromNullable(options.getBoolean(noMetricsArg.getDest())).or(false);
   }
 
+  public int getTraceBufferSize() {
+    return options.getInt(traceBufferSizeArg.getDest());
+  }
+
   public String getName() {
     return options.getString(nameArg.getDest());
   }
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.servicescommon;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import com.spotify.helios.common.Json;
+import com.spotify.helios.servicescommon.tracing.Span;
+import com.spotify.helios.servicescommon.tracing.Tracer;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Admin servlet that dumps the spans recorded by a {@link Tracer} in the Chrome trace event
+ * format, which can be loaded into chrome://tracing.
+ */
+public class TracesServlet extends HttpServlet {
+
+  private final Tracer tracer;
+  private final String processName;
+
+  /**
+   * @param tracer      The tracer to dump the spans of.
+   * @param processName The process name to show in the trace, e.g. {@code helios-master}.
+   */
+  public TracesServlet(final Tracer tracer, final String processName) {
+    this.tracer = tracer;
+    this.processName = processName;
+  }
+
+  @Override
+  protected void doGet(final HttpServletRequest req, final HttpServletResponse resp)
+      throws IOException {
+    if (!tracer.isEnabled()) {
+      resp.sendError(HttpServletResponse.SC_NOT_FOUND, "Tracing is disabled");
+      return;
+    }
+    resp.setContentType("application/json");
+    resp.setHeader("Cache-Control", "must-revalidate,no-cache,no-store");
+    resp.getWriter().println(Json.asStringUnchecked(traceEvents(tracer, processName)));
+  }
+
+  /**
+   * @return The spans of the tracer as a Chrome trace: a complete event per span, and metadata
+   *         events naming the process and its threads.
+   */
+  static Map<String, Object> traceEvents(final Tracer tracer, final String processName) {
+    final long pid = pid();
+    final List<Span> spans = tracer.getSpans();
+    final List<Map<String, Object>> events = Lists.newArrayListWithCapacity(spans.size() + 16);
+    final Map<Long, String> threads = Maps.newHashMap();
+
+    events.add(ImmutableMap.<String, Object>of(
+        "name", "process_name", "ph", "M", "pid", pid, "args",
+        ImmutableMap.of("name", processName)));
+
+    for (final Span span : spans) {
+      final Map<String, Object> args = Maps.newLinkedHashMap();
+      if (span.getJob() != null) {
+        args.put("job", span.getJob().toString());
+      }
+      if (span.getHost() != null) {
+        args.put("host", span.getHost());
+      }
+      if (span.getTag() != null) {
+        args.put("tag", span.getTag());
+      }
+      final Map<String, Object> event = Maps.newLinkedHashMap();
+      event.put("name", span.getName());
+      event.put("cat", span.getCategory());
+      event.put("ph", "X");
+      event.put("ts", tracer.toEpochMicros(span.getStartNanos()));
+      event.put("dur", NANOSECONDS.toMicros(span.getDurationNanos()));
+      event.put("pid", pid);
+      event.put("tid", span.getThreadId());
+      event.put("args", args);
+      events.add(event);
+      threads.put(span.getThreadId(), span.getThreadName());
+    }
+
+    for (final Map.Entry<Long, String> thread : threads.entrySet()) {
+      events.add(ImmutableMap.<String, Object>of(
+          "name", "thread_name", "ph", "M", "pid", pid, "tid", thread.getKey(),
+          "args", ImmutableMap.of("name", thread.getValue())));
+    }
+
+    return ImmutableMap.of(
+        "traceEvents", events,
+        "displayTimeUnit", "ms",
+        "otherData", ImmutableMap.of("capacity", tracer.getCapacity(),
+                                     "dropped", tracer.getDropped()));
+  }
+
+  private static long pid() {
+    // The runtime name is pid@hostname on the JVMs we run on
+    final String name = ManagementFactory.getRuntimeMXBean().getName();
+    final int at = name.indexOf('@');
+    try {
+      return Long.parseLong(at < 0 ? name : name.substring(0, at));
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+}
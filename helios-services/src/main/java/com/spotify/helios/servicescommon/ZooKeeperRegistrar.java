@@ -64,20 +64,22 @@ public class ZooKeeperRegistrar extends AbstractIdleService {
   };
 
   public ZooKeeperRegistrar(final ZooKeeperClient client,
-                            final ZooKeeperRegistrarEventListener eventListener) {
+                            final ZooKeeperRegistrarEventListener eventListener,
+                            final ReactorFactory reactorFactory) {
     this(client, eventListener, BoundedRandomExponentialBackoff.newBuilder()
         .setMinInterval(1, SECONDS)
         .setMaxInterval(30, SECONDS)
-        .build());
+        .build(), reactorFactory);
   }
 
   public ZooKeeperRegistrar(final ZooKeeperClient client,
                             final ZooKeeperRegistrarEventListener eventListener,
-                            final RetryIntervalPolicy retryIntervalPolicy) {
+                            final RetryIntervalPolicy retryIntervalPolicy,
+                            final ReactorFactory reactorFactory) {
     this.client = client;
     this.eventListener = eventListener;
     this.retryIntervalPolicy = retryIntervalPolicy;
-    this.reactor = new DefaultReactor("zk-client-async-init", new Update());
+    this.reactor = reactorFactory.create("zk-client-async-init", new Update(), 0);
   }
 
   @Override
@@ -22,10 +22,18 @@
 package com.spotify.helios.servicescommon.coordination;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 
 import com.fasterxml.jackson.databind.JavaType;
 
+import com.spotify.helios.servicescommon.ReactorFactory;
+
 import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.CuratorEvent;
 import org.apache.curator.framework.api.transaction.CuratorTransactionFinal;
 import org.apache.curator.framework.api.transaction.CuratorTransactionResult;
 import org.apache.curator.framework.listen.Listenable;
@@ -36,6 +44,7 @@ import org.apache.curator.utils.EnsurePath;
 import org.apache.curator.utils.ZKPaths;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.KeeperException.Code;
 import org.apache.zookeeper.WatchedEvent;
 import org.apache.zookeeper.Watcher;
 import org.apache.zookeeper.ZKUtil;
@@ -48,6 +57,8 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.google.common.base.Strings.emptyToNull;
@@ -62,6 +73,12 @@ public class DefaultZooKeeperClient implements ZooKeeperClient {
 
   private static final Logger log = LoggerFactory.getLogger(DefaultZooKeeperClient.class);
 
+  /**
+   * The maximum number of background requests that {@link #listRecursive(Collection)} keeps in
+   * flight at once.
+   */
+  private static final int MAX_PENDING_REQUESTS = 100;
+
   private final CuratorFramework client;
   private final String clusterId;
   private final AtomicBoolean clusterIdExists;
@@ -236,6 +253,83 @@ public class DefaultZooKeeperClient implements ZooKeeperClient {
     }
   }
 
+  @Override
+  public List<String> listRecursive(final Collection<String> paths) throws KeeperException {
+    assertClusterIdFlagTrue();
+
+    final Semaphore pending = new Semaphore(MAX_PENDING_REQUESTS);
+    final SettableFuture<Void> failed = SettableFuture.create();
+    final List<String> result = Lists.newArrayList();
+    List<String> level = ImmutableList.copyOf(paths);
+    try {
+      while (!level.isEmpty()) {
+        final List<ListenableFuture<List<String>>> children = Lists.newArrayList();
+        for (final String path : level) {
+          // Stop sending requests once one of them has failed, the listing fails anyway
+          if (failed.isDone()) {
+            break;
+          }
+          pending.acquire();
+          children.add(getChildrenAsync(path, pending, failed));
+        }
+        final List<List<String>> levelChildren = Futures.allAsList(children).get();
+        final List<String> next = Lists.newArrayList();
+        for (int i = 0; i < level.size(); i++) {
+          final List<String> nodes = levelChildren.get(i);
+          if (nodes == null) {
+            continue;
+          }
+          final String parent = level.get(i);
+          result.add(parent);
+          for (final String node : nodes) {
+            next.add(ZKPaths.makePath(parent, node));
+          }
+        }
+        level = next;
+      }
+    } catch (ExecutionException e) {
+      propagateIfInstanceOf(e.getCause(), KeeperException.class);
+      throw propagate(e.getCause());
+    } catch (Exception e) {
+      propagateIfInstanceOf(e, KeeperException.class);
+      throw propagate(e);
+    }
+    return result;
+  }
+
+  /**
+   * Fetch the children of a node in the background. The future is set to null if the node
+   * does not exist. The permit taken from {@code pending} is released once the request completes,
+   * and {@code failed} is set if it fails.
+   */
+  private ListenableFuture<List<String>> getChildrenAsync(final String path,
+                                                          final Semaphore pending,
+                                                          final SettableFuture<Void> failed)
+      throws Exception {
+    final SettableFuture<List<String>> future = SettableFuture.create();
+    try {
+      client.getChildren().inBackground(new BackgroundCallback() {
+        @Override
+        public void processResult(final CuratorFramework client, final CuratorEvent event) {
+          pending.release();
+          final Code code = Code.get(event.getResultCode());
+          if (code == Code.OK) {
+            future.set(event.getChildren());
+          } else if (code == Code.NONODE) {
+            future.set(null);
+          } else {
+            failed.set(null);
+            future.setException(KeeperException.create(code, path));
+          }
+        }
+      }).forPath(path);
+    } catch (Exception e) {
+      pending.release();
+      throw e;
+    }
+    return future;
+  }
+
   @Override
   public List<String> listRecursive(final String path) throws KeeperException {
     assertClusterIdFlagTrue();
@@ -357,9 +451,11 @@ public class DefaultZooKeeperClient implements ZooKeeperClient {
   @Override
   public <T> PersistentPathChildrenCache<T> pathChildrenCache(final String path,
                                                               final Path snapshotFile,
-                                                              final JavaType valueType)
+                                                              final JavaType valueType,
+                                                              final ReactorFactory reactorFactory)
       throws IOException, InterruptedException {
-    return new PersistentPathChildrenCache<T>(client, path, clusterId, snapshotFile, valueType);
+    return new PersistentPathChildrenCache<T>(client, path, clusterId, snapshotFile, valueType,
+                                              reactorFactory);
   }
 
   @Override
@@ -23,6 +23,7 @@ package com.spotify.helios.servicescommon.coordination;
 
 import com.spotify.helios.common.descriptors.JobId;
 
+import java.util.Date;
 import java.util.UUID;
 
 public class Paths {
@@ -44,6 +45,8 @@ public class Paths {
   private static final String ID = "id";
   private static final String DEPLOYMENT_GROUPS = "deployment-groups";
   private static final String INDEX = "index";
+  private static final String LEADER = "leader";
+  private static final String EXPIRATIONS = "expirations";
 
   private static final PathFactory CONFIG_ID = new PathFactory("/", CONFIG, ID);
   private static final PathFactory CONFIG_JOBS = new PathFactory("/", CONFIG, JOBS);
@@ -51,9 +54,11 @@ public class Paths {
   private static final PathFactory CONFIG_HOSTS = new PathFactory("/", CONFIG, HOSTS);
   private static final PathFactory CONFIG_DEPLOYMENT_GROUPS = new PathFactory(
       "/", CONFIG, DEPLOYMENT_GROUPS);
+  private static final PathFactory CONFIG_EXPIRATIONS = new PathFactory("/", CONFIG, EXPIRATIONS);
 
   private static final PathFactory STATUS_HOSTS = new PathFactory("/", STATUS, HOSTS);
   private static final PathFactory STATUS_MASTERS = new PathFactory("/", STATUS, MASTERS);
+  private static final PathFactory STATUS_LEADER = new PathFactory("/", STATUS, LEADER);
   private static final PathFactory STATUS_DEPLOYMENT_GROUPS = new PathFactory(
       "/", STATUS, DEPLOYMENT_GROUPS);
 
@@ -102,6 +107,27 @@ public class Paths {
     return CONFIG_JOBS.path(id.toString(), name);
   }
 
+  public static String configJobExpirations() {
+    return CONFIG_EXPIRATIONS.path();
+  }
+
+  /**
+   * Returns the path of the expiry index entry of a job. The names of the entries start with the
+   * zero padded expiry time, so that sorting them orders them by expiry. Expiry times before the
+   * epoch are recorded as the epoch, as a minus sign would neither sort nor parse back.
+   */
+  public static String configJobExpiration(final JobId id, final Date expires) {
+    return CONFIG_EXPIRATIONS.path(String.format("%019d-%s", Math.max(0, expires.getTime()), id));
+  }
+
+  public static long configJobExpirationTime(final String child) {
+    return Long.parseLong(child.substring(0, child.indexOf('-')));
+  }
+
+  public static JobId configJobExpirationId(final String child) {
+    return JobId.fromString(child.substring(child.indexOf('-') + 1));
+  }
+
   public static String configJobRefShort(final JobId id) {
     return CONFIG_JOBREFS.path(id.getName() + ":" + id.getVersion());
   }
@@ -175,6 +201,10 @@ public class Paths {
     return STATUS_MASTERS.path();
   }
 
+  public static String statusLeader() {
+    return STATUS_LEADER.path();
+  }
+
   public static String statusMaster() {
     return STATUS_MASTERS.path();
   }
@@ -34,9 +34,9 @@ import com.spotify.helios.agent.BoundedRandomExponentialBackoff;
 import com.spotify.helios.agent.RetryIntervalPolicy;
 import com.spotify.helios.agent.RetryScheduler;
 import com.spotify.helios.common.Json;
-import com.spotify.helios.servicescommon.DefaultReactor;
 import com.spotify.helios.servicescommon.PersistentAtomicReference;
 import com.spotify.helios.servicescommon.Reactor;
+import com.spotify.helios.servicescommon.ReactorFactory;
 
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.api.CuratorWatcher;
@@ -94,7 +94,8 @@ public class PersistentPathChildrenCache<T> extends AbstractIdleService {
 
   public PersistentPathChildrenCache(final CuratorFramework curator, final String path,
                                      final String clusterId, final Path snapshotFile,
-                                     final JavaType valueType)
+                                     final JavaType valueType,
+                                     final ReactorFactory reactorFactory)
       throws IOException, InterruptedException {
     this.curator = curator;
     this.path = path;
@@ -106,7 +107,8 @@ public class PersistentPathChildrenCache<T> extends AbstractIdleService {
     final Supplier<Map<String, T>> empty = Suppliers.ofInstance(Collections.<String, T>emptyMap());
 
     this.snapshot = PersistentAtomicReference.create(snapshotFile, mapType, empty);
-    this.reactor = new DefaultReactor("zk-ppcc:" + path, new Update(), REFRESH_INTERVAL_MILLIS);
+    this.reactor = reactorFactory.create("zk-ppcc:" + path, "zk-ppcc", new Update(),
+                                         REFRESH_INTERVAL_MILLIS);
     curator.getConnectionStateListenable().addListener(new ConnectionListener());
   }
 
@@ -23,6 +23,8 @@ package com.spotify.helios.servicescommon.coordination;
 
 import com.fasterxml.jackson.databind.JavaType;
 
+import com.spotify.helios.servicescommon.ReactorFactory;
+
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.api.transaction.CuratorTransactionResult;
 import org.apache.curator.framework.listen.Listenable;
@@ -38,6 +40,10 @@ import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
 
+/**
+ * A {@link ZooKeeperClient} that reports the latency, payload sizes and transient errors of the
+ * operations it performs, tagged with the call site it was created for.
+ */
 public class ReportingZooKeeperClient implements ZooKeeperClient {
 
   private final ZooKeeperClient client;
@@ -54,180 +60,253 @@ public class ReportingZooKeeperClient implements ZooKeeperClient {
 
   @Override
   public void ensurePath(String path) throws KeeperException {
+    final long start = System.nanoTime();
     try {
       client.ensurePath(path);
     } catch (KeeperException e) {
       reporter.checkException(e, tag, "ensurePath");
       throw e;
+    } finally {
+      reporter.time(tag, "ensurePath", start);
     }
   }
 
   @Override
   public void ensurePath(String path, boolean excludingLast) throws KeeperException {
+    final long start = System.nanoTime();
     try {
       client.ensurePath(path, excludingLast);
     } catch (KeeperException e) {
       reporter.checkException(e, tag, "ensurePath");
       throw e;
+    } finally {
+      reporter.time(tag, "ensurePath", start);
     }
   }
 
   @Override
   public byte[] getData(String path) throws KeeperException {
+    final long start = System.nanoTime();
     try {
-      return client.getData(path);
+      final byte[] data = client.getData(path);
+      reporter.bytesRead(tag, data);
+      return data;
     } catch (KeeperException e) {
       reporter.checkException(e, tag, "getData");
       throw e;
+    } finally {
+      reporter.time(tag, "getData", start);
     }
   }
 
   @Override
   public List<String> getChildren(String path) throws KeeperException {
+    final long start = System.nanoTime();
     try {
       return client.getChildren(path);
     } catch (KeeperException e) {
       reporter.checkException(e, tag, "getChildren");
       throw e;
+    } finally {
+      reporter.time(tag, "getChildren", start);
     }
   }
 
   @Override
   public void delete(String path) throws KeeperException {
+    final long start = System.nanoTime();
     try {
       client.delete(path);
     } catch (KeeperException e) {
       reporter.checkException(e, tag, "delete");
       throw e;
+    } finally {
+      reporter.time(tag, "delete", start);
     }
   }
 
   @Override
   public void setData(String path, byte[] bytes) throws KeeperException {
+    final long start = System.nanoTime();
     try {
       client.setData(path, bytes);
+      reporter.bytesWritten(tag, bytes);
     } catch (KeeperException e) {
       reporter.checkException(e, tag, "setData");
       throw e;
+    } finally {
+      reporter.time(tag, "setData", start);
     }
   }
 
   @Override
   public void createAndSetData(String path, byte[] data) throws KeeperException {
+    final long start = System.nanoTime();
     try {
       client.createAndSetData(path, data);
+      reporter.bytesWritten(tag, data);
     } catch (KeeperException e) {
       reporter.checkException(e, tag, "createAndSetData");
       throw e;
+    } finally {
+      reporter.time(tag, "createAndSetData", start);
     }
   }
 
   @Override
   public void createWithMode(String path, CreateMode mode) throws KeeperException {
+    final long start = System.nanoTime();
     try {
       client.createWithMode(path, mode);
     } catch (KeeperException e) {
       reporter.checkException(e, tag, "createWithMode");
       throw e;
+    } finally {
+      reporter.time(tag, "createWithMode", start);
     }
   }
 
   @Override
   public Stat stat(String path) throws KeeperException {
+    final long start = System.nanoTime();
     try {
       return client.stat(path);
     } catch (KeeperException e) {
       reporter.checkException(e, tag, "stat");
       throw e;
+    } finally {
+      reporter.time(tag, "stat", start);
     }
   }
 
   @Override
   public void deleteRecursive(String path) throws KeeperException {
+    final long start = System.nanoTime();
     try {
       client.deleteRecursive(path);
     } catch (KeeperException e) {
       reporter.checkException(e, tag, "deleteRecursive");
       throw e;
+    } finally {
+      reporter.time(tag, "deleteRecursive", start);
     }
   }
 
   @Override
   public List<String> listRecursive(String path) throws KeeperException {
+    final long start = System.nanoTime();
     try {
       return client.listRecursive(path);
     } catch (KeeperException e) {
       reporter.checkException(e, tag, "listRecursive");
       throw e;
+    } finally {
+      reporter.time(tag, "listRecursive", start);
+    }
+  }
+
+  @Override
+  public List<String> listRecursive(Collection<String> paths) throws KeeperException {
+    final long start = System.nanoTime();
+    try {
+      return client.listRecursive(paths);
+    } catch (KeeperException e) {
+      reporter.checkException(e, tag, "listRecursive");
+      throw e;
+    } finally {
+      reporter.time(tag, "listRecursive", start);
     }
   }
 
   @Override
   public void create(String path) throws KeeperException {
+    final long start = System.nanoTime();
     try {
       client.create(path);
     } catch (KeeperException e) {
       reporter.checkException(e, tag, "create");
       throw e;
+    } finally {
+      reporter.time(tag, "create", start);
     }
   }
 
   @Override
   public <T> PersistentPathChildrenCache<T> pathChildrenCache(String path, Path snapshotFile,
-                                                              final JavaType valueType)
+                                                              final JavaType valueType,
+                                                              final ReactorFactory reactorFactory)
       throws IOException, InterruptedException {
-    return client.pathChildrenCache(path, snapshotFile, valueType);
+    return client.pathChildrenCache(path, snapshotFile, valueType, reactorFactory);
   }
 
   @Override
   public Collection<CuratorTransactionResult> transaction(List<ZooKeeperOperation> operations)
       throws KeeperException {
+    final long start = System.nanoTime();
     try {
       return client.transaction(operations);
     } catch (KeeperException e) {
       reporter.checkException(e, tag, "transaction");
       throw e;
+    } finally {
+      reporter.time(tag, "transaction", start);
+      reporter.transaction(tag, operations.size());
     }
   }
 
   @Override
   public Collection<CuratorTransactionResult> transaction(ZooKeeperOperation... operations)
       throws KeeperException {
+    final long start = System.nanoTime();
     try {
       return client.transaction(operations);
     } catch (KeeperException e) {
       reporter.checkException(e, tag, "transaction");
       throw e;
+    } finally {
+      reporter.time(tag, "transaction", start);
+      reporter.transaction(tag, operations.length);
     }
   }
 
   @Override
   public void delete(String path, int version) throws KeeperException {
+    final long start = System.nanoTime();
     try {
       client.delete(path, version);
     } catch (KeeperException e) {
       reporter.checkException(e, tag, "delete");
       throw e;
+    } finally {
+      reporter.time(tag, "delete", start);
     }
   }
 
   @Override
   public Node getNode(String path) throws KeeperException {
+    final long start = System.nanoTime();
     try {
-      return client.getNode(path);
+      final Node node = client.getNode(path);
+      reporter.bytesRead(tag, node.getBytes());
+      return node;
     } catch (KeeperException e) {
       reporter.checkException(e, tag, "getNode");
       throw e;
+    } finally {
+      reporter.time(tag, "getNode", start);
     }
   }
 
   @Override
   public Stat exists(String path) throws KeeperException {
+    final long start = System.nanoTime();
     try {
       return client.exists(path);
     } catch (KeeperException e) {
       reporter.checkException(e, tag, "exists");
       throw e;
+    } finally {
+      reporter.time(tag, "exists", start);
     }
   }
 
@@ -238,11 +317,14 @@ public class ReportingZooKeeperClient implements ZooKeeperClient {
 
   @Override
   public ZooKeeper.States getState() throws KeeperException {
+    final long start = System.nanoTime();
     try {
       return client.getState();
     } catch (KeeperException e) {
       reporter.checkException(e, tag, "getState");
       throw e;
+    } finally {
+      reporter.time(tag, "getState", start);
     }
   }
 
@@ -27,8 +27,8 @@ import com.google.common.util.concurrent.AbstractFuture;
 import com.google.common.util.concurrent.AbstractIdleService;
 import com.google.common.util.concurrent.ListenableFuture;
 
-import com.spotify.helios.servicescommon.DefaultReactor;
 import com.spotify.helios.servicescommon.Reactor;
+import com.spotify.helios.servicescommon.ReactorFactory;
 
 import org.apache.zookeeper.KeeperException;
 import org.slf4j.Logger;
@@ -53,9 +53,10 @@ public class RetryingZooKeeperNodeWriter extends AbstractIdleService {
   private final Map<String, Write> back = Maps.newHashMap();
   private final Object lock = new Object() {};
 
-  public RetryingZooKeeperNodeWriter(final String name, final ZooKeeperClient client) {
+  public RetryingZooKeeperNodeWriter(final String name, final ZooKeeperClient client,
+                                     final ReactorFactory reactorFactory) {
     this.client = client;
-    this.reactor = new DefaultReactor(name, new Update(), RETRY_INTERVAL_MILLIS);
+    this.reactor = reactorFactory.create(name, new Update(), RETRY_INTERVAL_MILLIS);
   }
 
   public ListenableFuture<Void> set(final String path, final byte[] data) {
@@ -23,6 +23,8 @@ package com.spotify.helios.servicescommon.coordination;
 
 import com.fasterxml.jackson.databind.JavaType;
 
+import com.spotify.helios.servicescommon.ReactorFactory;
+
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.api.transaction.CuratorTransactionResult;
 import org.apache.curator.framework.listen.Listenable;
@@ -66,10 +68,20 @@ public interface ZooKeeperClient {
 
   List<String> listRecursive(String path) throws KeeperException;
 
+  /**
+   * List the subtrees rooted at each of the given paths. The children of every node on a level
+   * are fetched concurrently, so the number of round trips is bounded by the depth of the trees
+   * rather than by the number of nodes. Only a bounded number of requests is in flight at once,
+   * and the listing fails as soon as one of them fails. Parents are always listed before their
+   * children and roots that do not exist are skipped.
+   */
+  List<String> listRecursive(Collection<String> paths) throws KeeperException;
+
   void create(String path) throws KeeperException;
 
   <T> PersistentPathChildrenCache<T> pathChildrenCache(String path, Path snapshotFile,
-                                                       final JavaType valueType)
+                                                       final JavaType valueType,
+                                                       ReactorFactory reactorFactory)
       throws IOException, InterruptedException;
 
   Collection<CuratorTransactionResult> transaction(List<ZooKeeperOperation> operations)
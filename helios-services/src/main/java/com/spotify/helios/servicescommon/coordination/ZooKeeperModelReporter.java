@@ -28,6 +28,7 @@ import com.spotify.helios.servicescommon.NoOpRiemannClient;
 import com.spotify.helios.servicescommon.RiemannFacade;
 import com.spotify.helios.servicescommon.statistics.NoopZooKeeperMetrics;
 import com.spotify.helios.servicescommon.statistics.ZooKeeperMetrics;
+import com.spotify.helios.servicescommon.tracing.Tracer;
 
 import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.KeeperException.ConnectionLossException;
@@ -41,6 +42,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 public class ZooKeeperModelReporter {
   private final RiemannFacade riemannFacade;
   private final ZooKeeperMetrics metrics;
+  private final Tracer tracer;
   private final ImmutableMap<Class<?>, String> exceptionMap =
       ImmutableMap.<Class<?>, String>of(
           OperationTimeoutException.class, "timeout",
@@ -48,9 +50,11 @@ public class ZooKeeperModelReporter {
           RuntimeInconsistencyException.class, "inconsistency");
 
   public ZooKeeperModelReporter(final RiemannFacade riemannFacade,
-                                final ZooKeeperMetrics metrics) {
+                                final ZooKeeperMetrics metrics,
+                                final Tracer tracer) {
     this.metrics = checkNotNull(metrics);
     this.riemannFacade = checkNotNull(riemannFacade).stack("zookeeper");
+    this.tracer = checkNotNull(tracer);
   }
 
   public void checkException(Exception e, String... tags) {
@@ -74,7 +78,31 @@ public class ZooKeeperModelReporter {
     metrics.zookeeperTransientError();
   }
 
+  public void time(final String tag, final String operation, final long startNanos) {
+    final long nanos = System.nanoTime() - startNanos;
+    metrics.zookeeperOperation(tag, operation, nanos);
+    ZooKeeperRequestTrace.record(operation, nanos);
+    tracer.start("zookeeper", operation, startNanos).tag(tag).finish();
+  }
+
+  public void bytesRead(final String tag, final byte[] data) {
+    if (data != null) {
+      metrics.zookeeperBytesRead(tag, data.length);
+    }
+  }
+
+  public void bytesWritten(final String tag, final byte[] data) {
+    if (data != null) {
+      metrics.zookeeperBytesWritten(tag, data.length);
+    }
+  }
+
+  public void transaction(final String tag, final int operations) {
+    metrics.zookeeperTransaction(tag, operations);
+  }
+
   public static ZooKeeperModelReporter noop() {
-    return new ZooKeeperModelReporter(new NoOpRiemannClient().facade(), new NoopZooKeeperMetrics());
+    return new ZooKeeperModelReporter(new NoOpRiemannClient().facade(), new NoopZooKeeperMetrics(),
+                                      new Tracer());
   }
 }
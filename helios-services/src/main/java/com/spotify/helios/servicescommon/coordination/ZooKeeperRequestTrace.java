@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.servicescommon.coordination;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+import java.util.SortedMap;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Counts and times the ZooKeeper operations made by the current thread while serving a request.
+ * A trace is started with {@link #start()} and stopped with {@link #stop()}; in between, every
+ * operation reported by a {@link ReportingZooKeeperClient} on the same thread is added to it.
+ *
+ * Operations made on other threads, e.g. by a read coalesced into another request, are not
+ * counted.
+ */
+public class ZooKeeperRequestTrace {
+
+  private static final ThreadLocal<ZooKeeperRequestTrace> CURRENT = new ThreadLocal<>();
+
+  private static final Joiner.MapJoiner JOINER = Joiner.on(',').withKeyValueSeparator("=");
+
+  private final SortedMap<String, Integer> operations = Maps.newTreeMap();
+  private int calls;
+  private long nanos;
+
+  private ZooKeeperRequestTrace() {
+  }
+
+  /**
+   * Starts a trace on the current thread, replacing any trace already started.
+   */
+  public static ZooKeeperRequestTrace start() {
+    final ZooKeeperRequestTrace trace = new ZooKeeperRequestTrace();
+    CURRENT.set(trace);
+    return trace;
+  }
+
+  /**
+   * Stops the trace on the current thread, if any.
+   */
+  public static void stop() {
+    CURRENT.remove();
+  }
+
+  static void record(final String operation, final long nanos) {
+    final ZooKeeperRequestTrace trace = CURRENT.get();
+    if (trace != null) {
+      trace.add(operation, nanos);
+    }
+  }
+
+  private void add(final String operation, final long nanos) {
+    final Integer count = operations.get(operation);
+    operations.put(operation, count == null ? 1 : count + 1);
+    calls++;
+    this.nanos += nanos;
+  }
+
+  public int getCalls() {
+    return calls;
+  }
+
+  public long getNanos() {
+    return nanos;
+  }
+
+  /**
+   * Returns the number of calls made per operation, e.g. getData.
+   */
+  public Map<String, Integer> getOperations() {
+    return operations;
+  }
+
+  /**
+   * Returns a one line summary, e.g. {@code calls=3;time_us=2100;getChildren=1,getData=2}.
+   */
+  public String summary() {
+    return "calls=" + calls
+           + ";time_us=" + NANOSECONDS.toMicros(nanos)
+           + (operations.isEmpty() ? "" : ";" + JOINER.join(operations));
+  }
+}
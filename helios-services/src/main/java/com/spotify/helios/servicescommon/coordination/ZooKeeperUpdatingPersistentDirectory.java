@@ -34,9 +34,9 @@ import com.google.common.util.concurrent.AbstractIdleService;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.spotify.helios.agent.BoundedRandomExponentialBackoff;
 import com.spotify.helios.agent.RetryScheduler;
-import com.spotify.helios.servicescommon.DefaultReactor;
 import com.spotify.helios.servicescommon.PersistentAtomicReference;
 import com.spotify.helios.servicescommon.Reactor;
+import com.spotify.helios.servicescommon.ReactorFactory;
 
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.state.ConnectionState;
@@ -125,13 +125,14 @@ public class ZooKeeperUpdatingPersistentDirectory extends AbstractIdleService {
   private ZooKeeperUpdatingPersistentDirectory(final String name,
                                                final ZooKeeperClientProvider provider,
                                                final Path stateFile,
-                                               final String path)
+                                               final String path,
+                                               final ReactorFactory reactorFactory)
       throws IOException, InterruptedException {
     this.provider = provider;
     this.path = path;
     this.entries = PersistentAtomicReference.create(stateFile, ENTRIES_TYPE,
                                                     Suppliers.ofInstance(EMPTY_ENTRIES));
-    this.reactor = new DefaultReactor(name, new Update(), RETRY_INTERVAL_MILLIS);
+    this.reactor = reactorFactory.create(name, new Update(), RETRY_INTERVAL_MILLIS);
   }
 
   public byte[] put(final String key, final byte[] value) throws InterruptedException {
@@ -202,9 +203,11 @@ public class ZooKeeperUpdatingPersistentDirectory extends AbstractIdleService {
   public static ZooKeeperUpdatingPersistentDirectory create(final String name,
                                                             final ZooKeeperClientProvider client,
                                                             final Path stateFile,
-                                                            final String path)
+                                                            final String path,
+                                                            final ReactorFactory reactorFactory)
       throws IOException, InterruptedException {
-    return new ZooKeeperUpdatingPersistentDirectory(name, client, stateFile, path);
+    return new ZooKeeperUpdatingPersistentDirectory(name, client, stateFile, path,
+                                                    reactorFactory);
   }
 
 
@@ -32,4 +32,16 @@ public interface MasterMetrics {
   void jobsInJobList(int count);
 
   void jobsHistoryEventSize(int count);
+
+  void responseCacheHit(int bytesSaved);
+
+  void responseCacheMiss();
+
+  void coalescedRead(String name);
+
+  void leadershipChanged(boolean leader);
+
+  void requestRejected(String name);
+
+  void zooKeeperCalls(String name, int calls, long nanos);
 }
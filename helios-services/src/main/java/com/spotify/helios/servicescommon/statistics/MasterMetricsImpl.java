@@ -24,12 +24,18 @@ package com.spotify.helios.servicescommon.statistics;
 import com.google.common.collect.Maps;
 
 import com.spotify.helios.servicescommon.MasterRequestMetrics;
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
 
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.codahale.metrics.MetricRegistry.name;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 public class MasterMetricsImpl implements MasterMetrics {
   private static final String TYPE = "master";
@@ -38,6 +44,13 @@ public class MasterMetricsImpl implements MasterMetrics {
 
   private final Histogram jobsInJobListHist;
   private final Histogram eventsInJobHistoryHist;
+  private final Meter responseCacheHitMeter;
+  private final Meter responseCacheMissMeter;
+  private final Counter responseCacheBytesSavedCounter;
+  private final Meter coalescedReadMeter;
+  private final Meter leadershipChangeMeter;
+  private final Meter rejectedRequestMeter;
+  private final AtomicBoolean leader = new AtomicBoolean();
   private final String group;
   private final MetricRegistry registry;
 
@@ -48,6 +61,27 @@ public class MasterMetricsImpl implements MasterMetrics {
 
     eventsInJobHistoryHist = registry.histogram(name(group, TYPE + "_events_in_job_history"));
     jobsInJobListHist = registry.histogram(name(group, TYPE + "_jobs_in_job_list"));
+
+    responseCacheHitMeter = registry.meter(name(group, TYPE + "_response_cache_hit"));
+    responseCacheMissMeter = registry.meter(name(group, TYPE + "_response_cache_miss"));
+    responseCacheBytesSavedCounter = registry.counter(
+        name(group, TYPE + "_response_cache_bytes_saved"));
+    coalescedReadMeter = registry.meter(name(group, TYPE + "_coalesced_reads"));
+    leadershipChangeMeter = registry.meter(name(group, TYPE + "_leadership_changes"));
+    rejectedRequestMeter = registry.meter(name(group, TYPE + "_rejected_requests"));
+    registry.register(name(group, TYPE + "_leader"), new Gauge<Integer>() {
+      @Override
+      public Integer getValue() {
+        return leader.get() ? 1 : 0;
+      }
+    });
+    registry.register(name(group, TYPE + "_response_cache_hit_ratio"), new RatioGauge() {
+      @Override
+      protected Ratio getRatio() {
+        final double hits = responseCacheHitMeter.getFiveMinuteRate();
+        return Ratio.of(hits, hits + responseCacheMissMeter.getFiveMinuteRate());
+      }
+    });
   }
 
   @Override
@@ -83,4 +117,39 @@ public class MasterMetricsImpl implements MasterMetrics {
   public void jobsHistoryEventSize(final int count) {
     eventsInJobHistoryHist.update(count);
   }
+
+  @Override
+  public void responseCacheHit(final int bytesSaved) {
+    responseCacheHitMeter.mark();
+    responseCacheBytesSavedCounter.inc(bytesSaved);
+  }
+
+  @Override
+  public void responseCacheMiss() {
+    responseCacheMissMeter.mark();
+  }
+
+  @Override
+  public void coalescedRead(final String name) {
+    coalescedReadMeter.mark();
+    registry.meter(name(group, TYPE + "_coalesced_reads", name)).mark();
+  }
+
+  @Override
+  public void leadershipChanged(final boolean leader) {
+    this.leader.set(leader);
+    leadershipChangeMeter.mark();
+  }
+
+  @Override
+  public void requestRejected(final String name) {
+    rejectedRequestMeter.mark();
+    registry.meter(name(group, TYPE + "_rejected_requests", name)).mark();
+  }
+
+  @Override
+  public void zooKeeperCalls(final String name, final int calls, final long nanos) {
+    registry.histogram(name(group, TYPE + "_zookeeper_calls", name)).update(calls);
+    registry.timer(name(group, TYPE + "_zookeeper_time", name)).update(nanos, NANOSECONDS);
+  }
 }
@@ -32,8 +32,13 @@ public class MetricsImpl implements Metrics {
   private final MasterMetrics masterMetrics;
   private final ZooKeeperMetrics zooKeeperMetrics;
   private final JmxReporter jmxReporter;
+  private final MetricRegistry registry;
+  private final ReactorMetricsRegistry reactorMetricsRegistry;
 
-  public MetricsImpl(final MetricRegistry registry) {
+  public MetricsImpl(final MetricRegistry registry,
+                     final ReactorMetricsRegistry reactorMetricsRegistry) {
+    this.registry = registry;
+    this.reactorMetricsRegistry = reactorMetricsRegistry;
     this.masterMetrics = new MasterMetricsImpl(GROUP, registry);
     this.supervisorMetrics = new SupervisorMetricsImpl(GROUP, registry);
     this.zooKeeperMetrics = new ZooKeeperMetricsImpl(GROUP, registry);
@@ -43,10 +48,12 @@ public class MetricsImpl implements Metrics {
   @Override
   public void start() {
     jmxReporter.start();
+    reactorMetricsRegistry.attach(registry);
   }
 
   @Override
   public void stop() {
+    reactorMetricsRegistry.detach(registry);
     jmxReporter.close();
   }
 
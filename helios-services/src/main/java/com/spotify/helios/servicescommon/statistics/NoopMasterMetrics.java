@@ -37,4 +37,22 @@ public class NoopMasterMetrics implements MasterMetrics {
 
   @Override
   public void jobsHistoryEventSize(int count) {}
+
+  @Override
+  public void responseCacheHit(int bytesSaved) {}
+
+  @Override
+  public void responseCacheMiss() {}
+
+  @Override
+  public void coalescedRead(final String name) {}
+
+  @Override
+  public void leadershipChanged(final boolean leader) {}
+
+  @Override
+  public void requestRejected(final String name) {}
+
+  @Override
+  public void zooKeeperCalls(final String name, final int calls, final long nanos) {}
 }
@@ -21,6 +21,9 @@
 
 package com.spotify.helios.servicescommon.statistics;
 
+import com.codahale.metrics.Snapshot;
+import com.spotify.helios.common.descriptors.TimeToRunning;
+
 
 public class NoopSupervisorMetrics implements SupervisorMetrics {
 
@@ -53,6 +56,10 @@ public class NoopSupervisorMetrics implements SupervisorMetrics {
   @Override
   public void imageCacheHit() {}
 
+  @Override
+  public void containerTimeToRunning(final TimeToRunning timeToRunning) {
+  }
+
   @Override
   public void imageCacheMiss() {
   }
@@ -60,6 +67,13 @@ public class NoopSupervisorMetrics implements SupervisorMetrics {
   @Override
   public void dockerTimeout() {}
 
+  @Override
+  public void dockerRequestStarted(final String method) {}
+
+  @Override
+  public void dockerRequestFinished(final String method, final String outcome,
+                                    final long nanos) {}
+
   @Override
   public void supervisorRun() {}
 
@@ -77,4 +91,14 @@ public class NoopSupervisorMetrics implements SupervisorMetrics {
   public MeterRates getSupervisorRunRates() {
     return new MeterRates(0, 0, 0);
   }
+
+  @Override
+  public MeterRates getDockerRequestRates() {
+    return new MeterRates(0, 0, 0);
+  }
+
+  @Override
+  public Snapshot getDockerLatency() {
+    return new Snapshot(new long[0]);
+  }
 }
@@ -24,4 +24,16 @@ package com.spotify.helios.servicescommon.statistics;
 public class NoopZooKeeperMetrics implements ZooKeeperMetrics {
   @Override
   public void zookeeperTransientError() {}
+
+  @Override
+  public void zookeeperOperation(String tag, String operation, long nanos) {}
+
+  @Override
+  public void zookeeperBytesRead(String tag, int bytes) {}
+
+  @Override
+  public void zookeeperBytesWritten(String tag, int bytes) {}
+
+  @Override
+  public void zookeeperTransaction(String tag, int operations) {}
 }
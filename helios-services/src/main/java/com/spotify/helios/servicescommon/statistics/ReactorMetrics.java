@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.servicescommon.statistics;
+
+import com.google.common.collect.ImmutableMap;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import com.codahale.metrics.RatioGauge;
+import com.codahale.metrics.Timer;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Metrics for a single {@link com.spotify.helios.servicescommon.DefaultReactor}: how often its
+ * callback runs and for how long, how many of those runs were triggered by the timeout rather
+ * than by a signal, how many signals were coalesced into a single run and when the callback last
+ * completed without throwing.
+ *
+ * <p>While the reactor is registered in a {@link ReactorMetricsRegistry}, everything is also
+ * recorded in the metrics of its group.
+ */
+public class ReactorMetrics implements MetricSet {
+
+  private final Timer runs = new Timer();
+  private final Meter timeouts = new Meter();
+  private final Meter failures = new Meter();
+  private final Meter signals = new Meter();
+  private final Counter signalsCoalesced = new Counter();
+  private final AtomicLong lastSuccessMillis = new AtomicLong();
+
+  private volatile ReactorMetrics aggregate;
+
+  private final Gauge<Double> timeoutRatio = new RatioGauge() {
+    @Override
+    protected Ratio getRatio() {
+      return Ratio.of(timeouts.getOneMinuteRate(), runs.getOneMinuteRate());
+    }
+  };
+
+  private final Gauge<Long> timeSinceLastSuccess = new Gauge<Long>() {
+    @Override
+    public Long getValue() {
+      return getTimeSinceLastSuccessMillis();
+    }
+  };
+
+  /**
+   * Record that the reactor was signalled.
+   */
+  public void signal() {
+    signals.mark();
+    final ReactorMetrics aggregate = this.aggregate;
+    if (aggregate != null) {
+      aggregate.signal();
+    }
+  }
+
+  /**
+   * Record a single run of the reactor callback.
+   *
+   * @param timeout   Whether the run was triggered by the timeout rather than a signal.
+   * @param coalesced The number of additional signals that were folded into this run.
+   * @param nanos     How long the callback took.
+   * @param success   Whether the callback completed without throwing.
+   */
+  public void run(final boolean timeout, final int coalesced, final long nanos,
+                  final boolean success) {
+    runs.update(nanos, NANOSECONDS);
+    if (timeout) {
+      timeouts.mark();
+    }
+    if (coalesced > 0) {
+      signalsCoalesced.inc(coalesced);
+    }
+    if (success) {
+      lastSuccessMillis.set(System.currentTimeMillis());
+    } else {
+      failures.mark();
+    }
+    final ReactorMetrics aggregate = this.aggregate;
+    if (aggregate != null) {
+      aggregate.run(timeout, coalesced, nanos, success);
+    }
+  }
+
+  /**
+   * Also record everything in the given metrics, or stop doing so if null.
+   */
+  void setAggregate(final ReactorMetrics aggregate) {
+    this.aggregate = aggregate;
+  }
+
+  public Timer getRuns() {
+    return runs;
+  }
+
+  public Meter getTimeouts() {
+    return timeouts;
+  }
+
+  public Meter getFailures() {
+    return failures;
+  }
+
+  public Meter getSignals() {
+    return signals;
+  }
+
+  public Counter getSignalsCoalesced() {
+    return signalsCoalesced;
+  }
+
+  public double getTimeoutRatio() {
+    return timeoutRatio.getValue();
+  }
+
+  /**
+   * @return Milliseconds since the callback last completed successfully, or -1 if it never has.
+   */
+  public long getTimeSinceLastSuccessMillis() {
+    final long last = lastSuccessMillis.get();
+    return last == 0 ? -1 : System.currentTimeMillis() - last;
+  }
+
+  @Override
+  public Map<String, Metric> getMetrics() {
+    return ImmutableMap.<String, Metric>builder()
+        .put("runs", runs)
+        .put("timeouts", timeouts)
+        .put("failures", failures)
+        .put("signals", signals)
+        .put("signals_coalesced", signalsCoalesced)
+        .put("timeout_ratio", timeoutRatio)
+        .put("time_since_last_success_ms", timeSinceLastSuccess)
+        .build();
+  }
+}
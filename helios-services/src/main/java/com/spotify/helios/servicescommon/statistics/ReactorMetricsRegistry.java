@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.servicescommon.statistics;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multiset;
+
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import static com.google.common.base.Objects.firstNonNull;
+
+/**
+ * Keeps track of the {@link ReactorMetrics} of every running reactor of a master or agent.
+ *
+ * <p>Each master and agent has one registry, handed to its reactors through the
+ * {@link com.spotify.helios.servicescommon.ReactorFactory}, and reactors register themselves
+ * here while running. Several masters and agents can then run in one JVM, as in tests, without
+ * listing each other's reactors. Every reactor is listed by its own name in
+ * {@link #getReactors()}. Reactors also belong to a group, e.g. all the supervisors of an agent,
+ * and their runs are recorded in metrics shared by the group. Metric registries attached with
+ * {@link #attach(MetricRegistry)} are kept up to date with the metrics of every group that has
+ * running reactors, under {@code helios.reactor.<group>.<metric>}. Groups should be a fixed set
+ * of names so that the number of metrics doesn't grow with the number of jobs, paths, etc.
+ */
+public class ReactorMetricsRegistry {
+
+  private static final String PREFIX = "helios.reactor";
+
+  private static final CharMatcher METRIC_NAME_CHARS = CharMatcher.inRange('a', 'z')
+      .or(CharMatcher.inRange('A', 'Z'))
+      .or(CharMatcher.inRange('0', '9'))
+      .or(CharMatcher.anyOf("-_"));
+
+  private final Map<String, Reactor> reactors = Maps.newHashMap();
+  private final Multiset<String> names = HashMultiset.create();
+  private final Map<String, Integer> suffixes = Maps.newHashMap();
+  private final Map<String, Group> groups = Maps.newHashMap();
+  private final List<MetricRegistry> registries = Lists.newArrayList();
+
+  /**
+   * Register the metrics of a reactor in a group of its own name.
+   *
+   * @see #register(String, String, ReactorMetrics)
+   */
+  public String register(final String name, final ReactorMetrics metrics) {
+    return register(name, name, metrics);
+  }
+
+  /**
+   * Register the metrics of a reactor. If another reactor with the same name is already
+   * registered, a numeric suffix is appended to the name.
+   *
+   * @param name    The reactor name.
+   * @param group   The group whose metrics the runs of the reactor are also recorded in.
+   *                Characters that are not allowed in metric names are replaced.
+   * @param metrics The reactor metrics.
+   * @return The name the metrics were registered under.
+   */
+  public synchronized String register(final String name, final String group,
+                                      final ReactorMetrics metrics) {
+    String unique = name;
+    if (names.contains(name) || reactors.containsKey(name)) {
+      // Count up from the last suffix given out for the name instead of from the start
+      int suffix = firstNonNull(suffixes.get(name), 1);
+      do {
+        suffix++;
+        unique = name + "-" + suffix;
+      } while (reactors.containsKey(unique));
+      suffixes.put(name, suffix);
+    }
+    names.add(name);
+
+    final String groupName = METRIC_NAME_CHARS.negate().replaceFrom(group, '_');
+    Group registered = groups.get(groupName);
+    if (registered == null) {
+      registered = new Group();
+      groups.put(groupName, registered);
+      for (final MetricRegistry registry : registries) {
+        add(registry, groupName, registered.metrics);
+      }
+    }
+    registered.members++;
+    metrics.setAggregate(registered.metrics);
+
+    reactors.put(unique, new Reactor(name, groupName, metrics));
+    return unique;
+  }
+
+  /**
+   * Unregister the metrics of a reactor.
+   *
+   * @param name The name returned by {@link #register(String, String, ReactorMetrics)}.
+   */
+  public synchronized void unregister(final String name) {
+    final Reactor reactor = reactors.remove(name);
+    if (reactor == null) {
+      return;
+    }
+    reactor.metrics.setAggregate(null);
+    names.remove(reactor.name);
+    if (!names.contains(reactor.name)) {
+      suffixes.remove(reactor.name);
+    }
+
+    final Group group = groups.get(reactor.group);
+    group.members--;
+    if (group.members == 0) {
+      groups.remove(reactor.group);
+      for (final MetricRegistry registry : registries) {
+        remove(registry, reactor.group, group.metrics);
+      }
+    }
+  }
+
+  /**
+   * Publish the metrics of all current and future reactor groups in a metric registry.
+   *
+   * @param registry The metric registry.
+   */
+  public synchronized void attach(final MetricRegistry registry) {
+    registries.add(registry);
+    for (final Map.Entry<String, Group> entry : groups.entrySet()) {
+      add(registry, entry.getKey(), entry.getValue().metrics);
+    }
+  }
+
+  /**
+   * Stop publishing reactor metrics in a metric registry.
+   *
+   * @param registry The metric registry.
+   */
+  public synchronized void detach(final MetricRegistry registry) {
+    if (registries.remove(registry)) {
+      for (final Map.Entry<String, Group> entry : groups.entrySet()) {
+        remove(registry, entry.getKey(), entry.getValue().metrics);
+      }
+    }
+  }
+
+  /**
+   * @return The metrics of all registered reactors, by name.
+   */
+  public synchronized SortedMap<String, ReactorMetrics> getReactors() {
+    final ImmutableSortedMap.Builder<String, ReactorMetrics> builder =
+        ImmutableSortedMap.naturalOrder();
+    for (final Map.Entry<String, Reactor> entry : reactors.entrySet()) {
+      builder.put(entry.getKey(), entry.getValue().metrics);
+    }
+    return builder.build();
+  }
+
+  private static void add(final MetricRegistry registry, final String group,
+                          final ReactorMetrics metrics) {
+    for (final Map.Entry<String, Metric> entry : metrics.getMetrics().entrySet()) {
+      registry.register(MetricRegistry.name(PREFIX, group, entry.getKey()), entry.getValue());
+    }
+  }
+
+  private static void remove(final MetricRegistry registry, final String group,
+                             final ReactorMetrics metrics) {
+    for (final String metric : metrics.getMetrics().keySet()) {
+      registry.remove(MetricRegistry.name(PREFIX, group, metric));
+    }
+  }
+
+  private static class Reactor {
+
+    private final String name;
+    private final String group;
+    private final ReactorMetrics metrics;
+
+    private Reactor(final String name, final String group, final ReactorMetrics metrics) {
+      this.name = name;
+      this.group = group;
+      this.metrics = metrics;
+    }
+  }
+
+  private static class Group {
+
+    private final ReactorMetrics metrics = new ReactorMetrics();
+    private int members;
+  }
+}
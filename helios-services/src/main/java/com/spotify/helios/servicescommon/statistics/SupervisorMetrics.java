@@ -21,6 +21,9 @@
 
 package com.spotify.helios.servicescommon.statistics;
 
+import com.codahale.metrics.Snapshot;
+import com.spotify.helios.common.descriptors.TimeToRunning;
+
 public interface SupervisorMetrics {
 
   void supervisorStarted();
@@ -39,16 +42,45 @@ public interface SupervisorMetrics {
 
   MetricsContext containerPull();
 
+  void containerTimeToRunning(TimeToRunning timeToRunning);
+
   void imageCacheHit();
 
   void imageCacheMiss();
 
   void dockerTimeout();
 
+  /**
+   * Record that a call to the docker daemon started.
+   *
+   * @param method The {@link com.spotify.docker.client.DockerClient} method called.
+   */
+  void dockerRequestStarted(String method);
+
+  /**
+   * Record that a call to the docker daemon finished.
+   *
+   * @param method  The {@link com.spotify.docker.client.DockerClient} method called.
+   * @param outcome The outcome of the call, e.g. success, error or timeout.
+   * @param nanos   How long the call took.
+   */
+  void dockerRequestFinished(String method, String outcome, long nanos);
+
   void supervisorRun();
 
   MeterRates getDockerTimeoutRates();
   MeterRates getContainersThrewExceptionRates();
   MeterRates getSupervisorRunRates();
 
+  /**
+   * @return The rate of recent docker calls that are expected to return promptly.
+   */
+  MeterRates getDockerRequestRates();
+
+  /**
+   * @return The latency distribution, in nanoseconds, of recent docker calls that are expected to
+   *         return promptly.
+   */
+  Snapshot getDockerLatency();
+
 }
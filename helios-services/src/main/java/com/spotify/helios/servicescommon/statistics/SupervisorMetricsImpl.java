@@ -21,13 +21,34 @@
 
 package com.spotify.helios.servicescommon.statistics;
 
+import com.google.common.collect.ImmutableSet;
+
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import com.spotify.helios.common.descriptors.TimeToRunning;
+
+import java.util.Set;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 public class SupervisorMetricsImpl implements SupervisorMetrics {
   private static final String TYPE = "agent_supervisor";
 
+  /**
+   * Docker calls whose duration depends on the image, the container or the caller rather than on
+   * the health of the docker daemon. They are left out of the docker latency distribution.
+   */
+  private static final Set<String> LONG_RUNNING_DOCKER_REQUESTS = ImmutableSet.of(
+      "pull", "push", "build", "load", "save", "waitContainer", "attachContainer", "logs",
+      "events", "stopContainer", "restartContainer", "execStart");
+
+  private final MetricRegistry registry;
+  private final String prefix;
+
   private final RequestMetrics imagePull;
 
   private final Counter containerStartedCounter;
@@ -51,12 +72,22 @@ public class SupervisorMetricsImpl implements SupervisorMetrics {
   private final Meter supervisorStartedMeter;
   private final Meter supervisorStoppedMeter;
   private final Meter supervisorRunMeter;
+  private final Meter dockerRequestMeter;
+
+  private final Histogram imagePullTimeHistogram;
+  private final Histogram containerCreateTimeHistogram;
+  private final Histogram containerStartTimeHistogram;
+  private final Histogram healthCheckTimeHistogram;
+  private final Histogram timeToRunningHistogram;
 
+  private final Counter dockerInFlightCounter;
+  private final Timer dockerLatencyTimer;
 
   public SupervisorMetricsImpl(final String group,
                                final MetricRegistry registry) {
 
-    final String prefix = MetricRegistry.name(group, TYPE) + ".";
+    this.registry = registry;
+    this.prefix = MetricRegistry.name(group, TYPE) + ".";
 
     containerStartedCounter = registry.counter(prefix + "container_started_counter");
     containersExitedCounter = registry.counter(prefix + "containers_exited_counter");
@@ -80,6 +111,16 @@ public class SupervisorMetricsImpl implements SupervisorMetrics {
     supervisorStoppedMeter = registry.meter(prefix + "supervisor_stopped_meter");
     supervisorRunMeter = registry.meter(prefix + "supervisor_run_meter");
     dockerTimeoutMeter = registry.meter(prefix + "docker_timeout_meter");
+    dockerRequestMeter = registry.meter(prefix + "docker_request_meter");
+
+    imagePullTimeHistogram = registry.histogram(prefix + "image_pull_time_ms");
+    containerCreateTimeHistogram = registry.histogram(prefix + "container_create_time_ms");
+    containerStartTimeHistogram = registry.histogram(prefix + "container_start_time_ms");
+    healthCheckTimeHistogram = registry.histogram(prefix + "health_check_time_ms");
+    timeToRunningHistogram = registry.histogram(prefix + "time_to_running_ms");
+
+    dockerInFlightCounter = registry.counter(prefix + "docker_in_flight");
+    dockerLatencyTimer = registry.timer(prefix + "docker_latency");
 
     imagePull = new RequestMetrics(group, TYPE, "image_pull", registry);
   }
@@ -131,6 +172,21 @@ public class SupervisorMetricsImpl implements SupervisorMetrics {
     return new MetricsContextImpl(imagePull);
   }
 
+  @Override
+  public void containerTimeToRunning(final TimeToRunning timeToRunning) {
+    update(imagePullTimeHistogram, timeToRunning.getPullMillis());
+    update(containerCreateTimeHistogram, timeToRunning.getCreateMillis());
+    update(containerStartTimeHistogram, timeToRunning.getStartMillis());
+    update(healthCheckTimeHistogram, timeToRunning.getHealthCheckMillis());
+    timeToRunningHistogram.update(timeToRunning.getTotalMillis());
+  }
+
+  private static void update(final Histogram histogram, final Long millis) {
+    if (millis != null) {
+      histogram.update(millis);
+    }
+  }
+
   @Override
   public void imageCacheHit() {
     imageCacheHitCounter.inc();
@@ -148,6 +204,24 @@ public class SupervisorMetricsImpl implements SupervisorMetrics {
     dockerTimeoutMeter.mark();
   }
 
+  @Override
+  public void dockerRequestStarted(final String method) {
+    dockerInFlightCounter.inc();
+    registry.counter(prefix + "docker_in_flight." + method).inc();
+  }
+
+  @Override
+  public void dockerRequestFinished(final String method, final String outcome,
+                                    final long nanos) {
+    dockerInFlightCounter.dec();
+    registry.counter(prefix + "docker_in_flight." + method).dec();
+    registry.timer(prefix + "docker_latency." + method + "." + outcome).update(nanos, NANOSECONDS);
+    if (!LONG_RUNNING_DOCKER_REQUESTS.contains(method)) {
+      dockerRequestMeter.mark();
+      dockerLatencyTimer.update(nanos, NANOSECONDS);
+    }
+  }
+
   @Override
   public MeterRates getDockerTimeoutRates() {
     return new MeterRates(dockerTimeoutMeter);
@@ -168,4 +242,14 @@ public class SupervisorMetricsImpl implements SupervisorMetrics {
   public MeterRates getSupervisorRunRates() {
     return new MeterRates(supervisorRunMeter);
   }
+
+  @Override
+  public MeterRates getDockerRequestRates() {
+    return new MeterRates(dockerRequestMeter);
+  }
+
+  @Override
+  public Snapshot getDockerLatency() {
+    return dockerLatencyTimer.getSnapshot();
+  }
 }
@@ -25,4 +25,19 @@ public interface ZooKeeperMetrics {
 
   void zookeeperTransientError();
 
+  /**
+   * Records the latency of an operation.
+   *
+   * @param tag The call site the operation was made from, e.g. getHostStatus.
+   * @param operation The operation, e.g. getData.
+   * @param nanos How long the operation took.
+   */
+  void zookeeperOperation(String tag, String operation, long nanos);
+
+  void zookeeperBytesRead(String tag, int bytes);
+
+  void zookeeperBytesWritten(String tag, int bytes);
+
+  void zookeeperTransaction(String tag, int operations);
+
 }
@@ -25,14 +25,19 @@ import com.codahale.metrics.Counter;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
 public class ZooKeeperMetricsImpl implements ZooKeeperMetrics {
   private static final String TYPE = "zookeeper";
 
   private final Counter transientErrorCounter;
   private final Meter transientErrorMeter;
+  private final String prefix;
+  private final MetricRegistry registry;
 
   public ZooKeeperMetricsImpl(String group, MetricRegistry registry) {
-    final String prefix = MetricRegistry.name(group, TYPE) + ".";
+    this.prefix = MetricRegistry.name(group, TYPE) + ".";
+    this.registry = registry;
     transientErrorCounter = registry.counter(prefix + "transient_error_count");
     transientErrorMeter = registry.meter(prefix + "transient_error_meter");
   }
@@ -42,4 +47,26 @@ public class ZooKeeperMetricsImpl implements ZooKeeperMetrics {
     transientErrorCounter.inc();
     transientErrorMeter.mark();
   }
+
+  @Override
+  public void zookeeperOperation(String tag, String operation, long nanos) {
+    // Per operation across all call sites, and per operation and call site
+    registry.timer(prefix + "latency." + operation).update(nanos, NANOSECONDS);
+    registry.timer(prefix + "latency." + operation + "." + tag).update(nanos, NANOSECONDS);
+  }
+
+  @Override
+  public void zookeeperBytesRead(String tag, int bytes) {
+    registry.histogram(prefix + "bytes_read." + tag).update(bytes);
+  }
+
+  @Override
+  public void zookeeperBytesWritten(String tag, int bytes) {
+    registry.histogram(prefix + "bytes_written." + tag).update(bytes);
+  }
+
+  @Override
+  public void zookeeperTransaction(String tag, int operations) {
+    registry.histogram(prefix + "transaction_ops." + tag).update(operations);
+  }
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.servicescommon.tracing;
+
+import com.spotify.helios.common.descriptors.JobId;
+
+/**
+ * A timed operation, started with {@link Tracer#start(String, String)} and recorded by
+ * {@link #finish()}. Spans are not thread safe: they are expected to be started, annotated and
+ * finished by the same thread.
+ *
+ * <p>When tracing is disabled a shared span that ignores everything is handed out instead, so
+ * instrumented code should avoid computing annotations just for the span. Check
+ * {@link #isRecording()} first if an annotation is expensive to compute.
+ */
+public class Span {
+
+  static final Span NOOP = new NoopSpan();
+
+  private final SpanBuffer buffer;
+  private final String category;
+  private final String name;
+  private final long startNanos;
+  private final long threadId;
+  private final String threadName;
+
+  private long durationNanos;
+  private JobId job;
+  private String host;
+  private String tag;
+
+  Span(final SpanBuffer buffer, final String category, final String name,
+       final long startNanos) {
+    this.buffer = buffer;
+    this.category = category;
+    this.name = name;
+    this.startNanos = startNanos;
+    final Thread thread = Thread.currentThread();
+    this.threadId = thread.getId();
+    this.threadName = thread.getName();
+  }
+
+  /**
+   * @return Whether this span will be recorded when finished.
+   */
+  public boolean isRecording() {
+    return true;
+  }
+
+  public Span job(final JobId job) {
+    this.job = job;
+    return this;
+  }
+
+  public Span host(final String host) {
+    this.host = host;
+    return this;
+  }
+
+  public Span tag(final String tag) {
+    this.tag = tag;
+    return this;
+  }
+
+  /**
+   * Ends the span now and records it.
+   */
+  public void finish() {
+    durationNanos = System.nanoTime() - startNanos;
+    buffer.add(this);
+  }
+
+  public String getCategory() {
+    return category;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getStartNanos() {
+    return startNanos;
+  }
+
+  public long getDurationNanos() {
+    return durationNanos;
+  }
+
+  public long getThreadId() {
+    return threadId;
+  }
+
+  public String getThreadName() {
+    return threadName;
+  }
+
+  public JobId getJob() {
+    return job;
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  public String getTag() {
+    return tag;
+  }
+
+  private static class NoopSpan extends Span {
+
+    NoopSpan() {
+      super(null, "noop", "noop", 0);
+    }
+
+    @Override
+    public boolean isRecording() {
+      return false;
+    }
+
+    @Override
+    public Span job(final JobId job) {
+      return this;
+    }
+
+    @Override
+    public Span host(final String host) {
+      return this;
+    }
+
+    @Override
+    public Span tag(final String tag) {
+      return this;
+    }
+
+    @Override
+    public void finish() {
+    }
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.servicescommon.tracing;
+
+import com.google.common.collect.Lists;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A fixed size ring buffer of finished spans. Adding a span never blocks or allocates: writers
+ * claim a slot with a single atomic increment and overwrite the oldest span in it.
+ */
+class SpanBuffer {
+
+  private static final int MAX_CAPACITY = 1 << 24;
+
+  private static final Comparator<Span> BY_START = new Comparator<Span>() {
+    @Override
+    public int compare(final Span a, final Span b) {
+      return Long.compare(a.getStartNanos(), b.getStartNanos());
+    }
+  };
+
+  private final AtomicReferenceArray<Span> spans;
+  private final int mask;
+  private final AtomicLong next = new AtomicLong();
+
+  /**
+   * @param capacity The number of spans to keep, rounded up to a power of two.
+   */
+  SpanBuffer(final int capacity) {
+    checkArgument(capacity > 0 && capacity <= MAX_CAPACITY,
+                  "capacity must be between 1 and %s", MAX_CAPACITY);
+    final int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    this.spans = new AtomicReferenceArray<>(size);
+    this.mask = size - 1;
+  }
+
+  void add(final Span span) {
+    spans.set((int) (next.getAndIncrement() & mask), span);
+  }
+
+  /**
+   * @return The spans currently in the buffer, ordered by start time.
+   */
+  List<Span> snapshot() {
+    final List<Span> snapshot = Lists.newArrayListWithCapacity(spans.length());
+    for (int i = 0; i < spans.length(); i++) {
+      final Span span = spans.get(i);
+      if (span != null) {
+        snapshot.add(span);
+      }
+    }
+    Collections.sort(snapshot, BY_START);
+    return snapshot;
+  }
+
+  int capacity() {
+    return spans.length();
+  }
+
+  /**
+   * @return The number of spans that have been overwritten by newer ones.
+   */
+  long dropped() {
+    return Math.max(0, next.get() - spans.length());
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.servicescommon.tracing;
+
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Records timing spans from reactors, supervisors, ZooKeeper calls and the like into an in-memory
+ * ring buffer, for finding out where the time went during a latency spike.
+ *
+ * <p>Each master and agent has its own tracer, which it enables when configured to and hands to
+ * the components it creates. A tracer starts out disabled, and while disabled, starting a span
+ * costs a volatile read and returns a shared span that records nothing, so components that are
+ * given no tracer use a fresh one.
+ */
+public class Tracer {
+
+  private final long epochMillis = System.currentTimeMillis();
+  private final long epochNanos = System.nanoTime();
+
+  private volatile SpanBuffer buffer;
+
+  /**
+   * Starts recording spans, discarding any previously recorded ones.
+   *
+   * @param capacity The number of spans to keep. Older spans are overwritten by newer ones.
+   */
+  public void enable(final int capacity) {
+    buffer = new SpanBuffer(capacity);
+  }
+
+  /**
+   * Stops recording spans and discards the recorded ones.
+   */
+  public void disable() {
+    buffer = null;
+  }
+
+  public boolean isEnabled() {
+    return buffer != null;
+  }
+
+  /**
+   * Starts a span now.
+   *
+   * @param category The kind of operation, e.g. {@code zookeeper}.
+   * @param name     The operation.
+   * @return The span, to be finished by the calling thread.
+   */
+  public Span start(final String category, final String name) {
+    final SpanBuffer buffer = this.buffer;
+    if (buffer == null) {
+      return Span.NOOP;
+    }
+    return new Span(buffer, category, name, System.nanoTime());
+  }
+
+  /**
+   * Starts a span at a time in the past, for operations that are already being timed.
+   *
+   * @param category   The kind of operation, e.g. {@code zookeeper}.
+   * @param name       The operation.
+   * @param startNanos When the operation started, as returned by {@link System#nanoTime()}.
+   * @return The span, to be finished by the calling thread.
+   */
+  public Span start(final String category, final String name, final long startNanos) {
+    final SpanBuffer buffer = this.buffer;
+    if (buffer == null) {
+      return Span.NOOP;
+    }
+    return new Span(buffer, category, name, startNanos);
+  }
+
+  /**
+   * @return The recorded spans, ordered by start time.
+   */
+  public List<Span> getSpans() {
+    final SpanBuffer buffer = this.buffer;
+    return buffer == null ? Collections.<Span>emptyList() : buffer.snapshot();
+  }
+
+  /**
+   * @return The number of spans that can be kept, or 0 if disabled.
+   */
+  public int getCapacity() {
+    final SpanBuffer buffer = this.buffer;
+    return buffer == null ? 0 : buffer.capacity();
+  }
+
+  /**
+   * @return The number of spans that were overwritten by newer ones since tracing was enabled.
+   */
+  public long getDropped() {
+    final SpanBuffer buffer = this.buffer;
+    return buffer == null ? 0 : buffer.dropped();
+  }
+
+  /**
+   * Converts a {@link System#nanoTime()} timestamp to microseconds since the epoch.
+   */
+  public long toEpochMicros(final long nanos) {
+    return MILLISECONDS.toMicros(epochMillis) + NANOSECONDS.toMicros(nanos - epochNanos);
+  }
+}
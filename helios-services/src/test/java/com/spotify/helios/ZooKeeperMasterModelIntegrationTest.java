@@ -22,31 +22,45 @@
 package com.spotify.helios;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
+import com.spotify.helios.agent.Clock;
 import com.spotify.helios.common.HeliosException;
 import com.spotify.helios.common.descriptors.Deployment;
 import com.spotify.helios.common.descriptors.DeploymentGroup;
+import com.spotify.helios.common.descriptors.DeploymentGroupStatus;
 import com.spotify.helios.common.descriptors.Goal;
 import com.spotify.helios.common.descriptors.HostSelector;
+import com.spotify.helios.common.descriptors.HostStatus;
 import com.spotify.helios.common.descriptors.Job;
 import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.descriptors.JobStatus;
+import com.spotify.helios.common.descriptors.RolloutOptions;
+import com.spotify.helios.common.descriptors.TaskStatus;
 import com.spotify.helios.master.DeploymentGroupDoesNotExistException;
 import com.spotify.helios.master.DeploymentGroupExistsException;
 import com.spotify.helios.master.HostNotFoundException;
+import com.spotify.helios.master.JobAlreadyDeployedException;
 import com.spotify.helios.master.JobDoesNotExistException;
 import com.spotify.helios.master.JobNotDeployedException;
 import com.spotify.helios.master.JobStillDeployedException;
 import com.spotify.helios.master.ZooKeeperMasterModel;
+import com.spotify.helios.rollingupdate.DefaultRolloutPlanner;
 import com.spotify.helios.servicescommon.coordination.DefaultZooKeeperClient;
 import com.spotify.helios.servicescommon.coordination.Paths;
 import com.spotify.helios.servicescommon.coordination.ZooKeeperClient;
 import com.spotify.helios.servicescommon.coordination.ZooKeeperClientProvider;
 import com.spotify.helios.servicescommon.coordination.ZooKeeperModelReporter;
+import com.spotify.helios.servicescommon.coordination.ZooKeeperOperation;
+import com.spotify.helios.servicescommon.statistics.NoopMasterMetrics;
 
 import org.apache.curator.RetryPolicy;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
 import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.zookeeper.KeeperException;
+import org.joda.time.Instant;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -54,18 +68,30 @@ import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.Date;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasItem;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public class ZooKeeperMasterModelIntegrationTest {
@@ -126,6 +152,29 @@ public class ZooKeeperMasterModelIntegrationTest {
     assertThat(model.listHosts(), contains(secondHost));
   }
 
+  @Test
+  public void testDeregisterHostWithLargeHistory() throws Exception {
+    model.registerHost(HOST, "foo");
+    model.addJob(JOB);
+    model.deployJob(HOST, Deployment.newBuilder()
+        .setGoal(Goal.START)
+        .setJobId(JOB_ID)
+        .build());
+
+    // More history than fits in a single transaction
+    for (int i = 0; i < 1500; i++) {
+      client.ensurePath(Paths.historyJobHostEventsTimestamp(JOB_ID, HOST, i));
+    }
+
+    model.deregisterHost(HOST);
+
+    assertThat(model.listHosts(), empty());
+    assertNull(client.exists(Paths.configHost(HOST)));
+    assertNull(client.exists(Paths.configJobHost(JOB_ID, HOST)));
+    assertNull(client.exists(Paths.historyJobHost(JOB_ID, HOST)));
+    assertNotNull(model.getJob(JOB_ID));
+  }
+
   @Test
   public void testJobCreation() throws Exception {
     assertThat(model.getJobs().entrySet(), empty());
@@ -147,6 +196,184 @@ public class ZooKeeperMasterModelIntegrationTest {
   }
 
 
+  @Test
+  public void testStatusVersions() throws Exception {
+    final String jobsVersion = model.getJobsVersion();
+    assertNull(model.getJobStatusVersion(JOB_ID));
+    assertNull(model.getHostStatusVersion(HOST));
+
+    model.addJob(JOB);
+    model.registerHost(HOST, "foo");
+    final String jobStatusVersion = model.getJobStatusVersion(JOB_ID);
+    final String hostStatusVersion = model.getHostStatusVersion(HOST);
+    assertNotEquals(jobsVersion, model.getJobsVersion());
+    assertNotNull(jobStatusVersion);
+    assertNotNull(hostStatusVersion);
+
+    // Versions are stable as long as nothing changes
+    assertEquals(jobStatusVersion, model.getJobStatusVersion(JOB_ID));
+    assertEquals(hostStatusVersion, model.getHostStatusVersion(HOST));
+
+    model.deployJob(HOST,
+                    Deployment.newBuilder().setGoal(Goal.START).setJobId(JOB_ID).build());
+    assertNotEquals(jobStatusVersion, model.getJobStatusVersion(JOB_ID));
+    assertNotEquals(hostStatusVersion, model.getHostStatusVersion(HOST));
+
+    final String deployedVersion = model.getJobStatusVersion(JOB_ID);
+    model.updateDeployment(HOST,
+                           Deployment.newBuilder().setGoal(Goal.STOP).setJobId(JOB_ID).build());
+    assertNotEquals(deployedVersion, model.getJobStatusVersion(JOB_ID));
+  }
+
+  @Test
+  public void testProjectedStatuses() throws Exception {
+    model.addJob(JOB);
+    model.registerHost(HOST, "foo");
+    model.deployJob(HOST,
+                    Deployment.newBuilder().setGoal(Goal.START).setJobId(JOB_ID).build());
+
+    final HostStatus hostStatus = model.getHostStatus(HOST, EnumSet.of(HostStatus.Field.LABELS));
+    assertNotNull(hostStatus);
+    assertThat(hostStatus.getJobs().keySet(), empty());
+    assertNull(hostStatus.getHostInfo());
+    assertNull(hostStatus.getAgentInfo());
+
+    final JobStatus jobStatus = model.getJobStatus(JOB_ID,
+                                                   EnumSet.of(JobStatus.Field.DEPLOYMENTS));
+    assertNotNull(jobStatus);
+    assertEquals(ImmutableSet.of(HOST), jobStatus.getDeployments().keySet());
+    assertNull(jobStatus.getJob());
+    assertNull(jobStatus.getTaskStatuses());
+
+    final JobStatus full = model.getJobStatus(JOB_ID,
+                                              EnumSet.allOf(JobStatus.Field.class));
+    assertEquals(model.getJobStatus(JOB_ID), full);
+  }
+
+  @Test
+  public void testProjectedStatusesSkipReads() throws Exception {
+    model.addJob(JOB);
+    model.registerHost(HOST, "foo");
+    model.deployJob(HOST,
+                    Deployment.newBuilder().setGoal(Goal.START).setJobId(JOB_ID).build());
+
+    final ZooKeeperClient reading = spy(client);
+    final ZooKeeperMasterModel readingModel = new ZooKeeperMasterModel(
+        new ZooKeeperClientProvider(reading, ZooKeeperModelReporter.noop()));
+
+    readingModel.getHostStatus(HOST, EnumSet.of(HostStatus.Field.LABELS));
+    verify(reading).getData(Paths.statusHostLabels(HOST));
+    verify(reading, never()).getData(Paths.statusHostInfo(HOST));
+    verify(reading, never()).getData(Paths.statusHostAgentInfo(HOST));
+    verify(reading, never()).getData(Paths.statusHostEnvVars(HOST));
+    verify(reading, never()).getChildren(Paths.configHostJobs(HOST));
+    verify(reading, never()).getChildren(Paths.statusHostJobs(HOST));
+
+    readingModel.getJobStatus(JOB_ID, EnumSet.of(JobStatus.Field.DEPLOYMENTS));
+    verify(reading).getData(Paths.configHostJob(HOST, JOB_ID));
+    verify(reading, never()).getData(Paths.configJob(JOB_ID));
+    verify(reading, never()).getData(Paths.statusHostJob(HOST, JOB_ID));
+  }
+
+  @Test
+  public void testUndeployAndRemoveExpiringJob() throws Exception {
+    final Date expires = new Date(4711);
+    final Job job = JOB.toBuilder().setExpires(expires).build();
+    final Job otherJob = JOB.toBuilder().setName("OTHER").setExpires(expires).build();
+    model.addJob(job);
+    model.addJob(otherJob);
+    model.addJob(JOB.toBuilder().setName("NOT_EXPIRING").build());
+    assertEquals(ImmutableMap.of(job.getId(), expires, otherJob.getId(), expires),
+                 model.getJobExpirations());
+
+    model.registerHost(HOST, "foo");
+    model.registerHost("SECOND", "bar");
+    model.deployJob(HOST,
+                    Deployment.newBuilder().setGoal(Goal.START).setJobId(job.getId()).build());
+    model.deployJob("SECOND",
+                    Deployment.newBuilder().setGoal(Goal.START).setJobId(job.getId()).build());
+
+    model.undeployAndRemoveJob(job.getId(), Job.EMPTY_TOKEN);
+    assertNull(model.getJob(job.getId()));
+    assertNull(model.getDeployment(HOST, job.getId()));
+    assertNull(model.getDeployment("SECOND", job.getId()));
+    assertEquals(ImmutableMap.of(otherJob.getId(), expires), model.getJobExpirations());
+
+    model.removeJob(otherJob.getId());
+    assertEquals(ImmutableMap.<JobId, Date>of(), model.getJobExpirations());
+  }
+
+  @Test
+  public void testBulkDeployAndUndeploy() throws Exception {
+    model.addJob(JOB);
+    model.registerHost(HOST, "foo");
+    model.registerHost("SECOND", "bar");
+    final Deployment deployment = Deployment.newBuilder()
+        .setGoal(Goal.START)
+        .setJobId(JOB_ID)
+        .build();
+
+    Map<String, HeliosException> failures =
+        model.deployJobToHosts(ImmutableList.of(HOST, "SECOND"), deployment, Job.EMPTY_TOKEN);
+    assertTrue(failures.isEmpty());
+    assertEquals(deployment, model.getDeployment(HOST, JOB_ID));
+    assertEquals(deployment, model.getDeployment("SECOND", JOB_ID));
+
+    // A failing host makes the whole transaction fail, and its hosts are deployed one at a time
+    model.undeployJob("SECOND", JOB_ID);
+    failures = model.deployJobToHosts(ImmutableList.of(HOST, "SECOND", "MISSING"), deployment,
+                                      Job.EMPTY_TOKEN);
+    assertEquals(ImmutableSet.of(HOST, "MISSING"), failures.keySet());
+    assertTrue(failures.get(HOST) instanceof JobAlreadyDeployedException);
+    assertTrue(failures.get("MISSING") instanceof HostNotFoundException);
+    assertEquals(deployment, model.getDeployment("SECOND", JOB_ID));
+
+    failures = model.undeployJobFromHosts(ImmutableList.of(HOST, "SECOND", "MISSING"), JOB_ID,
+                                          Job.EMPTY_TOKEN);
+    assertEquals(ImmutableSet.of("MISSING"), failures.keySet());
+    assertNull(model.getDeployment(HOST, JOB_ID));
+    assertNull(model.getDeployment("SECOND", JOB_ID));
+    model.removeJob(JOB_ID);
+  }
+
+  @Test
+  public void testBulkDeployAndUndeployReportZooKeeperErrorsPerHost() throws Exception {
+    model.addJob(JOB);
+    model.registerHost(HOST, "foo");
+    model.registerHost("SECOND", "bar");
+    final Deployment deployment = Deployment.newBuilder()
+        .setGoal(Goal.START)
+        .setJobId(JOB_ID)
+        .build();
+
+    // Fail the transaction of the whole chunk, and then the one deploying to SECOND on its own
+    final ZooKeeperClient failing = spy(client);
+    doThrow(new KeeperException.ConnectionLossException())
+        .doCallRealMethod()
+        .doThrow(new KeeperException.ConnectionLossException())
+        .doCallRealMethod()
+        .when(failing).transaction(anyListOf(ZooKeeperOperation.class));
+    final ZooKeeperMasterModel failingModel = new ZooKeeperMasterModel(
+        new ZooKeeperClientProvider(failing, ZooKeeperModelReporter.noop()));
+
+    Map<String, HeliosException> failures = failingModel.deployJobToHosts(
+        ImmutableList.of(HOST, "SECOND", "MISSING"), deployment, Job.EMPTY_TOKEN);
+    assertEquals(ImmutableSet.of("SECOND", "MISSING"), failures.keySet());
+    assertEquals(HeliosException.class, failures.get("SECOND").getClass());
+    assertTrue(failures.get("MISSING") instanceof HostNotFoundException);
+    assertEquals(deployment, model.getDeployment(HOST, JOB_ID));
+    assertNull(model.getDeployment("SECOND", JOB_ID));
+
+    // Every host of the chunk fails when its undeploy operations cannot be read
+    doThrow(new KeeperException.ConnectionLossException())
+        .when(failing).listRecursive(anyCollectionOf(String.class));
+    failures = failingModel.undeployJobFromHosts(ImmutableList.of(HOST, "SECOND"), JOB_ID,
+                                                 Job.EMPTY_TOKEN);
+    assertEquals(ImmutableSet.of(HOST, "SECOND"), failures.keySet());
+    assertEquals(HeliosException.class, failures.get(HOST).getClass());
+    assertEquals(deployment, model.getDeployment(HOST, JOB_ID));
+  }
+
   @Test
   public void testJobRemove() throws Exception {
     model.addJob(JOB);
@@ -304,4 +531,50 @@ public class ZooKeeperMasterModelIntegrationTest {
     exception.expect(DeploymentGroupDoesNotExistException.class);
     model.removeDeploymentGroup("my_group");
   }
+
+  @Test
+  public void testRollingUpdateTimeoutUsesClock() throws Exception {
+    final Clock clock = mock(Clock.class);
+    final Instant now = new Instant();
+    when(clock.now()).thenReturn(now);
+    model = new ZooKeeperMasterModel(
+        new ZooKeeperClientProvider(client, ZooKeeperModelReporter.noop()), null,
+        new NoopMasterMetrics(), clock);
+    client.ensurePath(Paths.configDeploymentGroups());
+    client.ensurePath(Paths.statusDeploymentGroups());
+
+    model.registerHost(HOST, "foo");
+    client.ensurePath(Paths.statusHostUp(HOST));
+    model.addJob(JOB);
+    final DeploymentGroup dg = new DeploymentGroup(
+        "my_group", ImmutableList.of(HostSelector.parse("role=foo")), null, null);
+    model.addDeploymentGroup(dg);
+    model.updateDeploymentGroupHosts("my_group", ImmutableList.of(HOST));
+    model.rollingUpdate(dg, JOB_ID, RolloutOptions.newBuilder()
+        .setTimeout(60)
+        .setParallelism(1)
+        .build());
+    final DeploymentGroup updated = model.getDeploymentGroup("my_group");
+
+    // Plan the rollout, then undeploy the old jobs and deploy the new one
+    for (int i = 0; i < 3; i++) {
+      model.rollingUpdateStep(updated, DefaultRolloutPlanner.of(updated));
+    }
+
+    // The job is deployed but never reaches RUNNING
+    client.createAndSetData(Paths.statusHostJob(HOST, JOB_ID), TaskStatus.newBuilder()
+        .setJob(JOB)
+        .setGoal(Goal.START)
+        .setState(TaskStatus.State.PULLING_IMAGE)
+        .build()
+        .toJsonBytes());
+    model.rollingUpdateStep(updated, DefaultRolloutPlanner.of(updated));
+    assertEquals(DeploymentGroupStatus.State.ROLLING_OUT,
+                 model.getDeploymentGroupStatus("my_group").getState());
+
+    when(clock.now()).thenReturn(now.plus(SECONDS.toMillis(120)));
+    model.rollingUpdateStep(updated, DefaultRolloutPlanner.of(updated));
+    assertEquals(DeploymentGroupStatus.State.FAILED,
+                 model.getDeploymentGroupStatus("my_group").getState());
+  }
 }
@@ -22,6 +22,7 @@
 package com.spotify.helios.agent;
 
 import com.aphyr.riemann.Proto.Event;
+import com.codahale.metrics.Snapshot;
 import com.spotify.helios.servicescommon.CapturingRiemannClient;
 import com.spotify.helios.servicescommon.statistics.MeterRates;
 import com.spotify.helios.servicescommon.statistics.SupervisorMetrics;
@@ -35,6 +36,9 @@ import java.util.concurrent.TimeUnit;
 
 import static com.spotify.helios.agent.DockerHealthChecker.FAILURE_HIGH_WATERMARK;
 import static com.spotify.helios.agent.DockerHealthChecker.FAILURE_LOW_WATERMARK;
+import static com.spotify.helios.agent.DockerHealthChecker.LATENCY_HIGH_WATERMARK_MILLIS;
+import static com.spotify.helios.agent.DockerHealthChecker.LATENCY_LOW_WATERMARK_MILLIS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -47,6 +51,10 @@ public class DockerHealthCheckerTest {
   private static final MeterRates ZERO_RATE = makeMeter(0);
   private static final MeterRates BAD_RATE = makeMeter(FAILURE_HIGH_WATERMARK + .01);
 
+  private static final Snapshot OK_LATENCY = makeLatency(LATENCY_LOW_WATERMARK_MILLIS - 1);
+  private static final Snapshot BETWEEN_LATENCY = makeLatency(LATENCY_HIGH_WATERMARK_MILLIS - 1);
+  private static final Snapshot BAD_LATENCY = makeLatency(LATENCY_HIGH_WATERMARK_MILLIS + 1);
+
   private SupervisorMetrics metrics;
   private DockerHealthChecker checker;
   private CapturingRiemannClient riemannClient;
@@ -56,11 +64,17 @@ public class DockerHealthCheckerTest {
     return new MeterRates(value, value, value);
   }
 
+  private static Snapshot makeLatency(long millis) {
+    return new Snapshot(new long[]{MILLISECONDS.toNanos(millis)});
+  }
+
   @Before
   public void setUp() throws Exception {
     riemannClient = new CapturingRiemannClient();
     metrics = Mockito.mock(SupervisorMetrics.class);
     checker = new DockerHealthChecker(metrics, TimeUnit.SECONDS, 1, riemannClient.facade());
+    when(metrics.getDockerLatency()).thenReturn(OK_LATENCY);
+    when(metrics.getDockerRequestRates()).thenReturn(RUN_RATE);
   }
 
   @Test
@@ -129,6 +143,39 @@ public class DockerHealthCheckerTest {
     checkForState("ok");
   }
 
+  @Test
+  public void testLatency() throws Exception {
+    when(metrics.getDockerTimeoutRates()).thenReturn(ZERO_RATE);
+    when(metrics.getContainersThrewExceptionRates()).thenReturn(ZERO_RATE);
+    when(metrics.getSupervisorRunRates()).thenReturn(RUN_RATE);
+    when(metrics.getDockerLatency()).thenReturn(BAD_LATENCY);
+
+    checker.start();
+
+    assertFalse(checker.check().isHealthy());
+    checkForState("critical");
+
+    when(metrics.getDockerLatency()).thenReturn(BETWEEN_LATENCY);
+    assertFalse(checker.check().isHealthy());
+    checkForNoEmission();
+
+    when(metrics.getDockerLatency()).thenReturn(OK_LATENCY);
+    assertTrue(checker.check().isHealthy());
+    checkForState("ok");
+  }
+
+  @Test
+  public void testLatencyIgnoredWithoutRequests() throws Exception {
+    when(metrics.getDockerTimeoutRates()).thenReturn(ZERO_RATE);
+    when(metrics.getContainersThrewExceptionRates()).thenReturn(ZERO_RATE);
+    when(metrics.getSupervisorRunRates()).thenReturn(RUN_RATE);
+    when(metrics.getDockerLatency()).thenReturn(BAD_LATENCY);
+    when(metrics.getDockerRequestRates()).thenReturn(ZERO_RATE);
+
+    assertTrue(checker.check().isHealthy());
+    checkForNoEmission();
+  }
+
   private void checkForState(String expectedState) {
     final List<Event> events = riemannClient.getEvents();
     assertFalse(events.isEmpty());
@@ -44,11 +44,16 @@ import com.spotify.helios.common.descriptors.ServiceEndpoint;
 import com.spotify.helios.common.descriptors.ServicePorts;
 import com.spotify.helios.common.descriptors.TaskStatus;
 import com.spotify.helios.common.descriptors.ThrottleState;
+import com.spotify.helios.common.descriptors.TimeToRunning;
 import com.spotify.helios.serviceregistration.NopServiceRegistrationHandle;
 import com.spotify.helios.serviceregistration.ServiceRegistrar;
 import com.spotify.helios.serviceregistration.ServiceRegistration;
+import com.spotify.helios.servicescommon.ReactorFactory;
 import com.spotify.helios.servicescommon.statistics.NoopSupervisorMetrics;
+import com.spotify.helios.servicescommon.statistics.ReactorMetricsRegistry;
+import com.spotify.helios.servicescommon.tracing.Tracer;
 
+import org.joda.time.Instant;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -150,9 +155,12 @@ public class GracePeriodTest {
     }
   };
 
+  static final TimeToRunning TIME_TO_RUNNING = new TimeToRunning(0L, 0L, 0L, null, 0);
+
   @Mock public AgentModel model;
   @Mock public DockerClient docker;
   @Mock public RestartPolicy retryPolicy;
+  @Mock public Clock clock;
   @Mock public ServiceRegistrar registrar;
   @Mock public Sleeper sleeper;
 
@@ -182,7 +190,9 @@ public class GracePeriodTest {
         .setPorts(PORTS);
 
     final StatusUpdater statusUpdater = new DefaultStatusUpdater(model, taskStatus);
-    final TaskMonitor monitor = new TaskMonitor(JOB.getId(), FlapController.create(), statusUpdater);
+    when(clock.now()).thenReturn(new Instant(0));
+    final TaskMonitor monitor = new TaskMonitor(JOB.getId(), FlapController.create(), statusUpdater,
+                                                new NoopSupervisorMetrics(), clock);
 
     final TaskRunnerFactory runnerFactory = TaskRunnerFactory.builder()
         .registrar(registrar)
@@ -199,6 +209,7 @@ public class GracePeriodTest {
         .setRunnerFactory(runnerFactory)
         .setMetrics(new NoopSupervisorMetrics())
         .setMonitor(monitor)
+        .setReactorFactory(new ReactorFactory(new ReactorMetricsRegistry(), new Tracer()))
         .setSleeper(sleeper)
         .build();
 
@@ -310,6 +321,7 @@ public class GracePeriodTest {
                                                        .setPorts(PORTS)
                                                        .setContainerId(containerId)
                                                        .setEnv(ENV)
+                                                       .setTimeToRunning(TIME_TO_RUNNING)
                                                        .build())
     );
 
@@ -345,6 +357,7 @@ public class GracePeriodTest {
                                                        .setPorts(PORTS)
                                                        .setContainerId(containerId)
                                                        .setEnv(ENV)
+                                                       .setTimeToRunning(TIME_TO_RUNNING)
                                                        .build())
     );
 
@@ -357,6 +370,7 @@ public class GracePeriodTest {
                                                        .setPorts(PORTS)
                                                        .setContainerId(containerId)
                                                        .setEnv(ENV)
+                                                       .setTimeToRunning(TIME_TO_RUNNING)
                                                        .build())
     );
   }
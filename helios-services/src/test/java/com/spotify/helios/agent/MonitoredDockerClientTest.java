@@ -29,6 +29,7 @@ import com.spotify.docker.client.DockerClient;
 import com.spotify.docker.client.DockerException;
 import com.spotify.docker.client.DockerTimeoutException;
 import com.spotify.helios.servicescommon.RiemannFacade;
+import com.spotify.helios.servicescommon.statistics.SupervisorMetrics;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -42,10 +43,16 @@ import org.mockito.runners.MockitoJUnitRunner;
 
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -57,6 +64,7 @@ public class MonitoredDockerClientTest {
   @Rule public ExpectedException exception = ExpectedException.none();
   @Mock public DockerClient client;
   @Mock public AbstractRiemannClient riemannClient;
+  @Mock public SupervisorMetrics metrics;
 
   @Captor public ArgumentCaptor<Proto.Event> eventCaptor;
 
@@ -68,7 +76,7 @@ public class MonitoredDockerClientTest {
         .thenReturn(new Promise<Boolean>());
     when(riemannClient.event()).thenReturn(new EventDSL(riemannClient));
     final RiemannFacade riemannFacade = new RiemannFacade(riemannClient, HOST, SERVICE);
-    sut = MonitoredDockerClient.wrap(riemannFacade, client);
+    sut = MonitoredDockerClient.wrap(riemannFacade, metrics, client);
   }
 
   @Test()
@@ -82,6 +90,8 @@ public class MonitoredDockerClientTest {
     final Proto.Event event = eventCaptor.getValue();
     assertThat(event.getTagsList(), contains("docker", "timeout", "inspectContainer"));
     assertThat(event.getService(), equalTo("helios-agent/docker"));
+    verify(metrics).dockerRequestStarted("inspectContainer");
+    verify(metrics).dockerRequestFinished(eq("inspectContainer"), eq("timeout"), anyLong());
   }
 
   @Test()
@@ -95,5 +105,21 @@ public class MonitoredDockerClientTest {
     final Proto.Event event = eventCaptor.getValue();
     assertThat(event.getTagsList(), contains("docker", "error", "inspectImage"));
     assertThat(event.getService(), equalTo("helios-agent/docker"));
+    verify(metrics).dockerRequestFinished(eq("inspectImage"), eq("error"), anyLong());
+  }
+
+  @Test
+  public void testRequestSuccess() throws Exception {
+    sut.listContainers();
+    verify(metrics).dockerRequestStarted("listContainers");
+    verify(metrics).dockerRequestFinished(eq("listContainers"), eq("success"), anyLong());
+  }
+
+  @Test
+  public void testObjectMethodsAreNotMonitored() throws Exception {
+    assertEquals(client.toString(), sut.toString());
+    assertEquals(client.hashCode(), sut.hashCode());
+    assertFalse(sut.equals(mock(DockerClient.class)));
+    verifyZeroInteractions(metrics, riemannClient);
   }
 }
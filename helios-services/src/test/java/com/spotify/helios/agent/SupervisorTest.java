@@ -42,9 +42,14 @@ import com.spotify.helios.common.descriptors.JobId;
 import com.spotify.helios.common.descriptors.PortMapping;
 import com.spotify.helios.common.descriptors.TaskStatus;
 import com.spotify.helios.common.descriptors.ThrottleState;
+import com.spotify.helios.common.descriptors.TimeToRunning;
 import com.spotify.helios.serviceregistration.ServiceRegistrar;
+import com.spotify.helios.servicescommon.ReactorFactory;
 import com.spotify.helios.servicescommon.statistics.NoopSupervisorMetrics;
+import com.spotify.helios.servicescommon.statistics.ReactorMetricsRegistry;
+import com.spotify.helios.servicescommon.tracing.Tracer;
 
+import org.joda.time.Instant;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -134,9 +139,12 @@ public class SupervisorTest {
     }
   };
 
+  static final TimeToRunning TIME_TO_RUNNING = new TimeToRunning(0L, 0L, 0L, null, 0);
+
   @Mock public AgentModel model;
   @Mock public DockerClient docker;
   @Mock public RestartPolicy retryPolicy;
+  @Mock public Clock clock;
   @Mock public ServiceRegistrar registrar;
 
   @Captor public ArgumentCaptor<ContainerConfig> containerConfigCaptor;
@@ -162,7 +170,9 @@ public class SupervisorTest {
         .setPorts(PORTS);
 
     final StatusUpdater statusUpdater = new DefaultStatusUpdater(model, taskStatus);
-    final TaskMonitor monitor = new TaskMonitor(JOB.getId(), FlapController.create(), statusUpdater);
+    when(clock.now()).thenReturn(new Instant(0));
+    final TaskMonitor monitor = new TaskMonitor(JOB.getId(), FlapController.create(), statusUpdater,
+                                                new NoopSupervisorMetrics(), clock);
 
     final TaskRunnerFactory runnerFactory = TaskRunnerFactory.builder()
         .registrar(registrar)
@@ -179,6 +189,7 @@ public class SupervisorTest {
         .setRunnerFactory(runnerFactory)
         .setMetrics(new NoopSupervisorMetrics())
         .setMonitor(monitor)
+        .setReactorFactory(new ReactorFactory(new ReactorMetricsRegistry(), new Tracer()))
         .build();
 
     final ConcurrentMap<JobId, TaskStatus> statusMap = Maps.newConcurrentMap();
@@ -274,6 +285,7 @@ public class SupervisorTest {
                                                        .setState(RUNNING)
                                                        .setContainerId(containerId)
                                                        .setEnv(ENV)
+                                                       .setTimeToRunning(TIME_TO_RUNNING)
                                                        .build())
     );
 
@@ -314,6 +326,7 @@ public class SupervisorTest {
                                                        .setState(STOPPED)
                                                        .setContainerId(containerId)
                                                        .setEnv(ENV)
+                                                       .setTimeToRunning(TIME_TO_RUNNING)
                                                        .build())
     );
   }
@@ -27,7 +27,10 @@ import com.spotify.docker.client.ImageNotFoundException;
 import com.spotify.docker.client.ImagePullFailedException;
 import com.spotify.helios.common.descriptors.JobId;
 import com.spotify.helios.common.descriptors.ThrottleState;
+import com.spotify.helios.common.descriptors.TimeToRunning;
+import com.spotify.helios.servicescommon.statistics.SupervisorMetrics;
 
+import org.joda.time.Instant;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -48,6 +51,7 @@ import static com.spotify.helios.common.descriptors.ThrottleState.IMAGE_MISSING;
 import static com.spotify.helios.common.descriptors.ThrottleState.IMAGE_PULL_FAILED;
 import static com.spotify.helios.common.descriptors.ThrottleState.NO;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.timeout;
@@ -174,6 +178,37 @@ public class TaskMonitorTest {
     verify(statusUpdater, timeout(30000)).setThrottleState(NO);
   }
 
+  @Test
+  public void verifyMonitorReportsTimeToRunning() throws Exception {
+    final Clock clock = mock(Clock.class);
+    final SupervisorMetrics metrics = mock(SupervisorMetrics.class);
+    final TaskMonitor monitor = new TaskMonitor(JOB_ID, flapController, statusUpdater, metrics,
+                                                clock);
+    try {
+      when(clock.now()).thenReturn(new Instant(0));
+      monitor.pulling();
+      when(clock.now()).thenReturn(new Instant(100));
+      monitor.pulled();
+      monitor.creating();
+      when(clock.now()).thenReturn(new Instant(130));
+      monitor.created("container");
+      monitor.starting();
+      when(clock.now()).thenReturn(new Instant(200));
+      monitor.started();
+      monitor.running();
+
+      final TimeToRunning expected = new TimeToRunning(100L, 30L, 70L, null, 200);
+      verify(statusUpdater).setTimeToRunning(expected);
+      verify(metrics).containerTimeToRunning(expected);
+
+      // Running again without starting the container, e.g. after an agent restart, reports nothing
+      monitor.running();
+      verify(metrics).containerTimeToRunning(any(TimeToRunning.class));
+    } finally {
+      monitor.close();
+    }
+  }
+
   private Answer<?> futureAnswer(final SettableFuture<?> future) {
     return new Answer<Object>() {
       @Override
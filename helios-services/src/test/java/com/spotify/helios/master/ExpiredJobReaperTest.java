@@ -3,27 +3,24 @@ package com.spotify.helios.master;
 import com.google.common.collect.ImmutableMap;
 
 import com.spotify.helios.agent.Clock;
-import com.spotify.helios.common.descriptors.Deployment;
-import com.spotify.helios.common.descriptors.Goal;
 import com.spotify.helios.common.descriptors.Job;
 import com.spotify.helios.common.descriptors.JobId;
-import com.spotify.helios.common.descriptors.JobStatus;
 
 import org.joda.time.Instant;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
-import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
-import org.mockito.stubbing.Answer;
 
 import java.util.Date;
 import java.util.Map;
 
 import static java.util.Arrays.asList;
-import static org.mockito.Matchers.any;
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.ignoreStubs;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -71,40 +68,44 @@ public class ExpiredJobReaperTest {
       FAR_FUTURE_EXPIRING_JOB_ID, FAR_FUTURE_EXPIRING_JOB
   );
 
-  @Test
-  public void testExpiredJobReaper() throws Exception {
+  private ExpiredJobReaper reaper;
+
+  @Before
+  public void setUp() {
     when(mockClock.now()).thenReturn(new Instant(CURRENT_TS));
     when(masterModel.getJobs()).thenReturn(JOBS);
+    when(masterModel.getJob(EXPIRING_JOB_ID)).thenReturn(EXPIRING_JOB);
+
+    reaper = ExpiredJobReaper.newBuilder()
+        .setClock(mockClock)
+        .setMasterModel(masterModel)
+        .build();
+  }
 
-    when(masterModel.getJobStatus(any(JobId.class)))
-      .then(new Answer<JobStatus>() {
-        @Override
-        public JobStatus answer(final InvocationOnMock invocation) throws Throwable {
-          JobId jobId = (JobId) invocation.getArguments()[0];
+  @Test
+  public void testExpiredJobReaper() throws Exception {
+    when(masterModel.getJobExpirations()).thenReturn(ImmutableMap.of(
+        EXPIRING_JOB_ID, new Date(EXPIRED_TS),
+        FAR_FUTURE_EXPIRING_JOB_ID, new Date(FUTURE_TS)));
 
-          Map<String, Deployment> deployments = ImmutableMap.of(
-              "hostA", Deployment.of(jobId, Goal.START),
-              "hostB", Deployment.of(jobId, Goal.START));
+    // Make sure that the expiring job was undeployed and removed in one go, but that the
+    // non-expiring job and the job that expires far in the future were not.
+    assertEquals(Long.valueOf(FUTURE_TS), reaper.reapExpiredJobs());
+    verify(masterModel).undeployAndRemoveJob(eq(EXPIRING_JOB_ID), eq(""));
 
-          return JobStatus.newBuilder()
-              .setJob(JOBS.get(jobId))
-              .setDeployments(deployments)
-              .build();
-        }
-      });
+    verifyNoMoreInteractions(ignoreStubs(masterModel));
+  }
 
-    ExpiredJobReaper.newBuilder()
-        .setClock(mockClock)
-        .setMasterModel(masterModel)
-        .build()
-        .runOneIteration();
+  @Test
+  public void testJobsMissingFromIndex() throws Exception {
+    when(masterModel.getJobExpirations()).thenReturn(ImmutableMap.<JobId, Date>of());
 
-    // Make sure that the expiring job was removed, but that the non-expiring job
-    // and the job that expires far in the future were not.
-    verify(masterModel).undeployJob(eq("hostA"), eq(EXPIRING_JOB_ID), eq(""));
-    verify(masterModel).undeployJob(eq("hostB"), eq(EXPIRING_JOB_ID), eq(""));
-    verify(masterModel).removeJob(eq(EXPIRING_JOB_ID), eq(""));
+    // Jobs created before the index existed are found by scanning all jobs once
+    assertEquals(Long.valueOf(FUTURE_TS), reaper.reapExpiredJobs());
+    verify(masterModel).undeployAndRemoveJob(eq(EXPIRING_JOB_ID), eq(""));
 
+    assertEquals(Long.valueOf(FUTURE_TS), reaper.reapExpiredJobs());
+    verify(masterModel, times(1)).getJobs();
     verifyNoMoreInteractions(ignoreStubs(masterModel));
   }
-}
\ No newline at end of file
+}
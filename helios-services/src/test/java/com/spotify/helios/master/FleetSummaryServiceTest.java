@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import com.spotify.helios.ZooKeeperTestManager;
+import com.spotify.helios.ZooKeeperTestingServerManager;
+import com.spotify.helios.common.Json;
+import com.spotify.helios.common.descriptors.HostStatus;
+import com.spotify.helios.common.descriptors.Job;
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.descriptors.TaskStatus;
+import com.spotify.helios.common.descriptors.TaskStatus.State;
+import com.spotify.helios.common.descriptors.ThrottleState;
+import com.spotify.helios.common.protocol.FleetSummary;
+import com.spotify.helios.servicescommon.coordination.DefaultZooKeeperClient;
+import com.spotify.helios.servicescommon.coordination.Paths;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.spotify.helios.common.descriptors.Goal.START;
+import static org.junit.Assert.assertEquals;
+
+public class FleetSummaryServiceTest {
+
+  private static final Job JOB = Job.newBuilder()
+      .setCommand(ImmutableList.<String>of())
+      .setImage("image")
+      .setName("foo")
+      .setVersion("version")
+      .build();
+  private static final JobId JOB_ID = JOB.getId();
+
+  private ZooKeeperTestManager zk;
+  private DefaultZooKeeperClient client;
+  private StatusWatchService statusWatchService;
+  private FleetSummaryService service;
+
+  @Before
+  public void setUp() throws Exception {
+    zk = new ZooKeeperTestingServerManager();
+    client = new DefaultZooKeeperClient(zk.curator());
+    client.ensurePath(Paths.configHosts());
+    client.ensurePath(Paths.statusHosts());
+    client.ensurePath(Paths.configDeploymentGroups());
+    client.ensurePath(Paths.statusDeploymentGroups());
+    registerHost("host1", "pool", "a");
+    registerHost("host2", "pool", "b");
+    client.ensurePath(Paths.statusHostUp("host1"));
+    statusWatchService = new StatusWatchService(zk.curator());
+    statusWatchService.startAsync().awaitRunning();
+    service = new FleetSummaryService(zk.curator(), statusWatchService);
+    service.startAsync().awaitRunning();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    service.stopAsync().awaitTerminated();
+    statusWatchService.stopAsync().awaitTerminated();
+    zk.stop();
+  }
+
+  private void registerHost(final String host, final String label, final String value)
+      throws Exception {
+    client.ensurePath(Paths.configHostJobs(host));
+    client.ensurePath(Paths.statusHostJobs(host));
+    client.createAndSetData(Paths.statusHostLabels(host),
+                            Json.asBytes(ImmutableMap.of(label, value)));
+  }
+
+  private void writeStatus(final String host, final State state) throws Exception {
+    final TaskStatus status = TaskStatus.newBuilder()
+        .setState(state)
+        .setJob(JOB)
+        .setGoal(START)
+        .setThrottled(ThrottleState.NO)
+        .build();
+    final String path = Paths.statusHostJob(host, JOB_ID);
+    if (client.exists(path) == null) {
+      client.createAndSetData(path, status.toJsonBytes());
+    } else {
+      client.setData(path, status.toJsonBytes());
+    }
+  }
+
+  /**
+   * Waits for the summary to catch up with the writes made so far.
+   */
+  private FleetSummary awaitSummary(final int deployments, final int tasks) throws Exception {
+    FleetSummary summary = null;
+    for (int i = 0; i < 100; i++) {
+      summary = service.summary();
+      int taskCount = 0;
+      for (final int count : summary.getTasksByState().values()) {
+        taskCount += count;
+      }
+      if (summary.getDeployments() == deployments && taskCount == tasks) {
+        break;
+      }
+      Thread.sleep(100);
+    }
+    return summary;
+  }
+
+  @Test
+  public void testHostsAndTasks() throws Exception {
+    client.ensurePath(Paths.configHostJob("host1", JOB_ID));
+    writeStatus("host1", State.PULLING_IMAGE);
+    FleetSummary summary = awaitSummary(1, 1);
+
+    assertEquals(2, summary.getHosts());
+    assertEquals(ImmutableMap.of(HostStatus.Status.UP, 1, HostStatus.Status.DOWN, 1),
+                 summary.getHostsByStatus());
+    assertEquals(ImmutableMap.of("pool=a", 1, "pool=b", 1), summary.getHostsByLabel());
+    assertEquals(ImmutableMap.of(State.PULLING_IMAGE, 1), summary.getTasksByState());
+    assertEquals(ImmutableMap.of(ThrottleState.NO, 1), summary.getTasksByThrottle());
+
+    // Counts move with updates instead of accumulating
+    client.ensurePath(Paths.configHostJob("host2", JOB_ID));
+    writeStatus("host1", State.RUNNING);
+    writeStatus("host2", State.RUNNING);
+    summary = awaitSummary(2, 2);
+    assertEquals(ImmutableMap.of(State.RUNNING, 2), summary.getTasksByState());
+
+    client.delete(Paths.statusHostJob("host1", JOB_ID));
+    client.delete(Paths.configHostJob("host1", JOB_ID));
+    summary = awaitSummary(1, 1);
+    assertEquals(ImmutableMap.of(State.RUNNING, 1), summary.getTasksByState());
+  }
+
+  @Test
+  public void testStatusesCachedBeforeStartAreCounted() throws Exception {
+    writeStatus("host1", State.RUNNING);
+    awaitSummary(0, 1);
+
+    // The shared status cache already holds the task, so it is counted as soon as we start
+    final FleetSummaryService late = new FleetSummaryService(zk.curator(), statusWatchService);
+    late.startAsync().awaitRunning();
+    try {
+      assertEquals(ImmutableMap.of(State.RUNNING, 1), late.summary().getTasksByState());
+    } finally {
+      late.stopAsync().awaitTerminated();
+    }
+  }
+
+  @Test
+  public void testDeploymentGroups() throws Exception {
+    client.ensurePath(Paths.statusDeploymentGroup("group"));
+    client.createAndSetData(Paths.statusDeploymentGroupHosts("group"),
+                            Json.asBytes(ImmutableList.of("host1", "host2")));
+    FleetSummary summary = null;
+    for (int i = 0; i < 100; i++) {
+      summary = service.summary();
+      if (!summary.getDeploymentGroupHosts().isEmpty()) {
+        break;
+      }
+      Thread.sleep(100);
+    }
+    assertEquals(ImmutableMap.of("group", 2), summary.getDeploymentGroupHosts());
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import com.spotify.helios.TemporaryPorts;
+import com.spotify.helios.ZooKeeperTestingServerManager;
+import com.spotify.helios.client.HeliosClient;
+import com.spotify.helios.common.Json;
+import com.spotify.helios.common.descriptors.Job;
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.protocol.CreateJobResponse;
+import com.spotify.helios.common.protocol.JobDeleteResponse;
+import com.spotify.helios.servicescommon.coordination.Paths;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Talks to a master running in this JVM with the client, to check that what the resources
+ * return is what the client expects.
+ */
+public class HeliosClientIntegrationTest {
+
+  @Rule public final TemporaryPorts temporaryPorts = TemporaryPorts.create();
+
+  private ZooKeeperTestingServerManager zk;
+  private MasterMain master;
+  private String endpoint;
+
+  @Before
+  public void setUp() throws Exception {
+    zk = new ZooKeeperTestingServerManager();
+    zk.awaitUp(30, SECONDS);
+    final CuratorFramework curator = zk.curator();
+    for (final String path : ImmutableList.of(Paths.configHosts(), Paths.configJobs(),
+                                              Paths.configJobRefs(), Paths.statusHosts(),
+                                              Paths.statusMasters(), Paths.historyJobs())) {
+      curator.newNamespaceAwareEnsurePath(path).ensure(curator.getZookeeperClient());
+    }
+
+    endpoint = "http://127.0.0.1:" + temporaryPorts.localPort("http");
+    master = new MasterMain(new String[]{
+        "--no-log-setup",
+        "--no-metrics",
+        "--name", "test-master",
+        "--domain", "",
+        "--zk", zk.connectString(),
+        "--http", endpoint,
+        "--admin", String.valueOf(temporaryPorts.localPort("admin"))});
+    master.startAsync().awaitRunning();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    if (master != null) {
+      master.stopAsync().awaitTerminated();
+    }
+    if (zk != null) {
+      zk.close();
+    }
+  }
+
+  @Test
+  public void testJobsOfOtherUsersAreListed() throws Exception {
+    final HeliosClient alice = client("alice");
+    final HeliosClient bob = client("bob");
+    try {
+      final JobId aliceJob = createJob(alice, "alice-job");
+      final JobId bobJob = createJob(bob, "bob-job");
+
+      // Every request carries the user making it, which must not filter the jobs listed
+      assertEquals(ImmutableList.of(aliceJob, bobJob), sorted(bob.jobs()));
+      assertEquals(ImmutableList.of(aliceJob, bobJob),
+                   sorted(bob.jobs(null, null, null, null, null, 10)));
+
+      assertEquals(ImmutableList.of(aliceJob),
+                   sorted(bob.jobs(null, null, null, null, "alice", null)));
+    } finally {
+      alice.close();
+      bob.close();
+    }
+  }
+
+  @Test
+  public void testCachedJobList() throws Exception {
+    final HeliosClient client = client("alice");
+    try {
+      final JobId first = createJob(client, "first");
+      assertEquals(ImmutableList.of(first), sorted(client.jobs()));
+      // Served from the response cache, and revalidated by the client with its tag
+      assertEquals(ImmutableList.of(first), sorted(client.jobs()));
+
+      // Creating a job invalidates the cached list, so the next read sees it
+      final JobId second = createJob(client, "second");
+      assertEquals(ImmutableList.of(first, second), sorted(client.jobs()));
+
+      final HttpURLConnection connection =
+          (HttpURLConnection) new URL(endpoint + "/jobs?user=alice").openConnection();
+      connection.setRequestProperty("Accept-Encoding", "gzip");
+      assertEquals(200, connection.getResponseCode());
+      assertEquals("gzip", connection.getHeaderField("Content-Encoding"));
+      assertEquals("Accept-Encoding", connection.getHeaderField("Vary"));
+      final byte[] payload;
+      try (final InputStream in = new GZIPInputStream(connection.getInputStream())) {
+        payload = ByteStreams.toByteArray(in);
+      }
+      final Map<JobId, Job> listed = Json.read(payload, new TypeReference<Map<JobId, Job>>() {});
+      assertEquals(ImmutableList.of(first, second), Ordering.natural().sortedCopy(listed.keySet()));
+
+      assertEquals(JobDeleteResponse.Status.OK, client.deleteJob(first).get().getStatus());
+      assertEquals(ImmutableList.of(second), sorted(client.jobs()));
+    } finally {
+      client.close();
+    }
+  }
+
+  @Test
+  public void testFilteredJobListReadsItsOwnWrites() throws Exception {
+    final HeliosClient client = client("alice");
+    try {
+      final JobId first = createJob(client, "filtered-first");
+      assertEquals(ImmutableList.of(first),
+                   sorted(client.jobs(null, "filtered", null, null, null, null)));
+      assertEquals(ImmutableList.of(first), sorted(client.jobs("filtered-")));
+
+      // The client revalidates its copy of the list, which must not be reported as unchanged
+      final JobId second = createJob(client, "filtered-second");
+      assertEquals(ImmutableList.of(first, second),
+                   sorted(client.jobs(null, "filtered", null, null, null, null)));
+      assertEquals(ImmutableList.of(first, second), sorted(client.jobs("filtered-")));
+
+      assertEquals(JobDeleteResponse.Status.OK, client.deleteJob(first).get().getStatus());
+      assertEquals(ImmutableList.of(second),
+                   sorted(client.jobs(null, "filtered", null, null, null, null)));
+    } finally {
+      client.close();
+    }
+  }
+
+  @Test
+  public void testMasterLeader() throws Exception {
+    final HeliosClient client = client("alice");
+    try {
+      String leader = null;
+      for (int i = 0; i < 100 && leader == null; i++) {
+        leader = client.masterLeader().get();
+        if (leader == null) {
+          Thread.sleep(50);
+        }
+      }
+      assertEquals("test-master", leader);
+    } finally {
+      client.close();
+    }
+  }
+
+  private HeliosClient client(final String user) {
+    return HeliosClient.newBuilder()
+        .setUser(user)
+        .setEndpoints(endpoint)
+        .build();
+  }
+
+  private static JobId createJob(final HeliosClient client, final String name) throws Exception {
+    final Job job = Job.newBuilder()
+        .setName(name)
+        .setVersion("1")
+        .setImage("busybox")
+        .setCommand(ImmutableList.of("sleep", "1000"))
+        .build();
+    assertEquals(CreateJobResponse.Status.OK, client.createJob(job).get().getStatus());
+    return job.getId();
+  }
+
+  private static List<JobId> sorted(final ListenableFuture<Map<JobId, Job>> jobs)
+      throws Exception {
+    return Ordering.natural().sortedCopy(jobs.get().keySet());
+  }
+}
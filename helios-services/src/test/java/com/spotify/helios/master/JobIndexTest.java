@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master;
+
+import com.google.common.collect.ImmutableList;
+
+import com.spotify.helios.ZooKeeperTestManager;
+import com.spotify.helios.ZooKeeperTestingServerManager;
+import com.spotify.helios.common.descriptors.Job;
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.servicescommon.coordination.DefaultZooKeeperClient;
+import com.spotify.helios.servicescommon.coordination.Paths;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.Date;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+public class JobIndexTest {
+
+  private static final Job FOO_1 = job("foo", "1", "foo-image", "alice", null);
+  private static final Job FOO_2 = job("foo", "2", "foo-image", "bob", new Date(1000));
+  private static final Job FOOBAR_1 = job("foobar", "1", "bar-image", "alice", new Date(2000));
+  private static final Job BAZ_10 = job("baz", "10", "baz-image", "bob", null);
+
+  private ZooKeeperTestManager zk;
+  private DefaultZooKeeperClient client;
+  private JobIndex index;
+
+  @Before
+  public void setUp() throws Exception {
+    zk = new ZooKeeperTestingServerManager();
+    client = new DefaultZooKeeperClient(zk.curator());
+    client.ensurePath(Paths.configJobs());
+    addJob(FOO_1);
+    addJob(FOO_2);
+    addJob(FOOBAR_1);
+    index = new JobIndex(zk.curator());
+    index.startAsync().awaitRunning();
+    awaitSize(3);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    index.stopAsync().awaitTerminated();
+    zk.stop();
+  }
+
+  private static Job job(final String name, final String version, final String image,
+                         final String user, final Date expires) {
+    return Job.newBuilder()
+        .setCommand(ImmutableList.<String>of())
+        .setName(name)
+        .setVersion(version)
+        .setImage(image)
+        .setCreatingUser(user)
+        .setExpires(expires)
+        .build();
+  }
+
+  private void addJob(final Job job) throws Exception {
+    client.createAndSetData(Paths.configJob(job.getId()), job.toJsonBytes());
+  }
+
+  private void awaitSize(final int size) throws Exception {
+    for (int i = 0; i < 100 && (!index.isInitialized() || index.size() != size); i++) {
+      Thread.sleep(100);
+    }
+    assertEquals(size, index.size());
+  }
+
+  private Collection<JobId> query(final JobQuery.Builder query) {
+    return index.query(query.build()).keySet();
+  }
+
+  @Test
+  public void testIdSubstring() throws Exception {
+    assertThat(query(JobQuery.newBuilder().setIdSubstring("oob")), contains(FOOBAR_1.getId()));
+    assertThat(query(JobQuery.newBuilder().setIdSubstring("foo:2")), contains(FOO_2.getId()));
+    assertThat(query(JobQuery.newBuilder().setIdSubstring("o")),
+               contains(FOO_1.getId(), FOO_2.getId(), FOOBAR_1.getId()));
+
+    // Queries reaching into the hash, which is not indexed
+    final String hash = FOO_1.getId().getHash();
+    assertThat(query(JobQuery.newBuilder().setIdSubstring("foo:1:" + hash.substring(0, 4))),
+               contains(FOO_1.getId()));
+    assertThat(query(JobQuery.newBuilder().setIdSubstring(hash.substring(3, 10))),
+               contains(FOO_1.getId()));
+    assertThat(query(JobQuery.newBuilder().setIdSubstring("nope")), empty());
+  }
+
+  @Test
+  public void testCombinedFilters() throws Exception {
+    assertThat(query(JobQuery.newBuilder().setNamePrefix("foo")),
+               contains(FOO_1.getId(), FOO_2.getId(), FOOBAR_1.getId()));
+    assertThat(query(JobQuery.newBuilder().setNamePrefix("foo").setVersionPrefix("1")),
+               contains(FOO_1.getId(), FOOBAR_1.getId()));
+    assertThat(query(JobQuery.newBuilder().setNamePrefix("foo").setCreatingUser("alice")
+                         .setImage("foo-image")),
+               contains(FOO_1.getId()));
+    assertThat(query(JobQuery.newBuilder().setExpiresBefore(1500L)), contains(FOO_2.getId()));
+    assertThat(query(JobQuery.newBuilder().setNamePrefix("foo").setLimit(2)),
+               contains(FOO_1.getId(), FOO_2.getId()));
+  }
+
+  @Test
+  public void testAfter() throws Exception {
+    assertThat(query(JobQuery.newBuilder().setNamePrefix("foo").setAfter(FOO_1.getId())),
+               contains(FOO_2.getId(), FOOBAR_1.getId()));
+    assertThat(query(JobQuery.newBuilder().setAfter(FOO_2.getId()).setLimit(1)),
+               contains(FOOBAR_1.getId()));
+  }
+
+  @Test
+  public void testIncrementalUpdates() throws Exception {
+    addJob(BAZ_10);
+    awaitSize(4);
+    assertThat(query(JobQuery.newBuilder().setImage("baz-image")), contains(BAZ_10.getId()));
+
+    client.delete(Paths.configJob(FOO_1.getId()));
+    awaitSize(3);
+    assertThat(query(JobQuery.newBuilder().setCreatingUser("alice")),
+               contains(FOOBAR_1.getId()));
+    assertThat(query(JobQuery.newBuilder().setIdSubstring("foo:1")), empty());
+  }
+
+  @Test
+  public void testDirectUpdatesAreIdempotent() throws Exception {
+    index.add(BAZ_10);
+    assertThat(query(JobQuery.newBuilder().setImage("baz-image")), contains(BAZ_10.getId()));
+
+    // The watch on the node reports the same job again
+    addJob(BAZ_10);
+    index.add(BAZ_10);
+    awaitSize(4);
+    assertThat(query(JobQuery.newBuilder().setImage("baz-image")), contains(BAZ_10.getId()));
+
+    index.remove(BAZ_10.getId());
+    index.remove(BAZ_10.getId());
+    assertEquals(3, index.size());
+    assertThat(query(JobQuery.newBuilder().setCreatingUser("bob")), contains(FOO_2.getId()));
+  }
+}
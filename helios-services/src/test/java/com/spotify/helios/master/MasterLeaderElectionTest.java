@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master;
+
+import com.spotify.helios.ZooKeeperTestManager;
+import com.spotify.helios.ZooKeeperTestingServerManager;
+import com.spotify.helios.servicescommon.statistics.NoopMasterMetrics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MasterLeaderElectionTest {
+
+  private ZooKeeperTestManager zk;
+  private MasterLeaderElection first;
+  private MasterLeaderElection second;
+
+  @Before
+  public void setUp() throws Exception {
+    zk = new ZooKeeperTestingServerManager();
+    first = new MasterLeaderElection(zk.curator(), "first", new NoopMasterMetrics());
+    second = new MasterLeaderElection(zk.curator(), "second", new NoopMasterMetrics());
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    if (second.isRunning()) {
+      second.stopAsync().awaitTerminated();
+    }
+    zk.stop();
+  }
+
+  private void awaitLeader(final String name) throws Exception {
+    for (int i = 0; i < 100 && !name.equals(first.getLeader()); i++) {
+      Thread.sleep(100);
+    }
+    assertEquals(name, first.getLeader());
+  }
+
+  @Test
+  public void testFailover() throws Exception {
+    final CountDownLatch elected = new CountDownLatch(1);
+    second.addLeadershipListener(new Runnable() {
+      @Override
+      public void run() {
+        elected.countDown();
+      }
+    });
+
+    first.startAsync().awaitRunning();
+    awaitLeader("first");
+    assertTrue(first.hasLeadership());
+
+    second.startAsync().awaitRunning();
+    assertFalse(second.hasLeadership());
+    assertEquals("first", second.getLeader());
+
+    first.stopAsync().awaitTerminated();
+    assertTrue(elected.await(10, SECONDS));
+    assertTrue(second.hasLeadership());
+    assertEquals("second", second.getLeader());
+  }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import com.spotify.helios.ZooKeeperTestManager;
+import com.spotify.helios.ZooKeeperTestingServerManager;
+import com.spotify.helios.agent.Clock;
+import com.spotify.helios.common.HeliosRuntimeException;
+import com.spotify.helios.common.descriptors.Deployment;
+import com.spotify.helios.common.descriptors.DeploymentGroup;
+import com.spotify.helios.common.descriptors.Goal;
+import com.spotify.helios.common.descriptors.HostSelector;
+import com.spotify.helios.common.descriptors.Job;
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.descriptors.TaskStatus;
+import com.spotify.helios.servicescommon.coordination.DefaultZooKeeperClient;
+import com.spotify.helios.servicescommon.coordination.Paths;
+import com.spotify.helios.servicescommon.coordination.ZooKeeperClientProvider;
+import com.spotify.helios.servicescommon.coordination.ZooKeeperModelReporter;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.joda.time.Instant;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static com.spotify.helios.common.descriptors.TaskStatus.State.RUNNING;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MasterSnapshotServiceTest {
+
+  private static final Job JOB = Job.newBuilder()
+      .setName("foo")
+      .setVersion("1")
+      .setImage("foo-image")
+      .setCommand(ImmutableList.of("foo"))
+      .build();
+  private static final JobId JOB_ID = JOB.getId();
+
+  private static final TaskStatus TASK_STATUS = TaskStatus.newBuilder()
+      .setJob(JOB)
+      .setGoal(Goal.START)
+      .setState(RUNNING)
+      .setContainerId("container")
+      .build();
+
+  private static final Deployment DEPLOYMENT = Deployment.newBuilder()
+      .setJobId(JOB_ID)
+      .setGoal(Goal.START)
+      .build();
+
+  private static final DeploymentGroup DEPLOYMENT_GROUP = new DeploymentGroup(
+      "group", ImmutableList.of(HostSelector.parse("role=foo")), null, null);
+
+  private static final long SNAPSHOT_TS = 1000;
+
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+  private final ZooKeeperTestManager zk = new ZooKeeperTestingServerManager();
+  private final MasterModel model = mock(MasterModel.class);
+  private final CuratorFramework curator = mock(CuratorFramework.class, RETURNS_DEEP_STUBS);
+  private final Clock clock = mock(Clock.class);
+
+  private ZooKeeperMasterModel zkModel;
+  private StatusWatchService statusWatchService;
+  private JobIndex jobIndex;
+  private FleetSummaryService fleetSummaryService;
+
+  @Before
+  public void setUp() throws Exception {
+    when(clock.now()).thenReturn(new Instant(SNAPSHOT_TS));
+
+    final DefaultZooKeeperClient client = new DefaultZooKeeperClient(zk.curator());
+    client.ensurePath(Paths.configHosts());
+    client.ensurePath(Paths.configJobs());
+    client.ensurePath(Paths.configJobRefs());
+    client.ensurePath(Paths.configDeploymentGroups());
+    client.ensurePath(Paths.statusHosts());
+    client.ensurePath(Paths.statusDeploymentGroups());
+    client.ensurePath(Paths.historyJobs());
+    zkModel = new ZooKeeperMasterModel(
+        new ZooKeeperClientProvider(client, ZooKeeperModelReporter.noop()));
+    zkModel.addJob(JOB);
+    zkModel.addDeploymentGroup(DEPLOYMENT_GROUP);
+    for (final String host : ImmutableList.of("host-1", "host-2")) {
+      zkModel.registerHost(host, "id-" + host);
+      zkModel.deployJob(host, DEPLOYMENT);
+      client.ensurePath(Paths.statusHostUp(host));
+      client.createAndSetData(Paths.statusHostJob(host, JOB_ID), TASK_STATUS.toJsonBytes());
+    }
+
+    statusWatchService = new StatusWatchService(zk.curator());
+    jobIndex = new JobIndex(zk.curator());
+    fleetSummaryService = new FleetSummaryService(zk.curator(), statusWatchService);
+    statusWatchService.startAsync().awaitRunning();
+    jobIndex.startAsync().awaitRunning();
+    fleetSummaryService.startAsync().awaitRunning();
+    for (int i = 0; i < 100 && !cachesInitialized(); i++) {
+      Thread.sleep(100);
+    }
+    assertTrue(cachesInitialized());
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    fleetSummaryService.stopAsync().awaitTerminated();
+    jobIndex.stopAsync().awaitTerminated();
+    statusWatchService.stopAsync().awaitTerminated();
+    zk.close();
+  }
+
+  private boolean cachesInitialized() {
+    return statusWatchService.isInitialized() && jobIndex.isInitialized() &&
+           fleetSummaryService.isInitialized();
+  }
+
+  private MasterSnapshotService newService() throws Exception {
+    return new MasterSnapshotService(jobIndex, fleetSummaryService, statusWatchService, curator,
+                                     folder.getRoot().toPath(), 1, MINUTES, clock);
+  }
+
+  @Test
+  public void testSnapshotMatchesModel() throws Exception {
+    final MasterSnapshot snapshot = newService().takeSnapshot();
+
+    assertEquals(SNAPSHOT_TS, snapshot.getTimestamp());
+    assertEquals(zkModel.getJobs(), snapshot.getJobs());
+    assertEquals(zkModel.getDeploymentGroups(), snapshot.getDeploymentGroups());
+    assertEquals(ImmutableMap.of("host-1", zkModel.getHostStatus("host-1"),
+                                 "host-2", zkModel.getHostStatus("host-2")),
+                 snapshot.getHostStatuses());
+  }
+
+  @Test
+  public void testSnapshotIsLoadedOnRestart() throws Exception {
+    assertNull(newService().get());
+
+    when(curator.getZookeeperClient().isConnected()).thenReturn(true);
+    final MasterSnapshotService service = newService();
+    service.runOneIteration();
+
+    final MasterSnapshot snapshot = newService().get();
+    assertEquals(SNAPSHOT_TS, snapshot.getTimestamp());
+    assertEquals(service.get().getJobs(), snapshot.getJobs());
+    assertEquals(service.get().getDeploymentGroups(), snapshot.getDeploymentGroups());
+    assertEquals(service.get().getHostStatuses(), snapshot.getHostStatuses());
+  }
+
+  @Test
+  public void testNoSnapshotWhileDisconnected() throws Exception {
+    when(curator.getZookeeperClient().isConnected()).thenReturn(false);
+    final MasterSnapshotService service = newService();
+    service.runOneIteration();
+
+    assertNull(service.get());
+  }
+
+  @Test
+  public void testNoSnapshotUntilCachesAreInitialized() throws Exception {
+    when(curator.getZookeeperClient().isConnected()).thenReturn(true);
+    final StatusWatchService statusWatch = new StatusWatchService(zk.curator());
+    final MasterSnapshotService service = new MasterSnapshotService(
+        new JobIndex(zk.curator()), new FleetSummaryService(zk.curator(), statusWatch),
+        statusWatch, curator, folder.getRoot().toPath(), 1, MINUTES, clock);
+    service.runOneIteration();
+
+    assertNull(service.get());
+  }
+
+  @Test
+  public void testReadsAreServedFromSnapshotWhileDisconnected() throws Exception {
+    final MasterSnapshot snapshot = newService().takeSnapshot();
+    final SnapshotMasterModel snapshotModel = new SnapshotMasterModel(
+        model, curator, Suppliers.ofInstance(snapshot), clock);
+
+    when(curator.getZookeeperClient().isConnected()).thenReturn(false);
+    when(clock.now()).thenReturn(new Instant(SNAPSHOT_TS + 5000));
+    assertEquals(Long.valueOf(5000), snapshotModel.snapshotAgeMillis());
+    assertEquals(ImmutableList.of("host-1", "host-2"), snapshotModel.listHosts());
+    assertEquals("snapshot-" + SNAPSHOT_TS, snapshotModel.getJobStatusVersion(JOB_ID));
+    assertEquals(zkModel.getJobStatus(JOB_ID), snapshotModel.getJobStatus(JOB_ID));
+    try {
+      snapshotModel.addJob(JOB);
+      fail("writes should fail while disconnected");
+    } catch (HeliosRuntimeException expected) {
+      // ok
+    }
+    verify(model, never()).addJob(JOB);
+
+    when(curator.getZookeeperClient().isConnected()).thenReturn(true);
+    assertNull(snapshotModel.snapshotAgeMillis());
+    when(model.getJobsVersion()).thenReturn("zk");
+    assertEquals("zk", snapshotModel.getJobsVersion());
+  }
+}
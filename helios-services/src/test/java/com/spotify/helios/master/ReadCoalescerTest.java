@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master;
+
+import com.google.common.base.Supplier;
+
+import com.spotify.helios.servicescommon.statistics.MasterMetrics;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class ReadCoalescerTest {
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(2);
+  private final MasterMetrics metrics = mock(MasterMetrics.class);
+  private final ReadCoalescer<String, String> coalescer = new ReadCoalescer<>("test", metrics);
+
+  private final CountDownLatch fetching = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final AtomicInteger fetches = new AtomicInteger();
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private Future<String> get(final Supplier<String> fetch) {
+    return executor.submit(new Callable<String>() {
+      @Override
+      public String call() throws Exception {
+        return coalescer.get("key", fetch);
+      }
+    });
+  }
+
+  private Supplier<String> blockingFetch(final RuntimeException error) {
+    return new Supplier<String>() {
+      @Override
+      public String get() {
+        fetches.incrementAndGet();
+        fetching.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+        if (error != null) {
+          throw error;
+        }
+        return new String("value");
+      }
+    };
+  }
+
+  @Test
+  public void testConcurrentReadsShareFetch() throws Exception {
+    final Future<String> first = get(blockingFetch(null));
+    fetching.await();
+    final Future<String> second = get(blockingFetch(null));
+    verify(metrics, timeout(5000)).coalescedRead("test");
+    release.countDown();
+
+    assertSame(first.get(5, SECONDS), second.get(5, SECONDS));
+    assertEquals(1, fetches.get());
+  }
+
+  @Test
+  public void testErrorIsShared() throws Exception {
+    final IllegalStateException error = new IllegalStateException();
+    final Future<String> first = get(blockingFetch(error));
+    fetching.await();
+    final Future<String> second = get(blockingFetch(null));
+    verify(metrics, timeout(5000)).coalescedRead("test");
+    release.countDown();
+
+    for (final Future<String> future : new Future[]{first, second}) {
+      try {
+        future.get(5, SECONDS);
+        fail();
+      } catch (ExecutionException e) {
+        assertSame(error, e.getCause());
+      }
+    }
+    assertEquals(1, fetches.get());
+  }
+
+  @Test
+  public void testSequentialReadsFetchAgain() throws Exception {
+    release.countDown();
+    get(blockingFetch(null)).get(5, SECONDS);
+    get(blockingFetch(null)).get(5, SECONDS);
+    assertEquals(2, fetches.get());
+    verifyZeroInteractions(metrics);
+  }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import com.spotify.helios.ZooKeeperTestManager;
+import com.spotify.helios.ZooKeeperTestingServerManager;
+import com.spotify.helios.common.Json;
+import com.spotify.helios.common.descriptors.Job;
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.descriptors.TaskStatus;
+import com.spotify.helios.common.descriptors.TaskStatus.State;
+import com.spotify.helios.common.protocol.StatusChange;
+import com.spotify.helios.common.protocol.StatusWatchRequest;
+import com.spotify.helios.common.protocol.StatusWatchResponse;
+import com.spotify.helios.servicescommon.coordination.DefaultZooKeeperClient;
+import com.spotify.helios.servicescommon.coordination.Paths;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.spotify.helios.common.descriptors.Goal.START;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StatusWatchServiceTest {
+
+  private static final Job JOB = Job.newBuilder()
+      .setCommand(ImmutableList.<String>of())
+      .setImage("image")
+      .setName("foo")
+      .setVersion("version")
+      .build();
+  private static final JobId JOB_ID = JOB.getId();
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+  private ZooKeeperTestManager zk;
+  private DefaultZooKeeperClient client;
+  private StatusWatchService service;
+
+  @Before
+  public void setUp() throws Exception {
+    zk = new ZooKeeperTestingServerManager();
+    client = new DefaultZooKeeperClient(zk.curator());
+    client.ensurePath(Paths.statusHosts());
+    client.ensurePath(Paths.statusDeploymentGroups());
+    writeStatus("host1", State.PULLING_IMAGE);
+    service = new StatusWatchService(zk.curator(), 3);
+    service.startAsync().awaitRunning();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    executor.shutdownNow();
+    service.stopAsync().awaitTerminated();
+    zk.stop();
+  }
+
+  private void writeStatus(final String host, final State state) throws Exception {
+    final TaskStatus status = TaskStatus.newBuilder()
+        .setState(state)
+        .setJob(JOB)
+        .setGoal(START)
+        .build();
+    final String path = Paths.statusHostJob(host, JOB_ID);
+    if (client.exists(path) == null) {
+      client.ensurePath(path, true);
+      client.createAndSetData(path, status.toJsonBytes());
+    } else {
+      client.setData(path, status.toJsonBytes());
+    }
+  }
+
+  private StatusWatchResponse awaitSnapshot(final StatusWatchRequest request) throws Exception {
+    // Snapshots wait for the caches to fill up with the nodes that existed when they started
+    final StatusWatchResponse response = service.watch(request, SECONDS.toMillis(30));
+    assertNotNull(response);
+    return response;
+  }
+
+  @Test
+  public void testSnapshotWaitsForInitialization() throws Exception {
+    final StatusWatchRequest request = new StatusWatchRequest(
+        ImmutableSet.of(JOB_ID), ImmutableSet.<String>of());
+
+    // Without initialized caches there is no snapshot, and the client has to retry
+    final StatusWatchService stopped = new StatusWatchService(zk.curator());
+    assertNull(stopped.watch(request, 100));
+
+    final StatusWatchService started = new StatusWatchService(zk.curator());
+    started.startAsync().awaitRunning();
+    try {
+      final StatusWatchResponse snapshot = started.watch(request, SECONDS.toMillis(30));
+      assertTrue(snapshot.isReset());
+      assertEquals(1, snapshot.getChanges().size());
+    } finally {
+      started.stopAsync().awaitTerminated();
+    }
+  }
+
+  @Test
+  public void testSnapshotThenDelta() throws Exception {
+    final StatusWatchRequest request = new StatusWatchRequest(
+        ImmutableSet.of(JOB_ID), ImmutableSet.<String>of());
+    final StatusWatchResponse snapshot = awaitSnapshot(request);
+    assertTrue(snapshot.isReset());
+    assertEquals(1, snapshot.getChanges().size());
+    assertEquals(State.PULLING_IMAGE,
+                 snapshot.getChanges().get(0).getTaskStatus().getState());
+
+    final Future<StatusWatchResponse> delta = executor.submit(
+        new Callable<StatusWatchResponse>() {
+          @Override
+          public StatusWatchResponse call() throws Exception {
+            return service.watch(request.resumeFrom(snapshot), SECONDS.toMillis(30));
+          }
+        });
+    writeStatus("host1", State.RUNNING);
+
+    final StatusWatchResponse response = delta.get(30, SECONDS);
+    assertFalse(response.isReset());
+    assertEquals(1, response.getChanges().size());
+    final StatusChange change = response.getChanges().get(0);
+    assertEquals(StatusChange.Type.TASK_STATUS, change.getType());
+    assertEquals("host1", change.getHost());
+    assertEquals(JOB_ID, change.getJob());
+    assertEquals(State.RUNNING, change.getTaskStatus().getState());
+    assertTrue(response.getSequence() > snapshot.getSequence());
+  }
+
+  @Test
+  public void testTimeoutWithoutMatchingChanges() throws Exception {
+    final StatusWatchRequest request = new StatusWatchRequest(
+        ImmutableSet.of(JOB_ID), ImmutableSet.of("host1"));
+    final StatusWatchResponse snapshot = awaitSnapshot(request);
+
+    // A change on another host doesn't wake up the watch
+    writeStatus("host2", State.RUNNING);
+    final StatusWatchResponse response = service.watch(request.resumeFrom(snapshot), 500);
+    assertFalse(response.isReset());
+    assertTrue(response.getChanges().isEmpty());
+  }
+
+  @Test
+  public void testResetWhenFallingBehind() throws Exception {
+    final StatusWatchRequest request = new StatusWatchRequest(
+        ImmutableSet.of(JOB_ID), ImmutableSet.<String>of());
+    final StatusWatchResponse snapshot = awaitSnapshot(request);
+
+    // Overflow the change log, which only holds three changes
+    for (int i = 0; i < 5; i++) {
+      writeStatus("other" + i, State.RUNNING);
+    }
+    StatusWatchResponse response = null;
+    for (int i = 0; i < 100; i++) {
+      response = service.watch(request.resumeFrom(snapshot), 0);
+      if (response.isReset() && response.getChanges().size() == 6) {
+        break;
+      }
+      Thread.sleep(100);
+    }
+    assertTrue(response.isReset());
+    assertEquals(6, response.getChanges().size());
+  }
+
+  @Test
+  public void testDeploymentGroup() throws Exception {
+    client.ensurePath(Paths.statusDeploymentGroup("group"));
+    client.ensurePath(Paths.statusDeploymentGroupHosts("group"));
+    client.setData(Paths.statusDeploymentGroupHosts("group"),
+                   Json.asBytes(ImmutableList.of("host1")));
+
+    final StatusWatchRequest request = StatusWatchRequest.forDeploymentGroup("group");
+    StatusWatchResponse snapshot = null;
+    for (int i = 0; i < 100; i++) {
+      snapshot = awaitSnapshot(request);
+      if (snapshot.getChanges().size() == 3) {
+        break;
+      }
+      Thread.sleep(100);
+    }
+    // host1 is down, its task status and the group itself
+    assertEquals(3, snapshot.getChanges().size());
+
+    // The cache may still deliver notifications for the nodes created above, drain them so
+    // that only the update below is reported
+    for (int i = 0; i < 100; i++) {
+      final StatusWatchResponse trailing = service.watch(request.resumeFrom(snapshot), 100);
+      if (trailing.getChanges().isEmpty()) {
+        break;
+      }
+      snapshot = trailing;
+    }
+
+    client.setData(Paths.statusDeploymentGroup("group"), new byte[]{'{', '}'});
+    final StatusWatchResponse response = service.watch(request.resumeFrom(snapshot),
+                                                       SECONDS.toMillis(30));
+    assertEquals(1, response.getChanges().size());
+    assertEquals(StatusChange.Type.DEPLOYMENT_GROUP, response.getChanges().get(0).getType());
+    assertEquals("group", response.getChanges().get(0).getDeploymentGroup());
+  }
+}
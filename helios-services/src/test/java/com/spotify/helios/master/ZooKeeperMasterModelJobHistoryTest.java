@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.spotify.helios.master;
+
+import com.google.common.collect.ImmutableList;
+
+import com.spotify.helios.ZooKeeperTestManager;
+import com.spotify.helios.ZooKeeperTestingServerManager;
+import com.spotify.helios.common.descriptors.Job;
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.descriptors.TaskStatus;
+import com.spotify.helios.common.descriptors.TaskStatus.State;
+import com.spotify.helios.common.descriptors.TaskStatusEvent;
+import com.spotify.helios.servicescommon.coordination.DefaultZooKeeperClient;
+import com.spotify.helios.servicescommon.coordination.Paths;
+import com.spotify.helios.servicescommon.coordination.ZooKeeperClientProvider;
+import com.spotify.helios.servicescommon.coordination.ZooKeeperModelReporter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static com.spotify.helios.common.descriptors.Goal.START;
+import static org.junit.Assert.assertEquals;
+
+public class ZooKeeperMasterModelJobHistoryTest {
+
+  private static final Job JOB = Job.newBuilder()
+      .setCommand(ImmutableList.<String>of())
+      .setImage("image")
+      .setName("foo")
+      .setVersion("version")
+      .build();
+  private static final JobId JOB_ID = JOB.getId();
+
+  private ZooKeeperTestManager zk;
+  private DefaultZooKeeperClient client;
+  private ZooKeeperMasterModel masterModel;
+
+  @Before
+  public void setUp() throws Exception {
+    zk = new ZooKeeperTestingServerManager();
+    client = new DefaultZooKeeperClient(zk.curator());
+    masterModel = new ZooKeeperMasterModel(new ZooKeeperClientProvider(client,
+        ZooKeeperModelReporter.noop()));
+    client.ensurePath(Paths.configJobs());
+    client.ensurePath(Paths.configJobRefs());
+    masterModel.addJob(JOB);
+
+    writeEvent("host1", 1, State.PULLING_IMAGE);
+    writeEvent("host1", 3, State.RUNNING);
+    writeEvent("host1", 5, State.EXITED);
+    writeEvent("host2", 2, State.PULLING_IMAGE);
+    writeEvent("host2", 4, State.RUNNING);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    zk.stop();
+  }
+
+  private void writeEvent(final String host, final long timestamp, final State state)
+      throws Exception {
+    final TaskStatus status = TaskStatus.newBuilder()
+        .setState(state)
+        .setJob(JOB)
+        .setGoal(START)
+        .build();
+    client.ensurePath(Paths.historyJobHostEvents(JOB_ID, host));
+    client.createAndSetData(Paths.historyJobHostEventsTimestamp(JOB_ID, host, timestamp),
+                            status.toJsonBytes());
+  }
+
+  private static List<Long> timestamps(final List<TaskStatusEvent> events) {
+    final ImmutableList.Builder<Long> timestamps = ImmutableList.builder();
+    for (final TaskStatusEvent event : events) {
+      timestamps.add(event.getTimestamp());
+    }
+    return timestamps.build();
+  }
+
+  @Test
+  public void testAllEventsAreReturnedOldestFirst() throws Exception {
+    assertEquals(ImmutableList.of(1L, 2L, 3L, 4L, 5L),
+                 timestamps(masterModel.getJobHistory(JOB_ID)));
+  }
+
+  @Test
+  public void testLimitReturnsMostRecentEvents() throws Exception {
+    final JobHistoryQuery query = JobHistoryQuery.newBuilder().setLimit(2).build();
+    assertEquals(ImmutableList.of(4L, 5L),
+                 timestamps(masterModel.getJobHistory(JOB_ID, query)));
+  }
+
+  @Test
+  public void testTimeRange() throws Exception {
+    final JobHistoryQuery query = JobHistoryQuery.newBuilder().setSince(2L).setUntil(4L).build();
+    assertEquals(ImmutableList.of(2L, 3L, 4L),
+                 timestamps(masterModel.getJobHistory(JOB_ID, query)));
+  }
+
+  @Test
+  public void testHostAndState() throws Exception {
+    final JobHistoryQuery hostQuery = JobHistoryQuery.newBuilder().setHost("host2").build();
+    assertEquals(ImmutableList.of(2L, 4L),
+                 timestamps(masterModel.getJobHistory(JOB_ID, hostQuery)));
+
+    final JobHistoryQuery stateQuery = JobHistoryQuery.newBuilder()
+        .setState(State.RUNNING)
+        .setLimit(1)
+        .build();
+    assertEquals(ImmutableList.of(4L), timestamps(masterModel.getJobHistory(JOB_ID, stateQuery)));
+  }
+
+  @Test
+  public void testUnknownHostHasNoHistory() throws Exception {
+    final JobHistoryQuery query = JobHistoryQuery.newBuilder().setHost("nope").build();
+    assertEquals(ImmutableList.<Long>of(), timestamps(masterModel.getJobHistory(JOB_ID, query)));
+  }
+
+  @Test(expected = JobDoesNotExistException.class)
+  public void testMissingJob() throws Exception {
+    masterModel.getJobHistory(JobId.fromString("bar:1"));
+  }
+}
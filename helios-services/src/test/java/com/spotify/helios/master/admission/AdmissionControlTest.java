@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master.admission;
+
+import com.google.common.base.Ticker;
+
+import com.spotify.helios.master.admission.AdmissionControl.Permit;
+import com.spotify.helios.servicescommon.statistics.MasterMetrics;
+
+import org.junit.Test;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class AdmissionControlTest {
+
+  private static final String READ = "HostsResource#hostStatuses";
+  private static final String WRITE = "HostsResource#jobPut";
+
+  private final MasterMetrics metrics = mock(MasterMetrics.class);
+
+  private long nanos;
+
+  private final Ticker ticker = new Ticker() {
+    @Override
+    public long read() {
+      return nanos;
+    }
+  };
+
+  private static void assertRejected(final AdmissionControl admissionControl,
+                                     final String endpoint, final boolean read,
+                                     final String user, final String retryAfter) {
+    assertRejected(admissionControl, endpoint, read, user, "10.0.0.1", retryAfter);
+  }
+
+  private static void assertRejected(final AdmissionControl admissionControl,
+                                     final String endpoint, final boolean read,
+                                     final String user, final String address,
+                                     final String retryAfter) {
+    try {
+      admissionControl.admit(endpoint, read, user, address);
+      fail("request should have been rejected");
+    } catch (WebApplicationException e) {
+      final Response response = e.getResponse();
+      assertEquals(429, response.getStatus());
+      assertEquals(retryAfter, String.valueOf(response.getMetadata().getFirst("Retry-After")));
+    }
+  }
+
+  @Test
+  public void testConcurrentReads() throws Exception {
+    final AdmissionControl admissionControl = new AdmissionControl(2, 0, 0, metrics, ticker);
+
+    final Permit first = admissionControl.admit(READ, true, "alice", "10.0.0.1");
+    admissionControl.admit(READ, true, "bob", "10.0.0.1");
+    assertRejected(admissionControl, READ, true, "carol", "1");
+    verify(metrics).requestRejected(READ);
+
+    // Writes and other endpoints are not affected
+    admissionControl.admit(WRITE, false, "carol", "10.0.0.1");
+    admissionControl.admit("JobsResource#list", true, "carol", "10.0.0.1");
+
+    first.release();
+    admissionControl.admit(READ, true, "carol", "10.0.0.1");
+  }
+
+  @Test
+  public void testUserRateLimit() throws Exception {
+    final AdmissionControl admissionControl = new AdmissionControl(0, 0.5, 2, metrics, ticker);
+
+    admissionControl.admit(READ, true, "alice", "10.0.0.1");
+    admissionControl.admit(WRITE, false, "alice", "10.0.0.1");
+    assertRejected(admissionControl, READ, true, "alice", "2");
+
+    // Other users have their own buckets
+    admissionControl.admit(READ, true, "bob", "10.0.0.1");
+
+    // The user is not authenticated, so naming a user from another address takes another bucket
+    admissionControl.admit(READ, true, "alice", "10.0.0.2");
+
+    nanos += MILLISECONDS.toNanos(1500);
+    assertRejected(admissionControl, WRITE, false, "alice", "1");
+    nanos += MILLISECONDS.toNanos(500);
+    admissionControl.admit(WRITE, false, "alice", "10.0.0.1");
+    verify(metrics).requestRejected(READ);
+    verify(metrics).requestRejected(WRITE);
+  }
+
+  @Test
+  public void testAnonymousRateLimit() throws Exception {
+    final AdmissionControl admissionControl = new AdmissionControl(0, 0.5, 1, metrics, ticker);
+
+    admissionControl.admit(READ, true, null, "10.0.0.1");
+    assertRejected(admissionControl, READ, true, null, "10.0.0.1", "2");
+
+    // Anonymous clients on other addresses don't share the bucket
+    admissionControl.admit(READ, true, null, "10.0.0.2");
+    admissionControl.admit(READ, true, "", "10.0.0.3");
+  }
+}
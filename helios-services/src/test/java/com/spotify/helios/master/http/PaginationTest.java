@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master.http;
+
+import com.spotify.helios.master.http.Pagination.Page;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.ws.rs.WebApplicationException;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PaginationTest {
+
+  private static final List<String> ITEMS = asList("c", "a", "e", "b", "d");
+
+  @Test
+  public void testPages() throws Exception {
+    final Page<String> first = Pagination.page(ITEMS, null, 2);
+    assertEquals(asList("a", "b"), first.getItems());
+    assertEquals("b", first.getNext());
+
+    final Page<String> second = Pagination.page(ITEMS, first.getNext(), 2);
+    assertEquals(asList("c", "d"), second.getItems());
+    assertEquals("d", second.getNext());
+
+    final Page<String> last = Pagination.page(ITEMS, second.getNext(), 2);
+    assertEquals(asList("e"), last.getItems());
+    assertNull(last.getNext());
+  }
+
+  @Test
+  public void testNoLimit() throws Exception {
+    final Page<String> page = Pagination.page(ITEMS, null, null);
+    assertEquals(asList("a", "b", "c", "d", "e"), page.getItems());
+    assertNull(page.getNext());
+  }
+
+  @Test
+  public void testCursorOfRemovedItem() throws Exception {
+    // The cursor doesn't have to be one of the items, e.g. if a host was deregistered
+    final Page<String> page = Pagination.page(asList("a", "c", "d"), "b", 1);
+    assertEquals(asList("c"), page.getItems());
+    assertEquals("c", page.getNext());
+  }
+
+  @Test
+  public void testCursorPastEnd() throws Exception {
+    final Page<String> page = Pagination.page(ITEMS, "z", 2);
+    assertEquals(Collections.<String>emptyList(), page.getItems());
+    assertNull(page.getNext());
+  }
+
+  @Test(expected = WebApplicationException.class)
+  public void testInvalidLimit() throws Exception {
+    Pagination.page(ITEMS, null, 0);
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master.http;
+
+import com.google.common.base.Supplier;
+import com.google.common.io.ByteStreams;
+
+import com.spotify.helios.ZooKeeperTestManager;
+import com.spotify.helios.ZooKeeperTestingServerManager;
+import com.spotify.helios.common.Json;
+import com.spotify.helios.servicescommon.statistics.MasterMetrics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import javax.ws.rs.core.Response;
+
+import static java.util.Arrays.asList;
+import static javax.ws.rs.core.HttpHeaders.ACCEPT_ENCODING;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_ENCODING;
+import static javax.ws.rs.core.HttpHeaders.VARY;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ResponseCacheTest {
+
+  private static final String PATH = "/config/things";
+
+  private final MasterMetrics metrics = mock(MasterMetrics.class);
+  private final AtomicInteger loads = new AtomicInteger();
+
+  private ZooKeeperTestManager zk;
+  private ResponseCache cache;
+
+  private final Supplier<List<String>> loader = new Supplier<List<String>>() {
+    @Override
+    public List<String> get() {
+      loads.incrementAndGet();
+      try {
+        return zk.curator().getChildren().forPath(PATH);
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }
+  };
+
+  @Before
+  public void setUp() throws Exception {
+    zk = new ZooKeeperTestingServerManager();
+    zk.curator().create().creatingParentsIfNeeded().forPath(PATH + "/a");
+    cache = new ResponseCache(zk.curator(), metrics);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    zk.stop();
+  }
+
+  private byte[] body(final Response response) {
+    return (byte[]) response.getEntity();
+  }
+
+  @Test
+  public void testHitUntilChildrenChange() throws Exception {
+    final Response first = cache.get(PATH, null, null, loader);
+    assertEquals(200, first.getStatus());
+    assertArrayEquals(Json.asBytes(asList("a")), body(first));
+
+    final Response second = cache.get(PATH, null, null, loader);
+    assertArrayEquals(body(first), body(second));
+    assertEquals(1, loads.get());
+    verify(metrics).responseCacheMiss();
+    verify(metrics).responseCacheHit(anyInt());
+
+    zk.curator().create().forPath(PATH + "/b");
+    // The watch fires asynchronously
+    for (int i = 0; i < 100 && loads.get() == 1; i++) {
+      cache.get(PATH, null, null, loader);
+      Thread.sleep(50);
+    }
+    assertEquals(2, loads.get());
+    verify(metrics, times(2)).responseCacheMiss();
+  }
+
+  @Test
+  public void testInvalidate() throws Exception {
+    cache.get(PATH, null, null, loader);
+    zk.curator().create().forPath(PATH + "/b");
+    cache.invalidate(PATH);
+
+    final Response response = cache.get(PATH, null, null, loader);
+    assertArrayEquals(Json.asBytes(asList("a", "b")), body(response));
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void testGzip() throws Exception {
+    final Response plain = cache.get(PATH, null, "deflate", loader);
+    assertNull(plain.getMetadata().getFirst(CONTENT_ENCODING));
+    assertEquals(ACCEPT_ENCODING, plain.getMetadata().getFirst(VARY));
+
+    final Response gzipped = cache.get(PATH, null, "deflate, gzip", loader);
+    assertEquals("gzip", gzipped.getMetadata().getFirst(CONTENT_ENCODING));
+    assertEquals(ACCEPT_ENCODING, gzipped.getMetadata().getFirst(VARY));
+    final byte[] decompressed = ByteStreams.toByteArray(
+        new GZIPInputStream(new ByteArrayInputStream(body(gzipped))));
+    assertArrayEquals(body(plain), decompressed);
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  public void testNotModified() throws Exception {
+    final Response response = cache.get(PATH, null, null, loader);
+    final String etag = response.getMetadata().getFirst("ETag").toString();
+
+    final Response notModified = cache.get(PATH, etag, null, loader);
+    assertEquals(304, notModified.getStatus());
+    assertEquals(ACCEPT_ENCODING, notModified.getMetadata().getFirst(VARY));
+  }
+
+  @Test
+  public void testSizeIsReportedOnHits() throws Exception {
+    final ResponseCache.SizeListener listener = mock(ResponseCache.SizeListener.class);
+    zk.curator().create().forPath(PATH + "/b");
+
+    cache.get(PATH, null, null, loader, listener);
+    cache.get(PATH, null, "gzip", loader, listener);
+    assertEquals(1, loads.get());
+    verify(listener, times(2)).served(2);
+  }
+}
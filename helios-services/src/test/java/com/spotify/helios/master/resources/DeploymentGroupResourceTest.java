@@ -24,6 +24,7 @@ package com.spotify.helios.master.resources;
 import com.google.common.collect.Lists;
 
 import com.spotify.helios.common.descriptors.DeploymentGroup;
+import com.spotify.helios.common.descriptors.DeploymentGroupStatus;
 import com.spotify.helios.common.descriptors.HostSelector;
 import com.spotify.helios.common.descriptors.JobId;
 import com.spotify.helios.common.protocol.CreateDeploymentGroupResponse;
@@ -31,6 +32,7 @@ import com.spotify.helios.common.protocol.RemoveDeploymentGroupResponse;
 import com.spotify.helios.master.DeploymentGroupDoesNotExistException;
 import com.spotify.helios.master.DeploymentGroupExistsException;
 import com.spotify.helios.master.MasterModel;
+import com.spotify.helios.master.http.ResponseCache;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -38,12 +40,16 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -55,12 +61,14 @@ public class DeploymentGroupResourceTest {
 
   @Mock
   private MasterModel model;
+  @Mock
+  private ResponseCache responseCache;
 
   private DeploymentGroupResource resource;
 
   @Before
   public void before() {
-    resource = new DeploymentGroupResource(model);
+    resource = new DeploymentGroupResource(model, responseCache);
   }
 
   @Test
@@ -144,6 +152,45 @@ public class DeploymentGroupResourceTest {
         RemoveDeploymentGroupResponse.Status.DEPLOYMENT_GROUP_NOT_FOUND), response.getEntity());
   }
 
+  @Test
+  public void testGetDeploymentGroupStatusNotModified() throws Exception {
+    when(model.getDeploymentGroupStatusVersion("foo")).thenReturn("v1");
+
+    final Response response = resource.getDeploymentGroupStatus("foo", "W/\"v1\"");
+    assertEquals(Response.Status.NOT_MODIFIED.getStatusCode(), response.getStatus());
+
+    // The gzip filter tags compressed representations with the encoding
+    final Response gzipped = resource.getDeploymentGroupStatus("foo", "W/\"v1-gzip\"");
+    assertEquals(Response.Status.NOT_MODIFIED.getStatusCode(), gzipped.getStatus());
+    verify(model, never()).getDeploymentGroupStatus("foo");
+  }
+
+  @Test
+  public void testGetDeploymentGroupStatusWithoutIfNoneMatch() throws Exception {
+    final DeploymentGroup group = DeploymentGroup.newBuilder()
+        .setName("foo")
+        .setHostSelectors(Lists.newArrayList(ROLE_SELECTOR))
+        .build();
+    when(model.getDeploymentGroup("foo")).thenReturn(group);
+    when(model.getDeploymentGroupStatus("foo")).thenReturn(DeploymentGroupStatus.newBuilder()
+        .setDeploymentGroup(group)
+        .setState(DeploymentGroupStatus.State.ROLLING_OUT)
+        .build());
+    when(model.getDeploymentGroupHosts("foo")).thenReturn(Lists.<String>newArrayList());
+
+    final Response response = resource.getDeploymentGroupStatus("foo", null);
+    assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+    // The response is tagged without computing the version from ZooKeeper
+    assertNotNull(response.getMetadata().getFirst(HttpHeaders.ETAG));
+    verify(model, never()).getDeploymentGroupStatusVersion("foo");
+  }
+
+  @Test
+  public void testGetNonExistingDeploymentGroupStatus() throws Exception {
+    final Response response = resource.getDeploymentGroupStatus("foo", null);
+    assertEquals(Response.Status.NOT_FOUND.getStatusCode(), response.getStatus());
+  }
+
   /*
   @Test
   public void testRollingUpdateDeploymentGroupDoesNotExist() throws Exception {
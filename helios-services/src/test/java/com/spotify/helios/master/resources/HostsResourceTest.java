@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master.resources;
+
+import com.google.common.collect.ImmutableSet;
+
+import com.spotify.helios.common.descriptors.HostStatus;
+import com.spotify.helios.master.MasterModel;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Response;
+
+import static javax.ws.rs.core.HttpHeaders.ETAG;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class HostsResourceTest {
+
+  private static final String HOST = "foo";
+  private static final String STALE = "\"stale\"";
+
+  @Mock
+  private MasterModel model;
+
+  private HostsResource resource;
+
+  @Before
+  public void before() {
+    resource = new HostsResource(model);
+    when(model.getHostStatusVersion(HOST)).thenReturn("1");
+    when(model.getHostStatus(eq(HOST), anySetOf(HostStatus.Field.class)))
+        .thenReturn(mock(HostStatus.class));
+  }
+
+  @Test
+  public void testProjectedStatusTags() throws Exception {
+    final EntityTag full = tagOf(resource.hostStatus(HOST, null, STALE));
+    final EntityTag labels = tagOf(resource.hostStatus(HOST, "labels", STALE));
+    final EntityTag both = tagOf(resource.hostStatus(HOST, "labels,jobs", STALE));
+    assertEquals(3, ImmutableSet.of(full, labels, both).size());
+
+    // The order the fields are asked for in doesn't matter
+    assertEquals(both, tagOf(resource.hostStatus(HOST, "jobs, labels", STALE)));
+
+    // The tag of one projection doesn't match another one of the same version
+    final Response response = resource.hostStatus(HOST, "labels,jobs", quote(labels));
+    assertEquals(200, response.getStatus());
+    assertEquals(304, resource.hostStatus(HOST, "labels,jobs", quote(both)).getStatus());
+  }
+
+  private static EntityTag tagOf(final Response response) {
+    return (EntityTag) response.getMetadata().getFirst(ETAG);
+  }
+
+  private static String quote(final EntityTag tag) {
+    return '"' + tag.getValue() + '"';
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master.resources;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+import com.spotify.helios.common.HeliosException;
+import com.spotify.helios.common.descriptors.Deployment;
+import com.spotify.helios.common.descriptors.Goal;
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.descriptors.JobStatus;
+import com.spotify.helios.common.protocol.BulkDeployRequest;
+import com.spotify.helios.common.protocol.BulkDeployResponse;
+import com.spotify.helios.common.protocol.BulkUndeployRequest;
+import com.spotify.helios.common.protocol.BulkUndeployResponse;
+import com.spotify.helios.common.protocol.JobDeployResponse;
+import com.spotify.helios.common.protocol.JobUndeployResponse;
+import com.spotify.helios.master.HostNotFoundException;
+import com.spotify.helios.master.JobIndex;
+import com.spotify.helios.master.MasterModel;
+import com.spotify.helios.master.http.ResponseCache;
+import com.spotify.helios.servicescommon.statistics.MasterMetrics;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.List;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Response;
+
+import static com.spotify.helios.common.descriptors.Job.EMPTY_TOKEN;
+import static javax.ws.rs.core.HttpHeaders.ETAG;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JobsResourceTest {
+
+  private static final JobId JOB_ID =
+      JobId.fromString("foo:1:0123456789abcdef0123456789abcdef01234567");
+  private static final String STALE = "\"stale\"";
+  private static final List<String> HOSTS = ImmutableList.of("deployed", "missing", "failed");
+
+  @Mock
+  private MasterModel model;
+  @Mock
+  private MasterMetrics metrics;
+  @Mock
+  private ResponseCache responseCache;
+  @Mock
+  private JobIndex jobIndex;
+
+  private JobsResource resource;
+
+  @Before
+  public void before() {
+    resource = new JobsResource(model, metrics, responseCache, jobIndex);
+  }
+
+  @Test
+  public void testBulkDeployReportsEveryHost() throws Exception {
+    when(model.deployJobToHosts(anyListOf(String.class), any(Deployment.class), eq(EMPTY_TOKEN)))
+        .thenReturn(ImmutableMap.of("missing", new HostNotFoundException("missing"),
+                                    "failed", new HeliosException("connection lost")));
+
+    final BulkDeployResponse response = resource.deploy(
+        JOB_ID, new BulkDeployRequest(HOSTS, Goal.START), "user", EMPTY_TOKEN);
+
+    final List<JobDeployResponse.Status> statuses = Lists.newArrayList();
+    for (final JobDeployResponse result : response.getResults()) {
+      assertEquals(JOB_ID, result.getJob());
+      statuses.add(result.getStatus());
+    }
+    assertEquals(ImmutableList.of(JobDeployResponse.Status.OK,
+                                  JobDeployResponse.Status.HOST_NOT_FOUND,
+                                  JobDeployResponse.Status.FAILED), statuses);
+  }
+
+  @Test
+  public void testBulkUndeployReportsEveryHost() throws Exception {
+    when(model.undeployJobFromHosts(anyListOf(String.class), eq(JOB_ID), eq(EMPTY_TOKEN)))
+        .thenReturn(ImmutableMap.of("missing", new HostNotFoundException("missing"),
+                                    "failed", new HeliosException("connection lost")));
+
+    final BulkUndeployResponse response = resource.undeploy(
+        JOB_ID, new BulkUndeployRequest(HOSTS), EMPTY_TOKEN);
+
+    final List<JobUndeployResponse.Status> statuses = Lists.newArrayList();
+    for (final JobUndeployResponse result : response.getResults()) {
+      assertEquals(JOB_ID, result.getJob());
+      statuses.add(result.getStatus());
+    }
+    assertEquals(ImmutableList.of(JobUndeployResponse.Status.OK,
+                                  JobUndeployResponse.Status.HOST_NOT_FOUND,
+                                  JobUndeployResponse.Status.FAILED), statuses);
+  }
+
+  @Test
+  public void testProjectedStatusTags() throws Exception {
+    when(model.getJobStatusVersion(JOB_ID)).thenReturn("1");
+    when(model.getJobStatus(eq(JOB_ID), anySetOf(JobStatus.Field.class)))
+        .thenReturn(JobStatus.newBuilder().build());
+
+    final EntityTag full = tagOf(resource.statusGet(JOB_ID, null, STALE));
+    final EntityTag job = tagOf(resource.statusGet(JOB_ID, "job", STALE));
+    final EntityTag deployments = tagOf(resource.statusGet(JOB_ID, "deployments", STALE));
+    assertEquals(3, ImmutableSet.of(full, job, deployments).size());
+
+    // The tag of one projection doesn't match another one of the same version
+    final Response response = resource.statusGet(JOB_ID, "deployments", quote(job));
+    assertEquals(200, response.getStatus());
+    assertEquals(deployments, tagOf(response));
+    assertEquals(304, resource.statusGet(JOB_ID, "deployments", quote(deployments)).getStatus());
+  }
+
+  @Test
+  public void testBulkDeployWithoutBody() throws Exception {
+    try {
+      resource.deploy(JOB_ID, null, "user", EMPTY_TOKEN);
+      fail("expected 400");
+    } catch (WebApplicationException e) {
+      assertEquals(400, e.getResponse().getStatus());
+      final BulkDeployResponse response = (BulkDeployResponse) e.getResponse().getEntity();
+      assertTrue(response.getResults().isEmpty());
+    }
+  }
+
+  @Test
+  public void testBulkUndeployWithoutBody() throws Exception {
+    try {
+      resource.undeploy(JOB_ID, null, EMPTY_TOKEN);
+      fail("expected 400");
+    } catch (WebApplicationException e) {
+      assertEquals(400, e.getResponse().getStatus());
+      final BulkUndeployResponse response = (BulkUndeployResponse) e.getResponse().getEntity();
+      assertTrue(response.getResults().isEmpty());
+    }
+  }
+
+  private static EntityTag tagOf(final Response response) {
+    return (EntityTag) response.getMetadata().getFirst(ETAG);
+  }
+
+  private static String quote(final EntityTag tag) {
+    return '"' + tag.getValue() + '"';
+  }
+}
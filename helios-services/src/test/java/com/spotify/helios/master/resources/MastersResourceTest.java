@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.master.resources;
+
+import com.spotify.helios.common.Json;
+import com.spotify.helios.master.MasterLeaderElection;
+import com.spotify.helios.master.MasterModel;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import javax.ws.rs.WebApplicationException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MastersResourceTest {
+
+  @Mock
+  private MasterModel model;
+  @Mock
+  private MasterLeaderElection leaderElection;
+
+  private MastersResource resource;
+
+  @Before
+  public void before() {
+    resource = new MastersResource(model, leaderElection);
+  }
+
+  @Test
+  public void testLeaderIsJson() throws Exception {
+    when(leaderElection.getLeader()).thenReturn("master-\"1\"");
+
+    final String leader = resource.leader();
+    assertEquals("master-\"1\"", Json.read(leader, String.class));
+  }
+
+  @Test
+  public void testNoLeader() throws Exception {
+    try {
+      resource.leader();
+      fail("expected 404");
+    } catch (WebApplicationException e) {
+      assertEquals(404, e.getResponse().getStatus());
+    }
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.servicescommon;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.Iterables;
+
+import com.spotify.helios.Polling;
+import com.spotify.helios.servicescommon.statistics.ReactorMetrics;
+import com.spotify.helios.servicescommon.statistics.ReactorMetricsRegistry;
+import com.spotify.helios.servicescommon.tracing.Span;
+import com.spotify.helios.servicescommon.tracing.Tracer;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class DefaultReactorTest {
+
+  private final ReactorMetricsRegistry metricsRegistry = new ReactorMetricsRegistry();
+  private final MetricRegistry registry = new MetricRegistry();
+  private final CountDownLatch firstRunStarted = new CountDownLatch(1);
+  private final CountDownLatch releaseFirstRun = new CountDownLatch(1);
+
+  private final DefaultReactor reactor = new DefaultReactor("test", new Reactor.Callback() {
+    @Override
+    public void run(final boolean timeout) throws InterruptedException {
+      firstRunStarted.countDown();
+      releaseFirstRun.await();
+    }
+  }, 0, metricsRegistry, new Tracer());
+
+  @After
+  public void tearDown() {
+    reactor.stopAsync().awaitTerminated();
+  }
+
+  @Test
+  public void testMetrics() throws Exception {
+    metricsRegistry.attach(registry);
+    reactor.startAsync().awaitRunning();
+
+    assertThat(metricsRegistry.getReactors(), hasKey("test"));
+    assertThat(registry.getTimers(), hasKey("helios.reactor.test.runs"));
+
+    // Signals that arrive while the callback is running are coalesced into a single run
+    reactor.signal();
+    assertTrue(firstRunStarted.await(10, TimeUnit.SECONDS));
+    reactor.signal();
+    reactor.signal();
+    reactor.signal();
+    releaseFirstRun.countDown();
+
+    final ReactorMetrics metrics = reactor.getMetrics();
+    Polling.await(10, TimeUnit.SECONDS, new Callable<Boolean>() {
+      @Override
+      public Boolean call() throws Exception {
+        return metrics.getRuns().getCount() == 2 ? true : null;
+      }
+    });
+
+    assertEquals(4, metrics.getSignals().getCount());
+    assertEquals(2, metrics.getSignalsCoalesced().getCount());
+    assertEquals(0, metrics.getTimeouts().getCount());
+    assertEquals(0, metrics.getFailures().getCount());
+    assertTrue(metrics.getTimeSinceLastSuccessMillis() >= 0);
+
+    reactor.stopAsync().awaitTerminated();
+    assertThat(metricsRegistry.getReactors(), not(hasKey("test")));
+    assertThat(registry.getTimers(), not(hasKey("helios.reactor.test.runs")));
+  }
+
+  @Test
+  public void testDuplicateNames() throws Exception {
+    final String first = metricsRegistry.register("test", new ReactorMetrics());
+    final String second = metricsRegistry.register("test", new ReactorMetrics());
+    assertEquals("test", first);
+    assertEquals("test-2", second);
+
+    // Suffixes are not reused while other reactors with the name are registered
+    metricsRegistry.unregister(first);
+    assertEquals("test-3", metricsRegistry.register("test", new ReactorMetrics()));
+  }
+
+  @Test
+  public void testGroupMetrics() throws Exception {
+    metricsRegistry.attach(registry);
+    final ReactorMetrics first = new ReactorMetrics();
+    final ReactorMetrics second = new ReactorMetrics();
+    final String firstName = metricsRegistry.register("supervisor-foo:1:abc", "supervisor",
+                                                      first);
+    final String secondName = metricsRegistry.register("supervisor-bar:1:abc", "supervisor",
+                                                       second);
+    metricsRegistry.register("zk-ppcc:/status/hosts", "zk-ppcc:/status", new ReactorMetrics());
+
+    // Every reactor is listed, but metrics are only published per group
+    assertThat(metricsRegistry.getReactors(), hasKey("supervisor-foo:1:abc"));
+    assertThat(metricsRegistry.getReactors(), hasKey("supervisor-bar:1:abc"));
+    assertThat(registry.getTimers(), hasKey("helios.reactor.supervisor.runs"));
+    assertThat(registry.getTimers(), hasKey("helios.reactor.zk-ppcc__status.runs"));
+    assertEquals(2, registry.getTimers().size());
+
+    first.run(false, 0, 1000, true);
+    second.run(true, 0, 1000, false);
+    assertEquals(1, first.getRuns().getCount());
+    assertEquals(2, registry.getTimers().get("helios.reactor.supervisor.runs").getCount());
+    assertEquals(1, registry.getMeters().get("helios.reactor.supervisor.timeouts").getCount());
+
+    // The group is published until its last reactor is unregistered
+    metricsRegistry.unregister(firstName);
+    assertThat(registry.getTimers(), hasKey("helios.reactor.supervisor.runs"));
+    metricsRegistry.unregister(secondName);
+    assertThat(registry.getTimers(), not(hasKey("helios.reactor.supervisor.runs")));
+  }
+
+  @Test
+  public void testFactoriesPublishInTheirOwnRegistry() throws Exception {
+    // E.g. a master and an agent running in the same JVM
+    final ReactorMetricsRegistry otherRegistry = new ReactorMetricsRegistry();
+    final Tracer otherTracer = new Tracer();
+    otherTracer.enable(16);
+    final Reactor other = new ReactorFactory(otherRegistry, otherTracer).create(
+        "other", "group", new Reactor.Callback() {
+      @Override
+      public void run(final boolean timeout) {
+      }
+    }, 0);
+    other.startAsync().awaitRunning();
+    reactor.startAsync().awaitRunning();
+    try {
+      assertThat(otherRegistry.getReactors(), hasKey("other"));
+      assertThat(otherRegistry.getReactors(), not(hasKey("test")));
+      assertThat(metricsRegistry.getReactors(), not(hasKey("other")));
+
+      // Runs are traced by the tracer of the factory
+      other.signal();
+      final Span span = Polling.await(5, TimeUnit.SECONDS, new Callable<Span>() {
+        @Override
+        public Span call() throws Exception {
+          return Iterables.getFirst(otherTracer.getSpans(), null);
+        }
+      });
+      assertEquals("reactor", span.getCategory());
+      assertEquals("other", span.getName());
+    } finally {
+      other.stopAsync().awaitTerminated();
+    }
+  }
+}
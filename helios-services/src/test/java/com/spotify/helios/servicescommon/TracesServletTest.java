@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.servicescommon;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.spotify.helios.common.Json;
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.servicescommon.tracing.Tracer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class TracesServletTest {
+
+  @Test
+  public void testTraceEvents() throws Exception {
+    final Tracer tracer = new Tracer();
+    tracer.enable(16);
+    final long before = System.currentTimeMillis();
+    tracer.start("zookeeper", "getData").job(JobId.fromString("foo:1")).tag("jobs").finish();
+
+    final JsonNode trace = Json.readTree(
+        Json.asStringUnchecked(TracesServlet.traceEvents(tracer, "helios-test")));
+    final JsonNode events = trace.get("traceEvents");
+    assertEquals(3, events.size());
+
+    assertEquals("process_name", events.get(0).get("name").asText());
+    assertEquals("helios-test", events.get(0).get("args").get("name").asText());
+
+    final JsonNode span = events.get(1);
+    assertEquals("getData", span.get("name").asText());
+    assertEquals("zookeeper", span.get("cat").asText());
+    assertEquals("X", span.get("ph").asText());
+    assertFalse(span.get("ts").asLong() < before * 1000 - 1000);
+    assertFalse(span.get("dur").asLong() < 0);
+    assertEquals(Thread.currentThread().getId(), span.get("tid").asLong());
+    assertEquals("foo:1", span.get("args").get("job").asText());
+    assertEquals("jobs", span.get("args").get("tag").asText());
+    assertFalse(span.get("args").has("host"));
+
+    assertEquals("thread_name", events.get(2).get("name").asText());
+    assertEquals(Thread.currentThread().getName(),
+                 events.get(2).get("args").get("name").asText());
+    assertEquals(0, trace.get("otherData").get("dropped").asLong());
+  }
+}
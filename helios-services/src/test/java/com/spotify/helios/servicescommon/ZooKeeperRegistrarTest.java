@@ -26,6 +26,8 @@ import com.google.common.util.concurrent.SettableFuture;
 import com.spotify.helios.agent.BoundedRandomExponentialBackoff;
 import com.spotify.helios.agent.RetryIntervalPolicy;
 import com.spotify.helios.servicescommon.coordination.ZooKeeperClient;
+import com.spotify.helios.servicescommon.statistics.ReactorMetricsRegistry;
+import com.spotify.helios.servicescommon.tracing.Tracer;
 
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.listen.Listenable;
@@ -64,6 +66,8 @@ public class ZooKeeperRegistrarTest {
       .setMaxInterval(30, MILLISECONDS)
       .build();
 
+  ReactorFactory reactorFactory = new ReactorFactory(new ReactorMetricsRegistry(), new Tracer());
+
   @Before
   public void setup() {
     when(zkClient.getConnectionStateListenable()).thenReturn(connectionStateListenerListenable);
@@ -89,7 +93,7 @@ public class ZooKeeperRegistrarTest {
       public void tryToRegister(ZooKeeperClient client) throws KeeperException {
         complete.set(null);
       }
-    });
+    }, reactorFactory);
 
     init.startUp();
 
@@ -117,7 +121,7 @@ public class ZooKeeperRegistrarTest {
       public void tryToRegister(ZooKeeperClient client) throws KeeperException {
         complete.set(null);
       }
-    });
+    }, reactorFactory);
 
     init.startUp();
 
@@ -153,7 +157,7 @@ public class ZooKeeperRegistrarTest {
 
         complete.set(null);
       }
-    }, retryIntervalPolicy
+    }, retryIntervalPolicy, reactorFactory
     );
 
     init.startUp();
@@ -187,7 +191,7 @@ public class ZooKeeperRegistrarTest {
             complete.set(null);
 
           }
-        }, retryIntervalPolicy);
+        }, retryIntervalPolicy, reactorFactory);
 
     init.startUp();
 
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.servicescommon.coordination;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+import com.spotify.helios.ZooKeeperTestingServerManager;
+
+import org.apache.curator.utils.ZKPaths;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class DefaultZooKeeperClientTest {
+
+  private final ZooKeeperTestingServerManager zk = new ZooKeeperTestingServerManager();
+
+  private DefaultZooKeeperClient client;
+
+  @Before
+  public void setUp() throws Exception {
+    client = new DefaultZooKeeperClient(zk.curator());
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    zk.close();
+  }
+
+  @Test
+  public void testListRecursiveWithManyNodes() throws Exception {
+    // More nodes on a level than there may be requests in flight
+    final List<String> expected = Lists.newArrayList("/a");
+    client.ensurePath("/a");
+    for (int i = 0; i < 250; i++) {
+      final String child = ZKPaths.makePath("/a", "child-" + i);
+      client.ensurePath(child);
+      expected.add(child);
+    }
+    for (int i = 0; i < 250; i++) {
+      final String grandchild = ZKPaths.makePath("/a", "child-" + i, "node");
+      client.ensurePath(grandchild);
+      expected.add(grandchild);
+    }
+
+    // Parents come before their children, the order of siblings is unspecified
+    final List<String> nodes = client.listRecursive(ImmutableList.of("/a", "/missing"));
+    assertEquals(expected.size(), nodes.size());
+    assertEquals("/a", nodes.get(0));
+    assertEquals(ImmutableSet.copyOf(expected.subList(1, 251)),
+                 ImmutableSet.copyOf(nodes.subList(1, 251)));
+    assertEquals(ImmutableSet.copyOf(expected.subList(251, 501)),
+                 ImmutableSet.copyOf(nodes.subList(251, 501)));
+  }
+}
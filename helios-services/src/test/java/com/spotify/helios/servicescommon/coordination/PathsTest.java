@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.servicescommon.coordination;
+
+import com.spotify.helios.common.descriptors.JobId;
+
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+
+public class PathsTest {
+
+  private static final JobId JOB_ID =
+      JobId.fromString("foo:1:0123456789abcdef0123456789abcdef01234567");
+
+  @Test
+  public void testJobExpiration() throws Exception {
+    final String path = Paths.configJobExpiration(JOB_ID, new Date(4711));
+    final String child = path.substring(path.lastIndexOf('/') + 1);
+    assertEquals(4711, Paths.configJobExpirationTime(child));
+    assertEquals(JOB_ID, Paths.configJobExpirationId(child));
+  }
+
+  @Test
+  public void testJobExpirationBeforeEpoch() throws Exception {
+    final String path = Paths.configJobExpiration(JOB_ID, new Date(-4711));
+    final String child = path.substring(path.lastIndexOf('/') + 1);
+    assertEquals(0, Paths.configJobExpirationTime(child));
+    assertEquals(JOB_ID, Paths.configJobExpirationId(child));
+    assertEquals(path, Paths.configJobExpiration(JOB_ID, new Date(0)));
+  }
+}
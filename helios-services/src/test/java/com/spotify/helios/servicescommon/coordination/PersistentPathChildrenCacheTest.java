@@ -32,6 +32,9 @@ import com.spotify.helios.Polling;
 import com.spotify.helios.ZooKeeperTestManager;
 import com.spotify.helios.ZooKeeperTestingServerManager;
 import com.spotify.helios.common.Json;
+import com.spotify.helios.servicescommon.ReactorFactory;
+import com.spotify.helios.servicescommon.statistics.ReactorMetricsRegistry;
+import com.spotify.helios.servicescommon.tracing.Tracer;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.curator.framework.state.ConnectionState;
@@ -271,7 +274,9 @@ public class PersistentPathChildrenCacheTest {
 
   private void startCache() throws IOException, InterruptedException {
     reset(listener);
-    cache = new PersistentPathChildrenCache<>(zk.curator(), PATH, null, stateFile, Json.type(DataPojo.class));
+    cache = new PersistentPathChildrenCache<>(zk.curator(), PATH, null, stateFile,
+                                              Json.type(DataPojo.class),
+                                              new ReactorFactory(new ReactorMetricsRegistry(), new Tracer()));
     cache.addListener(listener);
     cache.startAsync().awaitRunning();
   }
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.servicescommon.coordination;
+
+import com.google.common.collect.ImmutableMap;
+
+import com.codahale.metrics.MetricRegistry;
+import com.spotify.helios.servicescommon.NoOpRiemannClient;
+import com.spotify.helios.servicescommon.statistics.ZooKeeperMetricsImpl;
+import com.spotify.helios.servicescommon.tracing.Tracer;
+
+import org.apache.zookeeper.KeeperException.ConnectionLossException;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReportingZooKeeperClientTest {
+
+  private final MetricRegistry registry = new MetricRegistry();
+  private final ZooKeeperClient client = mock(ZooKeeperClient.class);
+
+  private ZooKeeperClient reportingClient;
+
+  @Before
+  public void setUp() {
+    final ZooKeeperModelReporter reporter = new ZooKeeperModelReporter(
+        new NoOpRiemannClient().facade(), new ZooKeeperMetricsImpl("helios", registry),
+        new Tracer());
+    reportingClient = new ZooKeeperClientProvider(client, reporter).get("getHostStatus");
+  }
+
+  @Test
+  public void testReportsLatencyAndBytes() throws Exception {
+    when(client.getData("/foo")).thenReturn("hello".getBytes(UTF_8));
+
+    reportingClient.getData("/foo");
+    reportingClient.setData("/foo", "hi".getBytes(UTF_8));
+    reportingClient.transaction(new SetData("/foo", new byte[0]), new Delete("/bar"));
+
+    assertEquals(1, registry.timer("helios.zookeeper.latency.getData").getCount());
+    assertEquals(1, registry.timer("helios.zookeeper.latency.getData.getHostStatus").getCount());
+    assertEquals(1, registry.timer("helios.zookeeper.latency.setData.getHostStatus").getCount());
+    assertEquals(5, registry.histogram("helios.zookeeper.bytes_read.getHostStatus")
+        .getSnapshot().getMax());
+    assertEquals(2, registry.histogram("helios.zookeeper.bytes_written.getHostStatus")
+        .getSnapshot().getMax());
+    assertEquals(2, registry.histogram("helios.zookeeper.transaction_ops.getHostStatus")
+        .getSnapshot().getMax());
+  }
+
+  @Test
+  public void testReportsLatencyOfFailedOperations() throws Exception {
+    when(client.getChildren("/foo")).thenThrow(new ConnectionLossException());
+
+    try {
+      reportingClient.getChildren("/foo");
+      fail();
+    } catch (ConnectionLossException expected) {
+      // ok
+    }
+
+    assertEquals(1, registry.timer("helios.zookeeper.latency.getChildren.getHostStatus")
+        .getCount());
+    assertEquals(1, registry.counter("helios.zookeeper.transient_error_count").getCount());
+  }
+
+  @Test
+  public void testRequestTrace() throws Exception {
+    reportingClient.exists("/untraced");
+
+    final ZooKeeperRequestTrace trace = ZooKeeperRequestTrace.start();
+    try {
+      reportingClient.getData("/foo");
+      reportingClient.getData("/bar");
+      reportingClient.getChildren("/foo");
+    } finally {
+      ZooKeeperRequestTrace.stop();
+    }
+    reportingClient.exists("/untraced");
+
+    assertEquals(3, trace.getCalls());
+    assertEquals(ImmutableMap.of("getChildren", 1, "getData", 2), trace.getOperations());
+    assertTrue(trace.summary().startsWith("calls=3;"));
+    assertTrue(trace.summary().endsWith(";getChildren=1,getData=2"));
+  }
+}
@@ -23,6 +23,9 @@ package com.spotify.helios.servicescommon.coordination;
 
 import com.spotify.helios.Parallelized;
 import com.spotify.helios.ZooKeeperTestingServerManager;
+import com.spotify.helios.servicescommon.ReactorFactory;
+import com.spotify.helios.servicescommon.statistics.ReactorMetricsRegistry;
+import com.spotify.helios.servicescommon.tracing.Tracer;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.curator.utils.ZKPaths;
@@ -75,7 +78,8 @@ public class ZooKeeperUpdatingPersistentDirectoryTest {
   private void setupDirectory() throws IOException, InterruptedException {
     final DefaultZooKeeperClient client = new DefaultZooKeeperClient(zk.curator());
     final ZooKeeperClientProvider provider = new ZooKeeperClientProvider(client, noop());
-    sut = ZooKeeperUpdatingPersistentDirectory.create("test", provider, stateFile, PARENT_PATH);
+    sut = ZooKeeperUpdatingPersistentDirectory.create(
+        "test", provider, stateFile, PARENT_PATH, new ReactorFactory(new ReactorMetricsRegistry(), new Tracer()));
     sut.startAsync();
   }
 
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.servicescommon.tracing;
+
+import com.spotify.helios.common.descriptors.JobId;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TracerTest {
+
+  private static final JobId JOB = JobId.fromString("foo:1");
+
+  private final Tracer tracer = new Tracer();
+
+  @Test
+  public void testDisabled() {
+    final Span span = tracer.start("test", "disabled").job(JOB).host("host").tag("tag");
+    assertFalse(span.isRecording());
+    assertSame(span, tracer.start("test", "other"));
+    span.finish();
+
+    assertFalse(tracer.isEnabled());
+    assertTrue(tracer.getSpans().isEmpty());
+    assertEquals(0, tracer.getCapacity());
+  }
+
+  @Test
+  public void testRecord() {
+    tracer.enable(16);
+    final long start = System.nanoTime();
+    tracer.start("test", "first", start).job(JOB).host("host").tag("tag").finish();
+    tracer.start("test", "second").finish();
+
+    final List<Span> spans = tracer.getSpans();
+    assertEquals(2, spans.size());
+
+    final Span first = spans.get(0);
+    assertEquals("test", first.getCategory());
+    assertEquals("first", first.getName());
+    assertEquals(start, first.getStartNanos());
+    assertTrue(first.getDurationNanos() >= 0);
+    assertEquals(JOB, first.getJob());
+    assertEquals("host", first.getHost());
+    assertEquals("tag", first.getTag());
+    assertEquals(Thread.currentThread().getId(), first.getThreadId());
+    assertEquals("second", spans.get(1).getName());
+
+    tracer.disable();
+    assertTrue(tracer.getSpans().isEmpty());
+  }
+
+  @Test
+  public void testOverwritesOldestSpans() {
+    tracer.enable(3);
+    assertEquals(4, tracer.getCapacity());
+
+    for (int i = 0; i < 10; i++) {
+      tracer.start("test", "span-" + i).finish();
+    }
+
+    final List<Span> spans = tracer.getSpans();
+    assertEquals(4, spans.size());
+    for (int i = 0; i < 4; i++) {
+      assertEquals("span-" + (6 + i), spans.get(i).getName());
+    }
+    assertEquals(6, tracer.getDropped());
+  }
+
+  @Test
+  public void testConcurrentWriters() throws Exception {
+    tracer.enable(1024);
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    for (int i = 0; i < 8; i++) {
+      executor.submit(new Runnable() {
+        @Override
+        public void run() {
+          for (int j = 0; j < 1000; j++) {
+            tracer.start("test", "concurrent").finish();
+          }
+        }
+      });
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+    assertEquals(1024, tracer.getSpans().size());
+    assertEquals(8000 - 1024, tracer.getDropped());
+  }
+}
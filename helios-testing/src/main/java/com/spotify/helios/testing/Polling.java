@@ -31,23 +31,41 @@ import static java.lang.System.nanoTime;
 
 class Polling {
 
+  private static final long DEFAULT_INTERVAL_MILLIS = 500;
+
   public static <T> T await(final long timeout, final TimeUnit timeUnit, final Callable<T> callable)
       throws Exception {
+    return await(timeout, timeUnit, DEFAULT_INTERVAL_MILLIS, callable);
+  }
+
+  public static <T> T await(final long timeout, final TimeUnit timeUnit,
+                            final long intervalMillis, final Callable<T> callable)
+      throws Exception {
     final long deadline = nanoTime() + timeUnit.toNanos(timeout);
     while (nanoTime() < deadline) {
       final T value = callable.call();
       if (value != null) {
         return value;
       }
-      Thread.sleep(500);
+      Thread.sleep(intervalMillis);
     }
     throw new TimeoutException();
   }
 
   public static <T> T awaitUnchecked(final long timeout, final TimeUnit timeUnit,
                                      final Callable<T> callable) throws TimeoutException {
+    return awaitUnchecked(timeout, timeUnit, DEFAULT_INTERVAL_MILLIS, callable);
+  }
+
+  /**
+   * Like {@link #awaitUnchecked(long, TimeUnit, Callable)} but sleeps for the given interval
+   * between calls. Use an interval of zero when the callable blocks on its own.
+   */
+  public static <T> T awaitUnchecked(final long timeout, final TimeUnit timeUnit,
+                                     final long intervalMillis, final Callable<T> callable)
+      throws TimeoutException {
     try {
-      return await(timeout, timeUnit, callable);
+      return await(timeout, timeUnit, intervalMillis, callable);
     } catch (Throwable e) {
       propagateIfInstanceOf(e, TimeoutException.class);
       throw propagate(e);
@@ -30,6 +30,7 @@ import com.google.common.net.HostAndPort;
 import com.google.common.util.concurrent.Futures;
 
 import com.spotify.helios.client.HeliosClient;
+import com.spotify.helios.client.StatusWatch;
 import com.spotify.helios.common.descriptors.Deployment;
 import com.spotify.helios.common.descriptors.Goal;
 import com.spotify.helios.common.descriptors.HostStatus;
@@ -40,6 +41,7 @@ import com.spotify.helios.common.descriptors.TaskStatus;
 import com.spotify.helios.common.descriptors.ThrottleState;
 import com.spotify.helios.common.protocol.CreateJobResponse;
 import com.spotify.helios.common.protocol.JobDeployResponse;
+import com.spotify.helios.common.protocol.StatusWatchRequest;
 
 import org.apache.commons.lang.text.StrSubstitutor;
 import org.slf4j.Logger;
@@ -68,6 +70,9 @@ public class TemporaryJob {
 
   private static final Logger log = LoggerFactory.getLogger(TemporaryJob.class);
 
+  private static final long WATCH_TIMEOUT_MILLIS = 5000;
+  private static final long POLL_INTERVAL_MILLIS = 500;
+
   private final Map<String, TaskStatus> statuses = newHashMap();
   private final HeliosClient client;
   private final Prober prober;
@@ -254,16 +259,34 @@ public class TemporaryJob {
         .tag("image", job.getImage());
     try {
       final AtomicBoolean messagePrinted = new AtomicBoolean(false);
+      // Wait for task status changes from the master instead of polling the full job status.
+      // If the master doesn't support watching, fall back to polling.
+      final AtomicBoolean watching = new AtomicBoolean(true);
+      final StatusWatch watch = new StatusWatch(client, new StatusWatchRequest(
+          ImmutableSet.of(job.getId()), ImmutableSet.of(host)));
+      final long deadline = System.currentTimeMillis() + deployTimeoutMillis;
       final TaskStatus status = Polling.awaitUnchecked(
-          deployTimeoutMillis, MILLISECONDS, new Callable<TaskStatus>() {
+          deployTimeoutMillis, MILLISECONDS, 0, new Callable<TaskStatus>() {
             @Override
             public TaskStatus call() throws Exception {
-              final JobStatus status = Futures.getUnchecked(client.jobStatus(job.getId()));
-              if (status == null) {
-                log.debug("Job status not available");
-                return null;
+              final TaskStatus taskStatus;
+              if (watching.get()) {
+                final long timeout = Math.max(0, Math.min(
+                    WATCH_TIMEOUT_MILLIS, deadline - System.currentTimeMillis()));
+                if (Futures.getUnchecked(watch.next(timeout, MILLISECONDS)) == null) {
+                  watching.set(false);
+                  return null;
+                }
+                taskStatus = watch.getTaskStatuses(job.getId()).get(host);
+              } else {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+                final JobStatus status = Futures.getUnchecked(client.jobStatus(job.getId()));
+                if (status == null) {
+                  log.debug("Job status not available");
+                  return null;
+                }
+                taskStatus = status.getTaskStatuses().get(host);
               }
-              final TaskStatus taskStatus = status.getTaskStatuses().get(host);
               if (taskStatus == null) {
                 log.debug("Task status not available on {}", host);
                 return null;
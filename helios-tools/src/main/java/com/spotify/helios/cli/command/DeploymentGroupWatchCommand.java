@@ -24,6 +24,9 @@ package com.spotify.helios.cli.command;
 import com.google.common.base.Strings;
 
 import com.spotify.helios.client.HeliosClient;
+import com.spotify.helios.client.StatusWatch;
+import com.spotify.helios.common.protocol.StatusChange;
+import com.spotify.helios.common.protocol.StatusWatchRequest;
 
 import net.sourceforge.argparse4j.inf.Argument;
 import net.sourceforge.argparse4j.inf.Namespace;
@@ -34,10 +37,14 @@ import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static net.sourceforge.argparse4j.impl.Arguments.storeTrue;
 
 public class DeploymentGroupWatchCommand extends ControlCommand {
@@ -81,20 +88,39 @@ public class DeploymentGroupWatchCommand extends ControlCommand {
 
     final int timestampLength = String.format("[%s UTC]", DATE_TIME_PATTERN).length();
 
+    // Only fetch the deployment group status again when the master reports a change to it or
+    // its hosts. Masters that don't support watching are polled like before.
+    StatusWatch watch = new StatusWatch(client, StatusWatchRequest.forDeploymentGroup(name));
+    byte[] report = null;
     int rc = 0;
     while (rc == 0) {
+      final List<StatusChange> changes = watch == null
+                                         ? null
+                                         : watch.next(report == null ? 0 : interval, SECONDS).get();
+      if (changes == null) {
+        watch = null;
+      }
+
       final Instant now = new Instant();
       if (!json) {
         out.printf(Strings.repeat("-", MAX_WIDTH - timestampLength - 1)
                    + " [%s UTC]%n", now.toString(formatter));
       }
 
-      rc = DeploymentGroupStatusCommand.run0(client, out, json, name, full);
+      if (report == null || changes == null || !changes.isEmpty()) {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final PrintStream bufferOut = new PrintStream(buffer, true, UTF_8.name());
+        rc = DeploymentGroupStatusCommand.run0(client, bufferOut, json, name, full);
+        report = buffer.toByteArray();
+      }
+      out.write(report);
       if (out.checkError()) {
         break;
       }
 
-      Thread.sleep(1000 * interval);
+      if (watch == null) {
+        Thread.sleep(1000 * interval);
+      }
     }
     return 0;
   }
@@ -45,6 +45,7 @@ import net.sourceforge.argparse4j.inf.Subparser;
 import java.io.BufferedReader;
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -67,6 +68,9 @@ import static net.sourceforge.argparse4j.impl.Arguments.storeTrue;
 
 public class HostListCommand extends ControlCommand {
 
+  private static final Set<HostStatus.Field> TABLE_FIELDS = EnumSet.complementOf(
+      EnumSet.of(HostStatus.Field.ENVIRONMENT));
+
   private final Argument quietArg;
   private final Argument patternArg;
   private final Argument fullArg;
@@ -145,7 +149,10 @@ public class HostListCommand extends ControlCommand {
     } else {
       final Map<String, ListenableFuture<HostStatus>> statuses = Maps.newTreeMap();
       try {
-        final Map<String, HostStatus> hostStatuses = client.hostStatuses(hosts).get();
+        // The table doesn't show the agent environment, so don't make the masters read it
+        final Map<String, HostStatus> hostStatuses = json
+            ? client.hostStatuses(hosts).get()
+            : client.hostStatuses(hosts, TABLE_FIELDS).get();
         for (final Entry<String, HostStatus> entry : hostStatuses.entrySet()) {
           statuses.put(entry.getKey(), Futures.immediateFuture(entry.getValue()));
         }
@@ -27,6 +27,7 @@ import com.google.common.collect.Lists;
 import com.spotify.helios.client.HeliosClient;
 import com.spotify.helios.common.descriptors.Deployment;
 import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.protocol.BulkDeployResponse;
 import com.spotify.helios.common.protocol.JobDeployResponse;
 
 import net.sourceforge.argparse4j.inf.Argument;
@@ -90,32 +91,44 @@ public class JobDeployCommand extends WildcardJobCommand {
       out.printf("Deploying %s on %s%n", job, hosts);
     }
 
-    int code = 0;
-
+    final String token = options.getString(tokenArg.getDest());
     final HostResolver resolver = HostResolver.create(client);
 
     final List<String> resolvedHosts = Lists.newArrayList();
     for (final String candidateHost : hosts) {
-      final String host = resolver.resolveName(candidateHost);
-      resolvedHosts.add(host);
-      if (!json) {
-        out.printf("%s: ", host);
+      resolvedHosts.add(resolver.resolveName(candidateHost));
+    }
+
+    // Deploy to several hosts in one request, unless the master is too old to support it
+    List<JobDeployResponse> results = null;
+    if (resolvedHosts.size() > 1) {
+      final BulkDeployResponse response =
+          client.deploy(jobId, resolvedHosts, job.getGoal(), token).get();
+      if (response != null) {
+        results = response.getResults();
       }
-      final String token = options.getString(tokenArg.getDest());
-      final JobDeployResponse result = client.deploy(job, host, token).get();
-      if (result.getStatus() == JobDeployResponse.Status.OK) {
+    }
+
+    int code = 0;
+
+    if (results != null) {
+      for (final JobDeployResponse result : results) {
         if (!json) {
-          out.printf("done%n");
-        } else {
-          out.printf(result.toJsonString());
+          out.printf("%s: ", result.getHost());
         }
-      } else {
+        if (!printResult(out, json, result)) {
+          code = 1;
+        }
+      }
+    } else {
+      for (final String host : resolvedHosts) {
         if (!json) {
-          out.printf("failed: %s%n", result);
-        } else {
-          out.printf(result.toJsonString());
+          out.printf("%s: ", host);
+        }
+        final JobDeployResponse result = client.deploy(job, host, token).get();
+        if (!printResult(out, json, result)) {
+          code = 1;
         }
-        code = 1;
       }
     }
 
@@ -125,4 +138,23 @@ public class JobDeployCommand extends WildcardJobCommand {
     }
     return code;
   }
+
+  private static boolean printResult(final PrintStream out, final boolean json,
+                                     final JobDeployResponse result) {
+    if (result.getStatus() == JobDeployResponse.Status.OK) {
+      if (!json) {
+        out.printf("done%n");
+      } else {
+        out.printf(result.toJsonString());
+      }
+      return true;
+    } else {
+      if (!json) {
+        out.printf("failed: %s%n", result);
+      } else {
+        out.printf(result.toJsonString());
+      }
+      return false;
+    }
+  }
 }
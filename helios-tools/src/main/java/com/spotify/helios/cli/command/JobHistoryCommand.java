@@ -35,6 +35,7 @@ import net.sourceforge.argparse4j.inf.Argument;
 import net.sourceforge.argparse4j.inf.Namespace;
 import net.sourceforge.argparse4j.inf.Subparser;
 
+import org.joda.time.DateTime;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
 
@@ -51,6 +52,11 @@ import static com.spotify.helios.cli.Output.table;
 public class JobHistoryCommand extends ControlCommand {
 
   private final Argument jobIdArg;
+  private final Argument hostArg;
+  private final Argument stateArg;
+  private final Argument sinceArg;
+  private final Argument untilArg;
+  private final Argument limitArg;
 
   public JobHistoryCommand(Subparser parser) {
     super(parser);
@@ -59,6 +65,22 @@ public class JobHistoryCommand extends ControlCommand {
 
     jobIdArg = parser.addArgument("jobid")
          .help("Job id");
+
+    hostArg = parser.addArgument("--host")
+        .help("Only show events from this host.");
+
+    stateArg = parser.addArgument("--state")
+        .help("Only show events where the task was in this state. E.g. RUNNING");
+
+    sinceArg = parser.addArgument("--since")
+        .help("Only show events at or after this ISO-8601 date/time. E.g. 2014-06-01T12:00:00Z");
+
+    untilArg = parser.addArgument("--until")
+        .help("Only show events at or before this ISO-8601 date/time. E.g. 2014-06-01T12:00:00Z");
+
+    limitArg = parser.addArgument("-n", "--limit")
+        .type(Integer.class)
+        .help("Only show this many of the most recent events.");
   }
 
   @Override
@@ -80,7 +102,38 @@ public class JobHistoryCommand extends ControlCommand {
 
     final JobId jobId = getLast(jobs.keySet());
 
-    TaskStatusEvents result = client.jobHistory(jobId).get();
+    final String since = options.getString(sinceArg.getDest());
+    final String until = options.getString(untilArg.getDest());
+    final String stateString = options.getString(stateArg.getDest());
+    final State stateFilter;
+    try {
+      stateFilter = stateString == null ? null : State.valueOf(stateString.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      out.printf("Unknown state: %s%n", stateString);
+      return 1;
+    }
+    final Long sinceMillis;
+    try {
+      sinceMillis = parseDateTime(since);
+    } catch (IllegalArgumentException e) {
+      out.printf("Invalid --since date/time: %s%n", since);
+      return 1;
+    }
+    final Long untilMillis;
+    try {
+      untilMillis = parseDateTime(until);
+    } catch (IllegalArgumentException e) {
+      out.printf("Invalid --until date/time: %s%n", until);
+      return 1;
+    }
+
+    TaskStatusEvents result = client.jobHistory(
+        jobId,
+        options.getString(hostArg.getDest()),
+        stateFilter,
+        sinceMillis,
+        untilMillis,
+        options.getInt(limitArg.getDest())).get();
 
     if (json) {
       out.println(Json.asPrettyStringUnchecked(result));
@@ -105,4 +158,8 @@ public class JobHistoryCommand extends ControlCommand {
     table.print();
     return 0;
   }
+
+  private static Long parseDateTime(final String value) {
+    return value == null ? null : new DateTime(value).getMillis();
+  }
 }
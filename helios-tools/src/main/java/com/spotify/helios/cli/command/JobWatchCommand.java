@@ -23,6 +23,7 @@ package com.spotify.helios.cli.command;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -30,10 +31,13 @@ import com.google.common.util.concurrent.ListenableFuture;
 
 import com.spotify.helios.cli.Target;
 import com.spotify.helios.client.HeliosClient;
+import com.spotify.helios.client.StatusWatch;
 import com.spotify.helios.common.descriptors.Job;
 import com.spotify.helios.common.descriptors.JobId;
 import com.spotify.helios.common.descriptors.JobStatus;
 import com.spotify.helios.common.descriptors.TaskStatus;
+import com.spotify.helios.common.protocol.StatusChange;
+import com.spotify.helios.common.protocol.StatusWatchRequest;
 
 import net.sourceforge.argparse4j.inf.Argument;
 import net.sourceforge.argparse4j.inf.Namespace;
@@ -55,6 +59,7 @@ import java.util.concurrent.ExecutionException;
 import static com.spotify.helios.cli.Utils.allAsMap;
 import static com.spotify.helios.cli.command.JobStatusFetcher.getJobsStatuses;
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static net.sourceforge.argparse4j.impl.Arguments.storeTrue;
 
 public class JobWatchCommand extends MultiTargetControlCommand {
@@ -125,12 +130,38 @@ public class JobWatchCommand extends MultiTargetControlCommand {
     out.println("Control-C to stop");
     out.println("JOB                  HOST                           STATE    THROTTLED?");
     final DateTimeFormatter formatter = DateTimeFormat.forPattern("YYYY-MM-dd HH:mm:ss");
+
+    // Ask the masters for changes rather than polling full job statuses. Masters that don't
+    // support watching get a null watch and are polled like before.
+    final StatusWatchRequest request = new StatusWatchRequest(
+        jobIds, exact ? ImmutableSet.copyOf(prefixes) : ImmutableSet.<String>of());
+    final List<StatusWatch> watches = Lists.newArrayList();
+    for (final TargetAndClient cc : clients) {
+      watches.add(new StatusWatch(cc.getClient(), request));
+    }
+
     while (true) {
+      final List<ListenableFuture<List<StatusChange>>> changes = Lists.newArrayList();
+      for (final StatusWatch watch : watches) {
+        changes.add(watch == null ? null : watch.next(interval, SECONDS));
+      }
+      boolean polling = true;
+      for (int i = 0; i < watches.size(); i++) {
+        if (changes.get(i) == null) {
+          continue;
+        }
+        if (changes.get(i).get() == null) {
+          watches.set(i, null);
+        } else {
+          polling = false;
+        }
+      }
 
       final Instant now = new Instant();
       out.printf("-------------------- ------------------------------ -------- "
           + "---------- [%s UTC]%n", now.toString(formatter));
-      for (TargetAndClient cc : clients) {
+      for (int i = 0; i < clients.size(); i++) {
+        final TargetAndClient cc = clients.get(i);
         final Optional<Target> target = cc.getTarget();
         if (clients.size() > 1) {
           final String header;
@@ -142,12 +173,23 @@ public class JobWatchCommand extends MultiTargetControlCommand {
           }
           out.printf("---%s%n", header);
         }
-        showReport(out, exact, prefixes, jobIds, formatter, cc.getClient());
+        final StatusWatch watch = watches.get(i);
+        if (watch == null) {
+          showReport(out, exact, prefixes, jobIds, formatter, cc.getClient());
+        } else {
+          final Map<JobId, Map<String, TaskStatus>> taskStatuses = Maps.newTreeMap();
+          for (final JobId jobId : jobIds) {
+            taskStatuses.put(jobId, watch.getTaskStatuses(jobId));
+          }
+          printReport(out, exact, prefixes, jobIds, taskStatuses);
+        }
       }
       if (out.checkError()) {
         break;
       }
-      Thread.sleep(1000 * interval);
+      if (polling) {
+        Thread.sleep(1000 * interval);
+      }
     }
   }
 
@@ -156,12 +198,21 @@ public class JobWatchCommand extends MultiTargetControlCommand {
       throws ExecutionException, InterruptedException {
     final Map<JobId, JobStatus> statuses = getStatuses(client, jobIds);
 
+    final Map<JobId, Map<String, TaskStatus>> taskStatuses = Maps.newTreeMap();
+    for (final Map.Entry<JobId, JobStatus> entry : statuses.entrySet()) {
+      taskStatuses.put(entry.getKey(), entry.getValue().getTaskStatuses());
+    }
+    printReport(out, exact, prefixes, jobIds, taskStatuses);
+  }
+
+  private static void printReport(final PrintStream out, final boolean exact,
+                                  final List<String> prefixes, final Set<JobId> jobIds,
+                                  final Map<JobId, Map<String, TaskStatus>> statuses) {
     for (final JobId jobId : jobIds) {
-      final JobStatus jobStatus = statuses.get(jobId);
-      if (jobStatus == null) {
+      final Map<String, TaskStatus> taskStatuses = statuses.get(jobId);
+      if (taskStatuses == null) {
         continue;
       }
-      final Map<String, TaskStatus> taskStatuses = jobStatus.getTaskStatuses();
       if (exact) {
         for (final String host : prefixes) {
           final TaskStatus ts = taskStatuses.get(host);
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.helios.cli.command;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Futures;
+
+import com.spotify.helios.client.HeliosClient;
+import com.spotify.helios.common.descriptors.Job;
+import com.spotify.helios.common.descriptors.JobId;
+import com.spotify.helios.common.descriptors.TaskStatus;
+import com.spotify.helios.common.descriptors.TaskStatusEvent;
+import com.spotify.helios.common.protocol.TaskStatusEvents;
+
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.Namespace;
+import net.sourceforge.argparse4j.inf.Subparser;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class JobHistoryCommandTest {
+
+  private static final JobId JOB_ID = new JobId("job", "1", "aaa");
+
+  private final Namespace options = mock(Namespace.class);
+  private final HeliosClient client = mock(HeliosClient.class);
+  private final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+  private final PrintStream out = new PrintStream(baos);
+
+  private JobHistoryCommand command;
+
+  @Before
+  public void setUp() {
+    // use a real, dummy Subparser impl to avoid having to mock out every single call
+    final ArgumentParser parser = ArgumentParsers.newArgumentParser("test");
+    final Subparser subparser = parser.addSubparsers().addParser("history");
+    command = new JobHistoryCommand(subparser);
+
+    when(options.getString("jobid")).thenReturn(JOB_ID.toString());
+    final Map<JobId, Job> jobs = ImmutableMap.of(JOB_ID, Job.newBuilder().build());
+    when(client.jobs(JOB_ID.toString())).thenReturn(Futures.immediateFuture(jobs));
+  }
+
+  @Test
+  public void testTimeRange() throws Exception {
+    final DateTime since = new DateTime("2014-06-01T12:00:00Z");
+    final DateTime until = new DateTime("2014-06-02T12:00:00Z");
+    when(options.getString("since")).thenReturn(since.toString());
+    when(options.getString("until")).thenReturn(until.toString());
+    when(options.getInt("limit")).thenReturn(10);
+    when(client.jobHistory(JOB_ID, null, null, since.getMillis(), until.getMillis(), 10))
+        .thenReturn(Futures.immediateFuture(new TaskStatusEvents(
+            ImmutableList.<TaskStatusEvent>of(), TaskStatusEvents.Status.OK)));
+
+    final int ret = command.run(options, client, out, false, null);
+
+    assertEquals(0, ret);
+  }
+
+  @Test
+  public void testInvalidSince() throws Exception {
+    when(options.getString("since")).thenReturn("yesterday");
+
+    final int ret = command.run(options, client, out, false, null);
+
+    assertEquals(1, ret);
+    assertThat(baos.toString(), containsString("Invalid --since date/time: yesterday"));
+    verify(client, never()).jobHistory(eq(JOB_ID), anyString(), any(TaskStatus.State.class),
+                                       any(Long.class), any(Long.class), any(Integer.class));
+  }
+
+  @Test
+  public void testInvalidUntil() throws Exception {
+    when(options.getString("until")).thenReturn("2014-13-01");
+
+    final int ret = command.run(options, client, out, false, null);
+
+    assertEquals(1, ret);
+    assertThat(baos.toString(), containsString("Invalid --until date/time: 2014-13-01"));
+  }
+}